@@ -0,0 +1,126 @@
+package org.esa.s3tbx.c2rcc.benchmark;
+
+import org.esa.s3tbx.c2rcc.meris.C2rccMerisAlgorithm;
+import org.esa.s3tbx.c2rcc.meris.C2rccMerisAlgorithm.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link C2rccMerisAlgorithm} for single pixels and for tiles, using the standard nets and the
+ * default parameters of the operator.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class C2rccMerisAlgorithmBenchmark {
+
+    // top-of-atmosphere radiances of the 15 MERIS bands, as used by the algorithm test
+    private static final double[] RADIANCE = {
+            55.086716, 49.46522, 38.112446, 33.45525, 23.108776, 14.337405, 11.306171, 10.365329,
+            8.529731, 6.4291587, 2.262602, 5.485246, 3.394396, 3.1312065, 2.291696
+    };
+
+    private static final double[] SOLAR_FLUX = C2rccMerisAlgorithm.DEFAULT_SOLAR_FLUX;
+
+    private static final double[] REFLECTANCE = toReflectance(RADIANCE, SOLAR_FLUX, 64.19979);
+
+    @State(Scope.Benchmark)
+    public static class AlgorithmState {
+
+        C2rccMerisAlgorithm algorithm;
+
+        @Setup
+        public void setup() throws IOException {
+            algorithm = new C2rccMerisAlgorithm(standardNets(), true);
+            algorithm.setTemperature(15.0);
+            algorithm.setSalinity(35.0);
+            algorithm.setThresh_absd_log_rtosa(0.003);
+            algorithm.setThresh_rwlogslope(0.1);
+            algorithm.setThresh_cloudTransD(0.955);
+            algorithm.setOutputRhow(true);
+            algorithm.setOutputKd(true);
+            algorithm.setOutputUncertainties(true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PixelState {
+
+        SyntheticPixels pixels;
+        double[] toa;
+        int next;
+
+        @Setup
+        public void setup() {
+            pixels = SyntheticPixels.radiances(SyntheticPixels.TILE_PIXEL_COUNT, REFLECTANCE, SOLAR_FLUX, 42);
+            toa = new double[pixels.bandCount];
+        }
+
+        int nextPixel() {
+            final int p = next;
+            next = (next + 1) % pixels.count;
+            return p;
+        }
+    }
+
+    @Benchmark
+    public Result pixel(AlgorithmState state, PixelState ps) {
+        return process(state.algorithm, ps, ps.nextPixel());
+    }
+
+    @Benchmark
+    public void tile(AlgorithmState state, PixelState ps, Blackhole blackhole) {
+        for (int p = 0; p < ps.pixels.count; p++) {
+            blackhole.consume(process(state.algorithm, ps, p));
+        }
+    }
+
+    private static String[] standardNets() {
+        final String dir = "meris/coastcolour_midtsm_20161012/";
+        final String[] nnFilePaths = new String[10];
+        nnFilePaths[C2rccMerisAlgorithm.IDX_rtosa_aann] = dir + "atmo_midtsm/rtosa_aann/31x7x31_786.7.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_rtosa_rpath] = dir + "atmo_midtsm/rtosa_rpath/31x37_2058.3.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_rtosa_rw] = dir + "atmo_midtsm/rtosa_rw/37x77x57x37_727927.1.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_rtosa_trans] = dir + "atmo_midtsm/rtosa_trans/31x37_39553.7.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_iop_rw] = dir + "water_midtsm/iop_rw/17x97x47_490.7.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_iop_unciop] = dir + "water_midtsm/iop_unciop/17x77x37_11486.7.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_iop_uncsumiop_unckd] = dir + "water_midtsm/iop_uncsumiop_unckd/17x77x37_9113.1.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_rw_iop] = dir + "water_midtsm/rw_iop/97x77x37_22393.1.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_rw_kd] = dir + "water_midtsm/rw_kd/97x77x7_376.3.net";
+        nnFilePaths[C2rccMerisAlgorithm.IDX_rw_rwnorm] = dir + "water_midtsm/rw_rwnorm/37x57x17_76.8.net";
+        return nnFilePaths;
+    }
+
+    // the radiances of the test pixel as reflectances, so that they can be varied with the sun zenith
+    private static double[] toReflectance(double[] radiance, double[] solarFlux, double sunZenith) {
+        final double cosSun = Math.cos(Math.toRadians(sunZenith));
+        final double[] reflectance = new double[radiance.length];
+        for (int i = 0; i < radiance.length; i++) {
+            reflectance[i] = Math.PI * radiance[i] / (solarFlux[i] * cosSun);
+        }
+        return reflectance;
+    }
+
+    private static Result process(C2rccMerisAlgorithm algorithm, PixelState ps, int p) {
+        final SyntheticPixels pixels = ps.pixels;
+        pixels.getToa(p, ps.toa);
+        return algorithm.processPixel(p % 64, p / 64, pixels.lat[p], pixels.lon[p], ps.toa, SOLAR_FLUX,
+                                      pixels.sunZenith[p], pixels.sunAzimuth[p],
+                                      pixels.viewZenith[p], pixels.viewAzimuth[p],
+                                      pixels.altitude[p], true, pixels.pressure[p], pixels.ozone[p]);
+    }
+}
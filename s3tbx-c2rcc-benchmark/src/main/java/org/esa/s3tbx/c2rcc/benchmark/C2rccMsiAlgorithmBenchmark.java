@@ -0,0 +1,99 @@
+package org.esa.s3tbx.c2rcc.benchmark;
+
+import org.esa.s3tbx.c2rcc.msi.C2rccMsiAlgorithm;
+import org.esa.s3tbx.c2rcc.msi.C2rccMsiAlgorithm.Result;
+import org.esa.s3tbx.c2rcc.msi.NnPaths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link C2rccMsiAlgorithm} for single pixels and for tiles, using the standard nets and the
+ * default parameters of the operator.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class C2rccMsiAlgorithmBenchmark {
+
+    // top-of-atmosphere reflectances of the 13 MSI bands, as used by the algorithm test
+    private static final double[] REFLECTANCE = {
+            0.1251, 0.0985, 0.0827, 0.0647, 0.0705, 0.0569, 0.0593, 0.0498, 0.0547, 0.0106, 0.001, 0.0452, 0.0318
+    };
+
+    // the operator passes reflectances, the solar flux is not used
+    private static final double[] SOLAR_FLUX = new double[REFLECTANCE.length];
+
+    @State(Scope.Benchmark)
+    public static class AlgorithmState {
+
+        C2rccMsiAlgorithm algorithm;
+
+        @Setup
+        public void setup() throws IOException {
+            algorithm = new C2rccMsiAlgorithm(NnPaths.getStandard(), true);
+            algorithm.setTemperature(15.0);
+            algorithm.setSalinity(35.0);
+            algorithm.setThresh_absd_log_rtosa(0.05);
+            algorithm.setThresh_rwlogslope(0.1);
+            algorithm.setThresh_cloudTransD(0.955);
+            algorithm.setOutputRhow(true);
+            algorithm.setOutputKd(true);
+            algorithm.setOutputUncertainties(true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PixelState {
+
+        SyntheticPixels pixels;
+        double[] toa;
+        int next;
+
+        @Setup
+        public void setup() {
+            pixels = SyntheticPixels.reflectances(SyntheticPixels.TILE_PIXEL_COUNT, REFLECTANCE, 42);
+            toa = new double[pixels.bandCount];
+        }
+
+        int nextPixel() {
+            final int p = next;
+            next = (next + 1) % pixels.count;
+            return p;
+        }
+    }
+
+    @Benchmark
+    public Result pixel(AlgorithmState state, PixelState ps) {
+        return process(state.algorithm, ps, ps.nextPixel());
+    }
+
+    @Benchmark
+    public void tile(AlgorithmState state, PixelState ps, Blackhole blackhole) {
+        for (int p = 0; p < ps.pixels.count; p++) {
+            blackhole.consume(process(state.algorithm, ps, p));
+        }
+    }
+
+    private static Result process(C2rccMsiAlgorithm algorithm, PixelState ps, int p) {
+        final SyntheticPixels pixels = ps.pixels;
+        pixels.getToa(p, ps.toa);
+        return algorithm.processPixel(p % 64, p / 64, pixels.lat[p], pixels.lon[p], ps.toa, SOLAR_FLUX,
+                                      pixels.sunZenith[p], pixels.sunAzimuth[p],
+                                      pixels.viewZenith[p], pixels.viewAzimuth[p],
+                                      pixels.altitude[p], true, pixels.pressure[p], pixels.ozone[p]);
+    }
+}
@@ -0,0 +1,123 @@
+package org.esa.s3tbx.c2rcc.benchmark;
+
+import org.esa.s3tbx.c2rcc.olci.C2rccOlciAlgorithm;
+import org.esa.s3tbx.c2rcc.olci.C2rccOlciAlgorithm.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.esa.s3tbx.c2rcc.olci.C2rccOlciAlgorithm.*;
+
+/**
+ * Throughput of {@link C2rccOlciAlgorithm} for single pixels and for tiles processed pixel by pixel.
+ * The algorithm is configured like the operator with its default parameters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class C2rccOlciAlgorithmBenchmark {
+
+    // a typical top-of-atmosphere reflectance spectrum over water for the 21 OLCI bands
+    private static final double[] REFLECTANCE = {
+            0.171, 0.160, 0.142, 0.118, 0.101, 0.089, 0.072, 0.061, 0.058, 0.051, 0.047,
+            0.045, 0.041, 0.032, 0.034, 0.035, 0.031, 0.024, 0.015, 0.022, 0.013
+    };
+
+    // approximate in-band solar flux of the 21 OLCI bands
+    private static final double[] SOLAR_FLUX = {
+            1714.9, 1872.4, 1926.6, 1930.2, 1804.2, 1651.5, 1531.5, 1475.6, 1408.4, 1265.4, 1255.6,
+            1178.7, 1253.8, 1246.5, 1244.2, 1239.0, 955.4, 914.2, 883.0, 813.6, 631.7
+    };
+
+    @State(Scope.Benchmark)
+    public static class AlgorithmState {
+
+        C2rccOlciAlgorithm algorithm;
+
+        @Setup
+        public void setup() throws IOException {
+            final String[] nnFilePaths = new String[10];
+            nnFilePaths[IDX_iop_rw] = "olci/iop_rw/77x77x77_1798.8.net";
+            nnFilePaths[IDX_iop_unciop] = "olci/iop_unciop/77x77x77_309240.3.net";
+            nnFilePaths[IDX_iop_uncsumiop_unckd] = "olci/iop_uncsumiop_unckd/77x77x77_242297.3.net";
+            nnFilePaths[IDX_rtosa_aann] = "olci/rtosa_aann/31x7x31_1159.4.net";
+            nnFilePaths[IDX_rtosa_rpath] = "olci/rtosa_rpath/31x37x37_17175.9.net";
+            nnFilePaths[IDX_rtosa_rw] = "olci/rtosa_rw/33x23x13_2131677.4.net";
+            nnFilePaths[IDX_rtosa_trans] = "olci/rtosa_trans/57x57x57_369970.5.net";
+            nnFilePaths[IDX_rw_iop] = "olci/rw_iop/37x37x37_596495.4.net";
+            nnFilePaths[IDX_rw_kd] = "olci/rw_kd/97x77x77_4669.6.net";
+            nnFilePaths[IDX_rw_rwnorm] = "olci/rw_rwnorm/77x77x77_34029.1.net";
+
+            algorithm = new C2rccOlciAlgorithm(nnFilePaths, true);
+            algorithm.setTemperature(15.0);
+            algorithm.setSalinity(35.0);
+            algorithm.setThresh_absd_log_rtosa(0.01);
+            algorithm.setThresh_rwlogslope(0.15);
+            algorithm.setThresh_cloudTransD(0.955);
+            algorithm.setOutputRhow(true);
+            algorithm.setOutputKd(true);
+            algorithm.setOutputUncertainties(true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PixelState {
+
+        SyntheticPixels pixels;
+        double[] toa;
+        Result result;
+        int next;
+
+        @Setup
+        public void setup(AlgorithmState state) {
+            pixels = SyntheticPixels.radiances(SyntheticPixels.TILE_PIXEL_COUNT, REFLECTANCE, SOLAR_FLUX, 42);
+            toa = new double[pixels.bandCount];
+            result = state.algorithm.createResult();
+        }
+
+        int nextPixel() {
+            final int p = next;
+            next = (next + 1) % pixels.count;
+            return p;
+        }
+    }
+
+    @Benchmark
+    public Result pixel(AlgorithmState state, PixelState ps) {
+        return process(state.algorithm, ps, ps.nextPixel(), ps.result);
+    }
+
+    @Benchmark
+    public Result pixelAllocating(AlgorithmState state, PixelState ps) {
+        return process(state.algorithm, ps, ps.nextPixel(), state.algorithm.createResult());
+    }
+
+    @Benchmark
+    public void tile(AlgorithmState state, PixelState ps, Blackhole blackhole) {
+        for (int p = 0; p < ps.pixels.count; p++) {
+            blackhole.consume(process(state.algorithm, ps, p, ps.result));
+        }
+    }
+
+    private static Result process(C2rccOlciAlgorithm algorithm, PixelState ps, int p, Result result) {
+        final SyntheticPixels pixels = ps.pixels;
+        pixels.getToa(p, ps.toa);
+        return algorithm.processPixel(p % 64, p / 64, pixels.lat[p], pixels.lon[p], ps.toa, SOLAR_FLUX,
+                                      pixels.sunZenith[p], pixels.sunAzimuth[p],
+                                      pixels.viewZenith[p], pixels.viewAzimuth[p],
+                                      pixels.altitude[p], true, pixels.pressure[p], pixels.ozone[p], result);
+    }
+}
@@ -0,0 +1,128 @@
+package org.esa.s3tbx.c2rcc.benchmark;
+
+import org.esa.s3tbx.c2rcc.util.NNffbpBatch;
+import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the evaluation of a single net by {@link NNffbpAlphaTabFast}, one input vector at a time, with
+ * {@link NNffbpBatch}, for one vector and for all vectors of a tile. The input vectors are drawn uniformly
+ * from the training range of the net.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NeuralNetBenchmark {
+
+    @Param({
+            "olci/rtosa_aann/31x7x31_1159.4.net",
+            "olci/rtosa_rw/33x23x13_2131677.4.net",
+            "olci/rtosa_rpath/31x37x37_17175.9.net",
+            "olci/rtosa_trans/57x57x57_369970.5.net",
+            "olci/rw_iop/37x37x37_596495.4.net",
+            "olci/iop_rw/77x77x77_1798.8.net",
+            "olci/rw_kd/97x77x77_4669.6.net",
+            "olci/iop_unciop/77x77x77_309240.3.net",
+            "olci/iop_uncsumiop_unckd/77x77x77_242297.3.net",
+            "olci/rw_rwnorm/77x77x77_34029.1.net"
+    })
+    public String net;
+
+    private NNffbpAlphaTabFast singleNet;
+    private NNffbpBatch batchNet;
+    private NNffbpBatch.Workspace workspace;
+    private double[][] inputs;
+    private double[] batchInput;
+    private double[] batchOutput;
+    private double[] singleOutput;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        final String netCode = readResource("/auxdata/nets/" + net);
+        singleNet = new NNffbpAlphaTabFast(netCode);
+        batchNet = new NNffbpBatch(netCode);
+        workspace = new NNffbpBatch.Workspace();
+
+        final int numIn = batchNet.getInputCount();
+        final double[] inmin = batchNet.getInmin();
+        final double[] inmax = batchNet.getInmax();
+        final Random random = new Random(42);
+        inputs = new double[SyntheticPixels.TILE_PIXEL_COUNT][numIn];
+        batchInput = new double[SyntheticPixels.TILE_PIXEL_COUNT * numIn];
+        for (int p = 0; p < inputs.length; p++) {
+            for (int i = 0; i < numIn; i++) {
+                inputs[p][i] = inmin[i] + random.nextDouble() * (inmax[i] - inmin[i]);
+                batchInput[p * numIn + i] = inputs[p][i];
+            }
+        }
+        batchOutput = new double[SyntheticPixels.TILE_PIXEL_COUNT * batchNet.getOutputCount()];
+        singleOutput = new double[batchNet.getOutputCount()];
+    }
+
+    @Benchmark
+    public double[] pixelAlphaTab() {
+        return singleNet.calc(nextInput());
+    }
+
+    @Benchmark
+    public double[] pixelBatch() {
+        batchNet.calc(nextInput(), 1, singleOutput, workspace);
+        return singleOutput;
+    }
+
+    @Benchmark
+    public void tileAlphaTab(Blackhole blackhole) {
+        for (double[] input : inputs) {
+            blackhole.consume(singleNet.calc(input));
+        }
+    }
+
+    @Benchmark
+    public double[] tileBatch() {
+        batchNet.calc(batchInput, inputs.length, batchOutput, workspace);
+        return batchOutput;
+    }
+
+    private double[] nextInput() {
+        final double[] input = inputs[next];
+        next = (next + 1) % inputs.length;
+        return input;
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream stream = NNffbpBatch.class.getResourceAsStream(name)) {
+            if (stream == null) {
+                throw new IOException("resource not found: " + name);
+            }
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final byte[] bytes = new byte[8192];
+            int n;
+            while ((n = stream.read(bytes)) != -1) {
+                buffer.write(bytes, 0, n);
+            }
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.esa.s3tbx.c2rcc.benchmark;
+
+import java.util.Random;
+
+/**
+ * Synthetic input pixels for the benchmarks. The top-of-atmosphere values are derived from a typical
+ * water spectrum, which is varied by +/-20% per pixel, the geometries are varied within common ranges.
+ * The same seed always creates the same pixels.
+ */
+public final class SyntheticPixels {
+
+    /**
+     * The number of pixels of a tile in the {@code tile*} benchmarks.
+     */
+    public static final int TILE_PIXEL_COUNT = 64 * 64;
+
+    public final int count;
+    public final int bandCount;
+    // band values of pixel p are at [p * bandCount, (p + 1) * bandCount)
+    public final double[] toa;
+    public final double[] sunZenith;
+    public final double[] sunAzimuth;
+    public final double[] viewZenith;
+    public final double[] viewAzimuth;
+    public final double[] lat;
+    public final double[] lon;
+    public final double[] altitude;
+    public final double[] pressure;
+    public final double[] ozone;
+
+    private SyntheticPixels(int count, int bandCount) {
+        this.count = count;
+        this.bandCount = bandCount;
+        toa = new double[count * bandCount];
+        sunZenith = new double[count];
+        sunAzimuth = new double[count];
+        viewZenith = new double[count];
+        viewAzimuth = new double[count];
+        lat = new double[count];
+        lon = new double[count];
+        altitude = new double[count];
+        pressure = new double[count];
+        ozone = new double[count];
+    }
+
+    /**
+     * Creates pixels with top-of-atmosphere reflectances.
+     */
+    public static SyntheticPixels reflectances(int count, double[] reflectance, long seed) {
+        return create(count, reflectance, null, seed);
+    }
+
+    /**
+     * Creates pixels with top-of-atmosphere radiances, computed from the reflectances and the solar flux.
+     */
+    public static SyntheticPixels radiances(int count, double[] reflectance, double[] solarFlux, long seed) {
+        if (solarFlux.length != reflectance.length) {
+            throw new IllegalArgumentException("reflectance and solarFlux must have the same length");
+        }
+        return create(count, reflectance, solarFlux, seed);
+    }
+
+    /**
+     * Copies the band values of one pixel into the given array.
+     */
+    public void getToa(int pixel, double[] target) {
+        System.arraycopy(toa, pixel * bandCount, target, 0, bandCount);
+    }
+
+    private static SyntheticPixels create(int count, double[] reflectance, double[] solarFlux, long seed) {
+        final Random random = new Random(seed);
+        final SyntheticPixels pixels = new SyntheticPixels(count, reflectance.length);
+        for (int p = 0; p < count; p++) {
+            pixels.sunZenith[p] = range(random, 20, 60);
+            pixels.sunAzimuth[p] = range(random, 100, 160);
+            pixels.viewZenith[p] = range(random, 0, 40);
+            pixels.viewAzimuth[p] = range(random, 0, 360);
+            pixels.lat[p] = range(random, 40, 60);
+            pixels.lon[p] = range(random, 0, 20);
+            pixels.altitude[p] = 0.0;
+            pixels.pressure[p] = range(random, 980, 1030);
+            pixels.ozone[p] = range(random, 250, 400);
+
+            final double factor = range(random, 0.8, 1.2);
+            final double cosSun = Math.cos(Math.toRadians(pixels.sunZenith[p]));
+            for (int i = 0; i < reflectance.length; i++) {
+                final double refl = reflectance[i] * factor;
+                pixels.toa[p * reflectance.length + i] = solarFlux != null ? refl * solarFlux[i] * cosSun / Math.PI : refl;
+            }
+        }
+        return pixels;
+    }
+
+    private static double range(Random random, double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+}
@@ -0,0 +1,309 @@
+package org.esa.s3tbx.c2rcc;
+
+import com.bc.ceres.core.ProgressMonitor;
+import org.esa.snap.core.dataio.ProductIO;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.gpf.GPF;
+import org.esa.snap.core.util.StopWatch;
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.core.util.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Processes many L1 products with one of the C2RCC operators. Other than {@link Runner} several products
+ * are in flight at the same time: {@code productsInFlight} writer threads compute and write products while
+ * the next product is already opened, so that the tile computation of one product overlaps with the
+ * opening and the writing of the others.
+ * <p>
+ * In addition the products in flight are limited by a memory budget. A product is only handed to a writer
+ * if the raw size of its bands fits into the part of the budget which is not used by the other products in
+ * flight. A product which is larger than the whole budget is processed alone.
+ * <p>
+ * Usage: {@code BatchRunner [-p <productsInFlight>] [-m <memoryBudgetMB>] <sensor> <targetDir> <source>...},
+ * where a source can be a file or a glob pattern in its file name, e.g. {@code /data/S3A_OL_1_EFR*.SEN3}.
+ */
+public class BatchRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(BatchRunner.class.getName());
+
+    static final int DEFAULT_PRODUCTS_IN_FLIGHT = 2;
+    static final long DEFAULT_MEMORY_BUDGET_MB = 2048;
+
+    private final String operatorAlias;
+    private final Map<String, Object> parameters;
+    private final File targetDir;
+    private final int productsInFlight;
+    private final int memoryBudgetMB;
+
+    public BatchRunner(String sensor, Map<String, Object> parameters, File targetDir, int productsInFlight, long memoryBudgetMB) {
+        if (productsInFlight < 1) {
+            throw new IllegalArgumentException("productsInFlight must be at least 1");
+        }
+        if (memoryBudgetMB < 1 || memoryBudgetMB > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("memoryBudgetMB must be between 1 and " + Integer.MAX_VALUE);
+        }
+        this.operatorAlias = "c2rcc." + sensor;
+        this.parameters = parameters;
+        this.targetDir = targetDir;
+        this.productsInFlight = productsInFlight;
+        this.memoryBudgetMB = (int) memoryBudgetMB;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int productsInFlight = DEFAULT_PRODUCTS_IN_FLIGHT;
+        long memoryBudgetMB = DEFAULT_MEMORY_BUDGET_MB;
+        int argIndex = 0;
+        while (argIndex < args.length && args[argIndex].startsWith("-")) {
+            if (argIndex + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value of option " + args[argIndex]);
+            }
+            switch (args[argIndex]) {
+                case "-p":
+                    productsInFlight = Integer.parseInt(args[argIndex + 1]);
+                    break;
+                case "-m":
+                    memoryBudgetMB = Long.parseLong(args[argIndex + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[argIndex]);
+            }
+            argIndex += 2;
+        }
+        if (args.length - argIndex < 3) {
+            throw new IllegalArgumentException("Usage: BatchRunner [-p <productsInFlight>] [-m <memoryBudgetMB>] <sensor> <targetDir> <source>...");
+        }
+        final String sensor = args[argIndex];
+        final File targetDir = new File(args[argIndex + 1]);
+        final List<String> sourcePatterns = new ArrayList<>();
+        for (int i = argIndex + 2; i < args.length; i++) {
+            sourcePatterns.add(args[i]);
+        }
+
+        GPF.getDefaultInstance().getOperatorSpiRegistry().loadOperatorSpis();
+        SystemUtils.initJAI((Class<?>) null);
+
+        final HashMap<String, Object> parameters = new HashMap<>();
+        parameters.put("useDefaultSolarFlux", true);
+        final BatchRunner runner = new BatchRunner(sensor, parameters, targetDir, productsInFlight, memoryBudgetMB);
+        final List<File> failed = runner.run(expandSources(sourcePatterns));
+        if (!failed.isEmpty()) {
+            LOGGER.severe(failed.size() + " product(s) failed: " + failed);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Processes all sources. A failing product is logged and does not stop the others.
+     *
+     * @return the sources which could not be processed
+     */
+    public List<File> run(List<File> sources) throws InterruptedException, IOException {
+        if (!targetDir.isDirectory() && !targetDir.mkdirs()) {
+            throw new IOException("Failed to create target directory " + targetDir);
+        }
+        final StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        final List<File> failed = Collections.synchronizedList(new ArrayList<>());
+        final Semaphore memoryBudget = new Semaphore(memoryBudgetMB, true);
+        // one opened product waits for the next free writer
+        final BlockingQueue<Job> openedJobs = new ArrayBlockingQueue<>(1);
+        final ExecutorService writers = Executors.newFixedThreadPool(productsInFlight);
+        try {
+            final List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < productsInFlight; i++) {
+                writes.add(writers.submit(() -> writeJobs(openedJobs, memoryBudget, failed)));
+            }
+            for (File source : sources) {
+                final Job job = openJob(source, memoryBudget);
+                if (job != null) {
+                    handOver(job, openedJobs, memoryBudget, writes);
+                } else {
+                    failed.add(source);
+                }
+            }
+            for (int i = 0; i < productsInFlight; i++) {
+                handOver(Job.END, openedJobs, memoryBudget, writes);
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            writers.shutdownNow();
+        }
+
+        stopWatch.stop();
+        LOGGER.info(String.format("Processed %d of %d products in %s", sources.size() - failed.size(), sources.size(),
+                                  stopWatch.getTimeDiffString()));
+        return failed;
+    }
+
+    /**
+     * Expands the glob patterns in the file names of the given sources. Sources without a pattern are
+     * taken as they are, the matches of a pattern are sorted by name.
+     */
+    static List<File> expandSources(List<String> sourcePatterns) throws IOException {
+        final List<File> sources = new ArrayList<>();
+        for (String sourcePattern : sourcePatterns) {
+            final Path path = Paths.get(sourcePattern);
+            final String fileName = path.getFileName().toString();
+            if (!fileName.contains("*") && !fileName.contains("?") && !fileName.contains("[")) {
+                sources.add(path.toFile());
+                continue;
+            }
+            final Path dir = path.getParent() != null ? path.getParent() : Paths.get(".");
+            final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + fileName);
+            final List<File> matches = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path candidate : stream) {
+                    if (matcher.matches(candidate.getFileName())) {
+                        matches.add(candidate.toFile());
+                    }
+                }
+            }
+            Collections.sort(matches);
+            sources.addAll(matches);
+        }
+        return sources;
+    }
+
+    Product readProduct(File source) throws IOException {
+        return ProductIO.readProduct(source);
+    }
+
+    Product createTargetProduct(Product sourceProduct) {
+        return GPF.createProduct(operatorAlias, parameters, sourceProduct);
+    }
+
+    void writeProduct(Product targetProduct, File targetFile) {
+        GPF.writeProduct(targetProduct, targetFile, ProductIO.DEFAULT_FORMAT_NAME, false, ProgressMonitor.NULL);
+    }
+
+    private Job openJob(File source, Semaphore memoryBudget) throws InterruptedException {
+        final Product sourceProduct;
+        try {
+            sourceProduct = readProduct(source);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Failed to read " + source, t);
+            return null;
+        }
+        if (sourceProduct == null) {
+            LOGGER.severe("No reader found for " + source);
+            return null;
+        }
+
+        final int permits = (int) Math.min(memoryBudgetMB, Math.max(1, sourceProduct.getRawStorageSize() / (1024 * 1024)));
+        memoryBudget.acquire(permits);
+        try {
+            final Product targetProduct = createTargetProduct(sourceProduct);
+            // the product name, because sources can also be given as e.g. .../xfdumanifest.xml
+            final File targetFile = new File(targetDir, FileUtils.createValidFilename(sourceProduct.getName()) + "_C2RCC.dim");
+            LOGGER.info("Opened " + source.getName() + " (" + permits + " MB)");
+            return new Job(source, sourceProduct, targetProduct, targetFile, permits);
+        } catch (Throwable t) {
+            LOGGER.log(Level.SEVERE, "Failed to initialise " + operatorAlias + " for " + source, t);
+            memoryBudget.release(permits);
+            sourceProduct.dispose();
+            return null;
+        }
+    }
+
+    /**
+     * Puts the job into the queue of the writers. If a writer has failed, the queue may never be drained
+     * again, so instead of waiting forever the failure of the writer is rethrown.
+     */
+    private static void handOver(Job job, BlockingQueue<Job> openedJobs, Semaphore memoryBudget,
+                                 List<Future<?>> writes) throws InterruptedException, ExecutionException {
+        while (!openedJobs.offer(job, 1, TimeUnit.SECONDS)) {
+            for (Future<?> write : writes) {
+                if (write.isDone()) {
+                    try {
+                        // a writer which has taken Job.END returns normally
+                        write.get();
+                    } catch (ExecutionException e) {
+                        if (job != Job.END) {
+                            job.targetProduct.dispose();
+                            job.sourceProduct.dispose();
+                            memoryBudget.release(job.permits);
+                        }
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    private Void writeJobs(BlockingQueue<Job> openedJobs, Semaphore memoryBudget, List<File> failed) throws InterruptedException {
+        while (true) {
+            final Job job = openedJobs.take();
+            if (job == Job.END) {
+                return null;
+            }
+            final StopWatch stopWatch = new StopWatch();
+            stopWatch.start();
+            // also errors are caught, a writer which ends early would leave the queue undrained
+            try {
+                writeProduct(job.targetProduct, job.targetFile);
+                stopWatch.stop();
+                LOGGER.info("Wrote " + job.targetFile.getName() + " in " + stopWatch.getTimeDiffString());
+            } catch (Throwable t) {
+                LOGGER.log(Level.SEVERE, "Failed to process " + job.source, t);
+                failed.add(job.source);
+            } finally {
+                try {
+                    job.targetProduct.dispose();
+                    job.sourceProduct.dispose();
+                } catch (Throwable t) {
+                    LOGGER.log(Level.WARNING, "Failed to dispose the products of " + job.source, t);
+                } finally {
+                    memoryBudget.release(job.permits);
+                }
+            }
+        }
+    }
+
+    private static class Job {
+
+        // marks the end of the queue for a writer thread
+        static final Job END = new Job(null, null, null, null, 0);
+
+        final File source;
+        final Product sourceProduct;
+        final Product targetProduct;
+        final File targetFile;
+        final int permits;
+
+        Job(File source, Product sourceProduct, Product targetProduct, File targetFile, int permits) {
+            this.source = source;
+            this.sourceProduct = sourceProduct;
+            this.targetProduct = targetProduct;
+            this.targetFile = targetFile;
+            this.permits = permits;
+        }
+    }
+}
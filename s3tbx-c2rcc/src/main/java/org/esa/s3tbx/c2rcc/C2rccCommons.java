@@ -1,14 +1,19 @@
 package org.esa.s3tbx.c2rcc;
 
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.ConstantTimeCoding;
+import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.datamodel.RasterDataNode;
 import org.esa.snap.core.datamodel.TimeCoding;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.pointop.Sample;
+import org.esa.snap.core.image.ImageManager;
+
+import java.awt.Dimension;
 
 public class C2rccCommons {
 
@@ -95,4 +100,34 @@ public class C2rccCommons {
             throw new OperatorException("Unable to fetch ozone value from auxdata.", e);
         }
     }
+
+    public static double fetchSurfacePressure(AtmosphericAuxdataTile auxdataTile, int x, int y) {
+        try {
+            return auxdataTile.getSurfacePressure(x, y);
+        } catch (Exception e) {
+            throw new OperatorException("Unable to fetch surface pressure value from auxdata.", e);
+        }
+    }
+
+    public static double fetchOzone(AtmosphericAuxdataTile auxdataTile, int x, int y) {
+        try {
+            return auxdataTile.getOzone(x, y);
+        } catch (Exception e) {
+            throw new OperatorException("Unable to fetch ozone value from auxdata.", e);
+        }
+    }
+
+    /**
+     * Creates an {@link AtmosphericAuxdataTile} which fetches the auxdata tile by tile, using the tiling of the target product.
+     * It must only be used by a single thread.
+     */
+    public static AtmosphericAuxdataTile createAtmosphericAuxdataTile(AtmosphericAuxdata atmosphericAuxdata, GeoCoding geoCoding,
+                                                                      TimeCoding timeCoding, Product targetProduct) {
+        Dimension tileSize = targetProduct.getPreferredTileSize();
+        if (tileSize == null) {
+            tileSize = ImageManager.getPreferredTileSize(targetProduct);
+        }
+        return new AtmosphericAuxdataTile(atmosphericAuxdata, geoCoding, timeCoding,
+                                          targetProduct.getSceneRasterWidth(), targetProduct.getSceneRasterHeight(), tileSize);
+    }
 }
@@ -0,0 +1,173 @@
+package org.esa.s3tbx.c2rcc.ancillary;
+
+import org.esa.snap.core.util.SystemUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * An index of the ancillary files available in a local repository with the layout {@code <root>/<year>/<doy>/<file>}.
+ * The repository is scanned only once, afterwards the index is persisted in the file {@link #INDEX_FILE_NAME} in the
+ * root directory and read from there.
+ * <p>
+ * Files which are not indexed, e.g. because they have been copied into the repository after the index has been
+ * written, are still found by {@link #find(File)}, which adds them to the index.
+ * Instances are not thread safe.
+ */
+class AncIndex {
+
+    static final String INDEX_FILE_NAME = "ancillary-index.txt";
+
+    private static final Pattern YEAR_PATTERN = Pattern.compile("[12][09]\\d{2}");
+    private static final Pattern DOY_PATTERN = Pattern.compile("[0-3]\\d{2}");
+
+    private final File repositoryRoot;
+    // maps the filename to the path relative to the repository root
+    private final Map<String, String> pathMap;
+    // files which have been looked up and do not exist
+    private final Set<String> missingFiles;
+    private boolean modified;
+
+    private AncIndex(File repositoryRoot, Map<String, String> pathMap) {
+        this.repositoryRoot = repositoryRoot;
+        this.pathMap = pathMap;
+        this.missingFiles = new HashSet<>();
+    }
+
+    /**
+     * Reads the index of the given repository. If there is no index file yet, the repository is scanned and the
+     * index file is written.
+     */
+    static AncIndex load(File repositoryRoot) {
+        final File indexFile = new File(repositoryRoot, INDEX_FILE_NAME);
+        if (indexFile.isFile()) {
+            try {
+                return new AncIndex(repositoryRoot, readIndexFile(indexFile));
+            } catch (IOException e) {
+                SystemUtils.LOG.warning("Unable to read ancillary index '" + indexFile.getAbsolutePath() + "', " +
+                                        "scanning the repository. " + e.getMessage());
+            }
+        }
+        final AncIndex index = new AncIndex(repositoryRoot, scan(repositoryRoot));
+        index.modified = true;
+        index.save();
+        return index;
+    }
+
+    /**
+     * Returns the given file if it exists in the repository, otherwise {@code null}. Files which are known to be
+     * missing are not looked up again.
+     */
+    File find(File productFile) {
+        final String filename = productFile.getName();
+        final String relativePath = pathMap.get(filename);
+        if (relativePath != null) {
+            final File indexedFile = new File(repositoryRoot, relativePath);
+            if (indexedFile.isFile()) {
+                return indexedFile;
+            }
+            // the file has been removed from the repository
+            pathMap.remove(filename);
+            modified = true;
+        }
+        if (missingFiles.contains(filename)) {
+            return null;
+        }
+        if (productFile.isFile()) {
+            add(productFile);
+            return productFile;
+        }
+        missingFiles.add(filename);
+        return null;
+    }
+
+    /**
+     * Adds a file which has been put into the repository, e.g. by the {@link AncDownloader}.
+     */
+    void add(File productFile) {
+        final String relativePath = repositoryRoot.toPath().relativize(productFile.toPath()).toString();
+        pathMap.put(productFile.getName(), relativePath.replace(File.separatorChar, '/'));
+        missingFiles.remove(productFile.getName());
+        modified = true;
+    }
+
+    int size() {
+        return pathMap.size();
+    }
+
+    /**
+     * Writes the index file if the index has been modified. Failures are only logged, the index file is
+     * an optimisation and the repository might be read-only.
+     */
+    void save() {
+        if (!modified || !repositoryRoot.isDirectory()) {
+            return;
+        }
+        final File indexFile = new File(repositoryRoot, INDEX_FILE_NAME);
+        final File tempFile = new File(repositoryRoot, INDEX_FILE_NAME + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                for (String relativePath : new TreeSet<>(pathMap.values())) {
+                    writer.write(relativePath);
+                    writer.newLine();
+                }
+            }
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            modified = false;
+        } catch (IOException e) {
+            SystemUtils.LOG.warning("Unable to write ancillary index '" + indexFile.getAbsolutePath() + "'. " + e.getMessage());
+            if (!tempFile.delete()) {
+                tempFile.deleteOnExit();
+            }
+        }
+    }
+
+    private static Map<String, String> readIndexFile(File indexFile) throws IOException {
+        final Map<String, String> pathMap = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String relativePath = line.trim();
+                if (!relativePath.isEmpty()) {
+                    pathMap.put(relativePath.substring(relativePath.lastIndexOf('/') + 1), relativePath);
+                }
+            }
+        }
+        return pathMap;
+    }
+
+    private static Map<String, String> scan(File repositoryRoot) {
+        final Map<String, String> pathMap = new HashMap<>();
+        final File[] yearDirs = repositoryRoot.listFiles(f -> f.isDirectory() && YEAR_PATTERN.matcher(f.getName()).matches());
+        if (yearDirs == null) {
+            return pathMap;
+        }
+        for (File yearDir : yearDirs) {
+            final File[] doyDirs = yearDir.listFiles(f -> f.isDirectory() && DOY_PATTERN.matcher(f.getName()).matches());
+            if (doyDirs == null) {
+                continue;
+            }
+            for (File doyDir : doyDirs) {
+                final File[] files = doyDir.listFiles(File::isFile);
+                if (files == null) {
+                    continue;
+                }
+                for (File file : files) {
+                    pathMap.put(file.getName(), yearDir.getName() + "/" + doyDir.getName() + "/" + file.getName());
+                }
+            }
+        }
+        return pathMap;
+    }
+}
@@ -5,26 +5,52 @@ import org.esa.snap.core.datamodel.Product;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Provides the ancillary products of a local repository. The available files are looked up in an {@link AncIndex},
+ * missing files are fetched by the optional {@link AncDownloader}. The opened products are kept in a cache of
+ * limited size; when it is full, the least recently used product is disposed.
+ * <p>
+ * The methods are synchronized, a repository can be shared by several {@link DataInterpolatorDynamic}s.
+ */
 class AncRepository {
 
+    static final int DEFAULT_MAX_CACHED_PRODUCTS = 8;
+
     private final File repsitoryRoot;
     private final AncDownloader ancDownloader;
-    private final Map<String, Product> productMap;
+    private final int maxCachedProducts;
+    private final LinkedHashMap<String, Product> productMap;
+    private AncIndex index;
 
     public AncRepository(File repsitoryRoot) {
         this(repsitoryRoot, null);
     }
 
     public AncRepository(File repsitoryRoot, AncDownloader ancDownloader) {
+        this(repsitoryRoot, ancDownloader, DEFAULT_MAX_CACHED_PRODUCTS);
+    }
+
+    /**
+     * @param repsitoryRoot     the root directory of the repository
+     * @param ancDownloader     used to download files which are missing in the repository, can be {@code null}
+     * @param maxCachedProducts the maximum number of products kept open, at least the start and end product of an
+     *                          interpolation must fit
+     */
+    public AncRepository(File repsitoryRoot, AncDownloader ancDownloader, int maxCachedProducts) {
+        if (maxCachedProducts < 2) {
+            throw new IllegalArgumentException("maxCachedProducts must be at least 2");
+        }
         this.repsitoryRoot = repsitoryRoot;
         this.ancDownloader = ancDownloader;
-        productMap = new HashMap<>();
+        this.maxCachedProducts = maxCachedProducts;
+        productMap = new LinkedHashMap<>(16, 0.75f, true);
     }
 
-    public Product getProduct(String[] filenames) throws IOException {
+    public synchronized Product getProduct(String[] filenames) throws IOException {
         Product product;
         product = findProductInMap(filenames);
         if (product != null) {
@@ -42,13 +68,15 @@ class AncRepository {
         if (productFile == null) {
             return null;
         }
+        getIndex().add(productFile);
         return loadProduct(productFile);
     }
 
     private Product findProductInArchive(File[] productFiles) throws IOException {
         for (File productFile : productFiles) {
-            if (productFile.exists()) {
-                return loadProduct(productFile);
+            final File indexedFile = getIndex().find(productFile);
+            if (indexedFile != null) {
+                return loadProduct(indexedFile);
             }
         }
         return null;
@@ -59,10 +87,19 @@ class AncRepository {
         final Product product = ProductIO.readProduct(productFile);
         if (product != null) {
             productMap.put(filename, product);
+            evictProducts();
         }
         return product;
     }
 
+    private void evictProducts() {
+        while (productMap.size() > maxCachedProducts) {
+            final Map.Entry<String, Product> eldest = productMap.entrySet().iterator().next();
+            productMap.remove(eldest.getKey());
+            eldest.getValue().dispose();
+        }
+    }
+
     private File[] createProductFiles(String[] filenames) {
         final File[] productFiles = new File[filenames.length];
         for (int i = 0; i < filenames.length; i++) {
@@ -81,16 +118,29 @@ class AncRepository {
 
     private Product findProductInMap(String[] filenames) {
         for (String filename : filenames) {
-            if (productMap.containsKey(filename)) {
-                return productMap.get(filename);
+            final Product product = productMap.get(filename);
+            if (product != null) {
+                return product;
             }
         }
         return null;
     }
 
-    public void dispose() {
-        for (Product product : productMap.values()) {
+    // the repository is only scanned when a product is requested for the first time
+    private AncIndex getIndex() {
+        if (index == null) {
+            index = AncIndex.load(repsitoryRoot);
+        }
+        return index;
+    }
+
+    public synchronized void dispose() {
+        for (Product product : new ArrayList<>(productMap.values())) {
             product.dispose();
         }
+        productMap.clear();
+        if (index != null) {
+            index.save();
+        }
     }
-}
\ No newline at end of file
+}
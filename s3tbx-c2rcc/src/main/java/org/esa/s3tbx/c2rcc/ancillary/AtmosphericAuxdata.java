@@ -1,5 +1,9 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
+import org.esa.snap.core.datamodel.GeoCoding;
+
+import java.awt.Rectangle;
+
 public interface AtmosphericAuxdata {
 
     /**
@@ -27,6 +31,32 @@ public interface AtmosphericAuxdata {
      */
     double getSurfacePressure(double mjd, int x, int y, double lat, double lon) throws Exception;
 
+    /**
+     * Gets the ozone values of all pixels of the given rectangle in Dobson units. The values are computed once
+     * for the whole rectangle, which is much cheaper than calling {@link #getOzone(double, int, int, double, double)}
+     * for every pixel.
+     *
+     * @param mjd       the date/time value as mjd to retrieve the data for, used for the whole rectangle
+     * @param rectangle the pixel rectangle
+     * @param geoCoding the geo-coding used to locate the pixels of the rectangle
+     * @param ozone     receives the values line by line, the length must be at least width * height of the rectangle
+     * @throws Exception in case of disk access failures
+     */
+    void getOzone(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] ozone) throws Exception;
+
+    /**
+     * Gets the surface pressure values of all pixels of the given rectangle in mBar. The values are computed once
+     * for the whole rectangle, which is much cheaper than calling {@link #getSurfacePressure(double, int, int, double, double)}
+     * for every pixel.
+     *
+     * @param mjd       the date/time value as mjd to retrieve the data for, used for the whole rectangle
+     * @param rectangle the pixel rectangle
+     * @param geoCoding the geo-coding used to locate the pixels of the rectangle
+     * @param pressure  receives the values line by line, the length must be at least width * height of the rectangle
+     * @throws Exception in case of disk access failures
+     */
+    void getSurfacePressure(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] pressure) throws Exception;
+
     /**
      * Releases all resources.
      */
@@ -1,5 +1,8 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
+import org.esa.snap.core.datamodel.GeoCoding;
+
+import java.awt.Rectangle;
 import java.io.IOException;
 
 class AtmosphericAuxdataDynamic implements AtmosphericAuxdata {
@@ -22,6 +25,16 @@ class AtmosphericAuxdataDynamic implements AtmosphericAuxdata {
         return pressInterpolator.getValue(mjd, lat, lon);
     }
 
+    @Override
+    public void getOzone(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] ozone) throws IOException {
+        ozoneInterpolator.getValues(mjd, rectangle, geoCoding, ozone);
+    }
+
+    @Override
+    public void getSurfacePressure(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] pressure) throws IOException {
+        pressInterpolator.getValues(mjd, rectangle, geoCoding, pressure);
+    }
+
     @Override
     public void dispose() {
         ozoneInterpolator.dispose();
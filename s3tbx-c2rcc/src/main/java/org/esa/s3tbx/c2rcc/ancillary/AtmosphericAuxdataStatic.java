@@ -1,8 +1,10 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
+import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
 
+import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
 import java.util.Calendar;
@@ -37,6 +39,16 @@ class AtmosphericAuxdataStatic implements AtmosphericAuxdata {
         return pressureInterpolator.getValue(mjd, lat, lon);
     }
 
+    @Override
+    public void getOzone(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] ozone) throws IOException {
+        ozoneInterpolator.getValues(mjd, rectangle, geoCoding, ozone);
+    }
+
+    @Override
+    public void getSurfacePressure(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] pressure) throws IOException {
+        pressureInterpolator.getValues(mjd, rectangle, geoCoding, pressure);
+    }
+
     @Override
     public void dispose() {
         //todo not a good practice because the products should be set to null but should be disposed where they are initialized
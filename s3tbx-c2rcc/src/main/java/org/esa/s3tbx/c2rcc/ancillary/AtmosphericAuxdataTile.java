@@ -0,0 +1,82 @@
+package org.esa.s3tbx.c2rcc.ancillary;
+
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.TimeCoding;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+
+/**
+ * Provides the ozone and surface pressure of single pixels, but fetches them from the {@link AtmosphericAuxdata}
+ * for a whole tile at once. The tile containing a requested pixel is computed from the tile size of the
+ * product, so pixel operators which process their target tiles pixel by pixel only trigger one fetch per tile.
+ * <p>
+ * The values of a tile are fetched for the time of the tile's center. Instances are not thread safe,
+ * every thread must use its own instance.
+ */
+public class AtmosphericAuxdataTile {
+
+    private final AtmosphericAuxdata atmosphericAuxdata;
+    private final GeoCoding geoCoding;
+    private final TimeCoding timeCoding;
+    private final Rectangle sceneBounds;
+    private final Dimension tileSize;
+    private final Rectangle rectangle;
+    private double[] ozone;
+    private double[] pressure;
+
+    /**
+     * @param atmosphericAuxdata the auxdata to fetch the values from
+     * @param geoCoding          the geo-coding of the processed pixels
+     * @param timeCoding         the time-coding of the processed pixels
+     * @param sceneWidth         the width of the processed scene
+     * @param sceneHeight        the height of the processed scene
+     * @param tileSize           the tile size the scene is processed with
+     */
+    public AtmosphericAuxdataTile(AtmosphericAuxdata atmosphericAuxdata, GeoCoding geoCoding, TimeCoding timeCoding,
+                                  int sceneWidth, int sceneHeight, Dimension tileSize) {
+        this.atmosphericAuxdata = atmosphericAuxdata;
+        this.geoCoding = geoCoding;
+        this.timeCoding = timeCoding;
+        this.sceneBounds = new Rectangle(sceneWidth, sceneHeight);
+        this.tileSize = tileSize;
+        this.rectangle = new Rectangle();
+        this.ozone = new double[0];
+        this.pressure = new double[0];
+    }
+
+    public double getOzone(int x, int y) throws Exception {
+        ensureTile(x, y);
+        return ozone[(y - rectangle.y) * rectangle.width + x - rectangle.x];
+    }
+
+    public double getSurfacePressure(int x, int y) throws Exception {
+        ensureTile(x, y);
+        return pressure[(y - rectangle.y) * rectangle.width + x - rectangle.x];
+    }
+
+    private void ensureTile(int x, int y) throws Exception {
+        if (rectangle.contains(x, y)) {
+            return;
+        }
+        final int tileX = Math.floorDiv(x, tileSize.width) * tileSize.width;
+        final int tileY = Math.floorDiv(y, tileSize.height) * tileSize.height;
+        Rectangle tile = new Rectangle(tileX, tileY, tileSize.width, tileSize.height).intersection(sceneBounds);
+        if (!tile.contains(x, y)) {
+            // outside of the scene, only fetch the single pixel
+            tile = new Rectangle(x, y, 1, 1);
+        }
+        final int size = tile.width * tile.height;
+        if (ozone.length < size) {
+            ozone = new double[size];
+            pressure = new double[size];
+        }
+        // invalidate first, the tile must not be used if fetching fails
+        rectangle.setBounds(0, 0, 0, 0);
+        final double mjd = timeCoding.getMJD(new PixelPos(tile.getCenterX(), tile.getCenterY()));
+        atmosphericAuxdata.getOzone(mjd, tile, geoCoding, ozone);
+        atmosphericAuxdata.getSurfacePressure(mjd, tile, geoCoding, pressure);
+        rectangle.setBounds(tile);
+    }
+}
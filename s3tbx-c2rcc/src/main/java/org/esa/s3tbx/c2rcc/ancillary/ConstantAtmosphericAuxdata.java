@@ -1,5 +1,10 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
+import org.esa.snap.core.datamodel.GeoCoding;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
 /**
  * @author Marco Peters
  */
@@ -47,6 +52,22 @@ class ConstantAtmosphericAuxdata implements AtmosphericAuxdata {
         return surfPressure;
     }
 
+    /**
+     * Fills the rectangle with the constant ozone value given in the constructor of this class.
+     */
+    @Override
+    public void getOzone(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] ozone) {
+        Arrays.fill(ozone, 0, rectangle.width * rectangle.height, this.ozone);
+    }
+
+    /**
+     * Fills the rectangle with the constant surface pressure value given in the constructor of this class.
+     */
+    @Override
+    public void getSurfacePressure(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] pressure) {
+        Arrays.fill(pressure, 0, rectangle.width * rectangle.height, surfPressure);
+    }
+
     @Override
     public void dispose() {
 
@@ -12,14 +12,80 @@ import org.esa.snap.core.datamodel.Scene;
 import org.esa.snap.core.dataop.maptransf.Datum;
 import org.esa.snap.core.util.SystemUtils;
 
+import java.awt.Rectangle;
 import java.io.IOException;
 
 abstract class DataInterpolator {
 
+    // distance in pixels between the nodes at which the values of a rectangle are looked up
+    private static final int NODE_STEP = 16;
+
     abstract double getValue(double timeMJD, double lat, double lon) throws IOException;
 
     abstract void dispose();
 
+    /**
+     * Computes the values of all pixels of a rectangle. The values are only looked up at a coarse grid of nodes
+     * and bilinearly interpolated in between. Pixels next to nodes without a value are looked up directly.
+     */
+    void getValues(double timeMJD, Rectangle rectangle, GeoCoding geoCoding, double[] values) throws IOException {
+        if (rectangle.isEmpty()) {
+            return;
+        }
+        final int width = rectangle.width;
+        final int height = rectangle.height;
+        final int[] nodeX = createNodeOffsets(width);
+        final int[] nodeY = createNodeOffsets(height);
+        final double[] nodeValues = new double[nodeX.length * nodeY.length];
+        final PixelPos pixelPos = new PixelPos();
+        final GeoPos geoPos = new GeoPos();
+        for (int j = 0; j < nodeY.length; j++) {
+            for (int i = 0; i < nodeX.length; i++) {
+                nodeValues[j * nodeX.length + i] = getValue(timeMJD, rectangle.x + nodeX[i], rectangle.y + nodeY[j],
+                                                            geoCoding, pixelPos, geoPos);
+            }
+        }
+
+        for (int y = 0; y < height; y++) {
+            final int j = Math.min(y / NODE_STEP, nodeY.length - 1);
+            final int j1 = Math.min(j + 1, nodeY.length - 1);
+            final double wy = j1 > j ? (double) (y - nodeY[j]) / (nodeY[j1] - nodeY[j]) : 0.0;
+            for (int x = 0; x < width; x++) {
+                final int i = Math.min(x / NODE_STEP, nodeX.length - 1);
+                final int i1 = Math.min(i + 1, nodeX.length - 1);
+                final double wx = i1 > i ? (double) (x - nodeX[i]) / (nodeX[i1] - nodeX[i]) : 0.0;
+                final double v00 = nodeValues[j * nodeX.length + i];
+                final double v10 = nodeValues[j * nodeX.length + i1];
+                final double v01 = nodeValues[j1 * nodeX.length + i];
+                final double v11 = nodeValues[j1 * nodeX.length + i1];
+                double value = (1 - wy) * ((1 - wx) * v00 + wx * v10) + wy * ((1 - wx) * v01 + wx * v11);
+                if (Double.isNaN(value)) {
+                    value = getValue(timeMJD, rectangle.x + x, rectangle.y + y, geoCoding, pixelPos, geoPos);
+                }
+                values[y * width + x] = value;
+            }
+        }
+    }
+
+    private double getValue(double timeMJD, int x, int y, GeoCoding geoCoding, PixelPos pixelPos, GeoPos geoPos) throws IOException {
+        pixelPos.setLocation(x + 0.5, y + 0.5);
+        geoCoding.getGeoPos(pixelPos, geoPos);
+        if (!geoPos.isValid()) {
+            return Double.NaN;
+        }
+        return getValue(timeMJD, geoPos.lat, geoPos.lon);
+    }
+
+    // offsets of the nodes within a rectangle of the given size, the last pixel is always a node
+    private static int[] createNodeOffsets(int size) {
+        final int count = (size - 1 + NODE_STEP - 1) / NODE_STEP + 1;
+        final int[] offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = Math.min(i * NODE_STEP, size - 1);
+        }
+        return offsets;
+    }
+
     protected static Band ensureInterpolation(final String startOrEnd, Product product, final String bandName, final double defaultValue) {
         final Band band = product != null ? product.getBand(bandName) : null;
         if (band != null) {
@@ -42,11 +108,6 @@ abstract class DataInterpolator {
         };
     }
 
-    protected static double getValue(Band band, GeoCoding geoCoding, double latitude, double longitude) {
-        final PixelPos pp = geoCoding.getPixelPos(new GeoPos(latitude, longitude), null);
-        return band.getPixelDouble((int) pp.x, (int) pp.y);
-    }
-
     protected static GeoCoding ensureGeocoding(Product product) {
         final int width;
         final int height;
@@ -75,6 +136,14 @@ abstract class DataInterpolator {
             this.height = height;
         }
 
+        int getWidth() {
+            return width;
+        }
+
+        int getHeight() {
+            return height;
+        }
+
         @Override
         public boolean transferGeoCoding(Scene srcScene, Scene destScene, ProductSubsetDef subsetDef) {
             return false;
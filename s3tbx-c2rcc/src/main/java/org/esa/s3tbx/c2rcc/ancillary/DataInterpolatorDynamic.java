@@ -1,9 +1,15 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Interpolates ancillary data between the time slots of an {@link AncRepository}. The interpolators of
+ * the time slots are immutable and published through a concurrent map keyed by their start border time,
+ * so looking up a value does not lock. Only creating the interpolator of a new time slot is synchronized,
+ * on the repository which is shared with other interpolators.
+ */
 class DataInterpolatorDynamic extends DataInterpolator {
 
     private final Map<Double, DataInterpolatorStatic> interpolatorMap;
@@ -11,36 +17,50 @@ class DataInterpolatorDynamic extends DataInterpolator {
     private final InterpolationBorderComputer ibc;
     private final AncDataFormat ancDataFormat;
 
-    private double currentBorderTime = Double.NaN;
-    private DataInterpolatorStatic currentDataInterpolator;
-
     public DataInterpolatorDynamic(AncDataFormat ancDataFormat, AncRepository ancRepository) {
         this.ancDataFormat = ancDataFormat;
         ibc = ancDataFormat.getInterpolationBorderComputer();
         this.ancRepository = ancRepository;
 
-        interpolatorMap = new HashMap<>();
+        interpolatorMap = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    double getValue(double timeMJD, double lat, double lon) throws IOException {
+        final double startBorderTimeMJD = ibc.computeStartBorderTimeMJD(timeMJD);
+        DataInterpolatorStatic dataInterpolator = interpolatorMap.get(startBorderTimeMJD);
+        if (dataInterpolator == null) {
+            dataInterpolator = createDataInterpolator(timeMJD);
+        }
+        return dataInterpolator.getValue(timeMJD, lat, lon);
     }
 
     @Override
-    synchronized double getValue(double timeMJD, double lat, double lon) throws IOException {
+    void dispose() {
+        for (DataInterpolatorStatic dataInterpolatorStatic : interpolatorMap.values()) {
+            dataInterpolatorStatic.dispose();
+        }
+        ancRepository.dispose();
+    }
+
+    // the border computer is not thread safe, it is only used in here. The repository is locked while the
+    // interpolator is created, so that the products cannot be evicted from its cache in between.
+    private DataInterpolatorStatic createDataInterpolator(double timeMJD) throws IOException {
+        synchronized (ancRepository) {
+            return createDataInterpolatorLocked(timeMJD);
+        }
+    }
+
+    private DataInterpolatorStatic createDataInterpolatorLocked(double timeMJD) throws IOException {
         ibc.setInterpolationTimeMJD(timeMJD);
         final double startBorderTimeMDJ = ibc.getStartBorderTimeMDJ();
-        if (currentBorderTime == startBorderTimeMDJ) {
-            return currentDataInterpolator.getValue(timeMJD, lat, lon);
-        }
-        if (interpolatorMap.containsKey(startBorderTimeMDJ)) {
-            currentDataInterpolator = interpolatorMap.get(startBorderTimeMDJ);
-            if (currentDataInterpolator == null) {
-                interpolatorMap.remove(startBorderTimeMDJ);
-            } else {
-                currentBorderTime = startBorderTimeMDJ;
-                return currentDataInterpolator.getValue(timeMJD, lat, lon);
-            }
+        DataInterpolatorStatic dataInterpolator = interpolatorMap.get(startBorderTimeMDJ);
+        if (dataInterpolator != null) {
+            return dataInterpolator;
         }
         final String[] startFilenames = ancDataFormat.getFilenames(ibc.getStartAncFilePrefix());
         final String[] endFilenames = ancDataFormat.getFilenames(ibc.getEndAncFilePrefix());
-        currentDataInterpolator = new DataInterpolatorStatic
+        dataInterpolator = new DataInterpolatorStatic
                     (
                                 startBorderTimeMDJ, ibc.getEndBorderTimeMJD(),
                                 ancRepository.getProduct(startFilenames),
@@ -48,17 +68,8 @@ class DataInterpolatorDynamic extends DataInterpolator {
                                 ancDataFormat.getBandName(),
                                 ancDataFormat.getDefaultValue()
                     );
-        interpolatorMap.put(startBorderTimeMDJ, currentDataInterpolator);
-        currentBorderTime = startBorderTimeMDJ;
-        return currentDataInterpolator.getValue(timeMJD, lat, lon);
-    }
-
-    @Override
-    void dispose() {
-        for (DataInterpolatorStatic dataInterpolatorStatic : interpolatorMap.values()) {
-            dataInterpolatorStatic.dispose();
-        }
-        ancRepository.dispose();
+        interpolatorMap.put(startBorderTimeMDJ, dataInterpolator);
+        return dataInterpolator;
     }
 
 }
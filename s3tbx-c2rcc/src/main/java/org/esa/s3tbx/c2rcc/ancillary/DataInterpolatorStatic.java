@@ -1,6 +1,5 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
-import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.Product;
 
@@ -8,18 +7,18 @@ class DataInterpolatorStatic extends DataInterpolator {
 
     private final double startTimeMJD;
     private final double endTimeMJD;
-    private Band startBand;
-    private Band endBand;
+    private final LatLonGrid startGrid;
+    private final LatLonGrid endGrid;
     private final GeoCoding startGC;
     private final GeoCoding endGC;
 
     public DataInterpolatorStatic(double startTimeMJD, double endTimeMJD, Product startProduct, Product endProduct, final String bandName, double defaultValue) {
         this.startTimeMJD = startTimeMJD;
         this.endTimeMJD = endTimeMJD;
-        this.startBand = ensureInterpolation("start", startProduct, bandName, defaultValue);
-        this.endBand = ensureInterpolation("end", endProduct, bandName, defaultValue);
         this.startGC = ensureGeocoding(startProduct);
         this.endGC = ensureGeocoding(endProduct);
+        this.startGrid = LatLonGrid.create(ensureInterpolation("start", startProduct, bandName, defaultValue), startGC);
+        this.endGrid = LatLonGrid.create(ensureInterpolation("end", endProduct, bandName, defaultValue), endGC);
     }
 
     @Override
@@ -33,15 +32,13 @@ class DataInterpolatorStatic extends DataInterpolator {
     public void dispose() {
         startGC.dispose();
         endGC.dispose();
-        endBand = null;
-        startBand = null;
     }
 
     protected double getStartValue(double latitude, double longitude) {
-        return getValue(startBand, startGC, latitude, longitude);
+        return startGrid.getValue(latitude, longitude);
     }
 
     protected double getEndValue(double latitude, double longitude) {
-        return getValue(endBand, endGC, latitude, longitude);
+        return endGrid.getValue(latitude, longitude);
     }
 }
@@ -4,6 +4,12 @@ interface InterpolationBorderComputer {
 
     void setInterpolationTimeMJD(double timeMJD);
 
+    /**
+     * Computes the start border time for the given time without changing the state of this computer.
+     * The result is the same as {@link #getStartBorderTimeMDJ()} after calling {@link #setInterpolationTimeMJD(double)}.
+     */
+    double computeStartBorderTimeMJD(double timeMJD);
+
     double getStartBorderTimeMDJ();
 
     double getEndBorderTimeMJD();
@@ -11,6 +11,11 @@ class InterpolationBorderComputer24H implements InterpolationBorderComputer {
         startFileTimeMJD = Math.floor(timeMJD - 0.5);
     }
 
+    @Override
+    public double computeStartBorderTimeMJD(double timeMJD) {
+        return Math.floor(timeMJD - 0.5) + 0.5;
+    }
+
     @Override
     public double getStartBorderTimeMDJ() {
         return startFileTimeMJD + 0.5;
@@ -11,6 +11,11 @@ class InterpolationBorderComputer6H implements InterpolationBorderComputer {
         startFileTimeMJD = Math.floor((timeMJD - 0.125) * 4) * 0.25;
     }
 
+    @Override
+    public double computeStartBorderTimeMJD(double timeMJD) {
+        return Math.floor((timeMJD - 0.125) * 4) * 0.25 + 0.125;
+    }
+
     @Override
     public double getStartBorderTimeMDJ() {
         return startFileTimeMJD + 0.125;
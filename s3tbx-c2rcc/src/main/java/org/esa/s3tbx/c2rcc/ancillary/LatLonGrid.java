@@ -0,0 +1,68 @@
+package org.esa.s3tbx.c2rcc.ancillary;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+
+/**
+ * An immutable copy of the raster of an ancillary band, which can be shared between threads.
+ * A value is the one of the pixel containing the given location, as {@link Band#getPixelDouble} of
+ * the band would return it. Locations outside the raster get the value of the nearest edge pixel.
+ * <p>
+ * For a global grid the pixel is found by plain index arithmetic instead of a
+ * {@link GeoCoding#getPixelPos} call.
+ */
+final class LatLonGrid {
+
+    private final int width;
+    private final int height;
+    private final double[] values;
+    // null for a global grid, starting at 90°N and 180°W
+    private final GeoCoding geoCoding;
+
+    private LatLonGrid(int width, int height, double[] values, GeoCoding geoCoding) {
+        this.width = width;
+        this.height = height;
+        this.values = values;
+        this.geoCoding = geoCoding;
+    }
+
+    static LatLonGrid create(Band band, GeoCoding geoCoding) {
+        if (geoCoding instanceof DataInterpolator.GlobalGeoCoding) {
+            final DataInterpolator.GlobalGeoCoding globalGeoCoding = (DataInterpolator.GlobalGeoCoding) geoCoding;
+            final int width = globalGeoCoding.getWidth();
+            final int height = globalGeoCoding.getHeight();
+            return new LatLonGrid(width, height, readValues(band, width, height), null);
+        }
+        final int width = band.getRasterWidth();
+        final int height = band.getRasterHeight();
+        return new LatLonGrid(width, height, readValues(band, width, height), geoCoding);
+    }
+
+    private static double[] readValues(Band band, int width, int height) {
+        final double[] values = new double[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                values[y * width + x] = band.getPixelDouble(x, y);
+            }
+        }
+        return values;
+    }
+
+    double getValue(double lat, double lon) {
+        int x;
+        int y;
+        if (geoCoding == null) {
+            x = (int) Math.floor((lon + 180) / 360 * width);
+            y = (int) Math.floor((lat - 90) / -180 * height);
+        } else {
+            final PixelPos pixelPos = geoCoding.getPixelPos(new GeoPos(lat, lon), null);
+            x = (int) pixelPos.x;
+            y = (int) pixelPos.y;
+        }
+        x = Math.max(0, Math.min(width - 1, x));
+        y = Math.max(0, Math.min(height - 1, y));
+        return values[y * width + x];
+    }
+}
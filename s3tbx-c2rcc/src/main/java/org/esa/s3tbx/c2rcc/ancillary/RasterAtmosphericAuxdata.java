@@ -1,9 +1,12 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
-import org.esa.snap.core.datamodel.GeoPos;
-import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.RasterDataNode;
 
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.util.Arrays;
+
 /**
  * @author Marco Peters
  */
@@ -33,8 +36,35 @@ class RasterAtmosphericAuxdata implements AtmosphericAuxdata {
         return surfPressureRaster.getSampleFloat(x, y);
     }
 
+    @Override
+    public void getOzone(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] ozone) {
+        readSamples(ozoneRaster, rectangle, ozone);
+    }
+
+    @Override
+    public void getSurfacePressure(double mjd, Rectangle rectangle, GeoCoding geoCoding, double[] pressure) {
+        readSamples(surfPressureRaster, rectangle, pressure);
+    }
+
     @Override
     public void dispose() {
 
     }
+
+    private static void readSamples(RasterDataNode raster, Rectangle rectangle, double[] samples) {
+        final Rectangle bounds = rectangle.intersection(new Rectangle(raster.getRasterWidth(), raster.getRasterHeight()));
+        if (!bounds.equals(rectangle)) {
+            Arrays.fill(samples, 0, rectangle.width * rectangle.height, Double.NaN);
+        }
+        if (bounds.isEmpty()) {
+            return;
+        }
+        // one request for the whole rectangle instead of one per pixel
+        final double[] line = new double[bounds.width];
+        final Raster data = raster.getGeophysicalImage().getData(bounds);
+        for (int y = bounds.y; y < bounds.y + bounds.height; y++) {
+            data.getSamples(bounds.x, y, bounds.width, 1, 0, line);
+            System.arraycopy(line, 0, samples, (y - rectangle.y) * rectangle.width + bounds.x - rectangle.x, bounds.width);
+        }
+    }
 }
@@ -6,6 +6,7 @@ import org.esa.s3tbx.c2rcc.C2rccCommons;
 import org.esa.s3tbx.c2rcc.C2rccConfigurable;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataBuilder;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.s3tbx.c2rcc.util.NNUtils;
 import org.esa.s3tbx.c2rcc.util.RgbProfiles;
 import org.esa.snap.core.datamodel.Band;
@@ -302,6 +303,7 @@ public class C2rccLandsat7Operator extends PixelOperator implements C2rccConfigu
 
     private C2rccLandsat7Algorithm algorithm;
     private AtmosphericAuxdata atmosphericAuxdata;
+    private ThreadLocal<AtmosphericAuxdataTile> auxdataTile;
     private TimeCoding timeCoding;
     private double[] reflectance_offset;
     private double[] reflectance_scale;
@@ -436,13 +438,12 @@ public class C2rccLandsat7Operator extends PixelOperator implements C2rccConfigu
         }
 
         final PixelPos pixelPos = new PixelPos(x + 0.5f, y + 0.5f);
-        final double mjd = timeCoding.getMJD(pixelPos);
 
         GeoPos geoPos = sourceProduct.getSceneGeoCoding().getGeoPos(pixelPos, null);
         double lat = geoPos.getLat();
         double lon = geoPos.getLon();
-        double atmPress = fetchSurfacePressure(atmosphericAuxdata, mjd, x, y, lat, lon);
-        double ozone = fetchOzone(atmosphericAuxdata, mjd, x, y, lat, lon);
+        double atmPress = fetchSurfacePressure(auxdataTile.get(), x, y);
+        double ozone = fetchOzone(auxdataTile.get(), x, y);
         final double altitude;
         if (elevationModel != null) {
             try {
@@ -985,6 +986,7 @@ public class C2rccLandsat7Operator extends PixelOperator implements C2rccConfigu
         if (atmosphericAuxdata != null) {
             atmosphericAuxdata.dispose();
             atmosphericAuxdata = null;
+            auxdataTile = null;
         }
     }
 
@@ -1093,6 +1095,8 @@ public class C2rccLandsat7Operator extends PixelOperator implements C2rccConfigu
         auxdataBuilder.useNcepProducts(ncepStartProduct, ncepEndProduct);
         try {
             atmosphericAuxdata = auxdataBuilder.create();
+            auxdataTile = ThreadLocal.withInitial(() -> C2rccCommons.createAtmosphericAuxdataTile(
+                    atmosphericAuxdata, sourceProduct.getSceneGeoCoding(), timeCoding, getTargetProduct()));
         } catch (Exception e) {
             throw new OperatorException("Could not create provider for atmospheric auxdata", e);
         }
@@ -5,6 +5,7 @@ import org.esa.s3tbx.c2rcc.C2rccCommons;
 import org.esa.s3tbx.c2rcc.C2rccConfigurable;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataBuilder;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.s3tbx.c2rcc.util.NNUtils;
 import org.esa.s3tbx.c2rcc.util.RgbProfiles;
 import org.esa.s3tbx.c2rcc.util.SolarFluxLazyLookup;
@@ -41,7 +42,6 @@ import org.esa.snap.core.util.converters.BooleanExpressionConverter;
 import java.awt.Color;
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -350,6 +350,7 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
     private SolarFluxLazyLookup solarFluxLazyLookup;
     private double[] constantSolarFlux;
     private AtmosphericAuxdata atmosphericAuxdata;
+    private ThreadLocal<AtmosphericAuxdataTile> auxdataTile;
     private TimeCoding timeCoding;
 
     @Override
@@ -475,11 +476,7 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
         final double mjd = timeCoding.getMJD(pixelPos);
         final double[] solflux;
         if (useDefaultSolarFlux) {
-            ProductData.UTC utc = new ProductData.UTC(mjd);
-            Calendar calendar = utc.getAsCalendar();
-            final int doy = calendar.get(Calendar.DAY_OF_YEAR);
-            final int year = calendar.get(Calendar.YEAR);
-            solflux = solarFluxLazyLookup.getCorrectedFluxFor(doy, year);
+            solflux = solarFluxLazyLookup.getCorrectedFluxFor(mjd);
         } else {
             solflux = constantSolarFlux;
         }
@@ -487,8 +484,8 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
         GeoPos geoPos = sourceProduct.getSceneGeoCoding().getGeoPos(pixelPos, null);
         double lat = geoPos.getLat();
         double lon = geoPos.getLon();
-        double atmPress = fetchSurfacePressure(atmosphericAuxdata, mjd, x, y, lat, lon);
-        double ozone = fetchOzone(atmosphericAuxdata, mjd, x, y, lat, lon);
+        double atmPress = fetchSurfacePressure(auxdataTile.get(), x, y);
+        double ozone = fetchOzone(auxdataTile.get(), x, y);
 
         C2rccMerisAlgorithm.Result result = algorithm.processPixel(x, y, lat, lon,
                                                                    radiances,
@@ -991,6 +988,7 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
         if (atmosphericAuxdata != null) {
             atmosphericAuxdata.dispose();
             atmosphericAuxdata = null;
+            auxdataTile = null;
         }
     }
 
@@ -1108,6 +1106,8 @@ public class C2rccMerisOperator extends PixelOperator implements C2rccConfigurab
         }
         try {
             atmosphericAuxdata = auxdataBuilder.create();
+            auxdataTile = ThreadLocal.withInitial(() -> C2rccCommons.createAtmosphericAuxdataTile(
+                    atmosphericAuxdata, sourceProduct.getSceneGeoCoding(), timeCoding, getTargetProduct()));
         } catch (Exception e) {
             throw new OperatorException("Could not create provider for atmospheric auxdata", e);
         }
@@ -1,6 +1,6 @@
 package org.esa.s3tbx.c2rcc.meris4;
 
-import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.esa.s3tbx.c2rcc.util.NNffbpBatch;
 import org.esa.snap.core.util.BitSetter;
 
 import java.io.BufferedReader;
@@ -105,16 +105,19 @@ public class C2rccMeris4Algorithm {
 
     private static final double[] h2o_cor_poly = {0.3832989, 1.6527957, -1.5635101, 0.5311913};
 
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rw_iop; // NN Rw -< IOPs input 10 bands, 5 IOPs
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_rw; // NN Rtosa -> Rw 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_aann; // Rtosa -> Rtosa' 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_rpath; //Rtosa -> Rpath 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_trans; // Rtosa -> transd, transu 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_iop_rw; // IOPs(5) -> Rw' (10 bands)
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rw_kd; // Rw (10 bands) -> kd489, kdmin
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_iop_unciop; // IOPs (5) -> uncertainties of IOPs (5)
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_iop_uncsumiop_unckd; // IOPs (5) -> unc_adg, unc_atot, unc_btot, unc_kd489, unc_kdmin
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rw_rwnorm; // Rw (10) -> Rwn (10)
+    private final NNffbpBatch nn_rw_iop; // NN Rw -< IOPs input 10 bands, 5 IOPs
+    private final NNffbpBatch nn_rtosa_rw; // NN Rtosa -> Rw 12 bands
+    private final NNffbpBatch nn_rtosa_aann; // Rtosa -> Rtosa' 12 bands
+    private final NNffbpBatch nn_rtosa_rpath; //Rtosa -> Rpath 12 bands
+    private final NNffbpBatch nn_rtosa_trans; // Rtosa -> transd, transu 12 bands
+    private final NNffbpBatch nn_iop_rw; // IOPs(5) -> Rw' (10 bands)
+    private final NNffbpBatch nn_rw_kd; // Rw (10 bands) -> kd489, kdmin
+    private final NNffbpBatch nn_iop_unciop; // IOPs (5) -> uncertainties of IOPs (5)
+    private final NNffbpBatch nn_iop_uncsumiop_unckd; // IOPs (5) -> unc_adg, unc_atot, unc_btot, unc_kd489, unc_kdmin
+    private final NNffbpBatch nn_rw_rwnorm; // Rw (10) -> Rwn (10)
+
+    private final ThreadLocal<NNffbpBatch.Workspace> nnWorkspace = ThreadLocal.withInitial(NNffbpBatch.Workspace::new);
+
     private final ArrayList<String> nnNames;
     private double salinity = 35.0;
     private double temperature = 15.0;
@@ -247,6 +250,7 @@ public class C2rccMeris4Algorithm {
                                boolean validPixel,
                                double atm_press,
                                double ozone) {
+        final NNffbpBatch.Workspace workspace = nnWorkspace.get();
 
         //  (9.2) compute angles
         double cos_sun = cos(toRadians(sun_zeni));
@@ -350,8 +354,8 @@ public class C2rccMeris4Algorithm {
 
             // (9.4.1) test if input tosa spectrum is out of range
             // mima=aa_rtosa_nn_bn7_9(5); // minima and maxima of aaNN input
-            double[] mi = nn_rtosa_aann.get().getInmin();
-            double[] ma = nn_rtosa_aann.get().getInmax();
+            double[] mi = nn_rtosa_aann.getInmin();
+            double[] ma = nn_rtosa_aann.getInmax();
             boolean rtosa_oor_flag = false; // (ipix)
             // for iv=1:19,// variables
             for (int iv = 0; iv < nn_in.length; iv++) { // variables
@@ -367,7 +371,7 @@ public class C2rccMeris4Algorithm {
             rtosa_aann = new double[0];
             double[] log_rtosa_aann = new double[0];
             //if (outputRtoaGcAann || outputOos) {
-                log_rtosa_aann = this.nn_rtosa_aann.get().calc(nn_in);
+                log_rtosa_aann = this.nn_rtosa_aann.calc(nn_in, workspace);
                 rtosa_aann = a_exp(log_rtosa_aann);
             //}
             //double[] rtosa_aaNNrat = adiv(rtosa_aann, r_tosa);
@@ -405,14 +409,14 @@ public class C2rccMeris4Algorithm {
             // (9.4.4) NN compute rpath from rtosa
             rpath_nn = new double[0];
             if (outputRpath || deriveRwFromPathAndTransmittance) {
-                double[] log_rpath_nn = nn_rtosa_rpath.get().calc(nn_in);
+                double[] log_rpath_nn = nn_rtosa_rpath.calc(nn_in, workspace);
                 rpath_nn = a_exp(log_rpath_nn);
             }
 
             // (9.4.5) NN compute transmittance from rtosa
             transd_nn = new double[0];
             transu_nn = new double[0];
-            double[] trans_nn = nn_rtosa_trans.get().calc(nn_in);
+            double[] trans_nn = nn_rtosa_trans.calc(nn_in, workspace);
             // cloud flag test @865
             flags = BitSetter.setFlag(flags, FLAG_INDEX_CLOUD, trans_nn[11] < thresh_cloudTransD);
             if (outputTdown || deriveRwFromPathAndTransmittance) {
@@ -431,7 +435,7 @@ public class C2rccMeris4Algorithm {
                     log_rw[i] = r_tosa[i] - rpath_nn[i] / (transu_nn[i] * transd_nn[i]);
                 }
             }else {
-                log_rw = nn_rtosa_rw.get().calc(nn_in);
+                log_rw = nn_rtosa_rw.calc(nn_in, workspace);
             }
 
             rwa = new double[0];
@@ -452,8 +456,8 @@ public class C2rccMeris4Algorithm {
             System.arraycopy(log_rw, 0, nn_in_inv, 5, 10);
 
             // (9.5.1)check input to rw -> IOP NN out of range
-            mi = nn_rw_iop.get().getInmin();
-            ma = nn_rw_iop.get().getInmax();
+            mi = nn_rw_iop.getInmin();
+            ma = nn_rw_iop.getInmax();
             boolean rwa_oor_flag = false;
             for (int iv = 0; iv < nn_in_inv.length; iv++) {
                 if (nn_in_inv[iv] < mi[iv] | nn_in_inv[iv] > ma[iv]) {
@@ -465,12 +469,12 @@ public class C2rccMeris4Algorithm {
             // (9.x.x.) NN compute Rwn from Rw
             rwn = new double[0];
             if (outputRwn) {
-                double[] log_rwn = nn_rw_rwnorm.get().calc(nn_in_inv);
+                double[] log_rwn = nn_rw_rwnorm.calc(nn_in_inv, workspace);
                 rwn = a_exp(log_rwn);
             }
 
             // (9.10.1) NN compute IOPs from rw
-            double[] log_iops_nn1 = nn_rw_iop.get().calc(nn_in_inv);
+            double[] log_iops_nn1 = nn_rw_iop.calc(nn_in_inv, workspace);
             iops_nn = a_exp(log_iops_nn1);
 
             // (9.14) compute combined IOPs and concentrations
@@ -498,8 +502,8 @@ public class C2rccMeris4Algorithm {
 //        double tsm_nn1 = btot_nn1 * 1.73;
 
             // (9.5.4) check if log_IOPs out of range
-            mi = nn_rw_iop.get().getOutmin();
-            ma = nn_rw_iop.get().getOutmax();
+            mi = nn_rw_iop.getOutmin();
+            ma = nn_rw_iop.getOutmax();
             boolean iop_oor_flag = false;
             for (int iv = 0; iv < log_iops_nn1.length; iv++) {
                 if (log_iops_nn1[iv] < mi[iv] | log_iops_nn1[iv] > ma[iv]) {
@@ -537,7 +541,7 @@ public class C2rccMeris4Algorithm {
             rwa_oos = 0;
             // RD20161103 no if question, because this calculation is needed for flagging
             //if (outputOos) {
-                double[] log_rw_nn2 = nn_iop_rw.get().calc(nn_in_for);
+                double[] log_rw_nn2 = nn_iop_rw.calc(nn_in_for, workspace);
 
                 // (9.5.7) test out of scope of rho_w by combining inverse and forward NN
                 //  compute the test and set rw is out of scope flag
@@ -559,14 +563,14 @@ public class C2rccMeris4Algorithm {
             kdmin_nn = 0;
             kd489_nn = 0;
             if (outputKd || outputUncertainties) {
-                double[] log_kd2_nn = nn_rw_kd.get().calc(nn_in_inv);
+                double[] log_kd2_nn = nn_rw_kd.calc(nn_in_inv, workspace);
                 kdmin_nn = exp(log_kd2_nn[0]);
                 kd489_nn = exp(log_kd2_nn[1]);
                 //            double z90max = 1.0 / kdmin_nn;
 
                 // (9.5.9) test if kd is at nn limits
-                mi = nn_rw_kd.get().getOutmin();
-                ma = nn_rw_kd.get().getOutmax();
+                mi = nn_rw_kd.getOutmin();
+                ma = nn_rw_kd.getOutmax();
                 boolean kdmin_oor_flag = false;
                 if (log_kd2_nn[0] < mi[0] | log_kd2_nn[0] > ma[0]) {
                     kdmin_oor_flag = true;
@@ -602,7 +606,7 @@ public class C2rccMeris4Algorithm {
             unc_abs_kdmin = 0;
             unc_abs_tsm = 0;
             if (outputUncertainties) {
-                double[] diff_log_abs_iop = nn_iop_unciop.get().calc(log_iops_nn1);
+                double[] diff_log_abs_iop = nn_iop_unciop.calc(log_iops_nn1, workspace);
 
                 unc_iop_abs = new double[diff_log_abs_iop.length];
                 for (int iv = 0; iv < diff_log_abs_iop.length; iv++) {
@@ -612,7 +616,7 @@ public class C2rccMeris4Algorithm {
                 unc_abs_chl = 21.0 * pow(unc_iop_abs[1], 1.04);
 
                 // (9.16) NN compute uncertainties for combined IOPs and kd
-                double[] diff_log_abs_combi_kd = nn_iop_uncsumiop_unckd.get().calc(log_iops_nn1);
+                double[] diff_log_abs_combi_kd = nn_iop_uncsumiop_unckd.calc(log_iops_nn1, workspace);
                 double diff_log_abs_adg = diff_log_abs_combi_kd[0];
                 double diff_log_abs_atot = diff_log_abs_combi_kd[1];
                 double diff_log_abs_btot = diff_log_abs_combi_kd[2];
@@ -639,7 +643,7 @@ public class C2rccMeris4Algorithm {
         return nnNames.toArray(new String[nnNames.size()]);
     }
 
-    private ThreadLocal<NNffbpAlphaTabFast> nnhs(String sourcePath, boolean loadFromResource) throws IOException {
+    private NNffbpBatch nnhs(String sourcePath, boolean loadFromResource) throws IOException {
 
 //        Files.
 
@@ -660,16 +664,7 @@ public class C2rccMeris4Algorithm {
             nnNames.add(path.toString());
         }
         final String nnCode = readFully(stream);
-        return new ThreadLocal<NNffbpAlphaTabFast>() {
-            @Override
-            protected NNffbpAlphaTabFast initialValue() {
-                try {
-                    return new NNffbpAlphaTabFast(nnCode);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-        };
+        return new NNffbpBatch(nnCode);
     }
 
     private String readFully(InputStream stream) throws IOException {
@@ -5,6 +5,7 @@ import org.esa.s3tbx.c2rcc.C2rccCommons;
 import org.esa.s3tbx.c2rcc.C2rccConfigurable;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataBuilder;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.s3tbx.c2rcc.meris4.C2rccMeris4Algorithm.Result;
 import org.esa.s3tbx.c2rcc.util.NNUtils;
 import org.esa.s3tbx.c2rcc.util.RgbProfiles;
@@ -329,6 +330,7 @@ public class C2rccMeris4Operator extends PixelOperator implements C2rccConfigura
 
     private C2rccMeris4Algorithm algorithm;
     private AtmosphericAuxdata atmosphericAuxdata;
+    private ThreadLocal<AtmosphericAuxdataTile> auxdataTile;
     private boolean useSnapDem;
     private ElevationModel elevationModel;
     private TimeCoding timeCoding;
@@ -462,6 +464,7 @@ public class C2rccMeris4Operator extends PixelOperator implements C2rccConfigura
         if (atmosphericAuxdata != null) {
             atmosphericAuxdata.dispose();
             atmosphericAuxdata = null;
+            auxdataTile = null;
         }
     }
 
@@ -476,13 +479,12 @@ public class C2rccMeris4Operator extends PixelOperator implements C2rccConfigura
         }
 
         final PixelPos pixelPos = new PixelPos(x + 0.5f, y + 0.5f);
-        final double mjd = timeCoding.getMJD(pixelPos);
 
         GeoPos geoPos = sourceProduct.getSceneGeoCoding().getGeoPos(pixelPos, null);
         double lat = geoPos.getLat();
         double lon = geoPos.getLon();
-        double atmPress = fetchSurfacePressure(atmosphericAuxdata, mjd, x, y, lat, lon);
-        double ozone = fetchOzone(atmosphericAuxdata, mjd, x, y, lat, lon);
+        double atmPress = fetchSurfacePressure(auxdataTile.get(), x, y);
+        double ozone = fetchOzone(auxdataTile.get(), x, y);
         final double altitude;
         if (useSnapDem) {
             try {
@@ -1082,6 +1084,8 @@ public class C2rccMeris4Operator extends PixelOperator implements C2rccConfigura
 
         try {
             atmosphericAuxdata = auxdataBuilder.create();
+            auxdataTile = ThreadLocal.withInitial(() -> C2rccCommons.createAtmosphericAuxdataTile(
+                    atmosphericAuxdata, sourceProduct.getSceneGeoCoding(), timeCoding, getTargetProduct()));
         } catch (Exception e) {
             throw new OperatorException("Could not create provider for atmospheric auxdata", e);
         }
@@ -1,6 +1,6 @@
 package org.esa.s3tbx.c2rcc.modis;
 
-import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.esa.s3tbx.c2rcc.util.NNffbpBatch;
 import org.esa.snap.core.util.BitSetter;
 
 import java.io.BufferedReader;
@@ -116,9 +116,11 @@ public class C2rccModisAlgorithm {
     double[] thresh_rtosaaaNNrat = {0.95, 1.05};  // threshold for out of scope flag Rtosa has to be adjusted
     double[] thresh_rwslope = {0.95, 1.05};    // threshold for out of scope flag Rw has to be adjusted
 
-    private ThreadLocal<NNffbpAlphaTabFast> rtoa_rw_nn3;
-    private ThreadLocal<NNffbpAlphaTabFast> rw_IOP;
-    private ThreadLocal<NNffbpAlphaTabFast> rtoa_aaNN7;
+    private NNffbpBatch rtoa_rw_nn3;
+    private NNffbpBatch rw_IOP;
+    private NNffbpBatch rtoa_aaNN7;
+
+    private final ThreadLocal<NNffbpBatch.Workspace> nnWorkspace = ThreadLocal.withInitial(NNffbpBatch.Workspace::new);
 
     public void setTemperature(double temperature) {
         this.temperature = temperature;
@@ -141,6 +143,7 @@ public class C2rccModisAlgorithm {
                                double view_azi,
                                double atm_press,
                                double ozone) {
+        final NNffbpBatch.Workspace workspace = nnWorkspace.get();
 
         //  (9.2) compute angles
         final double cos_sun_zen = cos(toRadians(sun_zeni));
@@ -177,11 +180,11 @@ public class C2rccModisAlgorithm {
         nn_in[6] = atm_press;
         System.arraycopy(log_rtosa, 0, nn_in, 7, log_rtosa.length);
 
-        double[] log_rw = rtoa_rw_nn3.get().calc(nn_in);
+        double[] log_rw = rtoa_rw_nn3.calc(nn_in, workspace);
         double[] rw = a_exp(log_rw);
 
          // (9.5) test out of scope spectra with autoassociative neural network
-        double[] log_rtosa_aann = rtoa_aaNN7.get().calc(nn_in);
+        double[] log_rtosa_aann = rtoa_aaNN7.calc(nn_in, workspace);
         double[] rtosa_aann = a_exp(log_rtosa_aann);
         double[] rtosa_aaNNrat = a_div(rtosa_aann, r_tosa);
         //rtosa_aaNNrat_a(ipix,:)=rtosa_aaNNrat;
@@ -201,8 +204,8 @@ public class C2rccModisAlgorithm {
 
         // (9.6.2) test if input tosa spectrum is out of range
         // mima=aa_rtosa_nn_bn7_9(5); // minima and maxima of aaNN input
-        double[] mi = rtoa_aaNN7.get().getInmin();
-        double[] ma = rtoa_aaNN7.get().getInmax();
+        double[] mi = rtoa_aaNN7.getInmin();
+        double[] ma = rtoa_aaNN7.getInmax();
         boolean tosa_oor_flag = false; // (ipix)
         // for iv=1:19,// variables
         for (int iv = 0; iv < nn_in.length; iv++) { // variables
@@ -223,13 +226,13 @@ public class C2rccModisAlgorithm {
         nn_in_inv[3] = temperature;
         nn_in_inv[4] = salinity;
         System.arraycopy(log_rw, 0, nn_in_inv, 5, log_rw.length - 1);
-        double[] log_iops_nn1 = rw_IOP.get().calc(nn_in_inv);
+        double[] log_iops_nn1 = rw_IOP.calc(nn_in_inv, workspace);
         double[] iops_nn1 = a_exp(log_iops_nn1);
 
         // (9.10.2) test if input tosa spectrum is out of range
         //mima=inv_nn7(5); // minima and maxima of aaNN input
-        mi = rw_IOP.get().getInmin();
-        ma = rw_IOP.get().getInmax();
+        mi = rw_IOP.getInmin();
+        ma = rw_IOP.getInmax();
         boolean rw_oor_flag = false; // (ipix)
         //for iv=1:15,// variables
         for (int iv = 0; iv < mi.length; iv++) {
@@ -287,23 +290,14 @@ public class C2rccModisAlgorithm {
         return new Result(rw, iops_nn1, r_tosa, rtosa_aann, rtosa_aaNNrat_min, rtosa_aaNNrat_max, flags);
     }
 
-    private ThreadLocal<NNffbpAlphaTabFast> nnhs(String path) throws IOException {
+    private NNffbpBatch nnhs(String path) throws IOException {
         String name = "/auxdata/nets/" + path;
         InputStream stream = C2rccModisAlgorithm.class.getResourceAsStream(name);
         if (stream == null) {
             throw new IllegalStateException("resource not found: " + name);
         }
         final String nnCode = readFully(stream);
-        return new ThreadLocal<NNffbpAlphaTabFast>() {
-            @Override
-            protected NNffbpAlphaTabFast initialValue() {
-                try {
-                    return new NNffbpAlphaTabFast(nnCode);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-        };
+        return new NNffbpBatch(nnCode);
     }
 
     private String readFully(InputStream stream) throws IOException {
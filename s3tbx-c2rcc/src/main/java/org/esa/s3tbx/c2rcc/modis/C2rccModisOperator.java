@@ -5,6 +5,7 @@ import org.esa.s3tbx.c2rcc.C2rccCommons;
 import org.esa.s3tbx.c2rcc.C2rccConfigurable;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataBuilder;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.s3tbx.c2rcc.util.RgbProfiles;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.GeoCoding;
@@ -160,6 +161,7 @@ public class C2rccModisOperator extends PixelOperator implements C2rccConfigurab
 
     private C2rccModisAlgorithm algorithm;
     private AtmosphericAuxdata atmosphericAuxdata;
+    private ThreadLocal<AtmosphericAuxdataTile> auxdataTile;
     private TimeCoding timeCoding;
 
     public static boolean isValidInput(Product product) {
@@ -256,6 +258,7 @@ public class C2rccModisOperator extends PixelOperator implements C2rccConfigurab
         if (atmosphericAuxdata != null) {
             atmosphericAuxdata.dispose();
             atmosphericAuxdata = null;
+            auxdataTile = null;
         }
     }
 
@@ -269,11 +272,10 @@ public class C2rccModisOperator extends PixelOperator implements C2rccConfigurab
             }
             GeoCoding geoCoding = sourceProduct.getSceneGeoCoding();
             PixelPos pixelPos = new PixelPos(x + 0.5, y + 0.5);
-            double mjd = timeCoding.getMJD(pixelPos);
             GeoPos geoPos = geoCoding.getGeoPos(pixelPos, new GeoPos());
 
-            double ozone = C2rccCommons.fetchOzone(atmosphericAuxdata, mjd, x, y, geoPos.lat, geoPos.lon);
-            double atmPress = C2rccCommons.fetchSurfacePressure(atmosphericAuxdata, mjd, x, y, geoPos.lat, geoPos.lon);
+            double ozone = C2rccCommons.fetchOzone(auxdataTile.get(), x, y);
+            double atmPress = C2rccCommons.fetchSurfacePressure(auxdataTile.get(), x, y);
             Result result = algorithm.processPixel(
                     toa_ref,
                     sourceSamples[SUN_ZEN_IX].getDouble(),
@@ -440,6 +442,8 @@ public class C2rccModisOperator extends PixelOperator implements C2rccConfigurab
         auxdataBuilder.useNcepProducts(ncepStartProduct, ncepEndProduct);
         try {
             atmosphericAuxdata = auxdataBuilder.create();
+            auxdataTile = ThreadLocal.withInitial(() -> C2rccCommons.createAtmosphericAuxdataTile(
+                    atmosphericAuxdata, sourceProduct.getSceneGeoCoding(), timeCoding, getTargetProduct()));
         } catch (Exception e) {
             throw new OperatorException("Could not create provider for atmospheric auxdata", e);
         }
@@ -2,8 +2,10 @@ package org.esa.s3tbx.c2rcc.msi;
 
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s3tbx.c2rcc.C2rccConfigurable;
+import org.esa.s3tbx.c2rcc.C2rccCommons;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataBuilder;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.s3tbx.c2rcc.util.NNUtils;
 import org.esa.s3tbx.c2rcc.util.RgbProfiles;
 import org.esa.snap.core.datamodel.Band;
@@ -310,6 +312,7 @@ public class C2rccMsiOperator extends PixelOperator implements C2rccConfigurable
 
     private C2rccMsiAlgorithm algorithm;
     private AtmosphericAuxdata atmosphericAuxdata;
+    private ThreadLocal<AtmosphericAuxdataTile> auxdataTile;
     private ElevationModel elevationModel;
     private double[] solflux;
     private TimeCoding timeCoding;
@@ -426,6 +429,7 @@ public class C2rccMsiOperator extends PixelOperator implements C2rccConfigurable
         if (atmosphericAuxdata != null) {
             atmosphericAuxdata.dispose();
             atmosphericAuxdata = null;
+            auxdataTile = null;
         }
     }
 
@@ -454,10 +458,8 @@ public class C2rccMsiOperator extends PixelOperator implements C2rccConfigurable
         GeoPos geoPos = sourceProduct.getSceneGeoCoding().getGeoPos(pixelPos, null);
         double lat = geoPos.getLat();
         double lon = geoPos.getLon();
-
-        final double mjd = timeCoding.getMJD(pixelPos);
-        double ozone = fetchOzone(atmosphericAuxdata, mjd, x, y, lat, lon);
-        double atmPress = fetchSurfacePressure(atmosphericAuxdata, mjd, x, y, lat, lon);
+        double ozone = fetchOzone(auxdataTile.get(), x, y);
+        double atmPress = fetchSurfacePressure(auxdataTile.get(), x, y);
 
         final double altitude;
         if (elevationModel != null) {
@@ -1147,6 +1149,8 @@ public class C2rccMsiOperator extends PixelOperator implements C2rccConfigurable
         }
         try {
             atmosphericAuxdata = auxdataBuilder.create();
+            auxdataTile = ThreadLocal.withInitial(() -> C2rccCommons.createAtmosphericAuxdataTile(
+                    atmosphericAuxdata, sourceProduct.getSceneGeoCoding(), timeCoding, getTargetProduct()));
         } catch (Exception e) {
             throw new OperatorException("Could not create provider for atmospheric auxdata", e);
         }
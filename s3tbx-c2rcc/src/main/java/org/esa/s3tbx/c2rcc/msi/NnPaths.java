@@ -17,7 +17,7 @@ import static org.esa.s3tbx.c2rcc.msi.C2rccMsiAlgorithm.IDX_rw_rwnorm;
  */
 public final class NnPaths {
 
-    static String[] getStandard() {
+    public static String[] getStandard() {
         String[] standardNets = new String[10];
         standardNets[IDX_iop_rw] = "msi/std_s2_20160502/iop_rw/17x97x47_125.5.net";
         standardNets[IDX_iop_unciop] = "msi/std_s2_20160502/iop_unciop/17x77x37_11486.7.net";
@@ -1,6 +1,6 @@
 package org.esa.s3tbx.c2rcc.olci;
 
-import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.esa.s3tbx.c2rcc.util.NNffbpBatch;
 import org.esa.snap.core.util.BitSetter;
 
 import java.io.BufferedReader;
@@ -23,9 +23,7 @@ import static java.lang.Math.max;
 import static java.lang.Math.pow;
 import static java.lang.Math.sin;
 import static java.lang.Math.toRadians;
-import static org.esa.s3tbx.c2rcc.util.ArrayMath.a_abs;
 import static org.esa.s3tbx.c2rcc.util.ArrayMath.a_exp;
-import static org.esa.s3tbx.c2rcc.util.ArrayMath.a_sumx;
 
 /**
  * @author Roland Doerffer
@@ -58,16 +56,16 @@ public class C2rccOlciAlgorithm {
       /* 21 */   1020f // new
     };
 
-    static final int IDX_rtosa_aann = 0;
-    static final int IDX_rtosa_rw = 1;
-    static final int IDX_rw_iop = 2;
-    static final int IDX_iop_rw = 3;
-    static final int IDX_rw_kd = 4;
-    static final int IDX_iop_unciop = 5;
-    static final int IDX_iop_uncsumiop_unckd = 6;
-    static final int IDX_rw_rwnorm = 7;
-    static final int IDX_rtosa_trans = 8;
-    static final int IDX_rtosa_rpath = 9;
+    public static final int IDX_rtosa_aann = 0;
+    public static final int IDX_rtosa_rw = 1;
+    public static final int IDX_rw_iop = 2;
+    public static final int IDX_iop_rw = 3;
+    public static final int IDX_rw_kd = 4;
+    public static final int IDX_iop_unciop = 5;
+    public static final int IDX_iop_uncsumiop_unckd = 6;
+    public static final int IDX_rw_rwnorm = 7;
+    public static final int IDX_rtosa_trans = 8;
+    public static final int IDX_rtosa_rpath = 9;
 
     static final int[] olciband16_ix = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 16, 17, 18, 21};
     static final int[] olciband21_ix = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21};
@@ -105,16 +103,21 @@ public class C2rccOlciAlgorithm {
 
     private static final double[] h2o_cor_poly = {0.3832989, 1.6527957, -1.5635101, 0.5311913};
 
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rw_iop; // NN Rw -< IOPs input 10 bands, 5 IOPs
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_rw; // NN Rtosa -> Rw 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_aann; // Rtosa -> Rtosa' 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_rpath; //Rtosa -> Rpath 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rtosa_trans; // Rtosa -> transd, transu 12 bands
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_iop_rw; // IOPs(5) -> Rw' (10 bands)
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rw_kd; // Rw (10 bands) -> kd489, kdmin
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_iop_unciop; // IOPs (5) -> uncertainties of IOPs (5)
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_iop_uncsumiop_unckd; // IOPs (5) -> unc_adg, unc_atot, unc_btot, unc_kd489, unc_kdmin
-    private final ThreadLocal<NNffbpAlphaTabFast> nn_rw_rwnorm; // Rw (10) -> Rwn (10)
+    private final NNffbpBatch nn_rw_iop; // NN Rw -< IOPs input 10 bands, 5 IOPs
+    private final NNffbpBatch nn_rtosa_rw; // NN Rtosa -> Rw 12 bands
+    private final NNffbpBatch nn_rtosa_aann; // Rtosa -> Rtosa' 12 bands
+    private final NNffbpBatch nn_rtosa_rpath; //Rtosa -> Rpath 12 bands
+    private final NNffbpBatch nn_rtosa_trans; // Rtosa -> transd, transu 12 bands
+    private final NNffbpBatch nn_iop_rw; // IOPs(5) -> Rw' (10 bands)
+    private final NNffbpBatch nn_rw_kd; // Rw (10 bands) -> kd489, kdmin
+    private final NNffbpBatch nn_iop_unciop; // IOPs (5) -> uncertainties of IOPs (5)
+    private final NNffbpBatch nn_iop_uncsumiop_unckd; // IOPs (5) -> unc_adg, unc_atot, unc_btot, unc_kd489, unc_kdmin
+    private final NNffbpBatch nn_rw_rwnorm; // Rw (10) -> Rwn (10)
+
+    private final ThreadLocal<NNffbpBatch.Workspace> nnWorkspace = ThreadLocal.withInitial(NNffbpBatch.Workspace::new);
+
+    // whether a net, indexed by IDX_*, has to be evaluated for the configured outputs, see updateEvaluationPlan()
+    private final boolean[] evaluateNet;
     private final ArrayList<String> nnNames;
     private double salinity = 35.0;
     private double temperature = 15.0;
@@ -135,8 +138,9 @@ public class C2rccOlciAlgorithm {
     private boolean outputUncertainties;
     private boolean deriveRwFromPathAndTransmittance;
 
-    C2rccOlciAlgorithm(final String[] nnFilePaths, final boolean loadFromResources) throws IOException {
+    public C2rccOlciAlgorithm(final String[] nnFilePaths, final boolean loadFromResources) throws IOException {
         nnNames = new ArrayList<>();
+        evaluateNet = new boolean[nnFilePaths.length];
 
         // rtosa auto NN
         nn_rtosa_aann = nnhs(nnFilePaths[IDX_rtosa_aann], loadFromResources);
@@ -172,6 +176,8 @@ public class C2rccOlciAlgorithm {
         nn_rw_rwnorm = nnhs(nnFilePaths[IDX_rw_rwnorm], loadFromResources);
         nn_rtosa_trans = nnhs(nnFilePaths[IDX_rtosa_trans], loadFromResources);
         nn_rtosa_rpath = nnhs(nnFilePaths[IDX_rtosa_rpath], loadFromResources);
+
+        updateEvaluationPlan();
     }
 
     public void setThresh_absd_log_rtosa(double thresh_absd_log_rtosa) {
@@ -189,42 +195,77 @@ public class C2rccOlciAlgorithm {
 
     public void setOutputRtoaGcAann(boolean outputRtoaGcAann) {
         this.outputRtoaGcAann = outputRtoaGcAann;
+        updateEvaluationPlan();
     }
 
     public void setOutputRpath(boolean outputRpath) {
         this.outputRpath = outputRpath;
+        updateEvaluationPlan();
     }
 
     public void setOutputTdown(boolean outputTdown) {
         this.outputTdown = outputTdown;
+        updateEvaluationPlan();
     }
 
     public void setOutputTup(boolean outputTup) {
         this.outputTup = outputTup;
+        updateEvaluationPlan();
     }
 
     public void setOutputRhow(boolean outputRwa) {
         this.outputRwa = outputRwa;
+        updateEvaluationPlan();
     }
 
     public void setOutputRhown(boolean outputRwn) {
         this.outputRwn = outputRwn;
+        updateEvaluationPlan();
     }
 
     public void setOutputOos(boolean outputOos) {
         this.outputOos = outputOos;
+        updateEvaluationPlan();
     }
 
     public void setOutputKd(boolean outputKd) {
         this.outputKd = outputKd;
+        updateEvaluationPlan();
     }
 
     public void setOutputUncertainties(boolean outputUncertainties) {
         this.outputUncertainties = outputUncertainties;
+        updateEvaluationPlan();
     }
 
     public void setDeriveRwFromPathAndTransmittance(boolean deriveRwFromPathAndTransmittance) {
         this.deriveRwFromPathAndTransmittance = deriveRwFromPathAndTransmittance;
+        updateEvaluationPlan();
+    }
+
+    /**
+     * Decides once per configuration which nets are needed. A net is evaluated only if one of its results
+     * is written or is needed by another evaluated net or by a flag:
+     * <ul>
+     * <li>the auto-associative net, the transmittance net, the rw-IOP net and the IOP-rw net are always
+     * evaluated, because the RTOSA_OOS, CLOUD, IOP and RHOW_OOS flags depend on them</li>
+     * <li>the path radiance net is only needed for its output or to derive rw from path and transmittance,
+     * in which case the rtosa-rw net is skipped</li>
+     * <li>the rwnorm and uncertainty nets are only needed for their outputs, the kd net also for the kd
+     * uncertainties</li>
+     * </ul>
+     */
+    private void updateEvaluationPlan() {
+        evaluateNet[IDX_rtosa_aann] = true;
+        evaluateNet[IDX_rtosa_trans] = true;
+        evaluateNet[IDX_rtosa_rpath] = outputRpath || deriveRwFromPathAndTransmittance;
+        evaluateNet[IDX_rtosa_rw] = !deriveRwFromPathAndTransmittance;
+        evaluateNet[IDX_rw_iop] = true;
+        evaluateNet[IDX_iop_rw] = true;
+        evaluateNet[IDX_rw_rwnorm] = outputRwn;
+        evaluateNet[IDX_rw_kd] = outputKd || outputUncertainties;
+        evaluateNet[IDX_iop_unciop] = outputUncertainties;
+        evaluateNet[IDX_iop_uncsumiop_unckd] = outputUncertainties;
     }
 
     public void setTemperature(double temperature) {
@@ -247,6 +288,34 @@ public class C2rccOlciAlgorithm {
                                boolean validPixel,
                                double atm_press,
                                double ozone) {
+        return processPixel(px, py, lat, lon, toa_rad, solflux, sun_zeni, sun_azi, view_zeni, view_azi, dem_alt,
+                            validPixel, atm_press, ozone, createResult());
+    }
+
+    /**
+     * Processes a single pixel and writes all values into the given result, which is reused
+     * instead of allocating new arrays for every pixel. Values which are not computed, because the
+     * pixel is invalid or the corresponding output is switched off, are set to NaN in the arrays and
+     * to 0 in the scalar fields.
+     *
+     * @param result a result created by {@link #createResult()}, used by the calling thread only
+     * @return the given result
+     */
+    public Result processPixel(int px, int py,
+                               double lat, double lon,
+                               double[] toa_rad,
+                               double[] solflux,
+                               double sun_zeni,
+                               double sun_azi,
+                               double view_zeni,
+                               double view_azi,
+                               double dem_alt,
+                               boolean validPixel,
+                               double atm_press,
+                               double ozone,
+                               Result result) {
+        final NNffbpBatch.Workspace workspace = nnWorkspace.get();
+        result.clear();
 
         //  (9.2) compute angles
         double cos_sun = cos(toRadians(sun_zeni));
@@ -267,59 +336,37 @@ public class C2rccOlciAlgorithm {
         double y = sin_view * sin_azi_diff;
         double z = cos_view;
 
-        double[] r_toa = new double[toa_rad.length];
+        final double[] r_toa = result.r_toa;
         for (int i = 0; i < toa_rad.length; i++) {
             // r_toa =toa_rad'./solflux'.*%pi./cos_sun;
             r_toa[i] = PI * toa_rad[i] / solflux[i] / cos_sun;
         }
 
-        double[] r_tosa = new double[0];
         int flags = 0;
-        double[] rtosa_aann = new double[0];
-        double rtosa_oos = 0;
-        double[] rpath_nn = new double[0];
-        double[] transd_nn = new double[0];
-        double[] transu_nn = new double[0];
-        double[] rwa = new double[0];
-        double[] rwn = new double[0];
-        double[] iops_nn = new double[0];
-        double rwa_oos = 0;
-        double kdmin_nn = 0;
-        double kd489_nn = 0;
-        double unc_iop_abs[] = new double[0];
-        double unc_abs_chl = 0;
-        double unc_abs_adg = 0;
-        double unc_abs_atot = 0;
-        double unc_abs_btot = 0;
-        double unc_abs_kd489 = 0;
-        double unc_abs_kdmin = 0;
-        double unc_abs_tsm = 0;
 
         if (validPixel) {
-            double[] r_tosa_ur = new double[olciband16_ix.length];
-            for (int i = 0; i < olciband16_ix.length; i++) {
-                r_tosa_ur[i] = r_toa[olciband16_ix[i] - 1]; // -1 because counts in Scilab start at 1 not 0
-            }
-
             // @todo discuss with Carsten and Roland
             // (9.3.0) +++ water vapour correction for band 9 +++++ */
             //X2=rho_900/rho_885;
             double X2 = r_toa[18] / r_toa[17];
             double trans708 = h2o_cor_poly[0] + (h2o_cor_poly[1] + (h2o_cor_poly[2] + h2o_cor_poly[3] * X2) * X2) * X2;
-            r_tosa_ur[10] /= trans708;
 
             //*** (9.3.1) ozone correction ***/
             double model_ozone = 0;
 
-            r_tosa = new double[r_tosa_ur.length];
-            double[] log_rtosa = new double[r_tosa_ur.length];
-            for (int i = 0; i < r_tosa_ur.length; i++) {
+            final double[] r_tosa = result.r_tosa;
+            final double[] log_rtosa = result.log_rtosa;
+            for (int i = 0; i < olciband16_ix.length; i++) {
+                double r_tosa_ur = r_toa[olciband16_ix[i] - 1]; // -1 because counts in Scilab start at 1 not 0
+                if (i == 10) {
+                    r_tosa_ur /= trans708;
+                }
 
                 double trans_ozoned = exp(-(absorb_ozon[i] * ozone / 1000.0 - model_ozone) / cos_sun);
                 double trans_ozoneu = exp(-(absorb_ozon[i] * ozone / 1000.0 - model_ozone) / cos_view);
                 double trans_ozone = trans_ozoned * trans_ozoneu;
 
-                double r_tosa_oz = r_tosa_ur[i] / trans_ozone;
+                double r_tosa_oz = r_tosa_ur / trans_ozone;
 
                 r_tosa[i] = r_tosa_oz;
                 log_rtosa[i] = log(r_tosa[i]);
@@ -338,7 +385,7 @@ public class C2rccOlciAlgorithm {
 
             // (9.4) )set input to all atmosphere NNs
             //nn_in=[sun_zeni,x,y,z,temperature, salinity, alti_press, log_rtosa];
-            double[] nn_in = new double[7 + log_rtosa.length];
+            final double[] nn_in = result.nn_in;
             nn_in[0] = sun_zeni;
             nn_in[1] = x;
             nn_in[2] = y;
@@ -352,8 +399,8 @@ public class C2rccOlciAlgorithm {
 
             // (9.4.1) test if input tosa spectrum is out of range
             // mima=aa_rtosa_nn_bn7_9(5); // minima and maxima of aaNN input
-            double[] mi = nn_rtosa_aann.get().getInmin();
-            double[] ma = nn_rtosa_aann.get().getInmax();
+            double[] mi = nn_rtosa_aann.getInmin();
+            double[] ma = nn_rtosa_aann.getInmax();
             boolean rtosa_oor_flag = false; // (ipix)
             // for iv=1:19,// variables
             for (int iv = 0; iv < nn_in.length; iv++) { // variables
@@ -365,23 +412,23 @@ public class C2rccOlciAlgorithm {
 
 
             // (9.4.2) test out of scope spectra with autoassociative neural network
-            rtosa_aann = new double[0];
-            double[] log_rtosa_aann = new double[0];
             //if (outputRtoaGcAann || outputOos) {
-                log_rtosa_aann = this.nn_rtosa_aann.get().calc(nn_in);
-                rtosa_aann = a_exp(log_rtosa_aann);
+                double[] log_rtosa_aann = this.nn_rtosa_aann.calc(nn_in, workspace);
+                a_exp(log_rtosa_aann, result.rtosa_aann);
             //}
             //double[] rtosa_aaNNrat = adiv(rtosa_aann, r_tosa);
             //rtosa_aaNNrat_a(ipix,:)=rtosa_aaNNrat;
-            rtosa_oos = 0;
+            double rtosa_oos = 0;
             //if (outputOos) {
             //    double[] abs_diff_log_rtosa = a_abs(log_rtosa, log_rtosa_aann);
             //    rtosa_oos = a_max(abs_diff_log_rtosa);
             //}
             // RD20161103 changed to sum of differences of bands 9-12
             //if (outputOos) {
-            double[] abs_diff_rtosa = a_abs(r_tosa, rtosa_aann);
-            rtosa_oos = a_sumx(abs_diff_rtosa,12,15);
+            for (int i = 12; i <= 15; i++) {
+                rtosa_oos += abs(r_tosa[i] - result.rtosa_aann[i]);
+            }
+            result.rtosa_oos = rtosa_oos;
             //}
 
             // (9.6.1) set rho_toa out of scope flag
@@ -403,47 +450,43 @@ public class C2rccOlciAlgorithm {
             flags = BitSetter.setFlag(flags, FLAG_INDEX_RTOSA_OOS, rtosa_oos_flag);
 
             // (9.4.4) NN compute rpath from rtosa
-            rpath_nn = new double[0];
-            if (outputRpath || deriveRwFromPathAndTransmittance) {
-                double[] log_rpath_nn = nn_rtosa_rpath.get().calc(nn_in);
-                rpath_nn = a_exp(log_rpath_nn);
+            if (evaluateNet[IDX_rtosa_rpath]) {
+                double[] log_rpath_nn = nn_rtosa_rpath.calc(nn_in, workspace);
+                a_exp(log_rpath_nn, result.rpath_nn);
             }
 
             // (9.4.5) NN compute transmittance from rtosa
-            transd_nn = new double[0];
-            transu_nn = new double[0];
-            double[] trans_nn = nn_rtosa_trans.get().calc(nn_in);
+            double[] trans_nn = nn_rtosa_trans.calc(nn_in, workspace);
             // cloud flag test @865
             flags = BitSetter.setFlag(flags, FLAG_INDEX_CLOUD, trans_nn[13] < thresh_cloudTransD);
             if (outputTdown || deriveRwFromPathAndTransmittance) {
-                transd_nn = Arrays.copyOfRange(trans_nn, 0, 16);
+                System.arraycopy(trans_nn, 0, result.transd_nn, 0, 16);
             }
             if (outputTup || deriveRwFromPathAndTransmittance) {
-                transu_nn = Arrays.copyOfRange(trans_nn, 16, 32);
+                System.arraycopy(trans_nn, 16, result.transu_nn, 0, 16);
             }
 
             // (9.4.6)
             double[] log_rw;
-            if(deriveRwFromPathAndTransmittance) {
+            if (!evaluateNet[IDX_rtosa_rw]) {
                 // needs outputRpath & outputTdown & outputTup
-                log_rw = new double[r_tosa.length];
+                log_rw = result.log_rw;
                 for (int i = 0; i < r_tosa.length; i++) {
-                    log_rw[i] = r_tosa[i] - rpath_nn[i] / (transu_nn[i] * transd_nn[i]);
+                    log_rw[i] = r_tosa[i] - result.rpath_nn[i] / (result.transu_nn[i] * result.transd_nn[i]);
                 }
             }else {
-                log_rw = nn_rtosa_rw.get().calc(nn_in);
+                log_rw = nn_rtosa_rw.calc(nn_in, workspace);
             }
 
-            rwa = new double[0];
             if (outputRwa) {
-                rwa = a_exp(log_rw);
+                a_exp(log_rw, result.rwa);
             }
 
             // (9.5) water part
 
             // define input to water NNs
             //nn_in_inv=[sun_zeni view_zeni azi_diff_deg temperature salinity log_rw(1:10)];
-            double[] nn_in_inv = new double[5 + 12];
+            final double[] nn_in_inv = result.nn_in_inv;
             nn_in_inv[0] = sun_zeni;
             nn_in_inv[1] = view_zeni;
             nn_in_inv[2] = azi_diff_deg;
@@ -452,8 +495,8 @@ public class C2rccOlciAlgorithm {
             System.arraycopy(log_rw, 0, nn_in_inv, 5, 12);
 
             // (9.5.1)check input to rw -> IOP NN out of range
-            mi = nn_rw_iop.get().getInmin();
-            ma = nn_rw_iop.get().getInmax();
+            mi = nn_rw_iop.getInmin();
+            ma = nn_rw_iop.getInmax();
             boolean rwa_oor_flag = false;
             for (int iv = 0; iv < nn_in_inv.length; iv++) {
                 if (nn_in_inv[iv] < mi[iv] | nn_in_inv[iv] > ma[iv]) {
@@ -463,29 +506,23 @@ public class C2rccOlciAlgorithm {
             flags = BitSetter.setFlag(flags, FLAG_INDEX_RHOW_OOR, rwa_oor_flag);
 
             // (9.x.x.) NN compute Rwn from Rw
-            rwn = new double[0];
-            if (outputRwn) {
-                double[] log_rwn = nn_rw_rwnorm.get().calc(nn_in_inv);
-                rwn = a_exp(log_rwn);
+            if (evaluateNet[IDX_rw_rwnorm]) {
+                double[] log_rwn = nn_rw_rwnorm.calc(nn_in_inv, workspace);
+                a_exp(log_rwn, result.rwn);
             }
 
             // (9.10.1) NN compute IOPs from rw
-            double[] log_iops_nn1 = nn_rw_iop.get().calc(nn_in_inv);
-            iops_nn = a_exp(log_iops_nn1);
+            double[] log_iops_nn1 = nn_rw_iop.calc(nn_in_inv, workspace);
+            final double[] iops_nn = result.iops_nn;
+            a_exp(log_iops_nn1, iops_nn);
 
             // (9.14) compute combined IOPs and concentrations
             // split IOPs
-            double log_conc_ap_nn1 = log_iops_nn1[0];
-            double log_conc_ad_nn1 = log_iops_nn1[1];
-            double log_conc_ag_nn1 = log_iops_nn1[2];
-            double log_conc_bp_nn1 = log_iops_nn1[3];
-            double log_conc_bw_nn1 = log_iops_nn1[4];
-
-            double ap_nn1 = exp(log_conc_ap_nn1);
-            double ad_nn1 = exp(log_conc_ad_nn1);
-            double ag_nn1 = exp(log_conc_ag_nn1);
-            double bp_nn1 = exp(log_conc_bp_nn1);
-            double bw_nn1 = exp(log_conc_bw_nn1);
+            double ap_nn1 = iops_nn[0];
+            double ad_nn1 = iops_nn[1];
+            double ag_nn1 = iops_nn[2];
+            double bp_nn1 = iops_nn[3];
+            double bw_nn1 = iops_nn[4];
 
             // combine IOPs
             double adg_nn1 = ad_nn1 + ag_nn1;
@@ -498,8 +535,8 @@ public class C2rccOlciAlgorithm {
 //        double tsm_nn1 = btot_nn1 * 1.73;
 
             // (9.5.4) check if log_IOPs out of range
-            mi = nn_rw_iop.get().getOutmin();
-            ma = nn_rw_iop.get().getOutmax();
+            mi = nn_rw_iop.getOutmin();
+            ma = nn_rw_iop.getOutmax();
             boolean iop_oor_flag = false;
             for (int iv = 0; iv < log_iops_nn1.length; iv++) {
                 if (log_iops_nn1[iv] < mi[iv] | log_iops_nn1[iv] > ma[iv]) {
@@ -524,7 +561,7 @@ public class C2rccOlciAlgorithm {
             // (9.5.6) compute Rw out of scope
             //nn_in_for=[sun_zeni view_zeni azi_diff_deg temperature salinity log_iops_nn1];// input to forward water NN
 
-            double[] nn_in_for = new double[5 + 5];
+            final double[] nn_in_for = result.nn_in_for;
             nn_in_for[0] = sun_zeni;
             nn_in_for[1] = view_zeni;
             nn_in_for[2] = azi_diff_deg;
@@ -534,10 +571,9 @@ public class C2rccOlciAlgorithm {
 
             //log_rw_nn2 = nnhs_ff(for_nn9b,nn_in_for); // compute rho_w from IOPs
 
-            rwa_oos = 0;
             // RD20161103 no if, because this process should be performed always for the flag
             //if (outputOos) {
-            double[] log_rw_nn2 = nn_iop_rw.get().calc(nn_in_for);
+            double[] log_rw_nn2 = nn_iop_rw.calc(nn_in_for, workspace);
 
             // (9.5.7) test out of scope of rho_w by combining inverse and forward NN
             //  compute the test and set rw is out of scope flag
@@ -550,7 +586,8 @@ public class C2rccOlciAlgorithm {
             double s2_nn2 = abs(log_rw_nn2[wvl_620_idx] - log_rw_nn2[wvl_560_idx]);
             double s1_test = abs(s1_nn2 - s1_mess); // relative deviation for band ratio 5/2 (diff on log)
             double s2_test = abs(s2_nn2 - s2_mess); // relative deviation for band ratio 6/5 (diff on log)
-            rwa_oos = max(s1_test, s2_test);// maximum deviation output as quality indicator
+            double rwa_oos = max(s1_test, s2_test);// maximum deviation output as quality indicator
+            result.rwa_oos = rwa_oos;
             boolean rwa_oos_flag = false;
             if (rwa_oos > thresh_rwlogslope) {
                 rwa_oos_flag = true;
@@ -559,17 +596,15 @@ public class C2rccOlciAlgorithm {
             //}
 
             // (9.5.8) NN compute kd from rw
-            kdmin_nn = 0;
-            kd489_nn = 0;
-            if (outputKd || outputUncertainties) {
-                double[] log_kd2_nn = nn_rw_kd.get().calc(nn_in_inv);
-                kdmin_nn = exp(log_kd2_nn[0]);
-                kd489_nn = exp(log_kd2_nn[1]);
+            if (evaluateNet[IDX_rw_kd]) {
+                double[] log_kd2_nn = nn_rw_kd.calc(nn_in_inv, workspace);
+                result.kdmin_nn = exp(log_kd2_nn[0]);
+                result.kd489_nn = exp(log_kd2_nn[1]);
                 //            double z90max = 1.0 / kdmin_nn;
 
                 // (9.5.9) test if kd is at nn limits
-                mi = nn_rw_kd.get().getOutmin();
-                ma = nn_rw_kd.get().getOutmax();
+                mi = nn_rw_kd.getOutmin();
+                ma = nn_rw_kd.getOutmax();
                 boolean kdmin_oor_flag = false;
                 if (log_kd2_nn[0] < mi[0] | log_kd2_nn[0] > ma[0]) {
                     kdmin_oor_flag = true;
@@ -596,53 +631,55 @@ public class C2rccOlciAlgorithm {
             }
 
             // (9.6) )NN compute uncertainties
-            unc_iop_abs = new double[0];
-            unc_abs_chl = 0;
-            unc_abs_adg = 0;
-            unc_abs_atot = 0;
-            unc_abs_btot = 0;
-            unc_abs_kd489 = 0;
-            unc_abs_kdmin = 0;
-            unc_abs_tsm = 0;
-            if (outputUncertainties) {
-                double[] diff_log_abs_iop = nn_iop_unciop.get().calc(log_iops_nn1);
+            if (evaluateNet[IDX_iop_unciop]) {
+                double[] diff_log_abs_iop = nn_iop_unciop.calc(log_iops_nn1, workspace);
 
-                unc_iop_abs = new double[diff_log_abs_iop.length];
+                final double[] unc_iop_abs = result.unc_iop_abs;
                 for (int iv = 0; iv < diff_log_abs_iop.length; iv++) {
                     unc_iop_abs[iv] = iops_nn[iv] * (1.0 - exp(-diff_log_abs_iop[iv]));
                 }
 
-                unc_abs_chl = 21.0 * pow(unc_iop_abs[1], 1.04);
+                result.unc_abs_chl = 21.0 * pow(unc_iop_abs[1], 1.04);
 
                 // (9.16) NN compute uncertainties for combined IOPs and kd
-                double[] diff_log_abs_combi_kd = nn_iop_uncsumiop_unckd.get().calc(log_iops_nn1);
+                double[] diff_log_abs_combi_kd = nn_iop_uncsumiop_unckd.calc(log_iops_nn1, workspace);
                 double diff_log_abs_adg = diff_log_abs_combi_kd[0];
                 double diff_log_abs_atot = diff_log_abs_combi_kd[1];
                 double diff_log_abs_btot = diff_log_abs_combi_kd[2];
                 double diff_log_abs_kd489 = diff_log_abs_combi_kd[3];
 //                double diff_log_abs_kdmin = diff_log_abs_combi_kd[4];
-                unc_abs_adg = (1.0 - exp(-diff_log_abs_adg)) * adg_nn1;
-                unc_abs_atot = (1.0 - exp(-diff_log_abs_atot)) * atot_nn1;
-                unc_abs_btot = (1.0 - exp(-diff_log_abs_btot)) * btot_nn1;
-                unc_abs_kd489 = (1.0 - exp(-diff_log_abs_kd489)) * kd489_nn;
-                unc_abs_kdmin = (1.0 - exp(-diff_log_abs_kd489)) * kdmin_nn;
+                result.unc_abs_adg = (1.0 - exp(-diff_log_abs_adg)) * adg_nn1;
+                result.unc_abs_atot = (1.0 - exp(-diff_log_abs_atot)) * atot_nn1;
+                result.unc_abs_btot = (1.0 - exp(-diff_log_abs_btot)) * btot_nn1;
+                result.unc_abs_kd489 = (1.0 - exp(-diff_log_abs_kd489)) * result.kd489_nn;
+                result.unc_abs_kdmin = (1.0 - exp(-diff_log_abs_kd489)) * result.kdmin_nn;
                 //        double unc_z90max = abs(z90max - 1.0 / abs(kdmin_nn - unc_abs_kdmin));
-                unc_abs_tsm = 1.73 * unc_abs_btot;
+                result.unc_abs_tsm = 1.73 * result.unc_abs_btot;
             }
         }
 
         flags = BitSetter.setFlag(flags, FLAG_INDEX_VALID_PE, validPixel);
+        result.flags = flags;
 
-        return new Result(r_toa, r_tosa, rtosa_aann, rpath_nn, transd_nn, transu_nn, rwa, rwn, rtosa_oos, rwa_oos,
-                          iops_nn, kd489_nn, kdmin_nn, unc_iop_abs, unc_abs_adg, unc_abs_atot, unc_abs_btot,
-                          unc_abs_chl, unc_abs_tsm, unc_abs_kd489, unc_abs_kdmin, flags);
+        return result;
+    }
+
+    /**
+     * Creates a result whose buffers can be reused for any number of calls to
+     * {@link #processPixel(int, int, double, double, double[], double[], double, double, double, double, double, boolean, double, double, Result)}
+     * by the same thread.
+     */
+    public Result createResult() {
+        return new Result(nn_rw_rwnorm.getOutmin().length,
+                          nn_rw_iop.getOutmin().length,
+                          nn_iop_unciop.getOutmin().length);
     }
 
     public String[] getUsedNeuronalNetNames() {
         return nnNames.toArray(new String[nnNames.size()]);
     }
 
-    private ThreadLocal<NNffbpAlphaTabFast> nnhs(String sourcePath, boolean loadFromResource) throws IOException {
+    private NNffbpBatch nnhs(String sourcePath, boolean loadFromResource) throws IOException {
 
 //        Files.
 
@@ -663,16 +700,7 @@ public class C2rccOlciAlgorithm {
             nnNames.add(path.toString());
         }
         final String nnCode = readFully(stream);
-        return new ThreadLocal<NNffbpAlphaTabFast>() {
-            @Override
-            protected NNffbpAlphaTabFast initialValue() {
-                try {
-                    return new NNffbpAlphaTabFast(nnCode);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-        };
+        return new NNffbpBatch(nnCode);
     }
 
     private String readFully(InputStream stream) throws IOException {
@@ -691,61 +719,83 @@ public class C2rccOlciAlgorithm {
     }
 
     /**
-     * Structure for returning the algorithm's result.
+     * Structure for returning the algorithm's result. The arrays are allocated once and
+     * overwritten by every call of processPixel with this result.
      */
     public static class Result {
 
         public final double[] r_toa;
         public final double[] r_tosa;
         public final double[] rtosa_aann;
-        public final double rtosa_oos;
+        public double rtosa_oos;
         public final double[] rpath_nn;
         public final double[] transd_nn;
         public final double[] transu_nn;
         public final double[] rwa;
-        public final double rwa_oos;
+        public double rwa_oos;
         public final double[] rwn;
         public final double[] iops_nn;
-        public final double kd489_nn;
-        public final double kdmin_nn;
+        public double kd489_nn;
+        public double kdmin_nn;
         public final double[] unc_iop_abs;
-        public final double unc_abs_adg;
-        public final double unc_abs_atot;
-        public final double unc_abs_btot;
-        public final double unc_abs_chl;
-        public final double unc_abs_tsm;
-        public final double unc_abs_kd489;
-        public final double unc_abs_kdmin;
-        public final int flags;
-
-        public Result(double[] r_toa, double[] r_tosa, double[] rtosa_aann, double[] rpath_nn, double[] transd_nn, double[] transu_nn, double[] rwa,
-                      double[] rwn, double rtosa_oos, double rwa_oos, double[] iops_nn,
-                      double kd489_nn, double kdmin_nn, double[] unc_iop_abs,
-                      double unc_abs_adg, double unc_abs_atot, double unc_abs_btot, double unc_abs_chl,
-                      double unc_abs_tsm, double unc_abs_kd489, double unc_abs_kdmin, int flags) {
-
-            this.r_toa = r_toa;
-            this.r_tosa = r_tosa;
-            this.rtosa_aann = rtosa_aann;
-            this.rtosa_oos = rtosa_oos;
-            this.rpath_nn = rpath_nn;
-            this.transd_nn = transd_nn;
-            this.transu_nn = transu_nn;
-            this.rwa = rwa;
-            this.rwa_oos = rwa_oos;
-            this.rwn = rwn;
-            this.iops_nn = iops_nn;
-            this.kd489_nn = kd489_nn;
-            this.kdmin_nn = kdmin_nn;
-            this.unc_iop_abs = unc_iop_abs;
-            this.unc_abs_adg = unc_abs_adg;
-            this.unc_abs_atot = unc_abs_atot;
-            this.unc_abs_btot = unc_abs_btot;
-            this.unc_abs_chl = unc_abs_chl;
-            this.unc_abs_tsm = unc_abs_tsm;
-            this.unc_abs_kdmin = unc_abs_kdmin;
-            this.unc_abs_kd489 = unc_abs_kd489;
-            this.flags = flags;
+        public double unc_abs_adg;
+        public double unc_abs_atot;
+        public double unc_abs_btot;
+        public double unc_abs_chl;
+        public double unc_abs_tsm;
+        public double unc_abs_kd489;
+        public double unc_abs_kdmin;
+        public int flags;
+
+        // scratch buffers of processPixel
+        private final double[] log_rtosa;
+        private final double[] nn_in;
+        private final double[] log_rw;
+        private final double[] nn_in_inv;
+        private final double[] nn_in_for;
+
+        Result(int rwnCount, int iopCount, int uncIopCount) {
+            final int numTosa = olciband16_ix.length;
+            r_toa = new double[olciband21_ix.length];
+            r_tosa = new double[numTosa];
+            rtosa_aann = new double[numTosa];
+            rpath_nn = new double[numTosa];
+            transd_nn = new double[numTosa];
+            transu_nn = new double[numTosa];
+            rwa = new double[numTosa];
+            rwn = new double[rwnCount];
+            iops_nn = new double[iopCount];
+            unc_iop_abs = new double[uncIopCount];
+
+            log_rtosa = new double[numTosa];
+            nn_in = new double[7 + numTosa];
+            log_rw = new double[numTosa];
+            nn_in_inv = new double[5 + 12];
+            nn_in_for = new double[5 + 5];
+        }
+
+        private void clear() {
+            Arrays.fill(r_tosa, Double.NaN);
+            Arrays.fill(rtosa_aann, Double.NaN);
+            Arrays.fill(rpath_nn, Double.NaN);
+            Arrays.fill(transd_nn, Double.NaN);
+            Arrays.fill(transu_nn, Double.NaN);
+            Arrays.fill(rwa, Double.NaN);
+            Arrays.fill(rwn, Double.NaN);
+            Arrays.fill(iops_nn, Double.NaN);
+            Arrays.fill(unc_iop_abs, Double.NaN);
+            rtosa_oos = 0;
+            rwa_oos = 0;
+            kd489_nn = 0;
+            kdmin_nn = 0;
+            unc_abs_adg = 0;
+            unc_abs_atot = 0;
+            unc_abs_btot = 0;
+            unc_abs_chl = 0;
+            unc_abs_tsm = 0;
+            unc_abs_kd489 = 0;
+            unc_abs_kdmin = 0;
+            flags = 0;
         }
     }
 
@@ -5,6 +5,7 @@ import org.esa.s3tbx.c2rcc.C2rccCommons;
 import org.esa.s3tbx.c2rcc.C2rccConfigurable;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataBuilder;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.s3tbx.c2rcc.olci.C2rccOlciAlgorithm.Result;
 import org.esa.s3tbx.c2rcc.util.NNUtils;
 import org.esa.s3tbx.c2rcc.util.RgbProfiles;
@@ -319,9 +320,11 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
 
     private C2rccOlciAlgorithm algorithm;
     private AtmosphericAuxdata atmosphericAuxdata;
+    private ThreadLocal<AtmosphericAuxdataTile> auxdataTile;
     private boolean useSnapDem;
     private ElevationModel elevationModel;
     private TimeCoding timeCoding;
+    private ThreadLocal<PixelWorkspace> pixelWorkspace;
 
     public static boolean isValidInput(Product product) {
         for (int i = 1; i <= BAND_COUNT; i++) {
@@ -452,27 +455,29 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
         if (atmosphericAuxdata != null) {
             atmosphericAuxdata.dispose();
             atmosphericAuxdata = null;
+            auxdataTile = null;
         }
     }
 
     @Override
     protected void computePixel(int x, int y, Sample[] sourceSamples, WritableSample[] targetSamples) {
-        final double[] radiances = new double[BAND_COUNT];
-        final double[] solflux = new double[BAND_COUNT];
+        final PixelWorkspace workspace = pixelWorkspace.get();
+        final double[] radiances = workspace.radiances;
+        final double[] solflux = workspace.solflux;
         for (int i = 0; i < BAND_COUNT; i++) {
             radiances[i] = sourceSamples[i].getDouble();
             Sample solFluxSample = sourceSamples[i + SOLAR_FLUX_START_IX];
             solflux[i] = solFluxSample.getNode().isPixelValid(x, y) ? solFluxSample.getDouble() : Double.NaN;
         }
 
-        final PixelPos pixelPos = new PixelPos(x + 0.5f, y + 0.5f);
-        final double mjd = timeCoding.getMJD(pixelPos);
+        final PixelPos pixelPos = workspace.pixelPos;
+        pixelPos.setLocation(x + 0.5f, y + 0.5f);
 
-        GeoPos geoPos = sourceProduct.getSceneGeoCoding().getGeoPos(pixelPos, null);
+        GeoPos geoPos = sourceProduct.getSceneGeoCoding().getGeoPos(pixelPos, workspace.geoPos);
         double lat = geoPos.getLat();
         double lon = geoPos.getLon();
-        double atmPress = fetchSurfacePressure(atmosphericAuxdata, mjd, x, y, lat, lon);
-        double ozone = fetchOzone(atmosphericAuxdata, mjd, x, y, lat, lon);
+        double atmPress = fetchSurfacePressure(auxdataTile.get(), x, y);
+        double ozone = fetchOzone(auxdataTile.get(), x, y);
         final double altitude;
         if (useSnapDem) {
             try {
@@ -484,6 +489,7 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
             altitude = sourceSamples[DEM_ALT_IX].getDouble();
         }
 
+        final boolean validPixel = sourceSamples[VALID_PIXEL_IX].getBoolean();
         Result result = algorithm.processPixel(x, y, lat, lon,
                                                radiances,
                                                solflux,
@@ -492,9 +498,10 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
                                                sourceSamples[VIEW_ZEN_IX].getDouble(),
                                                sourceSamples[VIEW_AZI_IX].getDouble(),
                                                altitude,
-                                               sourceSamples[VALID_PIXEL_IX].getBoolean(),
+                                               validPixel,
                                                atmPress,
-                                               ozone);
+                                               ozone,
+                                               workspace.result);
 
         if (outputRtoa) {
             for (int i = 0; i < result.r_toa.length; i++) {
@@ -502,45 +509,58 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
             }
         }
 
-        if (outputRtosaGc) {
-            for (int i = 0; i < result.r_tosa.length; i++) {
-                targetSamples[RTOSA_IX + i].set(result.r_tosa[i]);
+        // the spectra of invalid pixels are not written, their scalar values are 0
+        if (validPixel) {
+            if (outputRtosaGc) {
+                for (int i = 0; i < result.r_tosa.length; i++) {
+                    targetSamples[RTOSA_IX + i].set(result.r_tosa[i]);
+                }
             }
-        }
 
-        if (outputRtosaGcAann) {
-            for (int i = 0; i < result.rtosa_aann.length; i++) {
-                targetSamples[RTOSA_AANN_IX + i].set(result.rtosa_aann[i]);
+            if (outputRtosaGcAann) {
+                for (int i = 0; i < result.rtosa_aann.length; i++) {
+                    targetSamples[RTOSA_AANN_IX + i].set(result.rtosa_aann[i]);
+                }
             }
-        }
 
-        if (outputRpath) {
-            for (int i = 0; i < result.rpath_nn.length; i++) {
-                targetSamples[RPATH_IX + i].set(result.rpath_nn[i]);
+            if (outputRpath) {
+                for (int i = 0; i < result.rpath_nn.length; i++) {
+                    targetSamples[RPATH_IX + i].set(result.rpath_nn[i]);
+                }
             }
-        }
 
-        if (outputTdown) {
-            for (int i = 0; i < result.transd_nn.length; i++) {
-                targetSamples[TDOWN_IX + i].set(result.transd_nn[i]);
+            if (outputTdown) {
+                for (int i = 0; i < result.transd_nn.length; i++) {
+                    targetSamples[TDOWN_IX + i].set(result.transd_nn[i]);
+                }
             }
-        }
 
-        if (outputTup) {
-            for (int i = 0; i < result.transu_nn.length; i++) {
-                targetSamples[TUP_IX + i].set(result.transu_nn[i]);
+            if (outputTup) {
+                for (int i = 0; i < result.transu_nn.length; i++) {
+                    targetSamples[TUP_IX + i].set(result.transu_nn[i]);
+                }
             }
-        }
 
-        if (outputAcReflectance) {
-            for (int i = 0; i < result.rwa.length; i++) {
-                targetSamples[AC_REFLEC_IX + i].set(outputAsRrs ? result.rwa[i] / Math.PI : result.rwa[i]);
+            if (outputAcReflectance) {
+                for (int i = 0; i < result.rwa.length; i++) {
+                    targetSamples[AC_REFLEC_IX + i].set(outputAsRrs ? result.rwa[i] / Math.PI : result.rwa[i]);
+                }
             }
-        }
 
-        if (outputRhown) {
-            for (int i = 0; i < result.rwn.length; i++) {
-                targetSamples[RHOWN_IX + i].set(result.rwn[i]);
+            if (outputRhown) {
+                for (int i = 0; i < result.rwn.length; i++) {
+                    targetSamples[RHOWN_IX + i].set(result.rwn[i]);
+                }
+            }
+
+            for (int i = 0; i < result.iops_nn.length; i++) {
+                targetSamples[IOP_APIG_IX + i].set(result.iops_nn[i]);
+            }
+
+            if (outputUncertainties) {
+                for (int i = 0; i < result.unc_iop_abs.length; i++) {
+                    targetSamples[UNC_APIG_IX + i].set(result.unc_iop_abs[i]);
+                }
             }
         }
 
@@ -549,19 +569,12 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
             targetSamples[OOS_AC_REFLEC_IX].set(result.rwa_oos);
         }
 
-        for (int i = 0; i < result.iops_nn.length; i++) {
-            targetSamples[IOP_APIG_IX + i].set(result.iops_nn[i]);
-        }
-
         if (outputKd) {
             targetSamples[KD489_IX].set(result.kd489_nn);
             targetSamples[KDMIN_IX].set(result.kdmin_nn);
         }
 
         if (outputUncertainties) {
-            for (int i = 0; i < result.unc_iop_abs.length; i++) {
-                targetSamples[UNC_APIG_IX + i].set(result.unc_iop_abs[i]);
-            }
             targetSamples[UNC_ADG_IX].set(result.unc_abs_adg);
             targetSamples[UNC_ATOT_IX].set(result.unc_abs_atot);
             targetSamples[UNC_BTOT_IX].set(result.unc_abs_btot);
@@ -1007,6 +1020,7 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
             algorithm.setOutputKd(outputKd);
             algorithm.setOutputUncertainties(outputUncertainties);
             algorithm.setDeriveRwFromPathAndTransmittance(deriveRwFromPathAndTransmittance);
+            pixelWorkspace = ThreadLocal.withInitial(() -> new PixelWorkspace(algorithm.createResult()));
             addNnNamesMetadata();
             pm.worked(1);
             pm.setSubTaskName("Initialising atmospheric auxiliary data");
@@ -1075,6 +1089,8 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
 
         try {
             atmosphericAuxdata = auxdataBuilder.create();
+            auxdataTile = ThreadLocal.withInitial(() -> C2rccCommons.createAtmosphericAuxdataTile(
+                    atmosphericAuxdata, sourceProduct.getSceneGeoCoding(), timeCoding, getTargetProduct()));
         } catch (Exception e) {
             throw new OperatorException("Could not create provider for atmospheric auxdata", e);
         }
@@ -1092,6 +1108,22 @@ public class C2rccOlciOperator extends PixelOperator implements C2rccConfigurabl
         }
     }
 
+    /**
+     * Per-thread buffers of computePixel, so that no objects are allocated per pixel.
+     */
+    private static class PixelWorkspace {
+
+        final double[] radiances = new double[BAND_COUNT];
+        final double[] solflux = new double[BAND_COUNT];
+        final PixelPos pixelPos = new PixelPos();
+        final GeoPos geoPos = new GeoPos();
+        final Result result;
+
+        PixelWorkspace(Result result) {
+            this.result = result;
+        }
+    }
+
     public static class Spi extends OperatorSpi {
         static {
             RgbProfiles.installRgbProfiles("C2RCC_OLCI",
@@ -5,6 +5,7 @@ import org.esa.s3tbx.c2rcc.C2rccCommons;
 import org.esa.s3tbx.c2rcc.C2rccConfigurable;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdata;
 import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataBuilder;
+import org.esa.s3tbx.c2rcc.ancillary.AtmosphericAuxdataTile;
 import org.esa.s3tbx.c2rcc.util.RgbProfiles;
 import org.esa.s3tbx.c2rcc.util.TargetProductPreparer;
 import org.esa.snap.core.datamodel.Band;
@@ -163,6 +164,7 @@ public class C2rccSeaWiFSOperator extends PixelOperator implements C2rccConfigur
 
     private C2rccSeaWiFSAlgorithm algorithm;
     private AtmosphericAuxdata atmosphericAuxdata;
+    private ThreadLocal<AtmosphericAuxdataTile> auxdataTile;
     private TimeCoding timeCoding;
 
     @Override
@@ -217,7 +219,6 @@ public class C2rccSeaWiFSOperator extends PixelOperator implements C2rccConfigur
 
             final PixelPos pixelPos = new PixelPos(x + 0.5f, y + 0.5f);
             GeoPos geoPos = sourceProduct.getSceneGeoCoding().getGeoPos(pixelPos, null);
-            final double mjd = timeCoding.getMJD(pixelPos);
             final double lat = geoPos.getLat();
             final double lon = geoPos.getLon();
 
@@ -226,8 +227,8 @@ public class C2rccSeaWiFSOperator extends PixelOperator implements C2rccConfigur
             final double view_zeni = sourceSamples[VIEW_ZEN_IX].getDouble();
             final double view_azi = sourceSamples[VIEW_AZI_IX].getDouble();
             final double dem_alt = 0.0;  // todo to be replaced by a real value
-            final double atm_press = fetchSurfacePressure(atmosphericAuxdata, mjd, x, y, lat, lon);
-            final double ozone = fetchOzone(atmosphericAuxdata, mjd, x, y, lat, lon);
+            final double atm_press = fetchSurfacePressure(auxdataTile.get(), x, y);
+            final double ozone = fetchOzone(auxdataTile.get(), x, y);
 
             C2rccSeaWiFSAlgorithm.Result result = algorithm.processPixel(
                     toa_ref,
@@ -398,6 +399,8 @@ public class C2rccSeaWiFSOperator extends PixelOperator implements C2rccConfigur
         auxdataBuilder.useNcepProducts(ncepStartProduct, ncepEndProduct);
         try {
             atmosphericAuxdata = auxdataBuilder.create();
+            auxdataTile = ThreadLocal.withInitial(() -> C2rccCommons.createAtmosphericAuxdataTile(
+                    atmosphericAuxdata, sourceProduct.getSceneGeoCoding(), timeCoding, getTargetProduct()));
         } catch (Exception e) {
             throw new OperatorException("Could not create provider for atmospheric auxdata", e);
         }
@@ -441,6 +444,7 @@ public class C2rccSeaWiFSOperator extends PixelOperator implements C2rccConfigur
         if (atmosphericAuxdata != null) {
             atmosphericAuxdata.dispose();
             atmosphericAuxdata = null;
+            auxdataTile = null;
         }
     }
 
@@ -17,6 +17,16 @@ public class ArrayMath {
         return DoubleStream.of(x).map(Math::exp).toArray();
     }
 
+    /**
+     * Same as {@link #a_exp(double[])}, but writes the values into the given array instead of allocating a new one.
+     * The target array must be at least as long as the input array.
+     */
+    public static void a_exp(double[] x, double[] target) {
+        for (int i = 0; i < x.length; i++) {
+            target[i] = Math.exp(x[i]);
+        }
+    }
+
     public static double[] a_ind(double[] x, int[] ind) {
         double[] y = new double[ind.length];
         for (int i = 0; i < ind.length; i++) {
@@ -0,0 +1,307 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A feed-forward back-propagation neural net which evaluates a batch of input vectors in one call.
+ * It reads the same net format as {@code org.esa.snap.core.nn.NNffbpAlphaTabFast}, but pushes all
+ * inputs through each layer as a matrix-matrix product, so that a weight row stays in the cache while
+ * it is applied to a block of pixels. The activation function is looked up in the same table as
+ * {@code NNffbpAlphaTabFast} uses, so both give identical results for the same net.
+ * <p>
+ * Instances are immutable and can be shared between threads. All intermediate activations are kept in
+ * a {@link Workspace}, which must not be shared between threads. So an algorithm loads the weights of
+ * each net only once for all threads, and each thread keeps a single workspace for all nets, usually in a
+ * {@code ThreadLocal}.
+ */
+public class NNffbpBatch {
+
+    // number of input vectors which are pushed through a layer together
+    private static final int BLOCK_SIZE = 32;
+
+    // the activation is taken from ALPHA_TAB for arguments from ALPHA_START to -ALPHA_START,
+    // below and above the first and the last entry are used
+    private static final double ALPHA_START = -10.0;
+    private static final int NALPHA = 100000;
+    private static final double[] ALPHA_TAB = new double[NALPHA];
+    private static final double RECD_ALPHA;
+
+    static {
+        final double delta = (-2.0 * ALPHA_START) / (NALPHA - 1.0);
+        double sum = ALPHA_START + (0.5 * delta);
+        for (int i = 0; i < NALPHA; i++) {
+            ALPHA_TAB[i] = 1.0 / (1.0 + Math.exp(-sum));
+            sum += delta;
+        }
+        RECD_ALPHA = 1.0 / delta;
+    }
+
+    private final double[] inmin;
+    private final double[] inmax;
+    private final double[] outmin;
+    private final double[] outmax;
+    private final double[] inRange;
+    private final double[] outRange;
+    private final int[] size;
+    private final int maxLayerSize;
+    // weights of plane p in row-major order [size[p + 1]][size[p]]
+    private final double[][] wgt;
+    private final double[][] bias;
+
+    public NNffbpBatch(String netCode) throws IOException {
+        final Tokens tokens = new Tokens(netCode);
+
+        final int numIn = tokens.nextInt();
+        inmin = new double[numIn];
+        inmax = new double[numIn];
+        for (int i = 0; i < numIn; i++) {
+            inmin[i] = tokens.nextDouble();
+            inmax[i] = tokens.nextDouble();
+        }
+        final int numOut = tokens.nextInt();
+        outmin = new double[numOut];
+        outmax = new double[numOut];
+        for (int i = 0; i < numOut; i++) {
+            outmin[i] = tokens.nextDouble();
+            outmax[i] = tokens.nextDouble();
+        }
+        tokens.expect("$");
+
+        final String planesToken = tokens.next();
+        if (!planesToken.startsWith("#planes=")) {
+            throw new IOException("Invalid neural net, expected '#planes=' but found '" + planesToken + "'");
+        }
+        final int numPlanes = Integer.parseInt(planesToken.substring("#planes=".length()));
+        size = new int[numPlanes];
+        int maxSize = 0;
+        for (int i = 0; i < numPlanes; i++) {
+            size[i] = tokens.nextInt();
+            maxSize = Math.max(maxSize, size[i]);
+        }
+        maxLayerSize = maxSize;
+        if (size[0] != numIn || size[numPlanes - 1] != numOut) {
+            throw new IOException("Invalid neural net, plane sizes do not match the number of inputs and outputs");
+        }
+
+        bias = new double[numPlanes - 1][];
+        for (int pl = 0; pl < numPlanes - 1; pl++) {
+            tokens.expect("bias");
+            tokens.nextInt();
+            final int biasCount = tokens.nextInt();
+            if (biasCount != size[pl + 1]) {
+                throw new IOException("Invalid neural net, unexpected bias count in plane " + (pl + 1));
+            }
+            bias[pl] = new double[biasCount];
+            for (int i = 0; i < biasCount; i++) {
+                bias[pl][i] = tokens.nextDouble();
+            }
+        }
+
+        wgt = new double[numPlanes - 1][];
+        for (int pl = 0; pl < numPlanes - 1; pl++) {
+            tokens.expect("wgt");
+            tokens.nextInt();
+            final int from = tokens.nextInt();
+            final int to = tokens.nextInt();
+            if (from != size[pl] || to != size[pl + 1]) {
+                throw new IOException("Invalid neural net, unexpected weight dimension in plane " + pl);
+            }
+            wgt[pl] = new double[to * from];
+            for (int i = 0; i < wgt[pl].length; i++) {
+                wgt[pl][i] = tokens.nextDouble();
+            }
+        }
+
+        inRange = new double[numIn];
+        for (int i = 0; i < numIn; i++) {
+            inRange[i] = inmax[i] - inmin[i];
+        }
+        outRange = new double[numOut];
+        for (int i = 0; i < numOut; i++) {
+            outRange[i] = outmax[i] - outmin[i];
+        }
+    }
+
+    public double[] getInmin() {
+        return inmin;
+    }
+
+    public double[] getInmax() {
+        return inmax;
+    }
+
+    public double[] getOutmin() {
+        return outmin;
+    }
+
+    public double[] getOutmax() {
+        return outmax;
+    }
+
+    public int getInputCount() {
+        return size[0];
+    }
+
+    public int getOutputCount() {
+        return size[size.length - 1];
+    }
+
+    /**
+     * Evaluates the net for a single input vector.
+     *
+     * @param input     the input vector of length {@link #getInputCount()}
+     * @param workspace the scratch memory of the calling thread
+     * @return the output vector. The array belongs to the workspace and is overwritten by the next
+     * evaluation of this net with the same workspace.
+     */
+    public double[] calc(double[] input, Workspace workspace) {
+        final double[] output = workspace.getOutput(this);
+        calc(input, 1, output, workspace);
+        return output;
+    }
+
+    /**
+     * Evaluates the net for {@code count} input vectors.
+     *
+     * @param input     the input vectors, one after the other, each of length {@link #getInputCount()}
+     * @param count     the number of input vectors
+     * @param output    receives the output vectors, one after the other, each of length {@link #getOutputCount()}
+     * @param workspace the scratch memory of the calling thread
+     */
+    public void calc(double[] input, int count, double[] output, Workspace workspace) {
+        workspace.ensureCapacity(count, maxLayerSize);
+        double[] act = workspace.act;
+        double[] next = workspace.next;
+
+        final int numIn = size[0];
+        for (int p = 0; p < count; p++) {
+            final int off = p * numIn;
+            for (int i = 0; i < numIn; i++) {
+                act[off + i] = (input[off + i] - inmin[i]) / inRange[i];
+            }
+        }
+
+        for (int pl = 0; pl < size.length - 1; pl++) {
+            final int from = size[pl];
+            final int to = size[pl + 1];
+            final double[] w = wgt[pl];
+            final double[] b = bias[pl];
+            for (int blockStart = 0; blockStart < count; blockStart += BLOCK_SIZE) {
+                final int blockEnd = Math.min(blockStart + BLOCK_SIZE, count);
+                for (int o = 0; o < to; o++) {
+                    final int wOff = o * from;
+                    final double bo = b[o];
+                    for (int p = blockStart; p < blockEnd; p++) {
+                        final int aOff = p * from;
+                        double sum = bo;
+                        for (int i = 0; i < from; i++) {
+                            sum += w[wOff + i] * act[aOff + i];
+                        }
+                        next[p * to + o] = sigmoid(sum);
+                    }
+                }
+            }
+            final double[] tmp = act;
+            act = next;
+            next = tmp;
+        }
+
+        final int numOut = size[size.length - 1];
+        for (int p = 0; p < count; p++) {
+            final int off = p * numOut;
+            for (int i = 0; i < numOut; i++) {
+                output[off + i] = act[off + i] * outRange[i] + outmin[i];
+            }
+        }
+    }
+
+    static double sigmoid(double x) {
+        final int index = (int) ((x - ALPHA_START) * RECD_ALPHA);
+        if (index < 0) {
+            return ALPHA_TAB[0];
+        }
+        if (index >= NALPHA) {
+            return ALPHA_TAB[NALPHA - 1];
+        }
+        return ALPHA_TAB[index];
+    }
+
+    /**
+     * Scratch memory holding the activations of a batch and the single output vector of each net.
+     * It grows on demand and can be used for different nets, but only by one thread at a time.
+     */
+    public static class Workspace {
+
+        private double[] act = new double[0];
+        private double[] next = new double[0];
+        private final Map<NNffbpBatch, double[]> outputs = new IdentityHashMap<>();
+
+        double[] getOutput(NNffbpBatch net) {
+            return outputs.computeIfAbsent(net, n -> new double[n.getOutputCount()]);
+        }
+
+        void ensureCapacity(int count, int layerSize) {
+            final int required = count * layerSize;
+            if (act.length < required) {
+                act = new double[required];
+                next = new double[required];
+            }
+        }
+    }
+
+    private static class Tokens {
+
+        private final String[] tokens;
+        private int index;
+
+        Tokens(String netCode) throws IOException {
+            // the first line only containing '#' separates the descriptive header from the net definition
+            final String[] lines = netCode.split("\\r?\\n");
+            int start = -1;
+            for (int i = 0; i < lines.length; i++) {
+                if (lines[i].trim().equals("#")) {
+                    start = i + 1;
+                    break;
+                }
+            }
+            if (start < 0) {
+                throw new IOException("Invalid neural net, missing '#' separator line");
+            }
+            final String body = String.join(" ", Arrays.copyOfRange(lines, start, lines.length)).trim();
+            tokens = body.split("\\s+");
+        }
+
+        String next() throws IOException {
+            if (index >= tokens.length) {
+                throw new IOException("Invalid neural net, unexpected end of definition");
+            }
+            return tokens[index++];
+        }
+
+        void expect(String expected) throws IOException {
+            final String token = next();
+            if (!expected.equals(token)) {
+                throw new IOException("Invalid neural net, expected '" + expected + "' but found '" + token + "'");
+            }
+        }
+
+        int nextInt() throws IOException {
+            try {
+                return Integer.parseInt(next());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid neural net", e);
+            }
+        }
+
+        double nextDouble() throws IOException {
+            try {
+                return Double.parseDouble(next());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid neural net", e);
+            }
+        }
+    }
+}
@@ -2,24 +2,14 @@ package org.esa.s3tbx.c2rcc.util;
 
 import org.esa.snap.core.datamodel.ProductData;
 
+import java.time.Year;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.Locale;
-import java.util.TimeZone;
 
 import static java.lang.Math.*;
 
 public class SolarFluxCorrectionFactorCalculator {
 
-    private final static Calendar cal = GregorianCalendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.ENGLISH);
-
-    static {
-        cal.set(Calendar.MONTH, Calendar.DECEMBER);
-        cal.set(Calendar.DAY_OF_MONTH, 31);
-        cal.set(Calendar.HOUR_OF_DAY, 12);
-    }
-
     public static double computeFactorFor(ProductData.UTC startTime, ProductData.UTC endTime) {
         final ProductData.UTC centerUTC = getCenterUTC(startTime, endTime);
         return computeFactorFor(centerUTC);
@@ -55,8 +45,7 @@ public class SolarFluxCorrectionFactorCalculator {
                + 0.000077 * sin(2 * gamma);
     }
 
-    public static synchronized int getNumDaysInTheYear(int year) {
-        cal.set(GregorianCalendar.YEAR, year);
-        return cal.get(Calendar.DAY_OF_YEAR);
+    public static int getNumDaysInTheYear(int year) {
+        return Year.isLeap(year) ? 366 : 365;
     }
 }
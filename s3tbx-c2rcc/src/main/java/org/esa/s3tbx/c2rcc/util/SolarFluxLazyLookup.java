@@ -1,19 +1,42 @@
 package org.esa.s3tbx.c2rcc.util;
 
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Provides the solar flux corrected for the sun-earth distance of a day. The corrected flux of a day
+ * is computed on first request and then shared, also between threads.
+ */
 public class SolarFluxLazyLookup {
 
+    // epoch day of 2000-01-01, the origin of the modified julian date used by ProductData.UTC
+    private static final long MJD2000_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+
+    // day of year starts at 1 and goes up to 366 in leap years
+    private static final int DAY_SLOTS = 367;
+
     final double[] solFlux;
-    private double[][][] correctedSolFluxForADay;
+    // the days of a year with 365 days, followed by the days of a leap year
+    private final AtomicReferenceArray<double[]> correctedSolFluxForADay;
 
     public SolarFluxLazyLookup(double[] solFlux) {
         this.solFlux = solFlux;
-        correctedSolFluxForADay = new double[2][366][];
+        correctedSolFluxForADay = new AtomicReferenceArray<>(2 * DAY_SLOTS);
+    }
+
+    /**
+     * @param mjd the time as modified julian date 2000, as provided by a {@code TimeCoding}
+     */
+    public double[] getCorrectedFluxFor(double mjd) {
+        final LocalDate date = LocalDate.ofEpochDay(MJD2000_EPOCH_DAY + (long) Math.floor(mjd));
+        return getCorrectedFluxFor(date.getDayOfYear(), date.getYear());
     }
 
     public double[] getCorrectedFluxFor(int doy, int year) {
         final int yearDays = SolarFluxCorrectionFactorCalculator.getNumDaysInTheYear(year);
         int yearIndex = yearDays - 365; // can be 0 if it is a 365 days year or 1 if it is a leap year with 366 days
-        double[] corrected = correctedSolFluxForADay[yearIndex][doy];
+        final int index = yearIndex * DAY_SLOTS + doy;
+        double[] corrected = correctedSolFluxForADay.get(index);
         if (corrected != null) {
             return corrected;
         }
@@ -22,7 +45,10 @@ public class SolarFluxLazyLookup {
         for (int i = 0; i < solFlux.length; i++) {
             corrected[i] = solFlux[i] * correctionFactor;
         }
-        correctedSolFluxForADay[yearIndex][doy] = corrected;
+        // if another thread was faster, its array is used, so that all threads get the same instance
+        if (!correctedSolFluxForADay.compareAndSet(index, null, corrected)) {
+            corrected = correctedSolFluxForADay.get(index);
+        }
         return corrected;
     }
 }
@@ -1,6 +1,6 @@
 package org.esa.s3tbx.c2rcc.viirs;
 
-import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.esa.s3tbx.c2rcc.util.NNffbpBatch;
 import org.esa.snap.core.util.BitSetter;
 
 import java.io.BufferedReader;
@@ -87,9 +87,11 @@ public class C2rccViirsAlgorithm {
     double[] thresh_rwslope = {0.95, 1.05};    // threshold for out of scope flag Rw has to be adjusted
 
 
-    final ThreadLocal<NNffbpAlphaTabFast> logrw_iop_NN;
-    final ThreadLocal<NNffbpAlphaTabFast> rtosa_rw_nn;
-    final ThreadLocal<NNffbpAlphaTabFast> aaNN_test_oos_rtosa;
+    final NNffbpBatch logrw_iop_NN;
+    final NNffbpBatch rtosa_rw_nn;
+    final NNffbpBatch aaNN_test_oos_rtosa;
+
+    private final ThreadLocal<NNffbpBatch.Workspace> nnWorkspace = ThreadLocal.withInitial(NNffbpBatch.Workspace::new);
 
     public void setTemperature(double temperature) {
         this.temperature = temperature;
@@ -107,6 +109,7 @@ public class C2rccViirsAlgorithm {
                                double dem_alt,
                                double atm_press,
                                double ozone) {
+        final NNffbpBatch.Workspace workspace = nnWorkspace.get();
 
         //  (9.2) compute angles
         double cos_sun = cos(toRadians(sun_zeni));
@@ -163,11 +166,11 @@ public class C2rccViirsAlgorithm {
         nn_in[6] = alti_press;
         System.arraycopy(log_rtosa, 0, nn_in, 7, log_rtosa.length);
 
-        double[] log_rw = rtosa_rw_nn.get().calc(nn_in);
+        double[] log_rw = rtosa_rw_nn.calc(nn_in, workspace);
         double[] rw = a_exp(log_rw);
 
         // (9.5) test out of scope spectra with autoassociative neural network
-        double[] log_rtosa_aann = aaNN_test_oos_rtosa.get().calc(nn_in);
+        double[] log_rtosa_aann = aaNN_test_oos_rtosa.calc(nn_in, workspace);
         double[] rtosa_aann = a_exp(log_rtosa_aann);
         double[] rtosa_aaNNrat = a_div(rtosa_aann, r_tosa);
         //rtosa_aaNNrat_a(ipix,:)=rtosa_aaNNrat;
@@ -187,8 +190,8 @@ public class C2rccViirsAlgorithm {
 
         // (9.6.2) test if input tosa spectrum is out of range
         // mima=aa_rtosa_nn_bn7_9(5); // minima and maxima of aaNN input
-        double[] mi = aaNN_test_oos_rtosa.get().getInmin();
-        double[] ma = aaNN_test_oos_rtosa.get().getInmax();
+        double[] mi = aaNN_test_oos_rtosa.getInmin();
+        double[] ma = aaNN_test_oos_rtosa.getInmax();
         boolean tosa_oor_flag = false; // (ipix)
         // for iv=1:19,// variables
         for (int iv = 0; iv < nn_in.length; iv++) { // variables
@@ -210,13 +213,13 @@ public class C2rccViirsAlgorithm {
         nn_in_inv[3] = temperature;
         nn_in_inv[4] = salinity;
         System.arraycopy(log_rw, 0, nn_in_inv, 5, log_rw_412to765.length);
-        double[] log_iops_nn1 = logrw_iop_NN.get().calc(nn_in_inv);
+        double[] log_iops_nn1 = logrw_iop_NN.calc(nn_in_inv, workspace);
         double[] iops_nn1 = a_exp(log_iops_nn1);
 
         // (9.10.2) test if input tosa spectrum is out of range
         //mima=inv_nn7(5); // minima and maxima of aaNN input
-        mi = logrw_iop_NN.get().getInmin();
-        ma = logrw_iop_NN.get().getInmax();
+        mi = logrw_iop_NN.getInmin();
+        ma = logrw_iop_NN.getInmax();
         boolean rw_oor_flag = false; // (ipix)
         //for iv=1:15,// variables
         for (int iv = 0; iv < nn_in_inv.length; iv++) {
@@ -235,23 +238,14 @@ public class C2rccViirsAlgorithm {
         logrw_iop_NN = nnhs("viirs/coastcolour_wat_20140318/inv_viirs_logrw_logiop_20140318_noise_p5/87x77x37_15389.9.net");
     }
 
-    private ThreadLocal<NNffbpAlphaTabFast> nnhs(String path) throws IOException {
+    private NNffbpBatch nnhs(String path) throws IOException {
         String name = "/auxdata/nets/" + path;
         InputStream stream = C2rccViirsAlgorithm.class.getResourceAsStream(name);
         if (stream == null) {
             throw new IllegalStateException("resource not found: " + name);
         }
         final String nnCode = readFully(stream);
-        return new ThreadLocal<NNffbpAlphaTabFast>() {
-            @Override
-            protected NNffbpAlphaTabFast initialValue() {
-                try {
-                    return new NNffbpAlphaTabFast(nnCode);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-        };
+        return new NNffbpBatch(nnCode);
     }
 
     private String readFully(InputStream stream) throws IOException {
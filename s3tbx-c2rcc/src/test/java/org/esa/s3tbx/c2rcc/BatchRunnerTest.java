@@ -0,0 +1,88 @@
+package org.esa.s3tbx.c2rcc;
+
+import org.esa.snap.core.datamodel.Product;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("c2rcc-batch").toFile();
+        for (String name : new String[]{"S3B_OL_1_EFR_2.SEN3", "S3A_OL_1_EFR_1.SEN3", "S3A_OL_1_ERR_1.SEN3", "notes.txt"}) {
+            assertTrue(new File(dir, name).mkdir());
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testExpandSources() throws Exception {
+        final String single = new File(dir, "single.N1").getPath();
+        final List<File> sources = BatchRunner.expandSources(Arrays.asList(new File(dir, "S3?_OL_1_EFR*.SEN3").getPath(), single));
+
+        assertEquals(Arrays.asList(new File(dir, "S3A_OL_1_EFR_1.SEN3"), new File(dir, "S3B_OL_1_EFR_2.SEN3"), new File(single)),
+                     sources);
+    }
+
+    @Test
+    public void testExpandSourcesWithoutMatch() throws Exception {
+        assertTrue(BatchRunner.expandSources(Arrays.asList(new File(dir, "*.N1").getPath())).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidProductsInFlight() {
+        new BatchRunner("olci", null, dir, 0, 1024);
+    }
+
+    @Test(timeout = 60000)
+    public void testRunEndsIfAJobFails() throws Exception {
+        final List<File> sources = Arrays.asList(new File(dir, "a.N1"), new File(dir, "b.N1"), new File(dir, "c.N1"),
+                                                 new File(dir, "d.N1"));
+        final List<String> written = Collections.synchronizedList(new ArrayList<>());
+        // a single writer, so the run would block if the writer died with the failing job
+        final BatchRunner runner = new BatchRunner("olci", new HashMap<>(), new File(dir, "target"), 1, 1024) {
+            @Override
+            Product readProduct(File source) {
+                return new Product(source.getName(), "test", 10, 10);
+            }
+
+            @Override
+            Product createTargetProduct(Product sourceProduct) {
+                return new Product(sourceProduct.getName(), "test", 10, 10);
+            }
+
+            @Override
+            void writeProduct(Product targetProduct, File targetFile) {
+                if (targetProduct.getName().equals("b.N1")) {
+                    throw new OutOfMemoryError("test");
+                }
+                written.add(targetProduct.getName());
+            }
+        };
+
+        assertEquals(Collections.singletonList(sources.get(1)), runner.run(sources));
+        assertEquals(Arrays.asList("a.N1", "c.N1", "d.N1"), written);
+    }
+}
@@ -0,0 +1,99 @@
+package org.esa.s3tbx.c2rcc.ancillary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class AncIndexTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("anc-repository").toFile();
+        createFile("2001/365/N200136518_MET_NCEPR2_6h.hdf");
+        createFile("2002/001/N200200100_O3_AURAOMI_24h.hdf");
+        createFile("2002/not_a_doy/N200200100_O3_AURAOMI_24h.hdf");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(root.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testScanAndPersist() throws Exception {
+        final AncIndex index = AncIndex.load(root);
+        assertEquals(2, index.size());
+
+        final List<String> lines = Files.readAllLines(new File(root, AncIndex.INDEX_FILE_NAME).toPath());
+        assertEquals(2, lines.size());
+        assertEquals("2001/365/N200136518_MET_NCEPR2_6h.hdf", lines.get(0));
+        assertEquals("2002/001/N200200100_O3_AURAOMI_24h.hdf", lines.get(1));
+    }
+
+    @Test
+    public void testIndexFileIsUsedInsteadOfScanning() throws Exception {
+        AncIndex.load(root);
+        // not visible in the persisted index, but found when looked up
+        final File newFile = createFile("2002/002/N200200200_O3_AURAOMI_24h.hdf");
+
+        final AncIndex index = AncIndex.load(root);
+        assertEquals(2, index.size());
+        assertEquals(newFile, index.find(newFile));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testFind() throws Exception {
+        final AncIndex index = AncIndex.load(root);
+
+        final File existing = new File(root, "2001/365/N200136518_MET_NCEPR2_6h.hdf");
+        assertEquals(existing, index.find(existing));
+
+        final File missing = new File(root, "2001/365/N200136512_MET_NCEPR2_6h.hdf");
+        assertNull(index.find(missing));
+        // missing files are remembered, they are only found again after they have been added
+        createFile("2001/365/N200136512_MET_NCEPR2_6h.hdf");
+        assertNull(index.find(missing));
+        index.add(missing);
+        assertEquals(missing, index.find(missing));
+    }
+
+    @Test
+    public void testRemovedFileIsNotFound() throws Exception {
+        final AncIndex index = AncIndex.load(root);
+        final File existing = new File(root, "2001/365/N200136518_MET_NCEPR2_6h.hdf");
+        assertTrue(existing.delete());
+
+        assertNull(index.find(existing));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testMissingRepository() throws Exception {
+        final File notExisting = new File(root, "not_existing");
+        final AncIndex index = AncIndex.load(notExisting);
+        assertEquals(0, index.size());
+        assertFalse(notExisting.exists());
+    }
+
+    private File createFile(String relativePath) throws IOException {
+        final File file = new File(root, relativePath);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.createFile(file.toPath());
+        return file;
+    }
+}
@@ -2,6 +2,8 @@ package org.esa.s3tbx.c2rcc.ancillary;
 
 import org.junit.Test;
 
+import java.awt.Rectangle;
+
 import static org.junit.Assert.*;
 
 /**
@@ -24,4 +26,16 @@ public class ConstantAtmosphericAuxdataTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getValuesOfRectangle() throws Exception {
+        ConstantAtmosphericAuxdata auxdata = new ConstantAtmosphericAuxdata(337, 980.7);
+
+        double[] ozone = new double[6];
+        auxdata.getOzone(234.0, new Rectangle(10, 20, 3, 2), null, ozone);
+        assertArrayEquals(new double[]{337, 337, 337, 337, 337, 337}, ozone, 1.0e-8);
+
+        double[] pressure = new double[8];
+        auxdata.getSurfacePressure(234.0, new Rectangle(10, 20, 3, 2), null, pressure);
+        assertArrayEquals(new double[]{980.7, 980.7, 980.7, 980.7, 980.7, 980.7, 0, 0}, pressure, 1.0e-8);
+    }
+}
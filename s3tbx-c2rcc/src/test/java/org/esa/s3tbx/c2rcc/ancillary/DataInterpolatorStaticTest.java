@@ -1,11 +1,15 @@
 package org.esa.s3tbx.c2rcc.ancillary;
 
+import org.esa.snap.core.datamodel.CrsGeoCoding;
 import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.datamodel.ProductData;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.Rectangle;
+
 import static junit.framework.Assert.*;
 
 /**
@@ -64,4 +68,23 @@ public class DataInterpolatorStaticTest {
         assertEquals(3.85, di.getValue(centerTimeMJD, -45, -90));
         assertEquals(9.125, di.getValue(centerTimeMJD, -45, 90));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetValuesOfRectangle() throws Exception {
+        // a global scene with pixels of 9 x 9 degrees
+        final CrsGeoCoding geoCoding = new CrsGeoCoding(DefaultGeographicCRS.WGS84, 40, 20, -180, 90, 9, 9);
+        final Rectangle rectangle = new Rectangle(0, 0, 40, 20);
+        final double[] values = new double[40 * 20];
+        di.getValues(startTimeMJD, rectangle, geoCoding, values);
+
+        // corner nodes
+        assertEquals(3.0, values[0], 1.0e-6);
+        assertEquals(4.0, values[39], 1.0e-6);
+        assertEquals(5.0, values[19 * 40], 1.0e-6);
+        assertEquals(6.0, values[19 * 40 + 39], 1.0e-6);
+        // between two nodes with the same value
+        assertEquals(3.0, values[5], 1.0e-6);
+        // between nodes of different values
+        assertEquals(3.0 + 4.0 / 16.0 * (4.0 - 3.0), values[20], 1.0e-6);
+    }
+}
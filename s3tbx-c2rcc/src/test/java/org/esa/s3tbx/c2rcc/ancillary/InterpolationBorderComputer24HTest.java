@@ -72,4 +72,15 @@ public class InterpolationBorderComputer24HTest {
         assertEquals("N200821600", computer.getStartAncFilePrefix());
         assertEquals("N200821700", computer.getEndAncFilePrefix());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testComputeStartBorderTimeMatchesState() throws Exception {
+        final String[] times = {"01-JAN-2000 00:00:00", "01-JAN-2000 02:59:00", "01-JAN-2000 12:00:00",
+                                "01-JAN-2000 14:59:00", "01-JAN-2000 15:00:01", "31-DEC-2015 23:59:59"};
+        for (String time : times) {
+            final double timeMJD = ProductData.UTC.parse(time).getMJD();
+            computer.setInterpolationTimeMJD(timeMJD);
+            assertEquals(computer.getStartBorderTimeMDJ(), computer.computeStartBorderTimeMJD(timeMJD));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.esa.s3tbx.c2rcc.ancillary;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.CrsGeoCoding;
+import org.esa.snap.core.datamodel.GeoCoding;
+import org.esa.snap.core.datamodel.GeoPos;
+import org.esa.snap.core.datamodel.PixelPos;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatLonGridTest {
+
+    @Test
+    public void testGlobalGridEqualsPixelLookup() {
+        final Band band = createBand(8, 4);
+        final GeoCoding geoCoding = new DataInterpolator.GlobalGeoCoding(8, 4);
+        final LatLonGrid grid = LatLonGrid.create(band, geoCoding);
+
+        for (double lat = -89.5; lat < 90; lat += 3.7) {
+            for (double lon = -179.5; lon < 180; lon += 4.3) {
+                assertEquals(getPixelValue(band, geoCoding, lat, lon), grid.getValue(lat, lon), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testRegionalGridEqualsPixelLookup() throws Exception {
+        // pixels of 1.3 degrees, so that they are not aligned with any regular lat/lon grid
+        final Band band = createBand(7, 5);
+        final GeoCoding geoCoding = new CrsGeoCoding(DefaultGeographicCRS.WGS84, 7, 5, 10.0, 50.0, 1.3, 1.3);
+        final LatLonGrid grid = LatLonGrid.create(band, geoCoding);
+
+        for (double lat = 43.55; lat < 50.0; lat += 0.17) {
+            for (double lon = 10.05; lon < 19.1; lon += 0.23) {
+                assertEquals(getPixelValue(band, geoCoding, lat, lon), grid.getValue(lat, lon), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testRegionalGridIsClampedToTheEdge() throws Exception {
+        final Band band = createBand(7, 5);
+        final GeoCoding geoCoding = new CrsGeoCoding(DefaultGeographicCRS.WGS84, 7, 5, 10.0, 50.0, 1.3, 1.3);
+        final LatLonGrid grid = LatLonGrid.create(band, geoCoding);
+
+        assertEquals(band.getPixelDouble(0, 0), grid.getValue(60.0, 0.0), 0.0);
+        assertEquals(band.getPixelDouble(6, 0), grid.getValue(55.0, 30.0), 0.0);
+        assertEquals(band.getPixelDouble(0, 4), grid.getValue(30.0, 5.0), 0.0);
+        assertEquals(band.getPixelDouble(6, 4), grid.getValue(20.0, 40.0), 0.0);
+        assertEquals(band.getPixelDouble(3, 4), grid.getValue(30.0, 14.6), 0.0);
+    }
+
+    // the lookup of the values before they have been copied into a LatLonGrid
+    private static double getPixelValue(Band band, GeoCoding geoCoding, double lat, double lon) {
+        final PixelPos pp = geoCoding.getPixelPos(new GeoPos(lat, lon), null);
+        return band.getPixelDouble((int) pp.x, (int) pp.y);
+    }
+
+    private static Band createBand(int width, int height) {
+        final Product product = new Product("p", "t", width, height);
+        final double[] values = new double[width * height];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 0.5 * i + 1.0;
+        }
+        final Band band = product.addBand("ozone", ProductData.TYPE_FLOAT64);
+        band.setDataElems(values);
+        return band;
+    }
+}
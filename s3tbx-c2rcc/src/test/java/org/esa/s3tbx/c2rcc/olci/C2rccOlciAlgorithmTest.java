@@ -0,0 +1,94 @@
+package org.esa.s3tbx.c2rcc.olci;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.esa.s3tbx.c2rcc.olci.C2rccOlciAlgorithm.*;
+import static org.junit.Assert.*;
+
+public class C2rccOlciAlgorithmTest {
+
+    private static final double[] SOLAR_FLUX = {
+            1714.9, 1872.4, 1926.6, 1930.2, 1804.2, 1651.5, 1531.5, 1475.6, 1408.4, 1265.4, 1255.6,
+            1178.7, 1253.8, 1246.5, 1244.2, 1239.0, 955.4, 914.2, 883.0, 813.6, 631.7
+    };
+    private static final double[] REFLECTANCE = {
+            0.171, 0.160, 0.142, 0.118, 0.101, 0.089, 0.072, 0.061, 0.058, 0.051, 0.047,
+            0.045, 0.041, 0.032, 0.034, 0.035, 0.031, 0.024, 0.015, 0.022, 0.013
+    };
+    private static final double SUN_ZENITH = 42.0;
+
+    private static String[] nnFilePaths;
+    private static double[] radiances;
+
+    @BeforeClass
+    public static void setUpClass() {
+        nnFilePaths = new String[10];
+        nnFilePaths[IDX_iop_rw] = "olci/iop_rw/77x77x77_1798.8.net";
+        nnFilePaths[IDX_iop_unciop] = "olci/iop_unciop/77x77x77_309240.3.net";
+        nnFilePaths[IDX_iop_uncsumiop_unckd] = "olci/iop_uncsumiop_unckd/77x77x77_242297.3.net";
+        nnFilePaths[IDX_rtosa_aann] = "olci/rtosa_aann/31x7x31_1159.4.net";
+        nnFilePaths[IDX_rtosa_rpath] = "olci/rtosa_rpath/31x37x37_17175.9.net";
+        nnFilePaths[IDX_rtosa_rw] = "olci/rtosa_rw/33x23x13_2131677.4.net";
+        nnFilePaths[IDX_rtosa_trans] = "olci/rtosa_trans/57x57x57_369970.5.net";
+        nnFilePaths[IDX_rw_iop] = "olci/rw_iop/37x37x37_596495.4.net";
+        nnFilePaths[IDX_rw_kd] = "olci/rw_kd/97x77x77_4669.6.net";
+        nnFilePaths[IDX_rw_rwnorm] = "olci/rw_rwnorm/77x77x77_34029.1.net";
+
+        radiances = new double[REFLECTANCE.length];
+        for (int i = 0; i < radiances.length; i++) {
+            radiances[i] = REFLECTANCE[i] * SOLAR_FLUX[i] * Math.cos(Math.toRadians(SUN_ZENITH)) / Math.PI;
+        }
+    }
+
+    @Test
+    public void testSkippedNetsDoNotChangeOtherResults() throws IOException {
+        final C2rccOlciAlgorithm all = createAlgorithm();
+        all.setOutputRtoaGcAann(true);
+        all.setOutputRpath(true);
+        all.setOutputTdown(true);
+        all.setOutputTup(true);
+        all.setOutputRhow(true);
+        all.setOutputRhown(true);
+        all.setOutputOos(true);
+        all.setOutputKd(true);
+        all.setOutputUncertainties(true);
+
+        final C2rccOlciAlgorithm iopsOnly = createAlgorithm();
+        iopsOnly.setOutputUncertainties(true);
+
+        final Result expected = process(all);
+        final Result actual = process(iopsOnly);
+
+        assertArrayEquals(expected.iops_nn, actual.iops_nn, 0.0);
+        assertArrayEquals(expected.unc_iop_abs, actual.unc_iop_abs, 0.0);
+        assertEquals(expected.unc_abs_atot, actual.unc_abs_atot, 0.0);
+        assertEquals(expected.rtosa_oos, actual.rtosa_oos, 0.0);
+        assertEquals(expected.rwa_oos, actual.rwa_oos, 0.0);
+        assertEquals(expected.flags, actual.flags);
+
+        // the kd net is evaluated for the kd uncertainties
+        assertEquals(expected.kd489_nn, actual.kd489_nn, 0.0);
+        assertEquals(expected.unc_abs_kd489, actual.unc_abs_kd489, 0.0);
+        assertFalse(Double.isNaN(actual.unc_abs_kd489));
+
+        assertTrue(Double.isNaN(actual.rwn[0]));
+        assertTrue(Double.isNaN(actual.rpath_nn[0]));
+    }
+
+    private static C2rccOlciAlgorithm createAlgorithm() throws IOException {
+        final C2rccOlciAlgorithm algorithm = new C2rccOlciAlgorithm(nnFilePaths, true);
+        algorithm.setThresh_absd_log_rtosa(0.01);
+        algorithm.setThresh_rwlogslope(0.15);
+        algorithm.setThresh_cloudTransD(0.955);
+        return algorithm;
+    }
+
+    private static Result process(C2rccOlciAlgorithm algorithm) {
+        return algorithm.processPixel(10, 20, 54.0, 8.0, radiances, SOLAR_FLUX,
+                                      SUN_ZENITH, 140.0, 20.0, 100.0, 0.0, true, 1013.25, 330.0,
+                                      algorithm.createResult());
+    }
+}
@@ -0,0 +1,176 @@
+package org.esa.s3tbx.c2rcc.util;
+
+import org.esa.snap.core.nn.NNffbpAlphaTabFast;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class NNffbpBatchTest {
+
+    private static final String SIMPLE_NET = "problem: simple test net\n" +
+                                             "the net has 2 inputs and 1 output\n" +
+                                             "#\n" +
+                                             "2\n" +
+                                             "0.0 10.0\n" +
+                                             "-1.0 1.0\n" +
+                                             "1\n" +
+                                             "0.0 100.0\n" +
+                                             "$\n" +
+                                             "#planes=3 2 2 1\n" +
+                                             "bias 1 2\n" +
+                                             "0.5\n" +
+                                             "-0.5\n" +
+                                             "bias 2 1\n" +
+                                             "0.1\n" +
+                                             "wgt 0 2 2\n" +
+                                             "1.0\n" +
+                                             "2.0\n" +
+                                             "-3.0\n" +
+                                             "4.0\n" +
+                                             "wgt 1 2 1\n" +
+                                             "0.7\n" +
+                                             "-0.3\n";
+
+    @Test
+    public void testReadNet() throws Exception {
+        NNffbpBatch nn = new NNffbpBatch(SIMPLE_NET);
+        assertEquals(2, nn.getInputCount());
+        assertEquals(1, nn.getOutputCount());
+        assertArrayEquals(new double[]{0.0, -1.0}, nn.getInmin(), 0.0);
+        assertArrayEquals(new double[]{10.0, 1.0}, nn.getInmax(), 0.0);
+        assertArrayEquals(new double[]{0.0}, nn.getOutmin(), 0.0);
+        assertArrayEquals(new double[]{100.0}, nn.getOutmax(), 0.0);
+    }
+
+    @Test
+    public void testCalc() throws Exception {
+        NNffbpBatch nn = new NNffbpBatch(SIMPLE_NET);
+        double[] output = new double[1];
+        nn.calc(new double[]{5.0, 0.0}, 1, output, new NNffbpBatch.Workspace());
+
+        // normalised input is (0.5, 0.5)
+        double h1 = sigmoid(0.5 + 1.0 * 0.5 + 2.0 * 0.5);
+        double h2 = sigmoid(-0.5 - 3.0 * 0.5 + 4.0 * 0.5);
+        double expected = sigmoid(0.1 + 0.7 * h1 - 0.3 * h2) * 100.0;
+        // the tabulated activation deviates by up to 2.5e-5 from the exact sigmoid
+        assertEquals(expected, output[0], 1e-2);
+    }
+
+    @Test
+    public void testSingleCalcWritesIntoWorkspace() throws Exception {
+        NNffbpBatch nn = new NNffbpBatch(SIMPLE_NET);
+        NNffbpBatch other = new NNffbpBatch(SIMPLE_NET);
+        NNffbpBatch.Workspace workspace = new NNffbpBatch.Workspace();
+
+        double[] first = nn.calc(new double[]{5.0, 0.0}, workspace);
+        double firstValue = first[0];
+        double[] second = nn.calc(new double[]{2.0, 0.5}, workspace);
+        assertSame(first, second);
+        assertTrue(firstValue != second[0]);
+        assertNotSame(first, other.calc(new double[]{5.0, 0.0}, workspace));
+        assertNotSame(first, nn.calc(new double[]{5.0, 0.0}, new NNffbpBatch.Workspace()));
+    }
+
+    @Test
+    public void testEqualsNNffbpAlphaTabFastForAllNets() throws Exception {
+        List<Path> netFiles;
+        try (Stream<Path> paths = Files.walk(Paths.get(NNffbpBatchTest.class.getResource("/auxdata/nets").toURI()))) {
+            netFiles = paths.filter(path -> path.toString().endsWith(".net")).sorted().collect(Collectors.toList());
+        }
+        assertFalse(netFiles.isEmpty());
+
+        Random random = new Random(5489);
+        NNffbpBatch.Workspace workspace = new NNffbpBatch.Workspace();
+        for (Path netFile : netFiles) {
+            String netCode = new String(Files.readAllBytes(netFile), StandardCharsets.US_ASCII);
+            NNffbpAlphaTabFast reference = new NNffbpAlphaTabFast(netCode);
+            NNffbpBatch nn = new NNffbpBatch(netCode);
+            double[] inmin = nn.getInmin();
+            double[] inmax = nn.getInmax();
+            double[] outmin = nn.getOutmin();
+            double[] outmax = nn.getOutmax();
+            assertArrayEquals(netFile.toString(), reference.getInmin(), inmin, 0.0);
+            assertArrayEquals(netFile.toString(), reference.getInmax(), inmax, 0.0);
+            assertArrayEquals(netFile.toString(), reference.getOutmin(), outmin, 0.0);
+            assertArrayEquals(netFile.toString(), reference.getOutmax(), outmax, 0.0);
+
+            for (int k = 0; k < 20; k++) {
+                double[] input = new double[nn.getInputCount()];
+                for (int i = 0; i < input.length; i++) {
+                    // include the range limits and values outside the training range
+                    double fraction = k == 0 ? 0.0 : k == 1 ? 1.0 : random.nextDouble() * 1.2 - 0.1;
+                    input[i] = inmin[i] + fraction * (inmax[i] - inmin[i]);
+                }
+                double[] expected = reference.calc(input.clone());
+                double[] actual = nn.calc(input, workspace);
+                for (int i = 0; i < expected.length; i++) {
+                    // both nets use the same activation table and the same order of operations, the
+                    // tolerance only allows for rounding; a different activation table already
+                    // deviates by more than 1e-6 of the output range
+                    assertEquals(netFile + ", output " + i, expected[i], actual[i], 1e-9 * (outmax[i] - outmin[i]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidNet() throws Exception {
+        try {
+            new NNffbpBatch(SIMPLE_NET.replace("$", "?"));
+            fail("IOException expected");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBatchEqualsSingleEvaluation() throws Exception {
+        NNffbpBatch nn = new NNffbpBatch(readResource("/auxdata/nets/olci/rtosa_aann/31x7x31_1159.4.net"));
+        int numIn = nn.getInputCount();
+        int numOut = nn.getOutputCount();
+        int count = 100; // more than one block
+        double[] input = new double[count * numIn];
+        for (int p = 0; p < count; p++) {
+            for (int i = 0; i < numIn; i++) {
+                double fraction = ((p * 7 + i * 13) % 100) / 100.0;
+                input[p * numIn + i] = nn.getInmin()[i] + fraction * (nn.getInmax()[i] - nn.getInmin()[i]);
+            }
+        }
+
+        NNffbpBatch.Workspace workspace = new NNffbpBatch.Workspace();
+        double[] batchOutput = new double[count * numOut];
+        nn.calc(input, count, batchOutput, workspace);
+
+        double[] singleInput = new double[numIn];
+        double[] singleOutput = new double[numOut];
+        for (int p = 0; p < count; p++) {
+            System.arraycopy(input, p * numIn, singleInput, 0, numIn);
+            nn.calc(singleInput, 1, singleOutput, workspace);
+            for (int i = 0; i < numOut; i++) {
+                assertEquals(singleOutput[i], batchOutput[p * numOut + i], 0.0);
+            }
+        }
+    }
+
+    private static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(NNffbpBatchTest.class.getResourceAsStream(name)))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+}
@@ -4,6 +4,12 @@ import static org.junit.Assert.*;
 
 import org.junit.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * Created by Sabine on 24.08.2015.
  */
@@ -130,6 +136,38 @@ public class SolarFluxLazyLookupTest {
         assertSame(lookup.getCorrectedFluxFor(365, 2012), lookup.getCorrectedFluxFor(365, 2004));
     }
 
+    @Test
+    public void testLastDayOfLeapYear() {
+        assertArrayEquals(computeCorrectedFlux(366, 2004), lookup.getCorrectedFluxFor(366, 2004), 1e-12);
+    }
+
+    @Test
+    public void testRightValuesForModifiedJulianDate() {
+        assertArrayEquals(computeCorrectedFlux(1, 2000), lookup.getCorrectedFluxFor(0.0), 1e-12);
+        assertArrayEquals(computeCorrectedFlux(1, 2000), lookup.getCorrectedFluxFor(0.99), 1e-12);
+        assertArrayEquals(computeCorrectedFlux(365, 1999), lookup.getCorrectedFluxFor(-0.25), 1e-12);
+        assertArrayEquals(computeCorrectedFlux(366, 2004), lookup.getCorrectedFluxFor(1826.5), 1e-12);
+        assertArrayEquals(computeCorrectedFlux(1, 2005), lookup.getCorrectedFluxFor(1827.0), 1e-12);
+        assertSame(lookup.getCorrectedFluxFor(60, 2005), lookup.getCorrectedFluxFor(1886.3));
+    }
+
+    @Test
+    public void testSameArrayInstanceForConcurrentThreads() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<double[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> lookup.getCorrectedFluxFor(42, 2005)));
+            }
+            final double[] expected = lookup.getCorrectedFluxFor(42, 2005);
+            for (Future<double[]> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private double[] computeCorrectedFlux(int doy, int year) {
         final double correctionFactor = SolarFluxCorrectionFactorCalculator.getDayCorrectionFactorFor(doy, year);
         final double[] solFlux = lookup.solFlux;
@@ -0,0 +1,113 @@
+package org.esa.s3tbx.util.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The format of the binary files of a persistent cache. A cache file starts with a magic number, which is made of
+ * a name of six ASCII characters and the version of the format, followed by the content in little endian byte
+ * order. A file of another format or version is treated like a missing file, so a cache only needs a new version
+ * when its content changes.
+ * <p>
+ * A cache file is replaced atomically, so that several processes can share the files of a cache.
+ */
+public class CacheFileFormat {
+
+    private static final int NAME_LENGTH = 6;
+
+    private final long magic;
+
+    /**
+     * @param name    the name of the content, six ASCII characters
+     * @param version the version of the format, from 0 to 65535
+     */
+    public CacheFileFormat(String name, int version) {
+        final byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        if (nameBytes.length != NAME_LENGTH || !name.equals(new String(nameBytes, StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("The name must consist of " + NAME_LENGTH + " ASCII characters: " + name);
+        }
+        if (version < 0 || version > 0xFFFF) {
+            throw new IllegalArgumentException("The version must be between 0 and 65535: " + version);
+        }
+        long magic = 0;
+        for (byte b : nameBytes) {
+            magic = (magic << 8) | b;
+        }
+        this.magic = (magic << 16) | version;
+    }
+
+    /**
+     * Maps the given cache file into memory.
+     *
+     * @return the content of the file in little endian byte order, positioned after the magic number, or
+     * {@code null} if the file is of another format or version
+     */
+    public ByteBuffer map(Path cacheFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            if (channel.size() < Long.BYTES) {
+                return null;
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getLong() != magic) {
+                return null;
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Writes the given cache file. The missing parent directories are created.
+     *
+     * @param content writes the content after the magic number
+     */
+    public void write(Path cacheFile, ContentWriter content) throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        // written to a temporary file first, so that a concurrent reader never sees a partial file
+        final Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                final ByteBuffer header = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putLong(magic).flip();
+                writeFully(channel, header);
+                content.write(channel);
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Writes the given cache file with the remaining bytes of the buffer as content.
+     */
+    public void write(Path cacheFile, ByteBuffer content) throws IOException {
+        write(cacheFile, channel -> writeFully(channel, content));
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer.
+     */
+    public static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes the content of a cache file.
+     */
+    public interface ContentWriter {
+
+        void write(WritableByteChannel channel) throws IOException;
+    }
+}
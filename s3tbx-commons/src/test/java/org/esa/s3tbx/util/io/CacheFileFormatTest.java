@@ -0,0 +1,126 @@
+package org.esa.s3tbx.util.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class CacheFileFormatTest {
+
+    private static final CacheFileFormat FORMAT = new CacheFileFormat("S3TEST", 2);
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("cache-file-format");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testWriteAndMap() throws IOException {
+        final Path cacheFile = tempDir.resolve("cache").resolve("a.bin");
+        FORMAT.write(cacheFile, createContent(7, 2.5));
+
+        final ByteBuffer content = FORMAT.map(cacheFile);
+        assertEquals(ByteOrder.LITTLE_ENDIAN, content.order());
+        assertEquals(Integer.BYTES + Double.BYTES, content.remaining());
+        assertEquals(7, content.getInt());
+        assertEquals(2.5, content.getDouble(), 0.0);
+
+        // the magic number is made of the name and the version
+        final byte[] bytes = Files.readAllBytes(cacheFile);
+        final byte[] magic = {2, 0, 'T', 'S', 'E', 'T', '3', 'S'};
+        for (int i = 0; i < magic.length; i++) {
+            assertEquals(magic[i], bytes[i]);
+        }
+        try (Stream<Path> files = Files.list(cacheFile.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testWriteReplacesFile() throws IOException {
+        final Path cacheFile = tempDir.resolve("a.bin");
+        FORMAT.write(cacheFile, createContent(7, 2.5));
+        FORMAT.write(cacheFile, channel -> CacheFileFormat.writeFully(channel, createContent(8, 3.5)));
+
+        final ByteBuffer content = FORMAT.map(cacheFile);
+        assertEquals(8, content.getInt());
+        assertEquals(3.5, content.getDouble(), 0.0);
+    }
+
+    @Test
+    public void testFailedWriteLeavesNoFile() throws IOException {
+        final Path cacheFile = tempDir.resolve("a.bin");
+        try {
+            FORMAT.write(cacheFile, channel -> {
+                throw new IOException("disk full");
+            });
+            fail("IOException expected");
+        } catch (IOException expected) {
+            assertEquals("disk full", expected.getMessage());
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testMapRejectsOtherFormats() throws IOException {
+        final Path cacheFile = tempDir.resolve("a.bin");
+        new CacheFileFormat("S3TEST", 1).write(cacheFile, createContent(7, 2.5));
+        assertNull(FORMAT.map(cacheFile));
+
+        new CacheFileFormat("S3OTHR", 2).write(cacheFile, createContent(7, 2.5));
+        assertNull(FORMAT.map(cacheFile));
+
+        Files.write(cacheFile, new byte[64]);
+        assertNull(FORMAT.map(cacheFile));
+
+        Files.write(cacheFile, new byte[3]);
+        assertNull(FORMAT.map(cacheFile));
+    }
+
+    @Test
+    public void testInvalidFormat() {
+        for (String name : new String[]{"S3TES", "S3TESTS", "S3T\u00c4ST"}) {
+            try {
+                new CacheFileFormat(name, 1);
+                fail("IllegalArgumentException expected for " + name);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+        try {
+            new CacheFileFormat("S3TEST", 0x10000);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static ByteBuffer createContent(int intValue, double doubleValue) {
+        final ByteBuffer content = ByteBuffer.allocate(Integer.BYTES + Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        content.putInt(intValue).putDouble(doubleValue).flip();
+        return content;
+    }
+}
@@ -2,10 +2,7 @@ package org.esa.s3tbx.fub.wew;
 
 
 import com.bc.ceres.core.ProgressMonitor;
-import org.esa.s3tbx.fub.wew.util.NN_AtmCorr;
-import org.esa.s3tbx.fub.wew.util.NN_CHL;
-import org.esa.s3tbx.fub.wew.util.NN_TSM;
-import org.esa.s3tbx.fub.wew.util.NN_YellowSubstance;
+import org.esa.s3tbx.fub.wew.util.NN_BatchRecall;
 import org.esa.s3tbx.fub.wew.util.WaterProcessorOzone;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.FlagCoding;
@@ -17,17 +14,13 @@ import org.esa.snap.core.datamodel.ProductData;
 import org.esa.snap.core.datamodel.ProductNode;
 import org.esa.snap.core.datamodel.ProductNodeGroup;
 import org.esa.snap.core.datamodel.RasterDataNode;
+import org.esa.snap.core.gpf.Operator;
 import org.esa.snap.core.gpf.OperatorException;
 import org.esa.snap.core.gpf.OperatorSpi;
+import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.gpf.annotations.OperatorMetadata;
 import org.esa.snap.core.gpf.annotations.Parameter;
 import org.esa.snap.core.gpf.annotations.SourceProduct;
-import org.esa.snap.core.gpf.pointop.PixelOperator;
-import org.esa.snap.core.gpf.pointop.ProductConfigurer;
-import org.esa.snap.core.gpf.pointop.Sample;
-import org.esa.snap.core.gpf.pointop.SourceSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.TargetSampleConfigurer;
-import org.esa.snap.core.gpf.pointop.WritableSample;
 import org.esa.snap.core.image.VirtualBandOpImage;
 import org.esa.snap.core.util.ProductUtils;
 import org.esa.snap.core.util.StringUtils;
@@ -36,25 +29,32 @@ import org.esa.snap.dataio.envisat.EnvisatConstants;
 import javax.media.jai.PlanarImage;
 import javax.media.jai.operator.ConstantDescriptor;
 import java.awt.Color;
+import java.awt.Rectangle;
 import java.awt.image.Raster;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.esa.s3tbx.fub.wew.WaterProcessorOpConstant.SOURCE_SAMPLE_VALID_MASK;
-
 @OperatorMetadata(alias = "FUB.Water", authors = "Thomas Schroeder, Michael Schaale",
         copyright = "Institute for Space Sciences (WeW), Freie Universitaet Berlin",
         category = "Optical/Thematic Water Processing",
         version = "4.0.1",
         description = "MERIS FUB-CSIRO Coastal Water Processor to retrieve case II water properties and atmospheric properties")
-public class WaterProcessorOp extends PixelOperator {
+public class WaterProcessorOp extends Operator {
+
+    // The bands of the TOA reflectances input to the networks, bands 1-7, 9-10 and 12-14
+    private static final int[] NN_INPUT_BAND_INDEXES = {0, 1, 2, 3, 4, 5, 6, 8, 9, 11, 12, 13};
+    private static final double TOTAL_OZONE_DU_MOMO = 344.0;
 
     private float[] solarFlux;
+    private double[] exO3;
 
     private Band[] inputBands = new Band[EnvisatConstants.MERIS_L1B_NUM_SPECTRAL_BANDS];
+    private Mask validMask;
+    private ThreadLocal<TileBuffers> tileBuffers;
 
     @SourceProduct(label = "Source product",
             description = "The MERIS L1b or L1P source product used for the processing.")
@@ -101,8 +101,7 @@ public class WaterProcessorOp extends PixelOperator {
     }
 
     @Override
-    protected void prepareInputs() throws OperatorException {
-        super.prepareInputs();
+    public void initialize() throws OperatorException {
         sensor = getSensor();
         String[] sourceRasterNames = sensor.getRasterNames();
 
@@ -120,6 +119,25 @@ public class WaterProcessorOp extends PixelOperator {
         if (checkWhetherSuspectIsValid) {
             checkWhetherSuspectIsValid();
         }
+
+        // Load the ozone spectral extinction coefficients
+        exO3 = new double[inputBands.length];
+        for (int i = 0; i < inputBands.length; i++) {
+            exO3[i] = WaterProcessorOzone.O3excoeff(inputBands[i].getSpectralWavelength());
+        }
+        if (StringUtils.isNotNullAndNotEmpty(expression)) {
+            if (!sourceProduct.isCompatibleBandArithmeticExpression(expression)) {
+                String msg = String.format("Parameter 'expression' is not compatible with the source product. Expression is '%s'", expression);
+                throw new OperatorException(msg);
+            }
+            validMask = Mask.BandMathsType.create("__valid_mask", null,
+                                                  sourceProduct.getSceneRasterWidth(),
+                                                  sourceProduct.getSceneRasterHeight(),
+                                                  expression, Color.GREEN, 0.0);
+            validMask.setOwner(sourceProduct);
+        }
+        tileBuffers = ThreadLocal.withInitial(TileBuffers::new);
+        setTargetProduct(createTargetProduct());
     }
 
     @Override
@@ -134,381 +152,186 @@ public class WaterProcessorOp extends PixelOperator {
     }
 
     @Override
-    protected void configureSourceSamples(SourceSampleConfigurer sampleConfigurer) throws OperatorException {
-        String[] sourceRasterNames = sensor.getRasterNames();
-        for (int i = 0; i < sourceRasterNames.length; i++) {
-            sampleConfigurer.defineSample(i, sourceRasterNames[i]);
-        }
-        sampleConfigurer.defineComputedSample(SOURCE_SAMPLE_VALID_MASK, ProductData.TYPE_INT8, expression);
-    }
-
-    @Override
-    protected void configureTargetSamples(TargetSampleConfigurer sampleConfigurer) throws OperatorException {
-        String[] bandNames = new String[0];
-        if (computeCHL) {
-            bandNames = StringUtils.addToArray(bandNames, WaterProcessorOpConstant.OUTPUT_CONCENTRATION_BAND_NAMES[0]);
-        }
-        if (computeYS) {
-            bandNames = StringUtils.addToArray(bandNames, WaterProcessorOpConstant.OUTPUT_CONCENTRATION_BAND_NAMES[1]);
-        }
-        if (computeTSM) {
-            bandNames = StringUtils.addToArray(bandNames, WaterProcessorOpConstant.OUTPUT_CONCENTRATION_BAND_NAMES[2]);
-        }
-        if (computeAtmCorr) {
-            bandNames = StringUtils.addArrays(bandNames, WaterProcessorOpConstant.OUTPUT_OPTICAL_DEPTH_BAND_NAMES);
-            bandNames = StringUtils.addArrays(bandNames, WaterProcessorOpConstant.OUTPUT_REFLECTANCE_BAND_NAMES);
-        }
-        bandNames = StringUtils.addToArray(bandNames, WaterProcessorOpConstant.result_flags_name);
-
-        for (int i = 0; i < bandNames.length; i++) {
-            sampleConfigurer.defineSample(i, bandNames[i]);
-        }
-    }
-
-    @Override
-    protected void computePixel(final int xpos, final int ypos, Sample[] sourceSamples, WritableSample[] targetSamples) {
-
-        // If set to -1.0f : NN input and output ranges are checked
-        // If set to +1.0f : NN input and output ranges are NOT checked
-        float aset = -1.0f;
-
-        int width = 1;
-        int nbands = inputBands.length;
-
-        // allocate memory for a multispectral scan line
-        float[] toa = new float[nbands];
-
-        // allocate memory for the flags
-        int[] resultFlags = new int[width];
-
-        // Ozone data
-        double[] wavelength = new double[nbands];
-        double[] exO3 = new double[nbands];
-
-        // local variables
-        double d2r;
-        float dazi;
-        int k;
-        int l;
-        int ls = 0;
-        int n;
-        float[] a = new float[width];
-
-        int inodes;
-        int onodes;
-        int onodes_1;
-        int onodes_2;
-        int stage;
-
-        float[][] ipixel = new float[2][1];
-        float[][] ipixels = new float[2][1];
-        float[][] opixel = new float[2][1];
-
-        // Load the wavelengths and ozone spectral extinction coefficients
-        //
-        for (int i = 0; i < nbands; i++) {
-            wavelength[i] = inputBands[i].getSpectralWavelength();
-            exO3[i] = WaterProcessorOzone.O3excoeff(wavelength[i]);
-        }
-
-        d2r = Math.acos(-1.0) / 180.0;
-
-        // Get the number of I/O nodes in advance
-        inodes = NN_YellowSubstance.compute(ipixel, -1, opixel, 1, width, resultFlags, 0, a);
-        // implicit atm.corr.
-        onodes_1 = NN_YellowSubstance.compute(ipixel, 1, opixel, -1, width, resultFlags, 0, a);
-        // explicit atm.corr.
-        onodes_2 = NN_AtmCorr.compute(ipixel, 1, opixel, -1, width, resultFlags, 0, a);
-
-        int num_toa = 12;
-        int output_planes = 0;
-        if (computeCHL) {
-            output_planes++;
-        }
-        if (computeYS) {
-            output_planes++;
-        }
-        if (computeTSM) {
-            output_planes++;
-        }
-        if (computeAtmCorr) {
-            output_planes += WaterProcessorOpConstant.OUTPUT_OPTICAL_DEPTH_BAND_NAMES.length + WaterProcessorOpConstant.OUTPUT_REFLECTANCE_BAND_NAMES.length;
-        }
-        float[] top = new float[num_toa];
-        float[] tops = new float[num_toa];
-        double[] o3f = new double[num_toa];
-        float[] sof = new float[num_toa];
-        float[] aux = new float[2];
-        float[] geo = new float[4];
-        float[] result = new float[output_planes];
-
-        // First the TOA radiances
-        for (n = 0; n < inputBands.length; n++) {
-            toa[n] = sourceSamples[n].getFloat();
-        } // n
-
-        // Second the auxiliary data
-        float sza = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_ZENITH].getFloat();
-        float saa = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_AZIMUTH].getFloat();
-        float vza = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_ZENITH].getFloat();
-        float vaa = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_AZIMUTH].getFloat();
-        float zw = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ZONAL_WIND].getFloat();
-        float mw = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_MERID_WIND].getFloat();
-        float press = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ATM_PRESS].getFloat();
-        float o3 = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_OZONE].getFloat();
-        boolean valid = sourceSamples[WaterProcessorOpConstant.SOURCE_SAMPLE_VALID_MASK].getBoolean();
-
-        final int x = 0;
-
-        resultFlags[x] = 0;
-        int resultFlagsNN = 0;
-
-        // Exclude pixels from processing if the following l1flags mask becomes true
-//        not quality_flags_sun_glint_risk and not quality_flags_bright and not quality_flags_invalid
-//
-        if (!valid) {
-            resultFlags[x] = WaterProcessorOpConstant.RESULT_ERROR_VALUES[0];
-        }
+    public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
+        final Tile[] radianceTiles = new Tile[inputBands.length];
+        for (int i = 0; i < inputBands.length; i++) {
+            radianceTiles[i] = getSourceTile(inputBands[i], targetRectangle);
+        }
+        final Tile szaTile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_ZENITH, targetRectangle);
+        final Tile saaTile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_AZIMUTH, targetRectangle);
+        final Tile vzaTile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_ZENITH, targetRectangle);
+        final Tile vaaTile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_AZIMUTH, targetRectangle);
+        final Tile zwTile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ZONAL_WIND, targetRectangle);
+        final Tile mwTile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_MERID_WIND, targetRectangle);
+        final Tile pressTile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ATM_PRESS, targetRectangle);
+        final Tile o3Tile = getAuxiliaryTile(WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_OZONE, targetRectangle);
+        final Tile validMaskTile = validMask != null ? getSourceTile(validMask, targetRectangle) : null;
+
+        final int numPixels = targetRectangle.width * targetRectangle.height;
+        final TileBuffers buffers = tileBuffers.get();
+        buffers.ensureCapacity(numPixels);
+        final float[] inputs = buffers.inputs;
+        final int[] resultFlags = buffers.resultFlags;
+
+        final double d2r = Math.acos(-1.0) / 180.0;
 
         // *********************
         // * STAGE 0
         // *********************
 
-        // Get the toa reflectances for selected bands
-        // and normalize ozone
-        //
-        l = 0;
-        final double TOTAL_OZONE_DU_MOMO = 344.0;
-        for (n = 0; n <= 6; n++, l++) {
-            tops[l] = toa[n];
-            sof[l] = solarFlux[n];
-            top[l] = toa[n] / solarFlux[n];
-            o3f[l] = Math.exp(-(TOTAL_OZONE_DU_MOMO - o3) * exO3[n] / 1000.0 * (1.0 / Math.cos(
-                    (double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
-            top[l] *= o3f[l];
-        }
-        for (n = 8; n <= 9; n++, l++) {
-            tops[l] = toa[n];
-            sof[l] = solarFlux[n];
-            top[l] = toa[n] / solarFlux[n];
-            o3f[l] = Math.exp(-(TOTAL_OZONE_DU_MOMO - o3) * exO3[n] / 1000.0 * (1.0 / Math.cos(
-                    (double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
-            top[l] *= o3f[l];
-        }
-        for (n = 11; n <= 13; n++, l++) {
-            tops[l] = toa[n];
-            sof[l] = solarFlux[n];
-            top[l] = toa[n] / solarFlux[n];
-            o3f[l] = Math.exp(-(TOTAL_OZONE_DU_MOMO - o3) * exO3[n] / 1000.0 * (1.0 / Math.cos(
-                    (double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
-            top[l] *= o3f[l];
-        }
-
-        // Get the wind speed
-        aux[0] = (float) Math.sqrt((double) (zw * zw + mw * mw));
-        // Get the pressure
-        aux[1] = press;
-
-        // Adjust the azimuth difference
-        dazi = vaa - saa;
-
-        while (dazi <= -180.0f) {
-            dazi += 360.0f;
-        }
-        while (dazi > 180.0f) {
-            dazi -= 360.0f;
-        }
-        float tmp = dazi;
-        if (tmp >= 0.0f) {
-            dazi = +180.0f - dazi;
-        }
-        if (tmp < 0.0f) {
-            dazi = -180.0f - dazi;
-        }
-
-        // Get cos(sunzen)
-        geo[0] = (float) Math.cos((double) sza * d2r);
-
-        // And now transform into cartesian coordinates
-        geo[1] = (float) (Math.sin((double) vza * d2r) * Math.cos((double) dazi * d2r)); // obs_x
-        geo[2] = (float) (Math.sin((double) vza * d2r) * Math.sin((double) dazi * d2r)); // obs_y
-        geo[3] = (float) (Math.cos((double) vza * d2r));                            // obs_z
+        int p = 0;
+        for (int y = targetRectangle.y; y < targetRectangle.y + targetRectangle.height; y++) {
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; x++, p++) {
+                final float sza = szaTile.getSampleFloat(x, y);
+                final float saa = saaTile.getSampleFloat(x, y);
+                final float vza = vzaTile.getSampleFloat(x, y);
+                final float vaa = vaaTile.getSampleFloat(x, y);
+                final float zw = zwTile.getSampleFloat(x, y);
+                final float mw = mwTile.getSampleFloat(x, y);
+                final float press = pressTile.getSampleFloat(x, y);
+                final float o3 = o3Tile.getSampleFloat(x, y);
+
+                // Exclude pixels from processing if the valid pixel expression becomes false
+                if (validMaskTile != null && !validMaskTile.getSampleBoolean(x, y)) {
+                    resultFlags[p] = WaterProcessorOpConstant.RESULT_ERROR_VALUES[0];
+                } else {
+                    resultFlags[p] = 0;
+                }
 
-        // *********************
-        // * STAGE 1-4
-        // *********************
+                // Get the toa reflectances for selected bands
+                // and normalize ozone
+                int l = 0;
+                for (int n : NN_INPUT_BAND_INDEXES) {
+                    float top = radianceTiles[n].getSampleFloat(x, y) / solarFlux[n];
+                    final double o3f = Math.exp(-(TOTAL_OZONE_DU_MOMO - o3) * exO3[n] / 1000.0 * (1.0 / Math.cos(
+                            (double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
+                    top *= o3f;
+                    inputs[l++ * numPixels + p] = top;
+                }
 
-        onodes = onodes_1; // They differ !!
+                // Get the wind speed and the pressure
+                inputs[l++ * numPixels + p] = (float) Math.sqrt((double) (zw * zw + mw * mw));
+                inputs[l++ * numPixels + p] = press;
 
-        ipixel = new float[inodes][width];
-        ipixels = new float[inodes][width];
-        opixel = new float[onodes][width];
+                // Adjust the azimuth difference
+                float dazi = vaa - saa;
+                while (dazi <= -180.0f) {
+                    dazi += 360.0f;
+                }
+                while (dazi > 180.0f) {
+                    dazi -= 360.0f;
+                }
+                if (dazi >= 0.0f) {
+                    dazi = +180.0f - dazi;
+                } else {
+                    dazi = -180.0f - dazi;
+                }
 
-        // load the TOA reflectances
-        for (l = 0; l < num_toa; l++) {
-            ipixel[l][x] = top[l];
+                // Get cos(sunzen) and transform into cartesian coordinates
+                inputs[l++ * numPixels + p] = (float) Math.cos((double) sza * d2r);
+                inputs[l++ * numPixels + p] = (float) (Math.sin((double) vza * d2r) * Math.cos((double) dazi * d2r)); // obs_x
+                inputs[l++ * numPixels + p] = (float) (Math.sin((double) vza * d2r) * Math.sin((double) dazi * d2r)); // obs_y
+                inputs[l * numPixels + p] = (float) (Math.cos((double) vza * d2r));                            // obs_z
+            }
         }
 
-        // get the wind speed and pressure
-        ipixel[l++][x] = aux[0];
-        ipixel[l++][x] = aux[1];
-
-        // get cos(sunzen), x, yPos, z
-        ipixel[l++][x] = geo[0];
-        ipixel[l++][x] = geo[1];
-        ipixel[l++][x] = geo[2];
-        ipixel[l++][x] = geo[3];
-
-        // Check against range limits inside the network
-        // recall if the value of a[x] is set to -1.0f.
-        //
-        // This results in the application of the flag
-        // 'RESULT_ERROR_VALUE[]' to the 'resultFlagsNN'
-
-
-        a[x] = aset;
-
-        // Save input pixel
-        ls = l;
-        for (l = 0; l < ls; l++) {
-            ipixels[l][x] = ipixel[l][x];
-        }
+        // *********************
+        // * STAGE 1-4
+        // *********************
 
-        int resultCounter = 0;
+        // The input transformation and the range check are shared by all networks,
+        // pixels with result flags set are not recalled
+        final NN_BatchRecall batchRecall = buffers.batchRecall;
+        batchRecall.setInputs(inputs, resultFlags, numPixels);
+        final int[] resultFlagsNN = buffers.resultFlagsNN;
+        Arrays.fill(resultFlagsNN, 0, numPixels, 0);
 
         if (computeCHL) {
-            // Run the 1-step chlorophyll network;
-            stage = 1;
-            NN_CHL.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
-
-            // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
-            }
-            // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
-            }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
-            }
-            result[resultCounter++] = opixel[0][x];
+            recall(batchRecall, NN_BatchRecall.CHL, 1, buffers, numPixels);
+            writeOutput(targetTiles, WaterProcessorOpConstant.OUTPUT_CONCENTRATION_BAND_NAMES[0], buffers.outputs, 0,
+                        resultFlags, targetRectangle);
         }
         if (computeYS) {
-            // Run the 1-step yellow substance network;
-            stage = 2;
-            // reload the pixel
-            for (l = 0; l < ls; l++) {
-                ipixel[l][x] = ipixels[l][x];
-            }
-            a[x] = aset;
-
-            NN_YellowSubstance.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
-
-            // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
-            }
-            // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
+            recall(batchRecall, NN_BatchRecall.YELLOW_SUBSTANCE, 2, buffers, numPixels);
+            writeOutput(targetTiles, WaterProcessorOpConstant.OUTPUT_CONCENTRATION_BAND_NAMES[1], buffers.outputs, 0,
+                        resultFlags, targetRectangle);
+        }
+        if (computeTSM) {
+            recall(batchRecall, NN_BatchRecall.TSM, 3, buffers, numPixels);
+            writeOutput(targetTiles, WaterProcessorOpConstant.OUTPUT_CONCENTRATION_BAND_NAMES[2], buffers.outputs, 0,
+                        resultFlags, targetRectangle);
+        }
+        if (computeAtmCorr) {
+            recall(batchRecall, NN_BatchRecall.ATM_CORR, 4, buffers, numPixels);
+            // The aots follow the reflectances in the network output
+            final int numReflectances = WaterProcessorOpConstant.OUTPUT_REFLECTANCE_BAND_NAMES.length;
+            for (int i = 0; i < WaterProcessorOpConstant.OUTPUT_OPTICAL_DEPTH_BAND_NAMES.length; i++) {
+                writeOutput(targetTiles, WaterProcessorOpConstant.OUTPUT_OPTICAL_DEPTH_BAND_NAMES[i], buffers.outputs,
+                            (numReflectances + i) * numPixels, resultFlags, targetRectangle);
             }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
+            for (int i = 0; i < numReflectances; i++) {
+                writeOutput(targetTiles, WaterProcessorOpConstant.OUTPUT_REFLECTANCE_BAND_NAMES[i], buffers.outputs,
+                            i * numPixels, resultFlags, targetRectangle);
             }
-            result[resultCounter++] = opixel[0][x];
         }
-        if (computeTSM) {
-            // Run the 1-step total suspended matter network;
-            stage = 3;
 
-            // reload the pixel
-            for (l = 0; l < ls; l++) {
-                ipixel[l][x] = ipixels[l][x];
+        final Tile resultFlagsTile = getTargetTile(targetTiles, WaterProcessorOpConstant.result_flags_name);
+        p = 0;
+        for (int y = targetRectangle.y; y < targetRectangle.y + targetRectangle.height; y++) {
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; x++, p++) {
+                int flags = resultFlags[p];
+                // Check for angle out of range. NNs only trained for MERIS. The vza for OLCI is higher.
+                if (vzaTile.getSampleFloat(x, y) >= 40) {
+                    flags = WaterProcessorOpConstant.RESULT_ERROR_VALUES[0];
+                }
+                // Combine result flags
+                resultFlagsTile.setSample(x, y, flags | resultFlagsNN[p]);
             }
-            a[x] = aset;
+        }
+    }
 
-            NN_TSM.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+    private Tile getAuxiliaryTile(int sourceSampleIndex, Rectangle rectangle) {
+        return getSourceTile(sourceProduct.getRasterDataNode(sensor.getRasterNames()[sourceSampleIndex]), rectangle);
+    }
 
-            // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
-            }
-            // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
-            }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
-            }
-            result[resultCounter++] = opixel[0][x];
+    private Tile getTargetTile(Map<Band, Tile> targetTiles, String bandName) {
+        final Tile targetTile = targetTiles.get(getTargetProduct().getBand(bandName));
+        if (targetTile == null) {
+            throw new OperatorException(String.format("Missing target band '%s'.", bandName));
         }
-        if (computeAtmCorr) {
-            // Run part 1 of the 2-step atm.corr. network;
-            stage = 4;
-            onodes = onodes_2;
-            opixel = new float[onodes][width];
-
-            // reload the pixel
-            for (l = 0; l < ls; l++) {
-                ipixel[l][x] = ipixels[l][x];
-            }
-            a[x] = aset;
-
-            NN_AtmCorr.compute(ipixel, inodes, opixel, onodes, width, resultFlags, 0, a);
+        return targetTile;
+    }
 
+    private static void recall(NN_BatchRecall batchRecall, NN_BatchRecall.Network network, int stage,
+                               TileBuffers buffers, int numPixels) {
+        final int[] failures = buffers.failures;
+        batchRecall.recall(network, buffers.outputs, failures);
+        for (int p = 0; p < numPixels; p++) {
             // Input range failure
-            if ((a[x] > -2.1) && (a[x] < -1.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
+            if ((failures[p] & NN_BatchRecall.INPUT_RANGE_FAILURE) != 0) {
+                buffers.resultFlagsNN[p] |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
             }
             // Output range failure
-            if ((a[x] > -19.1) && (a[x] < -18.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
-            }
-            // Input AND Output range failure
-            if ((a[x] > -22.1) && (a[x] < -21.9)) {
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
-                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
-            }
-            //System.out.println(" --> " + resultFlagsNN[x]);
-
-            // The aots
-            final int num_msl = 8;
-            for (int i = num_msl; i < onodes; i++) {
-                result[resultCounter + i - num_msl] = opixel[i][x];
-            }
-            for (int i = 0; i < num_msl; i++) {
-                final int numOfSpectralAerosolOpticalDepths = 4;
-                result[resultCounter + numOfSpectralAerosolOpticalDepths + i] = opixel[i][x];
-            }
-        }
-        // Now check for error flags !
-        // If set, set output vector to mask value !
-        if (resultFlags[x] != 0) {
-            for (n = 0; n < output_planes; n++) {
-                result[n] = WaterProcessorOpConstant.RESULT_MASK_VALUE;
+            if ((failures[p] & NN_BatchRecall.OUTPUT_RANGE_FAILURE) != 0) {
+                buffers.resultFlagsNN[p] |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
             }
         }
-        // Check for angle out of range. NNs only trained for MERIS. The vza for OLCI is higher.
-        if (vza >= 40) {
-            resultFlags[x] = WaterProcessorOpConstant.RESULT_ERROR_VALUES[0];
-        }
-
-        // Combine result flags
-        resultFlags[x] |= resultFlagsNN;
+    }
 
-        // Set sample values in target product
-        //
-        for (n = 0; n < output_planes; n++) {
-            targetSamples[n].set(result[n]);
+    // Writes one output plane of the networks, if result flags are set the mask value is written
+    private void writeOutput(Map<Band, Tile> targetTiles, String bandName, float[] outputs, int offset,
+                             int[] resultFlags, Rectangle targetRectangle) {
+        final Tile targetTile = getTargetTile(targetTiles, bandName);
+        int p = 0;
+        for (int y = targetRectangle.y; y < targetRectangle.y + targetRectangle.height; y++) {
+            for (int x = targetRectangle.x; x < targetRectangle.x + targetRectangle.width; x++, p++) {
+                if (resultFlags[p] != 0) {
+                    targetTile.setSample(x, y, WaterProcessorOpConstant.RESULT_MASK_VALUE);
+                } else {
+                    targetTile.setSample(x, y, outputs[offset + p]);
+                }
+            }
         }
-        targetSamples[output_planes].set(resultFlags[0]);
     }
 
     private void checkWhetherSuspectIsValid() throws OperatorException {
@@ -614,17 +437,13 @@ public class WaterProcessorOp extends PixelOperator {
     }
 
 
-    @Override
-    protected void configureTargetProduct(ProductConfigurer productConfigurer) {
-        super.configureTargetProduct(productConfigurer);
-        productConfigurer.copyMetadata();
-        final Product sourceProduct = productConfigurer.getSourceProduct();
-        final Product targetProduct = productConfigurer.getTargetProduct();
-
-        targetProduct.setProductType(getOutputProductType());
-
+    private Product createTargetProduct() {
         int sceneWidth = sourceProduct.getSceneRasterWidth();
         int sceneHeight = sourceProduct.getSceneRasterHeight();
+        final Product targetProduct = new Product(getId(), getOutputProductType(), sceneWidth, sceneHeight);
+        ProductUtils.copyTimeInformation(sourceProduct, targetProduct);
+        ProductUtils.copyGeoCoding(sourceProduct, targetProduct);
+        ProductUtils.copyMetadata(sourceProduct, targetProduct);
 
         if (computeCHL) {
             addConcentrationBand(targetProduct, sceneWidth, sceneHeight, 0);
@@ -643,12 +462,12 @@ public class WaterProcessorOp extends PixelOperator {
         ProductUtils.copyFlagBands(sourceProduct, targetProduct, true);
 
         if (!targetProduct.containsBand(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LONGITUDE_BAND_NAME)) {
-            productConfigurer.copyBands(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LONGITUDE_BAND_NAME);
+            ProductUtils.copyBand(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LONGITUDE_BAND_NAME, sourceProduct, targetProduct, true);
         }
         if (!targetProduct.containsBand(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LATITUDE_BAND_NAME)) {
-            productConfigurer.copyBands(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LATITUDE_BAND_NAME);
+            ProductUtils.copyBand(EnvisatConstants.MERIS_AMORGOS_L1B_CORR_LATITUDE_BAND_NAME, sourceProduct, targetProduct, true);
         }
-        productConfigurer.copyBands(EnvisatConstants.MERIS_AMORGOS_L1B_ALTIUDE_BAND_NAME);
+        ProductUtils.copyBand(EnvisatConstants.MERIS_AMORGOS_L1B_ALTIUDE_BAND_NAME, sourceProduct, targetProduct, true);
 
         FlagCoding resultFlagCoding = createResultFlagCoding();
         targetProduct.getFlagCodingGroup().add(resultFlagCoding);
@@ -657,10 +476,11 @@ public class WaterProcessorOp extends PixelOperator {
         resultFlagsOutputBand.setDescription("FUB/WeW WATER plugin specific flags");
         resultFlagsOutputBand.setSampleCoding(resultFlagCoding);
 
-        productConfigurer.copyMasks();
+        ProductUtils.copyMasks(sourceProduct, targetProduct);
 
         String flagNamePrefix = WaterProcessorOpConstant.result_flags_name + ".";
         addMasksToTargetProduct(targetProduct, sceneWidth, sceneHeight, flagNamePrefix);
+        return targetProduct;
     }
 
     private void addMasksToTargetProduct(Product targetProduct, int sceneWidth, int sceneHeight, String flagNamePrefix) {
@@ -761,6 +581,27 @@ public class WaterProcessorOp extends PixelOperator {
         }
     }
 
+    // The per-thread buffers of computeTileStack, the arrays grow with the largest tile seen
+    private static class TileBuffers {
+
+        private final NN_BatchRecall batchRecall = new NN_BatchRecall();
+        private float[] inputs = new float[0];
+        private float[] outputs = new float[0];
+        private int[] failures = new int[0];
+        private int[] resultFlags = new int[0];
+        private int[] resultFlagsNN = new int[0];
+
+        private void ensureCapacity(int numPixels) {
+            if (resultFlags.length < numPixels) {
+                inputs = new float[NN_BatchRecall.NUM_INPUTS * numPixels];
+                outputs = new float[NN_BatchRecall.ATM_CORR.getNumOutputs() * numPixels];
+                failures = new int[numPixels];
+                resultFlags = new int[numPixels];
+                resultFlagsNN = new int[numPixels];
+            }
+        }
+    }
+
     private enum Sensor {
         MERIS(WaterProcessorOpConstant.SOURCE_RASTER_NAMES_MERIS, "l1_flags", "l1_flags.SUSPECT"),
         OLCI(WaterProcessorOpConstant.SOURCE_RASTER_NAMES_OLCI, "quality_flags", "quality_flags.dubious");
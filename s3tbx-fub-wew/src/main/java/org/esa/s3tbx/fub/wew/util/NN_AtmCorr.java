@@ -979,6 +979,17 @@ public class NN_AtmCorr {
                 {+2.530000e-02, +9.420000e-01,}
     };
 
+    // The parameters of run19 for the batched recall
+    static final NN_BatchRecall.Network NETWORK = new NN_BatchRecall.Network(nodes_input_scale_limits_run19,
+                                                                           nodes_input_scale_run19,
+                                                                           nodes_input_pca_evec_run19,
+                                                                           nodes_hidden_weights_run19,
+                                                                           nodes_output_weights_run19,
+                                                                           nodes_output_scale_run19,
+                                                                           nodes_output_scale_off_run19,
+                                                                           nodes_output_scale_flag_run19,
+                                                                           nodes_output_scale_limits_run19);
+
     public static int compute(final float[][] in,
                               final int getNumNodesInput,
                               final float[][] out,
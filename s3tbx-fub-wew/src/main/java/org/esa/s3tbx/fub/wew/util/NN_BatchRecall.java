@@ -0,0 +1,331 @@
+package org.esa.s3tbx.fub.wew.util;
+
+import java.util.Arrays;
+
+/**
+ * Recalls the FUB/WeW neural networks for all pixels of a tile at once.
+ * <p>
+ * The raw network inputs of the tile are set once with {@link #setInputs(float[], int[], int)}. The input
+ * transformation is applied once for all networks, the input range check once for all networks sharing the same
+ * input limits. Only the input scaling, the PCA projection and the layers depend on the network. The valid pixels
+ * are processed in blocks of {@link #BLOCK_SIZE} pixels, with the pixels in the innermost loops and the values of a
+ * block kept in flat arrays.
+ * <p>
+ * The results are identical to those of the {@code compute} methods of {@link NN_CHL}, {@link NN_YellowSubstance},
+ * {@link NN_TSM} and {@link NN_AtmCorr} called with range checks enabled. Unlike these, the inputs are not modified.
+ * <p>
+ * An instance holds the buffers of one tile and must only be used by one thread at a time. It can be reused for
+ * any number of tiles.
+ */
+public final class NN_BatchRecall {
+
+    /**
+     * Failure flag: an input of the pixel is out of the range of the training data.
+     */
+    public static final int INPUT_RANGE_FAILURE = 0x01;
+    /**
+     * Failure flag: an output of the pixel is out of the range of the training data.
+     */
+    public static final int OUTPUT_RANGE_FAILURE = 0x02;
+
+    /**
+     * The number of inputs of all networks.
+     */
+    public static final int NUM_INPUTS = 18;
+
+    public static final Network CHL = NN_CHL.NETWORK;
+    public static final Network YELLOW_SUBSTANCE = NN_YellowSubstance.NETWORK;
+    public static final Network TSM = NN_TSM.NETWORK;
+    public static final Network ATM_CORR = NN_AtmCorr.NETWORK;
+
+    static final int BLOCK_SIZE = 64;
+
+    // Raw and transformed inputs of the tile, input i of pixel p at [i * numPixels + p]
+    private float[] rawInputs;
+    private float[] inputs = new float[0];
+    // Indexes of the pixels to be processed
+    private int[] validPixels = new int[0];
+    private int numPixels;
+    private int numValidPixels;
+
+    // Input range failures of the tile for the limits of inputLimits
+    private boolean[] inputFailures = new boolean[0];
+    private double[][] inputLimits;
+
+    // Block buffers, value i of block pixel b at [i * BLOCK_SIZE + b]
+    private final float[] scaled = new float[NUM_INPUTS * BLOCK_SIZE];
+    private final float[] projected = new float[NUM_INPUTS * BLOCK_SIZE];
+    private final double[] sums = new double[BLOCK_SIZE];
+    private final float[] outputSums = new float[BLOCK_SIZE];
+    private double[] hidden = new double[0];
+
+    /**
+     * Sets the raw network inputs of a tile. Pixels whose mask is not zero are not processed.
+     *
+     * @param rawInputs the inputs, input {@code i} of pixel {@code p} at index {@code i * numPixels + p}, not modified
+     *                  but used for the input range checks, so they must not be changed until the tile is recalled
+     * @param mask      the mask of each pixel
+     * @param numPixels the number of pixels of the tile
+     */
+    public void setInputs(float[] rawInputs, int[] mask, int numPixels) {
+        this.rawInputs = rawInputs;
+        this.numPixels = numPixels;
+        if (inputs.length < NUM_INPUTS * numPixels) {
+            inputs = new float[NUM_INPUTS * numPixels];
+            validPixels = new int[numPixels];
+            inputFailures = new boolean[numPixels];
+        }
+        inputLimits = null;
+
+        numValidPixels = 0;
+        for (int p = 0; p < numPixels; p++) {
+            if (mask[p] == 0) {
+                validPixels[numValidPixels++] = p;
+            }
+        }
+
+        // Apply input transformation
+        for (int i = 0; i < NUM_INPUTS; i++) {
+            final int offset = i * numPixels;
+            final int flag = NN_General.NODES_INPUT_SCALE_FLAG[i];
+            for (int p = offset; p < offset + numPixels; p++) {
+                if (flag == -1) {
+                    inputs[p] = (float) Math.log((double) rawInputs[p]);
+                } else if (flag == -2) {
+                    inputs[p] = (float) Math.exp((double) rawInputs[p]);
+                } else {
+                    inputs[p] = rawInputs[p];
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalls the given network for the pixels of the current tile.
+     *
+     * @param network  the network
+     * @param outputs  receives the outputs, output {@code o} of pixel {@code p} at index {@code o * numPixels + p},
+     *                 the outputs of masked pixels are not set
+     * @param failures receives the {@link #INPUT_RANGE_FAILURE} and {@link #OUTPUT_RANGE_FAILURE} flags of each
+     *                 pixel, zero for masked pixels
+     */
+    public void recall(Network network, float[] outputs, int[] failures) {
+        checkInputs(network.inputLimits);
+        Arrays.fill(failures, 0, numPixels, 0);
+        if (hidden.length < network.numHidden * BLOCK_SIZE) {
+            hidden = new double[network.numHidden * BLOCK_SIZE];
+        }
+        for (int start = 0; start < numValidPixels; start += BLOCK_SIZE) {
+            final int blockSize = Math.min(BLOCK_SIZE, numValidPixels - start);
+            scaleInputs(network, start, blockSize);
+            projectInputs(network, blockSize);
+            pumpThroughHiddenLayer(network, blockSize);
+            pumpThroughOutputLayer(network, start, blockSize, outputs, failures);
+        }
+    }
+
+    // Check input range, only once for all networks trained with the same input limits
+    private void checkInputs(double[][] limits) {
+        if (limits == inputLimits) {
+            return;
+        }
+        for (int k = 0; k < numValidPixels; k++) {
+            final int p = validPixels[k];
+            boolean failure = false;
+            for (int i = 0; i < NUM_INPUTS && !failure; i++) {
+                final float input = rawInputs[i * numPixels + p];
+                failure = input < (float) limits[i][0] || input > (float) limits[i][1];
+            }
+            inputFailures[p] = failure;
+        }
+        inputLimits = limits;
+    }
+
+    // Apply input scale layer parameters
+    private void scaleInputs(Network network, int start, int blockSize) {
+        for (int i = 0; i < NUM_INPUTS; i++) {
+            final float offset = network.inputScaleOffset[i];
+            final float intercept = network.inputScaleIntercept[i];
+            final float slope = network.inputScaleSlope[i];
+            final int inputOffset = i * numPixels;
+            final int blockOffset = i * BLOCK_SIZE;
+            for (int b = 0; b < blockSize; b++) {
+                final float input = inputs[inputOffset + validPixels[start + b]];
+                scaled[blockOffset + b] = offset + (input - intercept) / slope;
+            }
+        }
+    }
+
+    // Apply input PCA layer parameters
+    private void projectInputs(Network network, int blockSize) {
+        for (int i = 0; i < NUM_INPUTS; i++) {
+            final int blockOffset = i * BLOCK_SIZE;
+            if (NN_General.NODES_INPUT_SCALE_FLAG[i] != 1) {
+                System.arraycopy(scaled, blockOffset, projected, blockOffset, blockSize);
+                continue;
+            }
+            Arrays.fill(sums, 0, blockSize, 0.0);
+            for (int j = 0; j < NUM_INPUTS; j++) {
+                if (NN_General.NODES_INPUT_SCALE_FLAG[j] == 1) {
+                    final double evec = network.pcaEigenvectors[j * NUM_INPUTS + i];
+                    final int scaledOffset = j * BLOCK_SIZE;
+                    for (int b = 0; b < blockSize; b++) {
+                        sums[b] += (double) scaled[scaledOffset + b] * evec;
+                    }
+                }
+            }
+            for (int b = 0; b < blockSize; b++) {
+                projected[blockOffset + b] = (float) sums[b];
+            }
+        }
+    }
+
+    // Pump through the first layer and the sigmoid
+    private void pumpThroughHiddenLayer(Network network, int blockSize) {
+        final int numWeights = NUM_INPUTS + 1;
+        for (int h = 0; h < network.numHidden; h++) {
+            final int weightOffset = h * numWeights;
+            Arrays.fill(sums, 0, blockSize, 0.0);
+            for (int j = 0; j < NUM_INPUTS; j++) {
+                final double weight = network.hiddenWeights[weightOffset + j];
+                final int projectedOffset = j * BLOCK_SIZE;
+                for (int b = 0; b < blockSize; b++) {
+                    sums[b] += (double) projected[projectedOffset + b] * weight;
+                }
+            }
+            // the bias node
+            final double bias = network.hiddenWeights[weightOffset + NUM_INPUTS];
+            final int hiddenOffset = h * BLOCK_SIZE;
+            for (int b = 0; b < blockSize; b++) {
+                hidden[hiddenOffset + b] = 1.0 / (1.0 + Math.exp(-network.tInput * (sums[b] + 1.0 * bias)));
+            }
+        }
+    }
+
+    // Pump through the second layer and the sigmoid, apply the output scale layer and check the output range
+    private void pumpThroughOutputLayer(Network network, int start, int blockSize, float[] outputs, int[] failures) {
+        final int numWeights = network.numHidden + 1;
+        for (int b = 0; b < blockSize; b++) {
+            final int p = validPixels[start + b];
+            failures[p] = inputFailures[p] ? INPUT_RANGE_FAILURE : 0;
+        }
+        for (int o = 0; o < network.numOutputs; o++) {
+            final int weightOffset = o * numWeights;
+            Arrays.fill(outputSums, 0, blockSize, 0.0f);
+            for (int h = 0; h < network.numHidden; h++) {
+                final double weight = network.outputWeights[weightOffset + h];
+                final int hiddenOffset = h * BLOCK_SIZE;
+                for (int b = 0; b < blockSize; b++) {
+                    outputSums[b] += (float) (hidden[hiddenOffset + b] * weight);
+                }
+            }
+            // the bias node
+            final double bias = network.outputWeights[weightOffset + network.numHidden];
+            final float intercept = network.outputScaleIntercept[o];
+            final float offset = network.outputScaleOffset[o];
+            final float slope = network.outputScaleSlope[o];
+            final int flag = network.outputScaleFlag[o];
+            final float min = network.outputLimitMin[o];
+            final float max = network.outputLimitMax[o];
+            final int outputOffset = o * numPixels;
+            for (int b = 0; b < blockSize; b++) {
+                final int p = validPixels[start + b];
+                float output = outputSums[b] + (float) (1.0 * bias);
+                output = (float) (1.0 / (1.0 + Math.exp(-network.tHidden * output)));
+                output = intercept + (output - offset) * slope;
+                if (flag == -1) {
+                    output = (float) Math.log((double) output);
+                } else if (flag == -2) {
+                    output = (float) Math.exp((double) output);
+                }
+                if (output < min || output > max) {
+                    failures[p] |= OUTPUT_RANGE_FAILURE;
+                }
+                outputs[outputOffset + p] = output;
+            }
+        }
+    }
+
+    /**
+     * The parameters of one of the networks, with the weights in flat arrays.
+     */
+    public static final class Network {
+
+        private final int numHidden;
+        private final int numOutputs;
+        private final double tInput;
+        private final double tHidden;
+        private final double[][] inputLimits;
+        private final float[] inputScaleOffset;
+        private final float[] inputScaleIntercept;
+        private final float[] inputScaleSlope;
+        // eigenvector element j of input i at [j * NUM_INPUTS + i]
+        private final double[] pcaEigenvectors;
+        // weight of input j for hidden node h at [h * (NUM_INPUTS + 1) + j]
+        private final double[] hiddenWeights;
+        // weight of hidden node h for output o at [o * (numHidden + 1) + h]
+        private final double[] outputWeights;
+        private final float[] outputScaleIntercept;
+        private final float[] outputScaleSlope;
+        private final float[] outputScaleOffset;
+        private final int[] outputScaleFlag;
+        private final float[] outputLimitMin;
+        private final float[] outputLimitMax;
+
+        Network(double[][] inputLimits, double[][] inputScale, double[][] pcaEigenvectors,
+                double[][] hiddenWeights, double[][] outputWeights, double[][] outputScale,
+                double[] outputScaleOffset, int[] outputScaleFlag, double[][] outputLimits) {
+            final double temperature = 1.0;
+            numHidden = hiddenWeights[0].length;
+            numOutputs = outputWeights[0].length;
+            tInput = temperature / (double) NUM_INPUTS;
+            tHidden = temperature / (double) numHidden;
+            this.inputLimits = inputLimits;
+
+            inputScaleOffset = new float[NUM_INPUTS];
+            inputScaleIntercept = new float[NUM_INPUTS];
+            inputScaleSlope = new float[NUM_INPUTS];
+            this.pcaEigenvectors = new double[NUM_INPUTS * NUM_INPUTS];
+            for (int i = 0; i < NUM_INPUTS; i++) {
+                inputScaleOffset[i] = (float) NN_General.NODES_INPUT_SCALE_OFF[i];
+                inputScaleIntercept[i] = (float) inputScale[i][0];
+                inputScaleSlope[i] = (float) inputScale[i][1];
+            }
+            // the eigenvectors only cover the inputs with scale flag 1
+            for (int j = 0; j < pcaEigenvectors.length; j++) {
+                for (int i = 0; i < pcaEigenvectors[j].length; i++) {
+                    this.pcaEigenvectors[j * NUM_INPUTS + i] = pcaEigenvectors[j][i];
+                }
+            }
+
+            this.hiddenWeights = new double[numHidden * (NUM_INPUTS + 1)];
+            for (int h = 0; h < numHidden; h++) {
+                for (int j = 0; j < NUM_INPUTS + 1; j++) {
+                    this.hiddenWeights[h * (NUM_INPUTS + 1) + j] = hiddenWeights[j][h];
+                }
+            }
+
+            this.outputWeights = new double[numOutputs * (numHidden + 1)];
+            outputScaleIntercept = new float[numOutputs];
+            outputScaleSlope = new float[numOutputs];
+            this.outputScaleOffset = new float[numOutputs];
+            this.outputScaleFlag = outputScaleFlag.clone();
+            outputLimitMin = new float[numOutputs];
+            outputLimitMax = new float[numOutputs];
+            for (int o = 0; o < numOutputs; o++) {
+                for (int h = 0; h < numHidden + 1; h++) {
+                    this.outputWeights[o * (numHidden + 1) + h] = outputWeights[h][o];
+                }
+                outputScaleIntercept[o] = (float) outputScale[o][0];
+                outputScaleSlope[o] = (float) outputScale[o][1];
+                this.outputScaleOffset[o] = (float) outputScaleOffset[o];
+                outputLimitMin[o] = (float) outputLimits[o][0];
+                outputLimitMax[o] = (float) outputLimits[o][1];
+            }
+        }
+
+        public int getNumOutputs() {
+            return numOutputs;
+        }
+    }
+}
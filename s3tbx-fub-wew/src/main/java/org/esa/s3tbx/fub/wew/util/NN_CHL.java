@@ -723,6 +723,17 @@ public class NN_CHL {
                 {-1.300000e+00, +1.700000e+00,}
     };
 
+    // The parameters of run46 for the batched recall
+    static final NN_BatchRecall.Network NETWORK = new NN_BatchRecall.Network(NN_General.NODES_INPUT_SCALE_LIMITS,
+                                                                           nodes_input_scale_run46,
+                                                                           nodes_input_pca_evec_run46,
+                                                                           nodes_hidden_weights_run46,
+                                                                           nodes_output_weights_run46,
+                                                                           nodes_output_scale_run46,
+                                                                           nodes_output_scale_off_run46,
+                                                                           nodes_output_scale_flag_run46,
+                                                                           nodes_output_scale_limits_run46);
+
     public static int compute(final float[][] in,
                               final int getNumNodesInput,
                               final float[][] out,
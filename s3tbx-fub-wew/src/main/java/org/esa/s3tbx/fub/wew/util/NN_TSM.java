@@ -608,6 +608,17 @@ public class NN_TSM {
                 {-1.300000e+00, +1.700000e+00,}
     };
 
+    // The parameters of run39 for the batched recall
+    static final NN_BatchRecall.Network NETWORK = new NN_BatchRecall.Network(NN_General.NODES_INPUT_SCALE_LIMITS,
+                                                                           nodes_input_scale_run39,
+                                                                           nodes_input_pca_evec_run39,
+                                                                           nodes_hidden_weights_run39,
+                                                                           nodes_output_weights_run39,
+                                                                           nodes_output_scale_run39,
+                                                                           nodes_output_scale_off_run39,
+                                                                           nodes_output_scale_flag_run39,
+                                                                           nodes_output_scale_limits_run39);
+
     public static int compute(final float[][] in,
                               final int getNumNodesInput,
                               final float[][] out,
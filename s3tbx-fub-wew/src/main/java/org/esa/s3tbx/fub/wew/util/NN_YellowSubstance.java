@@ -378,6 +378,17 @@ public class NN_YellowSubstance {
                 {-2.300000e+00, +0.000000e+00,}
     };
 
+    // The parameters of run38 for the batched recall
+    static final NN_BatchRecall.Network NETWORK = new NN_BatchRecall.Network(NN_General.NODES_INPUT_SCALE_LIMITS,
+                                                                           nodes_input_scale_run38,
+                                                                           nodes_input_pca_evec_run38,
+                                                                           nodes_hidden_weights_run38,
+                                                                           nodes_output_weights_run38,
+                                                                           nodes_output_scale_run38,
+                                                                           nodes_output_scale_off_run38,
+                                                                           nodes_output_scale_flag_run38,
+                                                                           nodes_output_scale_limits_run38);
+
     public static int compute(final float[][] in,
                               final int getNumNodesInput,
                               final float[][] out,
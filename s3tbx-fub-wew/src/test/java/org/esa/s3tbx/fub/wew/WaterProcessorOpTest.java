@@ -1,10 +1,314 @@
 package org.esa.s3tbx.fub.wew;
 
+import org.esa.s3tbx.fub.wew.util.NN_AtmCorr;
+import org.esa.s3tbx.fub.wew.util.NN_BatchRecall;
+import org.esa.s3tbx.fub.wew.util.NN_CHL;
+import org.esa.s3tbx.fub.wew.util.NN_TSM;
+import org.esa.s3tbx.fub.wew.util.NN_YellowSubstance;
+import org.esa.s3tbx.fub.wew.util.WaterProcessorOzone;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.FlagCoding;
+import org.esa.snap.core.datamodel.Mask;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.RasterDataNode;
+import org.esa.snap.core.datamodel.TiePointGrid;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
 /**
  * @author muhammad.bc.
  */
 public class WaterProcessorOpTest {
 
-}
+    private static final int WIDTH = 3;
+    private static final int HEIGHT = 2;
+
+    private static final float[] WAVELENGTHS = {
+            412.7f, 442.6f, 489.9f, 509.8f, 559.7f, 619.6f, 664.6f, 680.8f,
+            708.3f, 753.4f, 761.5f, 778.4f, 864.9f, 884.9f, 900.0f
+    };
+    private static final float[] SOLAR_FLUXES = {
+            1670.5964f, 1824.1444f, 1874.9883f, 1877.6682f, 1754.7749f, 1606.6401f, 1490.0026f, 1431.8726f,
+            1369.2035f, 1231.7164f, 1220.0767f, 1144.9675f, 932.3497f, 904.8193f, 871.0908f
+    };
+    private static final float[] REFLECTANCES = {
+            0.0594f, 0.0507f, 0.0412f, 0.0374f, 0.0301f, 0.0245f, 0.0238f, 0.0230f,
+            0.0223f, 0.0216f, 0.0200f, 0.0212f, 0.0200f, 0.0197f, 0.0190f
+    };
+    private static final int L1_FLAG_GLINT_RISK = 0x04;
+    private static final int L1_FLAG_SUSPECT = 0x08;
+    private static final int L1_FLAG_BRIGHT = 0x20;
+    private static final int L1_FLAG_INVALID = 0x80;
+
+    private Product sourceProduct;
+
+    @Before
+    public void setUp() {
+        sourceProduct = createSourceProduct();
+    }
+
+    @After
+    public void tearDown() {
+        sourceProduct.dispose();
+    }
+
+    @Test
+    public void testTargetBands() {
+        final Product targetProduct = createTargetProduct(new WaterProcessorOp());
+
+        assertArrayEquals(new String[]{
+                "algal_2", "yellow_subs", "total_susp",
+                "aero_opt_thick_440", "aero_opt_thick_550", "aero_opt_thick_670", "aero_opt_thick_870",
+                "reflec_1", "reflec_2", "reflec_3", "reflec_4", "reflec_5", "reflec_6", "reflec_7", "reflec_9",
+                "l1_flags", "result_flags"
+        }, targetProduct.getBandNames());
+        for (Band band : targetProduct.getBands()) {
+            if (!band.isFlagBand()) {
+                assertEquals(ProductData.TYPE_FLOAT32, band.getDataType());
+                assertTrue(band.isNoDataValueUsed());
+                assertEquals(WaterProcessorOpConstant.RESULT_MASK_VALUE, band.getNoDataValue(), 0.0);
+            }
+        }
+        assertEquals(442.5f, targetProduct.getBand("reflec_2").getSpectralWavelength(), 0.0f);
+        assertEquals(550.0f, targetProduct.getBand("aero_opt_thick_550").getSpectralWavelength(), 0.0f);
+    }
+
+    @Test
+    public void testTargetBandsWithoutAtmosphericCorrection() {
+        final WaterProcessorOp operator = new WaterProcessorOp();
+        operator.setParameter("computeAtmCorr", false);
+        operator.setParameter("computeYS", false);
+        final Product targetProduct = createTargetProduct(operator);
+
+        assertArrayEquals(new String[]{"algal_2", "total_susp", "l1_flags", "result_flags"},
+                          targetProduct.getBandNames());
+    }
+
+    @Test
+    public void testResultFlagCodingAndMasks() {
+        final Product targetProduct = createTargetProduct(new WaterProcessorOp());
+
+        final Band resultFlagsBand = targetProduct.getBand(WaterProcessorOpConstant.result_flags_name);
+        assertEquals(ProductData.TYPE_UINT16, resultFlagsBand.getDataType());
+        final FlagCoding flagCoding = resultFlagsBand.getFlagCoding();
+        assertNotNull(flagCoding);
+        assertEquals(WaterProcessorOpConstant.RESULT_ERROR_NAMES.length, flagCoding.getNumAttributes());
+        for (int i = 0; i < WaterProcessorOpConstant.RESULT_ERROR_NAMES.length; i++) {
+            final String flagName = WaterProcessorOpConstant.RESULT_ERROR_NAMES[i];
+            assertEquals(WaterProcessorOpConstant.RESULT_ERROR_VALUES[i], flagCoding.getFlagMask(flagName));
+
+            final Mask mask = targetProduct.getMaskGroup().get(flagName.toLowerCase());
+            assertNotNull(flagName, mask);
+            assertEquals("result_flags." + flagName, Mask.BandMathsType.getExpression(mask));
+            assertEquals(WaterProcessorOpConstant.RESULT_ERROR_TEXTS[i], mask.getDescription());
+        }
+    }
 
+    @Test
+    public void testMaskedPixels() {
+        final Product targetProduct = createTargetProduct(new WaterProcessorOp());
 
+        // invalid and glint risk pixels are excluded by the default valid pixel expression
+        for (Rectangle pixel : new Rectangle[]{new Rectangle(0, 0, 1, 1), new Rectangle(2, 1, 1, 1)}) {
+            assertEquals(WaterProcessorOpConstant.RESULT_ERROR_VALUES[0], getResultFlags(targetProduct, pixel.x, pixel.y));
+            for (String bandName : getOutputBandNames()) {
+                assertEquals(bandName, WaterProcessorOpConstant.RESULT_MASK_VALUE,
+                             getSample(targetProduct.getBand(bandName), pixel.x, pixel.y), 0.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testRecalledPixelsEqualPerPixelComputation() {
+        final Product targetProduct = createTargetProduct(new WaterProcessorOp());
+
+        final String[] outputBandNames = getOutputBandNames();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final int[] expectedFlags = new int[1];
+                final float[] expected = computePixel(x, y, expectedFlags);
+                assertEquals("x=" + x + ", y=" + y, expectedFlags[0], getResultFlags(targetProduct, x, y));
+                for (int i = 0; i < outputBandNames.length; i++) {
+                    final float actual = getSample(targetProduct.getBand(outputBandNames[i]), x, y);
+                    assertEquals(outputBandNames[i] + " at x=" + x + ", y=" + y, expected[i], actual, 0.0f);
+                }
+            }
+        }
+        // the pixel is not masked, the networks have been recalled
+        assertEquals(0, getResultFlags(targetProduct, 1, 0) & WaterProcessorOpConstant.RESULT_ERROR_VALUES[0]);
+        assertNotEquals(WaterProcessorOpConstant.RESULT_MASK_VALUE, getSample(targetProduct.getBand("algal_2"), 1, 0), 0.0f);
+    }
+
+    private Product createTargetProduct(WaterProcessorOp operator) {
+        operator.setSourceProduct(sourceProduct);
+        return operator.getTargetProduct();
+    }
+
+    private static String[] getOutputBandNames() {
+        final String[] bandNames = new String[15];
+        System.arraycopy(WaterProcessorOpConstant.OUTPUT_CONCENTRATION_BAND_NAMES, 0, bandNames, 0, 3);
+        System.arraycopy(WaterProcessorOpConstant.OUTPUT_OPTICAL_DEPTH_BAND_NAMES, 0, bandNames, 3, 4);
+        System.arraycopy(WaterProcessorOpConstant.OUTPUT_REFLECTANCE_BAND_NAMES, 0, bandNames, 7, 8);
+        return bandNames;
+    }
+
+    /*
+     * The computation of a single pixel as done by the former pixel operator, which recalled the networks
+     * pixel by pixel. Returns the output bands in the order of getOutputBandNames().
+     */
+    private float[] computePixel(int x, int y, int[] resultFlags) {
+        final String[] rasterNames = WaterProcessorOpConstant.SOURCE_RASTER_NAMES_MERIS;
+        final float[] toa = new float[WAVELENGTHS.length];
+        for (int n = 0; n < toa.length; n++) {
+            toa[n] = getSample(sourceProduct.getRasterDataNode(rasterNames[n]), x, y);
+        }
+        final int l1Flags = (int) getSample(sourceProduct.getRasterDataNode(rasterNames[15]), x, y);
+        final float sza = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_ZENITH]), x, y);
+        final float saa = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_AZIMUTH]), x, y);
+        final float vza = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_ZENITH]), x, y);
+        final float vaa = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_AZIMUTH]), x, y);
+        final float zw = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ZONAL_WIND]), x, y);
+        final float mw = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_MERID_WIND]), x, y);
+        final float press = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ATM_PRESS]), x, y);
+        final float o3 = getSample(sourceProduct.getRasterDataNode(rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_OZONE]), x, y);
+
+        final boolean valid = (l1Flags & (L1_FLAG_GLINT_RISK | L1_FLAG_BRIGHT | L1_FLAG_INVALID | L1_FLAG_SUSPECT)) == 0;
+        final int[] mask = {valid ? 0 : WaterProcessorOpConstant.RESULT_ERROR_VALUES[0]};
+
+        final double d2r = Math.acos(-1.0) / 180.0;
+        final float[] input = new float[NN_BatchRecall.NUM_INPUTS];
+        int l = 0;
+        for (int n : new int[]{0, 1, 2, 3, 4, 5, 6, 8, 9, 11, 12, 13}) {
+            float top = toa[n] / SOLAR_FLUXES[n];
+            top *= Math.exp(-(344.0 - o3) * WaterProcessorOzone.O3excoeff(WAVELENGTHS[n]) / 1000.0 *
+                            (1.0 / Math.cos((double) vza * d2r) + 1.0 / Math.cos((double) sza * d2r)));
+            input[l++] = top;
+        }
+        input[l++] = (float) Math.sqrt((double) (zw * zw + mw * mw));
+        input[l++] = press;
+        float dazi = vaa - saa;
+        while (dazi <= -180.0f) {
+            dazi += 360.0f;
+        }
+        while (dazi > 180.0f) {
+            dazi -= 360.0f;
+        }
+        dazi = dazi >= 0.0f ? +180.0f - dazi : -180.0f - dazi;
+        input[l++] = (float) Math.cos((double) sza * d2r);
+        input[l++] = (float) (Math.sin((double) vza * d2r) * Math.cos((double) dazi * d2r));
+        input[l++] = (float) (Math.sin((double) vza * d2r) * Math.sin((double) dazi * d2r));
+        input[l] = (float) (Math.cos((double) vza * d2r));
+
+        final float[] result = new float[15];
+        int resultFlagsNN = 0;
+        for (int stage = 1; stage <= 4; stage++) {
+            final float[][] in = new float[NN_BatchRecall.NUM_INPUTS][1];
+            for (int i = 0; i < input.length; i++) {
+                in[i][0] = input[i];
+            }
+            final float[] a = {-1.0f};
+            final float[][] out;
+            if (stage == 1) {
+                out = new float[NN_BatchRecall.CHL.getNumOutputs()][1];
+                NN_CHL.compute(in, in.length, out, out.length, 1, mask, 0, a);
+            } else if (stage == 2) {
+                out = new float[NN_BatchRecall.YELLOW_SUBSTANCE.getNumOutputs()][1];
+                NN_YellowSubstance.compute(in, in.length, out, out.length, 1, mask, 0, a);
+            } else if (stage == 3) {
+                out = new float[NN_BatchRecall.TSM.getNumOutputs()][1];
+                NN_TSM.compute(in, in.length, out, out.length, 1, mask, 0, a);
+            } else {
+                out = new float[NN_BatchRecall.ATM_CORR.getNumOutputs()][1];
+                NN_AtmCorr.compute(in, in.length, out, out.length, 1, mask, 0, a);
+            }
+            if ((a[0] > -2.1 && a[0] < -1.9) || (a[0] > -22.1 && a[0] < -21.9)) {
+                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage - 1];
+            }
+            if ((a[0] > -19.1 && a[0] < -18.9) || (a[0] > -22.1 && a[0] < -21.9)) {
+                resultFlagsNN |= WaterProcessorOpConstant.RESULT_ERROR_VALUES[2 * stage];
+            }
+            if (stage < 4) {
+                result[stage - 1] = out[0][0];
+            } else {
+                // the aots follow the reflectances in the output of the network
+                for (int i = 0; i < 4; i++) {
+                    result[3 + i] = out[8 + i][0];
+                }
+                for (int i = 0; i < 8; i++) {
+                    result[7 + i] = out[i][0];
+                }
+            }
+        }
+        if (mask[0] != 0) {
+            Arrays.fill(result, WaterProcessorOpConstant.RESULT_MASK_VALUE);
+        }
+        resultFlags[0] = (vza >= 40 ? WaterProcessorOpConstant.RESULT_ERROR_VALUES[0] : mask[0]) | resultFlagsNN;
+        return result;
+    }
+
+    private static float getSample(RasterDataNode raster, int x, int y) {
+        return raster.getGeophysicalImage().getData(new Rectangle(x, y, 1, 1)).getSampleFloat(x, y, 0);
+    }
+
+    private static int getResultFlags(Product targetProduct, int x, int y) {
+        final Band band = targetProduct.getBand(WaterProcessorOpConstant.result_flags_name);
+        return band.getSourceImage().getData(new Rectangle(x, y, 1, 1)).getSample(x, y, 0);
+    }
+
+    private static Product createSourceProduct() {
+        final Product product = new Product("MERIS L1b", "MER_FR__1P", WIDTH, HEIGHT);
+        final String[] rasterNames = WaterProcessorOpConstant.SOURCE_RASTER_NAMES_MERIS;
+        for (int i = 0; i < WAVELENGTHS.length; i++) {
+            final Band band = product.addBand(rasterNames[i], ProductData.TYPE_FLOAT32);
+            band.setSpectralBandIndex(i);
+            band.setSpectralWavelength(WAVELENGTHS[i]);
+            band.setSolarFlux(SOLAR_FLUXES[i]);
+            final ProductData data = band.createCompatibleRasterData();
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    data.setElemFloatAt(y * WIDTH + x, REFLECTANCES[i] * SOLAR_FLUXES[i] * (1.0f + 0.1f * x + 0.05f * y));
+                }
+            }
+            band.setData(data);
+        }
+
+        final FlagCoding flagCoding = new FlagCoding("l1_flags");
+        flagCoding.addFlag("GLINT_RISK", L1_FLAG_GLINT_RISK, null);
+        flagCoding.addFlag("SUSPECT", L1_FLAG_SUSPECT, null);
+        flagCoding.addFlag("BRIGHT", L1_FLAG_BRIGHT, null);
+        flagCoding.addFlag("INVALID", L1_FLAG_INVALID, null);
+        product.getFlagCodingGroup().add(flagCoding);
+        final Band flagBand = product.addBand(rasterNames[15], ProductData.TYPE_UINT8);
+        flagBand.setSampleCoding(flagCoding);
+        final ProductData flags = flagBand.createCompatibleRasterData();
+        flags.setElemIntAt(0, L1_FLAG_INVALID);
+        flags.setElemIntAt(WIDTH * HEIGHT - 1, L1_FLAG_GLINT_RISK);
+        flagBand.setData(flags);
+
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_ZENITH], 44.4f);
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_SUN_AZIMUTH], 130.0f);
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_ZENITH], 33.0f);
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_VIEW_AZIMUTH], 100.5f);
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ZONAL_WIND], 3.0f);
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_MERID_WIND], 4.0f);
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_ATM_PRESS], 1013.0f);
+        addTiePointGrid(product, rasterNames[WaterProcessorOpConstant.SOURCE_SAMPLE_INDEX_OZONE], 320.0f);
+        return product;
+    }
+
+    private static void addTiePointGrid(Product product, String name, float value) {
+        final float[] data = {value, value, value, value};
+        product.addTiePointGrid(new TiePointGrid(name, 2, 2, 0.5, 0.5, WIDTH, HEIGHT, data));
+    }
+}
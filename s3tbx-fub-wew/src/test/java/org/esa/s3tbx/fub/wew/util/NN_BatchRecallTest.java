@@ -0,0 +1,113 @@
+package org.esa.s3tbx.fub.wew.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class NN_BatchRecallTest {
+
+    private static final float[] INPUT = new float[]{
+            0.05943133f, 0.05067047f, 0.041214053f, 0.037428323f, 0.030080993f,
+            0.024526045f, 0.023756435f, 0.022254849f, 0.021630857f, 0.021160515f,
+            0.019966979f, 0.019658221f, 11.66836f, 1023.05f, 0.7145359f, -0.385183f,
+            -0.385695f, 0.83837545f
+    };
+
+    @Test
+    public void testRecallEqualsCompute() {
+        final Random random = new Random(4713);
+        final int numPixels = 2 * NN_BatchRecall.BLOCK_SIZE + 17;
+        final float[] inputs = new float[NN_BatchRecall.NUM_INPUTS * numPixels];
+        final int[] mask = new int[numPixels];
+        for (int p = 0; p < numPixels; p++) {
+            for (int i = 0; i < NN_BatchRecall.NUM_INPUTS; i++) {
+                final double[] limits = NN_General.NODES_INPUT_SCALE_LIMITS[i];
+                // some inputs out of range
+                final double f = -0.05 + 1.1 * random.nextDouble();
+                inputs[i * numPixels + p] = (float) (limits[0] + f * (limits[1] - limits[0]));
+            }
+            mask[p] = random.nextInt(5) == 0 ? 1 : 0;
+        }
+
+        final NN_BatchRecall batchRecall = new NN_BatchRecall();
+        batchRecall.setInputs(inputs, mask, numPixels);
+        assertRecallEqualsCompute(batchRecall, NN_BatchRecall.CHL, inputs, mask, numPixels);
+        assertRecallEqualsCompute(batchRecall, NN_BatchRecall.YELLOW_SUBSTANCE, inputs, mask, numPixels);
+        assertRecallEqualsCompute(batchRecall, NN_BatchRecall.TSM, inputs, mask, numPixels);
+        assertRecallEqualsCompute(batchRecall, NN_BatchRecall.ATM_CORR, inputs, mask, numPixels);
+        assertRecallEqualsCompute(batchRecall, NN_BatchRecall.CHL, inputs, mask, numPixels);
+    }
+
+    @Test
+    public void testRecallWithReusedBuffers() {
+        final NN_BatchRecall batchRecall = new NN_BatchRecall();
+        final float[] largeInputs = new float[NN_BatchRecall.NUM_INPUTS * 100];
+        batchRecall.setInputs(largeInputs, new int[100], 100);
+        batchRecall.recall(NN_BatchRecall.CHL, new float[100], new int[100]);
+
+        final float[] inputs = new float[NN_BatchRecall.NUM_INPUTS * 2];
+        for (int i = 0; i < NN_BatchRecall.NUM_INPUTS; i++) {
+            inputs[i * 2] = INPUT[i];
+            inputs[i * 2 + 1] = INPUT[i];
+        }
+        final float[] outputs = new float[2];
+        final int[] failures = new int[2];
+        batchRecall.setInputs(inputs, new int[]{0, 1}, 2);
+        batchRecall.recall(NN_BatchRecall.CHL, outputs, failures);
+
+        assertEquals(-0.70784855f, outputs[0], 0.0f);
+        assertEquals(0.0f, outputs[1], 0.0f);
+        // the wind speed is out of the range of the training data
+        assertEquals(NN_BatchRecall.INPUT_RANGE_FAILURE, failures[0]);
+        assertEquals(0, failures[1]);
+    }
+
+    private static void assertRecallEqualsCompute(NN_BatchRecall batchRecall, NN_BatchRecall.Network network,
+                                                  float[] inputs, int[] mask, int numPixels) {
+        final int numOutputs = network.getNumOutputs();
+        final float[] outputs = new float[numOutputs * numPixels];
+        final int[] failures = new int[numPixels];
+        batchRecall.recall(network, outputs, failures);
+
+        final float[][] in = new float[NN_BatchRecall.NUM_INPUTS][1];
+        final float[][] out = new float[numOutputs][1];
+        for (int p = 0; p < numPixels; p++) {
+            for (int i = 0; i < NN_BatchRecall.NUM_INPUTS; i++) {
+                in[i][0] = inputs[i * numPixels + p];
+            }
+            final float[] a = {-1.0f};
+            final int[] pixelMask = {mask[p]};
+            compute(network, in, out, pixelMask, a);
+            if (mask[p] != 0) {
+                assertEquals(0, failures[p]);
+                continue;
+            }
+            int expectedFailures = 0;
+            if (a[0] < -1.9f && a[0] > -2.1f || a[0] < -21.9f) {
+                expectedFailures |= NN_BatchRecall.INPUT_RANGE_FAILURE;
+            }
+            if (a[0] < -18.9f) {
+                expectedFailures |= NN_BatchRecall.OUTPUT_RANGE_FAILURE;
+            }
+            assertEquals(expectedFailures, failures[p]);
+            for (int o = 0; o < numOutputs; o++) {
+                assertEquals(out[o][0], outputs[o * numPixels + p], 0.0f);
+            }
+        }
+    }
+
+    private static void compute(NN_BatchRecall.Network network, float[][] in, float[][] out, int[] mask, float[] a) {
+        final int numOutputs = network.getNumOutputs();
+        if (network == NN_BatchRecall.CHL) {
+            NN_CHL.compute(in, NN_BatchRecall.NUM_INPUTS, out, numOutputs, 1, mask, 0, a);
+        } else if (network == NN_BatchRecall.YELLOW_SUBSTANCE) {
+            NN_YellowSubstance.compute(in, NN_BatchRecall.NUM_INPUTS, out, numOutputs, 1, mask, 0, a);
+        } else if (network == NN_BatchRecall.TSM) {
+            NN_TSM.compute(in, NN_BatchRecall.NUM_INPUTS, out, numOutputs, 1, mask, 0, a);
+        } else {
+            NN_AtmCorr.compute(in, NN_BatchRecall.NUM_INPUTS, out, numOutputs, 1, mask, 0, a);
+        }
+    }
+}
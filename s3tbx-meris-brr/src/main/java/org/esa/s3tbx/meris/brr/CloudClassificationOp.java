@@ -174,10 +174,10 @@ public class CloudClassificationOp extends MerisBasisOp implements Constants {
         return sd;
     }
 
-    // TODO methis is synchronized becasue the JNBN version shipping with BEAM 4.7 is not thread safe
-    // TODO remove 'synchnorized' statement if this changes
+    // The classification uses no neural net, only the immutable auxiliary data, and all state of the pixels is
+    // confined to the SourceData and PixelInfo of the tile, so tiles are computed concurrently.
     @Override
-    public synchronized void computeTile(Band band, Tile targetTile, ProgressMonitor pm) throws OperatorException {
+    public void computeTile(Band band, Tile targetTile, ProgressMonitor pm) throws OperatorException {
 
         Rectangle rectangle = targetTile.getRectangle();
         pm.beginTask("Processing frame...", rectangle.height + 1);
@@ -188,6 +188,9 @@ public class CloudClassificationOp extends MerisBasisOp implements Constants {
             if (ctpProduct != null) {
                 ctpTile = getSourceTile(ctpProduct.getBand("cloud_top_press"), rectangle);
             }
+            final boolean computeCloudFlags = band.getName().equals(CLOUD_FLAGS) && l2CloudDetection;
+            final boolean computePressureSurface = band.getName().equals(PRESSURE_SURFACE) && l2Pressures;
+            final boolean computePressureCtp = band.getName().equals(PRESSURE_CTP) && l2Pressures;
 
             PixelInfo pixelInfo = new PixelInfo();
             int i = 0;
@@ -211,13 +214,13 @@ public class CloudClassificationOp extends MerisBasisOp implements Constants {
                         }
                         if (ctpTile != null) {
                             float ctp = ctpTile.getSampleFloat(x, y);
-                            if (band.getName().equals(CLOUD_FLAGS) && l2CloudDetection) {
+                            if (computeCloudFlags) {
                                 classifyCloud(sd, ctp, pixelInfo, targetTile);
                             }
-                            if (band.getName().equals(PRESSURE_SURFACE) && l2Pressures) {
+                            if (computePressureSurface) {
                                 setCloudPressureSurface(sd, pixelInfo, targetTile);
                             }
-                            if (band.getName().equals(PRESSURE_CTP) && l2Pressures) {
+                            if (computePressureCtp) {
                                 setCloudPressureTop(ctp, pixelInfo, targetTile);
                                 //if (band.getName().equals(PRESSURE_ECMWF)) {
                                 //    setCloudPressureEcmwf(sd, pixelInfo, targetTile);
@@ -21,6 +21,7 @@ import org.esa.s3tbx.meris.MerisBasisOp;
 import org.esa.s3tbx.meris.l2auxdata.Constants;
 import org.esa.s3tbx.meris.l2auxdata.L2AuxData;
 import org.esa.s3tbx.meris.l2auxdata.L2AuxDataProvider;
+import org.esa.s3tbx.util.math.FlatLUT;
 import org.esa.s3tbx.util.math.FractIndex;
 import org.esa.s3tbx.util.math.Interp;
 import org.esa.snap.core.datamodel.Band;
@@ -148,8 +149,8 @@ public class LandClassificationOp extends MerisBasisOp implements Constants {
             final double[] r7thresh_tab_0 = auxData.r7thresh.getTab(0);
             final double[] r7thresh_tab_1 = auxData.r7thresh.getTab(1);
             final double[] r7thresh_tab_2 = auxData.r7thresh.getTab(2);
-            final Object r7threshArray = auxData.r7thresh.getJavaArray();
-            final Object r13threshArray = auxData.r13thresh.getJavaArray();
+            final FlatLUT r7threshLUT = auxData.r7thresh.getFlatLUT();
+            final FlatLUT r13threshLUT = auxData.r13thresh.getFlatLUT();
 
             for (int y = rectangle.y; y < rectangle.y + rectangle.height; y += Constants.SUBWIN_HEIGHT) {
                 for (int x = rectangle.x; x < rectangle.x + rectangle.width; x += Constants.SUBWIN_WIDTH) {
@@ -167,15 +168,15 @@ public class LandClassificationOp extends MerisBasisOp implements Constants {
 					/* allows to retrieve Glint reflectance for wurrent geometry and wind */
 					double rhoGlint = glintRef(sza.getSampleFloat(x, y), vza.getSampleFloat(x, y), deltaAzimuth, windm, chiw);
 					
-					FractIndex[] r7thresh_Index = FractIndex.createArray(3);  /* v4.4 */
+					final FractIndex[] r7thresh_Index = r7threshLUT.getIndexes();  /* v4.4 */
 					/* set up threshold for land-water discrimination */
                     Interp.interpCoord(sza.getSampleFloat(x, y), r7thresh_tab_0, r7thresh_Index[0]);
 					Interp.interpCoord(vza.getSampleFloat(x, y), r7thresh_tab_1, r7thresh_Index[1]);
 					/* take azimuth difference into account - v4.4 */
 					Interp.interpCoord(deltaAzimuth, r7thresh_tab_2, r7thresh_Index[2]);
 					/* DPM #2.6.26-1a */
-                    final double r7thresh_val = Interp.interpolate(r7threshArray, r7thresh_Index);
-					final double r13thresh_val = Interp.interpolate(r13threshArray, r7thresh_Index);
+                    final double r7thresh_val = r7threshLUT.interpolate(r7thresh_Index);
+					final double r13thresh_val = r13threshLUT.interpolate(r7thresh_Index);
 					
 					/* process each pixel */
                     final int xWinEnd = Math.min(rectangle.x + rectangle.width, x + Constants.SUBWIN_WIDTH) - 1;
@@ -262,14 +263,15 @@ public class LandClassificationOp extends MerisBasisOp implements Constants {
      * GenericInterp
      */
     private double glintRef(double thetas, double thetav, double delta, double windm, double chiw) {
-        FractIndex[] rogIndex = FractIndex.createArray(5);
+        final FlatLUT rog = auxData.rog.getFlatLUT();
+        final FractIndex[] rogIndex = rog.getIndexes();
 
         Interp.interpCoord(chiw, auxData.rog.getTab(0), rogIndex[0]);
         Interp.interpCoord(thetav, auxData.rog.getTab(1), rogIndex[1]);
         Interp.interpCoord(delta, auxData.rog.getTab(2), rogIndex[2]);
         Interp.interpCoord(windm, auxData.rog.getTab(3), rogIndex[3]);
         Interp.interpCoord(thetas, auxData.rog.getTab(4), rogIndex[4]);
-        return Interp.interpolate(auxData.rog.getJavaArray(), rogIndex);
+        return rog.interpolate(rogIndex);
     }
 
     /**
@@ -8,6 +8,7 @@ package org.esa.s3tbx.meris.brr;
 
 import org.esa.s3tbx.meris.l2auxdata.Constants;
 import org.esa.s3tbx.meris.l2auxdata.L2AuxData;
+import org.esa.s3tbx.util.math.FlatLUT;
 import org.esa.s3tbx.util.math.FractIndex;
 import org.esa.s3tbx.util.math.Interp;
 import org.esa.snap.core.gpf.Tile;
@@ -71,13 +72,14 @@ public class RayleighCorrection implements Constants {
         Interp.interpCoord(sun_zenith, auxdata.Rayscatt_coeff_s.getTab(2), tsi); /* fm 15/5/97 */
         Interp.interpCoord(view_zenith, auxdata.Rayscatt_coeff_s.getTab(3), tvi);
 
-        float[][][][] Rayscatt_coeff_s = (float[][][][]) auxdata.Rayscatt_coeff_s.getJavaArray();
+        final FlatLUT Rayscatt_coeff_s = auxdata.Rayscatt_coeff_s.getFlatLUT();
         /* pre-computation of multiple scatt coefficients, wavelength independent */
         for (int is = 0; is < RAYSCATT_NUM_SER; is++) {
             /* DPM #2.1.17-4 to 2.1.17-7 */
             final double[] lhLocal_abcd_is = abcd[is];
             for (int ik = 0; ik < RAYSCATT_NUM_ORD; ik++) {
-                lhLocal_abcd_is[ik] = Interp.interpolate(Rayscatt_coeff_s[ik][is], ref_rayleigh_i);
+                final int offset = ik * Rayscatt_coeff_s.getStride(0) + is * Rayscatt_coeff_s.getStride(1);
+                lhLocal_abcd_is[ik] = Rayscatt_coeff_s.interpolate(offset, ref_rayleigh_i);
             }
         }
 
@@ -197,10 +199,11 @@ public class RayleighCorrection implements Constants {
 \*-----------------------------------------------------------------------------*/
 
     public void sphAlb_rayleigh(double[] tauRayl, double[] sphalbRayl) {
-        FractIndex[] indexes = FractIndex.createArray(1);
+        final FlatLUT rayalb = auxdata.Rayalb.getFlatLUT();
+        final FractIndex[] indexes = rayalb.getIndexes();
         for (int bandId : BANDS_TO_CORRECT) {
-            Interp.interpCoord(tauRayl[bandId], auxdata.Rayalb.getTab(0), indexes[0]);
-            sphalbRayl[bandId] = Interp.interpolate(auxdata.Rayalb.getJavaArray(), indexes); /* DPM #2.6.15.3-1 */
+            Interp.interpCoord(tauRayl[bandId], rayalb.getTab(0), indexes[0]);
+            sphalbRayl[bandId] = rayalb.interpolate(indexes); /* DPM #2.6.15.3-1 */
         }
         for(int bandId : BANDS_TO_NOT_CORRECT) {
             sphalbRayl[bandId] = 0.0;
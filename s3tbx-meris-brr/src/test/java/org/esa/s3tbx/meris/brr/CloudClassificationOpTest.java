@@ -0,0 +1,179 @@
+package org.esa.s3tbx.meris.brr;
+
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.FlagCoding;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.datamodel.ProductData;
+import org.esa.snap.core.datamodel.TiePointGrid;
+import org.esa.snap.test.LongTestRunner;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(LongTestRunner.class)
+public class CloudClassificationOpTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 64;
+    private static final int TILE_SIZE = 16;
+
+    @BeforeClass
+    public static void setUpClass() {
+        boolean internetAvailable;
+        try {
+            URLConnection urlConnection = new URL("http://www.google.com").openConnection();
+            urlConnection.setConnectTimeout(2000);
+            urlConnection.getContent();
+            internetAvailable = true;
+        } catch (IOException e) {
+            internetAvailable = false;
+        }
+
+        // the MERIS L2 auxiliary data is downloaded on first use
+        Assume.assumeTrue("Internet connection not available, skipping CloudClassificationOpTest", internetAvailable);
+    }
+
+    @Test
+    public void testConcurrentTilesEqualSequentialTiles() throws Exception {
+        final Product l1bProduct = createL1bProduct();
+
+        final Product sequentialProduct = createCloudProduct(l1bProduct);
+        final Product concurrentProduct = createCloudProduct(l1bProduct);
+        try {
+            final List<Rectangle> rectangles = getTileRectangles();
+            final int[] expected = new int[WIDTH * HEIGHT];
+            for (Rectangle rectangle : rectangles) {
+                readFlags(sequentialProduct, rectangle, expected);
+            }
+
+            final int[] actual = new int[WIDTH * HEIGHT];
+            final ExecutorService executorService = Executors.newFixedThreadPool(8);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (Rectangle rectangle : rectangles) {
+                    futures.add(executorService.submit(() -> readFlags(concurrentProduct, rectangle, actual)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executorService.shutdown();
+            }
+
+            assertArrayEquals(expected, actual);
+            for (int flags : expected) {
+                // set for every classified pixel
+                assertTrue((flags & (1 << CloudClassificationOp.F_PCD_NN_P)) != 0);
+            }
+        } finally {
+            sequentialProduct.dispose();
+            concurrentProduct.dispose();
+            l1bProduct.dispose();
+        }
+    }
+
+    private static void readFlags(Product cloudProduct, Rectangle rectangle, int[] flags) {
+        final Band band = cloudProduct.getBand(CloudClassificationOp.CLOUD_FLAGS);
+        final int[] samples = band.getSourceImage().getData(rectangle).getSamples(rectangle.x, rectangle.y,
+                                                                                rectangle.width, rectangle.height,
+                                                                                0, (int[]) null);
+        for (int y = 0; y < rectangle.height; y++) {
+            System.arraycopy(samples, y * rectangle.width, flags, (rectangle.y + y) * WIDTH + rectangle.x, rectangle.width);
+        }
+    }
+
+    private static Product createCloudProduct(Product l1bProduct) {
+        final Rad2ReflOp rad2ReflOp = new Rad2ReflOp();
+        rad2ReflOp.setSourceProduct("input", l1bProduct);
+        final CloudClassificationOp cloudClassificationOp = new CloudClassificationOp();
+        cloudClassificationOp.setSourceProduct("l1b", l1bProduct);
+        cloudClassificationOp.setSourceProduct("rhotoa", rad2ReflOp.getTargetProduct());
+        return cloudClassificationOp.getTargetProduct();
+    }
+
+    private static List<Rectangle> getTileRectangles() {
+        final List<Rectangle> rectangles = new ArrayList<>();
+        for (int y = 0; y < HEIGHT; y += TILE_SIZE) {
+            for (int x = 0; x < WIDTH; x += TILE_SIZE) {
+                rectangles.add(new Rectangle(x, y, TILE_SIZE, TILE_SIZE));
+            }
+        }
+        return rectangles;
+    }
+
+    private static Product createL1bProduct() {
+        final Product product = new Product("Meris L1B", "MER_FR__1P", WIDTH, HEIGHT);
+        product.setPreferredTileSize(TILE_SIZE, TILE_SIZE);
+
+        final float[] radiances = {82.2f, 71.8f, 54.3f, 47.2f, 30.6f, 18.3f, 14.5f, 12.1f, 10.7f, 9.5f, 3.2f, 8.9f,
+                7.3f, 6.5f, 4.1f};
+        for (int i = 0; i < radiances.length; i++) {
+            final Band band = product.addBand("radiance_" + (i + 1), ProductData.TYPE_FLOAT32);
+            final ProductData data = band.createCompatibleRasterData();
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    // bright and dark pixels alternate in a pattern which differs from the tiling
+                    final float brightness = 1.0f + ((x * 7 + y * 13) % 29) / 7.0f;
+                    data.setElemFloatAt(y * WIDTH + x, radiances[i] * brightness);
+                }
+            }
+            band.setData(data);
+            band.setSpectralBandIndex(i);
+        }
+
+        final Band detectorIndexBand = product.addBand("detector_index", ProductData.TYPE_INT16);
+        final ProductData detectorIndices = detectorIndexBand.createCompatibleRasterData();
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            detectorIndices.setElemIntAt(i, 3200 + i % WIDTH);
+        }
+        detectorIndexBand.setData(detectorIndices);
+
+        final FlagCoding flagCoding = new FlagCoding("l1_flags");
+        flagCoding.addFlag("LAND", 1 << CloudClassificationOp.L1_F_LAND, null);
+        flagCoding.addFlag("INVALID", 1 << CloudClassificationOp.L1_F_INVALID, null);
+        product.getFlagCodingGroup().add(flagCoding);
+        final Band flagBand = product.addBand("l1_flags", ProductData.TYPE_UINT8);
+        flagBand.setSampleCoding(flagCoding);
+        final ProductData flags = flagBand.createCompatibleRasterData();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                flags.setElemIntAt(y * WIDTH + x, x < WIDTH / 2 ? 1 << CloudClassificationOp.L1_F_LAND : 0);
+            }
+        }
+        flagBand.setData(flags);
+
+        addTiePointGrid(product, "latitude", 44.9f, 0.01f);
+        addTiePointGrid(product, "longitude", -86.6f, 0.01f);
+        addTiePointGrid(product, "dem_alt", 176.0f, 10.0f);
+        addTiePointGrid(product, "sun_zenith", 30.9f, 0.5f);
+        addTiePointGrid(product, "sun_azimuth", 127.8f, 0.5f);
+        addTiePointGrid(product, "view_zenith", 29.4f, 2.0f);
+        addTiePointGrid(product, "view_azimuth", 101.4f, 0.5f);
+        addTiePointGrid(product, "atm_press", 1013.0f, -2.0f);
+        return product;
+    }
+
+    private static void addTiePointGrid(Product product, String name, float value, float increment) {
+        final int gridWidth = WIDTH / TILE_SIZE + 1;
+        final int gridHeight = HEIGHT / TILE_SIZE + 1;
+        final float[] data = new float[gridWidth * gridHeight];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = value + (i % gridWidth + i / gridWidth) * increment;
+        }
+        product.addTiePointGrid(new TiePointGrid(name, gridWidth, gridHeight, 0.5, 0.5, TILE_SIZE, TILE_SIZE, data));
+    }
+}
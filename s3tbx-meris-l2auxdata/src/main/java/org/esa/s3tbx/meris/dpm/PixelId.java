@@ -1,6 +1,7 @@
 package org.esa.s3tbx.meris.dpm;
 
 import org.esa.s3tbx.meris.l2auxdata.L2AuxData;
+import org.esa.s3tbx.util.math.FlatLUT;
 import org.esa.s3tbx.util.math.FractIndex;
 import org.esa.s3tbx.util.math.Interp;
 
@@ -59,9 +60,9 @@ public class PixelId {
         Interp.interpCoord(airMass, auxData.C.getTab(1), cIndex[0]);
         Interp.interpCoord(rhoToa753, auxData.C.getTab(2), cIndex[1]);
 
-        float[][][] c_lut = (float[][][]) auxData.C.getJavaArray();
+        final FlatLUT c_lut = auxData.C.getFlatLUT();
         // coefficient used in the pressure estimation
-        double C_res = Interp.interpolate(c_lut[VOLC_NONE], cIndex);
+        double C_res = c_lut.interpolate(VOLC_NONE * c_lut.getStride(0), cIndex);
 
         // DPM #2.1.12-5, etha * C
         double ethaC = eta * C_res;
@@ -141,11 +142,11 @@ public class PixelId {
         if (isLand) {
             Interp.interpCoord(sza, auxData.DPthresh_land.getTab(0), DP_Index[0]);
             Interp.interpCoord(vza, auxData.DPthresh_land.getTab(1), DP_Index[1]);
-            delta_press_thresh = Interp.interpolate(auxData.DPthresh_land.getJavaArray(), DP_Index);
+            delta_press_thresh = auxData.DPthresh_land.getFlatLUT().interpolate(DP_Index);
         } else {
             Interp.interpCoord(sza, auxData.DPthresh_ocean.getTab(0), DP_Index[0]);
             Interp.interpCoord(vza, auxData.DPthresh_ocean.getTab(1), DP_Index[1]);
-            delta_press_thresh = Interp.interpolate(auxData.DPthresh_ocean.getJavaArray(), DP_Index);
+            delta_press_thresh = auxData.DPthresh_ocean.getFlatLUT().interpolate(DP_Index);
         }
         return  delta_press_thresh;
     }
@@ -188,12 +189,12 @@ public class PixelId {
             Interp.interpCoord(sza, auxData.Rhorc_442_land_LUT.getTab(0), rhoRC442index[0]);
             Interp.interpCoord(vza, auxData.Rhorc_442_land_LUT.getTab(1), rhoRC442index[1]);
             Interp.interpCoord(delta_azimuth, auxData.Rhorc_442_land_LUT.getTab(2), rhoRC442index[2]);
-            rhorc_442_thr = Interp.interpolate(auxData.Rhorc_442_land_LUT.getJavaArray(), rhoRC442index);
+            rhorc_442_thr = auxData.Rhorc_442_land_LUT.getFlatLUT().interpolate(rhoRC442index);
         } else {    /* water  pixel */
             Interp.interpCoord(sza, auxData.Rhorc_442_ocean_LUT.getTab(0), rhoRC442index[0]);
             Interp.interpCoord(vza, auxData.Rhorc_442_ocean_LUT.getTab(1), rhoRC442index[1]);
             Interp.interpCoord(delta_azimuth, auxData.Rhorc_442_ocean_LUT.getTab(2), rhoRC442index[2]);
-            rhorc_442_thr = Interp.interpolate(auxData.Rhorc_442_ocean_LUT.getJavaArray(), rhoRC442index);
+            rhorc_442_thr = auxData.Rhorc_442_ocean_LUT.getFlatLUT().interpolate(rhoRC442index);
         }
         return rhorc_442_thr;
     }
@@ -17,6 +17,7 @@ import org.esa.snap.core.datamodel.Stx;
 import org.esa.snap.core.datamodel.TiePointGrid;
 import org.esa.snap.dataio.envisat.EnvisatConstants;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -228,6 +229,32 @@ public final class L2AuxData implements Constants {
      */
     public LUT Rayalb;
 
+    /**
+     * Detector central wavelengths of reduced resolution products, as read from the database.
+     */
+    float[] central_wavelength_rr_data;
+    /**
+     * Detector solar irradiances of reduced resolution products, as read from the database.
+     */
+    float[] detector_solar_irradiance_rr_data;
+    /**
+     * Detector central wavelengths of full resolution products, as read from the database.
+     */
+    float[] central_wavelength_fr_data;
+    /**
+     * Detector solar irradiances of full resolution products, as read from the database.
+     */
+    float[] detector_solar_irradiance_fr_data;
+    /**
+     * Sun zenith angles of all glint reflectance tables.
+     */
+    float[] rog_all_sza;
+    /**
+     * [7][19][25][5][27] Glint reflectances for all sun zenith angles of {@link #rog_all_sza}. The sun zenith angles
+     * covered by the current product are copied into {@link #rog}.
+     */
+    LUT rog_all;
+
     /**
      * Holds smile correction information for all bands.
      */
@@ -252,14 +279,33 @@ public final class L2AuxData implements Constants {
      */
     public L2AuxData(DpmConfig config, Product product) throws L2AuxDataException, IOException {
         sourceProduct = product;
-        loadAuxData(config);
+        final File[] auxDatabaseFiles = {
+                config.getAuxDatabaseFile("lv2conf", null),
+                config.getAuxDatabaseFile("atmosphere", null),
+                config.getAuxDatabaseFile("landaero", null),
+                config.getAuxDatabaseFile("case1", null)
+        };
+        final L2AuxDataCache cache = L2AuxDataCache.getInstance();
+        if (cache == null || !cache.read(auxDatabaseFiles, this)) {
+            loadAuxData(auxDatabaseFiles);
+            if (cache != null) {
+                cache.write(auxDatabaseFiles, this);
+            }
+        }
+        initProductAuxData();
     }
 
-    private void loadAuxData(DpmConfig config) throws L2AuxDataException, IOException {
-        final AuxFile auxFileO = AuxFile.open('O', config.getAuxDatabaseFile("lv2conf", null));
-        final AuxFile auxFileP = AuxFile.open('P', config.getAuxDatabaseFile("atmosphere", null));
-        final AuxFile auxFileS = AuxFile.open('S', config.getAuxDatabaseFile("landaero", null));
-        final AuxFile auxFileT = AuxFile.open('T', config.getAuxDatabaseFile("case1", null));
+    /**
+     * Constructs an instance without any data, which is filled by {@link L2AuxDataCache}.
+     */
+    L2AuxData() {
+    }
+
+    private void loadAuxData(File[] auxDatabaseFiles) throws IOException {
+        final AuxFile auxFileO = AuxFile.open('O', auxDatabaseFiles[0]);
+        final AuxFile auxFileP = AuxFile.open('P', auxDatabaseFiles[1]);
+        final AuxFile auxFileS = AuxFile.open('S', auxDatabaseFiles[2]);
+        final AuxFile auxFileT = AuxFile.open('T', auxDatabaseFiles[3]);
         try {
             loadConfigurationAuxData(auxFileO);
             loadAtmosphereAuxData(auxFileP);
@@ -273,15 +319,10 @@ public final class L2AuxData implements Constants {
         }
     }
 
-    private void loadConfigurationAuxData(final AuxFile auxFileO) throws IOException, L2AuxDataException {
-
-        // Default radiance for saturated pixels.
-        Saturation_L = auxFileO.readDoubleArray("O202", L1_BAND_NUM);
-
-        // Square of the sun-earth distance.
-        sun_earth_distance_square = auxFileO.readDouble("O300");
-
-        // todo move to another place
+    /**
+     * Initialises the data which depends on the source product from the data loaded from the databases.
+     */
+    private void initProductAuxData() throws L2AuxDataException {
         // Ratio actual sun-earth distance to mean sun-earth distance.
         seasonal_factor = 1.0;
         final ProductData.UTC startTime = sourceProduct.getStartTime();
@@ -293,6 +334,39 @@ public final class L2AuxData implements Constants {
                                                           sun_earth_distance_square);
         }
 
+        final float[] central_wavelength_data;
+        final float[] detector_solar_irradiance_data;
+        if (Utils.isProductRR(sourceProduct)) {
+            detector_count = RR_DETECTOR_COUNT;
+            central_wavelength_data = central_wavelength_rr_data;
+            detector_solar_irradiance_data = detector_solar_irradiance_rr_data;
+        } else if (Utils.isProductFR(sourceProduct)) {
+            detector_count = FR_DETECTOR_COUNT;
+            central_wavelength_data = central_wavelength_fr_data;
+            detector_solar_irradiance_data = detector_solar_irradiance_fr_data;
+        } else {
+            throw new L2AuxDataException("Input product is neither MERIS RR nor FR");
+        }
+
+        // Detector central wavelengths
+        central_wavelength = new double[L1_BAND_NUM][detector_count];
+        MDArray.copyFlatIntoDeep(central_wavelength_data, central_wavelength);
+
+        // Detector solar irradiance
+        detector_solar_irradiance = new double[L1_BAND_NUM][detector_count];
+        MDArray.copyFlatIntoDeep(detector_solar_irradiance_data, detector_solar_irradiance);
+
+        initGlintAuxData();
+    }
+
+    private void loadConfigurationAuxData(final AuxFile auxFileO) throws IOException {
+
+        // Default radiance for saturated pixels.
+        Saturation_L = auxFileO.readDoubleArray("O202", L1_BAND_NUM);
+
+        // Square of the sun-earth distance.
+        sun_earth_distance_square = auxFileO.readDouble("O300");
+
         final byte[] sw_land_smile = auxFileO.readRecord("O301", ProductData.TYPE_ASCII).getElemString().getBytes();
         final byte[] sw_water_smile = auxFileO.readRecord("O302", ProductData.TYPE_ASCII).getElemString().getBytes();
         final byte[] derivative_land_smile = auxFileO.readRecord("O303", ProductData.TYPE_ASCII).getElemString().getBytes();
@@ -310,30 +384,11 @@ public final class L2AuxData implements Constants {
             water_smile_params.derivative_band_id[i][1] = derivative_water_smile[2 * i + 1] - 1;
         }
 
-        final String central_wavelength_key;
-        final String detector_solar_irradiance_key;
-        if (Utils.isProductRR(sourceProduct)) {
-            detector_count = RR_DETECTOR_COUNT;
-            central_wavelength_key = "O307";
-            detector_solar_irradiance_key = "O308";
-        } else if (Utils.isProductFR(sourceProduct)) {
-            detector_count = FR_DETECTOR_COUNT;
-            central_wavelength_key = "O309";
-            detector_solar_irradiance_key = "O30A";
-        } else {
-            throw new L2AuxDataException("Input product is neither MERIS RR nor FR");
-        }
-        int num_elems = L1_BAND_NUM * detector_count;
-
-        // Detector central wavelengths
-        final float[] central_wavelength_data = auxFileO.readFloatArray(central_wavelength_key, num_elems);
-        central_wavelength = new double[L1_BAND_NUM][detector_count];
-        MDArray.copyFlatIntoDeep(central_wavelength_data, central_wavelength);
-
-        // Detector solar irradiance
-        final float[] detector_solar_irradiance_data = auxFileO.readFloatArray(detector_solar_irradiance_key, num_elems);
-        detector_solar_irradiance = new double[L1_BAND_NUM][detector_count];
-        MDArray.copyFlatIntoDeep(detector_solar_irradiance_data, detector_solar_irradiance);
+        // Detector central wavelengths and solar irradiance of both resolutions, see initProductAuxData()
+        central_wavelength_rr_data = auxFileO.readFloatArray("O307", L1_BAND_NUM * RR_DETECTOR_COUNT);
+        detector_solar_irradiance_rr_data = auxFileO.readFloatArray("O308", L1_BAND_NUM * RR_DETECTOR_COUNT);
+        central_wavelength_fr_data = auxFileO.readFloatArray("O309", L1_BAND_NUM * FR_DETECTOR_COUNT);
+        detector_solar_irradiance_fr_data = auxFileO.readFloatArray("O30A", L1_BAND_NUM * FR_DETECTOR_COUNT);
 
         // Maximum allowed value for sun zenith angle
         TETAS_LIM = auxFileO.readFloat("O40G");
@@ -594,7 +649,7 @@ public final class L2AuxData implements Constants {
         Rayscatt_coeff_s.setTab(3, ang_scale);
     }
 
-    private void loadLandAerosolAuxData(final AuxFile auxFileS, final AuxFile auxFileT) throws IOException, L2AuxDataException {
+    private void loadLandAerosolAuxData(final AuxFile auxFileS, final AuxFile auxFileT) throws IOException {
         assert R7T_NUM_SZA == R7T_NUM_VZA;
         final double[] r7thresh_tab1 = auxFileS.readDoubleArray("S200", R7T_NUM_SZA);
         final double[] r7thresh_tab2 = r7thresh_tab1;
@@ -655,41 +710,8 @@ public final class L2AuxData implements Constants {
         lap_beta_l = auxFileS.readDouble("S205");
         lap_beta_w = auxFileS.readDouble("S206");
 
-        TiePointGrid szaGrid = sourceProduct.getTiePointGrid(EnvisatConstants.MERIS_SUN_ZENITH_DS_NAME);
-        if (szaGrid == null) {
-            String msg = String.format("Source product does not contain tie-point grid '%s'",
-                                       EnvisatConstants.MERIS_SUN_ZENITH_DS_NAME);
-            throw new L2AuxDataException(msg);
-        }
-
-        Stx stx = szaGrid.getStx(true, ProgressMonitor.NULL);
-
         /* Read thetas tabulated values for LUTs turbid and Glint */
-        fbuf = auxFileT.readFloatArray("T203", -1);
-
-        double[] fbufCopy = new double[27];
-        for (int i = 0; i < fbuf.length; i++) {
-            fbufCopy[i] = fbuf[i];
-        }
-
-        int min;
-        int max;
-        FractIndex fract = new FractIndex();
-        Interp.interpCoord(stx.getMinimum(), fbufCopy, fract);
-        min = fract.index;
-        Interp.interpCoord(stx.getMaximum(), fbufCopy, fract);
-        max = fract.index;
-        if (fract.fraction > 0) {
-            max++;
-        }
-        /* table does not accomodate whole thetas range : issue a warning */
-        if (max >= min + ROG_NUM_SZA) {
-            throw new L2AuxDataException("Wrong thetas(ROG) range: " + min + " to " + max);
-        }
-
-        min = Math.min(min, ROG_ALL_SZA - ROG_NUM_SZA);
-        final float[] rog_tab5 = new float[ROG_NUM_SZA];
-        System.arraycopy(fbuf, min, rog_tab5, 0, ROG_NUM_SZA);
+        rog_all_sza = auxFileT.readFloatArray("T203", -1);
 
         /* Read thetav tabulated values for LUTs Turbid and Glint */
         final float[] rog_tab2 = auxFileT.readFloatArray("T206", ROG_NUM_VZA);
@@ -703,12 +725,12 @@ public final class L2AuxData implements Constants {
         /* Read Wind azimuth tabulated values for LUT Glint */
         final float[] rog_tab1 = auxFileT.readFloatArray("T20H", ROG_NUM_WA);
 
-        float[][][][][] rog_LUT = new float[ROG_NUM_WA][ROG_NUM_VZA][ROG_NUM_ADA][ROG_NUM_WIND][ROG_NUM_SZA];
-        /* loop on selected Sun zenith angles */
-        for (int its = 0; its < ROG_NUM_SZA; its++) {
+        /* all Sun zenith angles are loaded, the ones of the product are selected in initGlintAuxData() */
+        float[][][][][] rog_LUT = new float[ROG_NUM_WA][ROG_NUM_VZA][ROG_NUM_ADA][ROG_NUM_WIND][ROG_ALL_SZA];
+        for (int its = 0; its < ROG_ALL_SZA; its++) {
             /* read five successive tables */
             int ws = 0;
-            fbuf = (float[]) auxFileT.readRecord("T700", min + its, -1, ProductData.TYPE_FLOAT32, null).getElems();
+            fbuf = (float[]) auxFileT.readRecord("T700", its, -1, ProductData.TYPE_FLOAT32, null).getElems();
 
             z = 0;
             for (int wa = 0; wa < ROG_NUM_WA; wa++) {
@@ -720,7 +742,7 @@ public final class L2AuxData implements Constants {
                 }
             }
             for (ws = 1; ws < ROG_NUM_WIND; ws++) {
-                fbuf = (float[]) auxFileT.readRecord("T70" + ws, min + its, -1, ProductData.TYPE_FLOAT32, null).getElems();
+                fbuf = (float[]) auxFileT.readRecord("T70" + ws, its, -1, ProductData.TYPE_FLOAT32, null).getElems();
                 z = 0;
                 for (int wa = 0; wa < ROG_NUM_WA; wa++) {
                     for (int itv = 0; itv < ROG_NUM_VZA; itv++) {
@@ -732,11 +754,68 @@ public final class L2AuxData implements Constants {
                 }
             }
         }
+        rog_all = new LUT(rog_LUT);
+        rog_all.setTab(0, makeDoubleArrayCopy(rog_tab1));
+        rog_all.setTab(1, makeDoubleArrayCopy(rog_tab2));
+        rog_all.setTab(2, makeDoubleArrayCopy(rog_tab3));
+        rog_all.setTab(3, makeDoubleArrayCopy(rog_tab4));
+    }
+
+    private void initGlintAuxData() throws L2AuxDataException {
+        TiePointGrid szaGrid = sourceProduct.getTiePointGrid(EnvisatConstants.MERIS_SUN_ZENITH_DS_NAME);
+        if (szaGrid == null) {
+            String msg = String.format("Source product does not contain tie-point grid '%s'",
+                                       EnvisatConstants.MERIS_SUN_ZENITH_DS_NAME);
+            throw new L2AuxDataException(msg);
+        }
+
+        Stx stx = szaGrid.getStx(true, ProgressMonitor.NULL);
+
+        double[] fbufCopy = new double[27];
+        for (int i = 0; i < rog_all_sza.length; i++) {
+            fbufCopy[i] = rog_all_sza[i];
+        }
+
+        int min;
+        int max;
+        FractIndex fract = new FractIndex();
+        Interp.interpCoord(stx.getMinimum(), fbufCopy, fract);
+        min = fract.index;
+        Interp.interpCoord(stx.getMaximum(), fbufCopy, fract);
+        max = fract.index;
+        if (fract.fraction > 0) {
+            max++;
+        }
+        /* table does not accomodate whole thetas range : issue a warning */
+        if (max >= min + ROG_NUM_SZA) {
+            throw new L2AuxDataException("Wrong thetas(ROG) range: " + min + " to " + max);
+        }
+
+        min = Math.min(min, ROG_ALL_SZA - ROG_NUM_SZA);
+        final float[] rog_tab5 = new float[ROG_NUM_SZA];
+        System.arraycopy(rog_all_sza, min, rog_tab5, 0, ROG_NUM_SZA);
+
+        final float[][][][][] rog_all_LUT = (float[][][][][]) rog_all.getJavaArray();
+        final float[][][][][] rog_LUT;
+        if (min == 0 && ROG_NUM_SZA == ROG_ALL_SZA) {
+            rog_LUT = rog_all_LUT;
+        } else {
+            rog_LUT = new float[ROG_NUM_WA][ROG_NUM_VZA][ROG_NUM_ADA][ROG_NUM_WIND][ROG_NUM_SZA];
+            for (int wa = 0; wa < ROG_NUM_WA; wa++) {
+                for (int itv = 0; itv < ROG_NUM_VZA; itv++) {
+                    for (int idf = 0; idf < ROG_NUM_ADA; idf++) {
+                        for (int ws = 0; ws < ROG_NUM_WIND; ws++) {
+                            System.arraycopy(rog_all_LUT[wa][itv][idf][ws], min, rog_LUT[wa][itv][idf][ws], 0, ROG_NUM_SZA);
+                        }
+                    }
+                }
+            }
+        }
         rog = new LUT(rog_LUT);
-        rog.setTab(0, makeDoubleArrayCopy(rog_tab1));
-        rog.setTab(1, makeDoubleArrayCopy(rog_tab2));
-        rog.setTab(2, makeDoubleArrayCopy(rog_tab3));
-        rog.setTab(3, makeDoubleArrayCopy(rog_tab4));
+        rog.setTab(0, rog_all.getTab(0));
+        rog.setTab(1, rog_all.getTab(1));
+        rog.setTab(2, rog_all.getTab(2));
+        rog.setTab(3, rog_all.getTab(3));
         rog.setTab(4, makeDoubleArrayCopy(rog_tab5));
     }
 
@@ -0,0 +1,411 @@
+package org.esa.s3tbx.meris.l2auxdata;
+
+import org.esa.s3tbx.util.io.CacheFileFormat;
+import org.esa.s3tbx.util.math.LUT;
+import org.esa.s3tbx.util.math.MDArray;
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.runtime.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+/**
+ * A persistent cache of the tables decoded from the MERIS Level 2 auxiliary databases. Decoding the databases
+ * record by record takes several seconds, so the decoded tables are written once per version of the databases
+ * into a binary file, which is read in bulk afterwards. The cache only saves the decoding: every JVM still
+ * copies all tables into its own heap, as if they had been decoded from the databases.
+ * <p>
+ * Only the data which does not depend on the source product is cached, see {@link L2AuxData}. The cache files
+ * are keyed by a checksum of the names, sizes and modification times of the database files. The cache is
+ * enabled by default.
+ */
+class L2AuxDataCache {
+
+    /**
+     * Enables the cache.
+     */
+    static final String L2_AUX_DATA_CACHE_ENABLED = "s3tbx.meris.l2AuxDataCache";
+    /**
+     * The directory of the cache files, by default {@code s3tbx/meris-l2auxdata} in the SNAP cache directory.
+     */
+    static final String L2_AUX_DATA_CACHE_DIR = "s3tbx.meris.l2AuxDataCache.dir";
+
+    private static final Logger LOGGER = Logger.getLogger(L2AuxDataCache.class.getName());
+    private static final CacheFileFormat FORMAT = new CacheFileFormat("MERL2A", 1);
+
+    private final Path cacheDir;
+
+    L2AuxDataCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * @return the configured cache, or {@code null} if the cache is disabled
+     */
+    static L2AuxDataCache getInstance() {
+        final Preferences preferences = Config.instance("s3tbx").load().preferences();
+        if (!preferences.getBoolean(L2_AUX_DATA_CACHE_ENABLED, true)) {
+            return null;
+        }
+        final String defaultDir = new File(SystemUtils.getCacheDir(), "s3tbx/meris-l2auxdata").getPath();
+        return new L2AuxDataCache(new File(preferences.get(L2_AUX_DATA_CACHE_DIR, defaultDir)).toPath());
+    }
+
+    /**
+     * Reads the cached tables of the given database files into the given aux data.
+     *
+     * @return {@code true} if the tables have been read, {@code false} if they must be loaded from the databases
+     */
+    boolean read(File[] auxDatabaseFiles, L2AuxData auxData) {
+        final Path cacheFile = getCacheFile(auxDatabaseFiles);
+        if (!Files.isRegularFile(cacheFile)) {
+            return false;
+        }
+        try {
+            if (read(cacheFile, auxData)) {
+                return true;
+            }
+            LOGGER.warning("Ignoring invalid MERIS L2 auxiliary data cache file " + cacheFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read MERIS L2 auxiliary data cache file " + cacheFile, e);
+        }
+        return false;
+    }
+
+    /**
+     * Writes the tables of the given aux data, which have been loaded from the given database files.
+     */
+    void write(File[] auxDatabaseFiles, L2AuxData auxData) {
+        final Path cacheFile = getCacheFile(auxDatabaseFiles);
+        try {
+            write(cacheFile, auxData);
+        } catch (IOException e) {
+            // the databases are decoded again next time
+            LOGGER.log(Level.WARNING, "Failed to write MERIS L2 auxiliary data cache file " + cacheFile, e);
+        }
+    }
+
+    Path getCacheFile(File[] auxDatabaseFiles) {
+        return cacheDir.resolve(createChecksum(auxDatabaseFiles) + ".bin");
+    }
+
+    static String createChecksum(File[] auxDatabaseFiles) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (File file : auxDatabaseFiles) {
+            final String version = file.getName() + ":" + file.length() + ":" + file.lastModified() + ";";
+            digest.update(version.getBytes(StandardCharsets.UTF_8));
+        }
+        final StringBuilder checksum = new StringBuilder();
+        for (byte b : digest.digest()) {
+            checksum.append(String.format("%02x", b));
+        }
+        return checksum.toString();
+    }
+
+    static boolean read(Path cacheFile, L2AuxData auxData) throws IOException {
+        final ByteBuffer buffer = FORMAT.map(cacheFile);
+        if (buffer == null) {
+            return false;
+        }
+        try {
+            transfer(auxData, new Reader(buffer));
+            return !buffer.hasRemaining();
+        } catch (BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static void write(Path cacheFile, L2AuxData auxData) throws IOException {
+        final Writer writer = new Writer();
+        transfer(auxData, writer);
+        writer.buffer.flip();
+        FORMAT.write(cacheFile, writer.buffer);
+    }
+
+    /**
+     * Writes or reads all cached fields, in the same order in both directions.
+     */
+    private static void transfer(L2AuxData a, Codec c) {
+        a.sun_earth_distance_square = c.doubleValue(a.sun_earth_distance_square);
+        a.maxPress = c.doubleValue(a.maxPress);
+        a.press_scale_height = c.doubleValue(a.press_scale_height);
+        a.press_confidence = c.doubleValue(a.press_confidence);
+        a.land_decision_table = c.booleans(a.land_decision_table);
+        a.water_decision_table = c.booleans(a.water_decision_table);
+        a.band_slope_n_1 = c.intValue(a.band_slope_n_1);
+        a.band_slope_d_1 = c.intValue(a.band_slope_d_1);
+        a.band_slope_n_2 = c.intValue(a.band_slope_n_2);
+        a.band_slope_d_2 = c.intValue(a.band_slope_d_2);
+        a.band_bright_n = c.intValue(a.band_bright_n);
+        a.slope_1_low_thr = c.doubleValue(a.slope_1_low_thr);
+        a.slope_1_high_thr = c.doubleValue(a.slope_1_high_thr);
+        a.slope_2_low_thr = c.doubleValue(a.slope_2_low_thr);
+        a.slope_2_high_thr = c.doubleValue(a.slope_2_high_thr);
+        a.theoretical_wavelength = c.doubles(a.theoretical_wavelength);
+        a.Saturation_L = c.doubles(a.Saturation_L);
+        a.land_smile_params = c.smileParams(a.land_smile_params);
+        a.water_smile_params = c.smileParams(a.water_smile_params);
+        a.spectral_shift_H2Owavelength = c.doubles(a.spectral_shift_H2Owavelength);
+        a.H2Ocoef = c.doubleMatrix(a.H2Ocoef);
+        a.H2OcoefSpecShift = c.doubleMatrix(a.H2OcoefSpecShift);
+        a.O2coef = c.doubleMatrix(a.O2coef);
+        a.spectral_shift_wavelength = c.doubles(a.spectral_shift_wavelength);
+        a.tauO3_norm = c.doubles(a.tauO3_norm);
+        a.TETAS_LIM = c.doubleValue(a.TETAS_LIM);
+        a.r7thresh = c.lut(a.r7thresh);
+        a.r13thresh = c.lut(a.r13thresh);
+        a.alpha_thresh = c.doubles(a.alpha_thresh);
+        a.lap_b_thresh = c.ints(a.lap_b_thresh);
+        a.lap_beta_l = c.doubleValue(a.lap_beta_l);
+        a.lap_beta_w = c.doubleValue(a.lap_beta_w);
+        a.Pstd = c.doubleValue(a.Pstd);
+        a.tau_R = c.doubles(a.tau_R);
+        a.AB = c.doubles(a.AB);
+        a.Raytrans = c.doubles(a.Raytrans);
+        a.Rhorc_442_land_LUT = c.lut(a.Rhorc_442_land_LUT);
+        a.Rhorc_442_ocean_LUT = c.lut(a.Rhorc_442_ocean_LUT);
+        a.Rayscatt_coeff_s = c.lut(a.Rayscatt_coeff_s);
+        a.polcoeff = c.lut(a.polcoeff);
+        a.C = c.lut(a.C);
+        a.DPthresh_land = c.lut(a.DPthresh_land);
+        a.DPthresh_ocean = c.lut(a.DPthresh_ocean);
+        a.Rayalb = c.lut(a.Rayalb);
+        a.central_wavelength_rr_data = c.floats(a.central_wavelength_rr_data);
+        a.detector_solar_irradiance_rr_data = c.floats(a.detector_solar_irradiance_rr_data);
+        a.central_wavelength_fr_data = c.floats(a.central_wavelength_fr_data);
+        a.detector_solar_irradiance_fr_data = c.floats(a.detector_solar_irradiance_fr_data);
+        a.rog_all_sza = c.floats(a.rog_all_sza);
+        a.rog_all = c.lut(a.rog_all);
+    }
+
+    /**
+     * Transfers values between the fields and the cache file. The writer writes and returns the given values, the
+     * reader ignores them and returns the values read.
+     */
+    private abstract static class Codec {
+
+        abstract int intValue(int value);
+
+        abstract double doubleValue(double value);
+
+        abstract int[] ints(int[] values);
+
+        abstract float[] floats(float[] values);
+
+        abstract double[] doubles(double[] values);
+
+        abstract boolean isReading();
+
+        boolean[] booleans(boolean[] values) {
+            final int[] ints = ints(isReading() ? null : toInts(values));
+            if (!isReading()) {
+                return values;
+            }
+            final boolean[] result = new boolean[ints.length];
+            for (int i = 0; i < ints.length; i++) {
+                result[i] = ints[i] != 0;
+            }
+            return result;
+        }
+
+        double[][] doubleMatrix(double[][] matrix) {
+            final int rowCount = intValue(isReading() ? 0 : matrix.length);
+            final double[][] result = isReading() ? new double[rowCount][] : matrix;
+            for (int i = 0; i < result.length; i++) {
+                result[i] = doubles(result[i]);
+            }
+            return result;
+        }
+
+        L2AuxData.SmileParams smileParams(L2AuxData.SmileParams params) {
+            final L2AuxData.SmileParams result = isReading() ? new L2AuxData.SmileParams() : params;
+            final boolean[] enabled = booleans(result.enabled);
+            System.arraycopy(enabled, 0, result.enabled, 0, result.enabled.length);
+            for (int[] derivativeBandIds : result.derivative_band_id) {
+                final int[] ids = ints(derivativeBandIds);
+                System.arraycopy(ids, 0, derivativeBandIds, 0, derivativeBandIds.length);
+            }
+            return result;
+        }
+
+        LUT lut(LUT lut) {
+            final boolean reading = isReading();
+            final int[] sizes = ints(reading ? null : lut.getArray().getLayout().getDimSizes());
+            final boolean floatElements = intValue(reading ? 0 : lut.getArray().getLayout().getElementType() == float.class ? 1 : 0) != 0;
+            final LUT result;
+            if (floatElements) {
+                final float[] elements = floats(reading ? null : (float[]) flatten(lut.getJavaArray(), float.class));
+                result = reading ? new LUT(sizes, elements) : lut;
+            } else {
+                final double[] elements = doubles(reading ? null : (double[]) flatten(lut.getJavaArray(), double.class));
+                result = reading ? new LUT(sizes, elements) : lut;
+            }
+            for (int dim = 0; dim < sizes.length; dim++) {
+                final boolean hasTab = intValue(reading ? 0 : lut.getTab(dim) != null ? 1 : 0) != 0;
+                if (hasTab) {
+                    final double[] tab = doubles(reading ? null : lut.getTab(dim));
+                    if (reading) {
+                        result.setTab(dim, tab);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static int[] toInts(boolean[] values) {
+            final int[] ints = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                ints[i] = values[i] ? 1 : 0;
+            }
+            return ints;
+        }
+
+        private static Object flatten(Object javaArray, Class<?> elementType) {
+            final int[] sizes = MDArray.createLayout(javaArray).getDimSizes();
+            int size = 1;
+            for (int dimSize : sizes) {
+                size *= dimSize;
+            }
+            final Object flatArray = Array.newInstance(elementType, size);
+            copyDeepIntoFlat(javaArray, flatArray, 0);
+            return flatArray;
+        }
+
+        private static int copyDeepIntoFlat(Object deepArray, Object flatArray, int offset) {
+            if (deepArray instanceof Object[]) {
+                for (Object subArray : (Object[]) deepArray) {
+                    offset = copyDeepIntoFlat(subArray, flatArray, offset);
+                }
+                return offset;
+            }
+            final int length = Array.getLength(deepArray);
+            System.arraycopy(deepArray, 0, flatArray, offset, length);
+            return offset + length;
+        }
+    }
+
+    private static class Reader extends Codec {
+
+        private final ByteBuffer buffer;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        boolean isReading() {
+            return true;
+        }
+
+        @Override
+        int intValue(int value) {
+            return buffer.getInt();
+        }
+
+        @Override
+        double doubleValue(double value) {
+            return buffer.getDouble();
+        }
+
+        @Override
+        int[] ints(int[] values) {
+            final int[] result = new int[buffer.getInt()];
+            buffer.asIntBuffer().get(result);
+            buffer.position(buffer.position() + result.length * Integer.BYTES);
+            return result;
+        }
+
+        @Override
+        float[] floats(float[] values) {
+            final float[] result = new float[buffer.getInt()];
+            buffer.asFloatBuffer().get(result);
+            buffer.position(buffer.position() + result.length * Float.BYTES);
+            return result;
+        }
+
+        @Override
+        double[] doubles(double[] values) {
+            final double[] result = new double[buffer.getInt()];
+            buffer.asDoubleBuffer().get(result);
+            buffer.position(buffer.position() + result.length * Double.BYTES);
+            return result;
+        }
+    }
+
+    private static class Writer extends Codec {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        @Override
+        boolean isReading() {
+            return false;
+        }
+
+        @Override
+        int intValue(int value) {
+            ensureRemaining(Integer.BYTES);
+            buffer.putInt(value);
+            return value;
+        }
+
+        @Override
+        double doubleValue(double value) {
+            ensureRemaining(Double.BYTES);
+            buffer.putDouble(value);
+            return value;
+        }
+
+        @Override
+        int[] ints(int[] values) {
+            intValue(values.length);
+            ensureRemaining(values.length * Integer.BYTES);
+            buffer.asIntBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Integer.BYTES);
+            return values;
+        }
+
+        @Override
+        float[] floats(float[] values) {
+            intValue(values.length);
+            ensureRemaining(values.length * Float.BYTES);
+            buffer.asFloatBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Float.BYTES);
+            return values;
+        }
+
+        @Override
+        double[] doubles(double[] values) {
+            intValue(values.length);
+            ensureRemaining(values.length * Double.BYTES);
+            buffer.asDoubleBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Double.BYTES);
+            return values;
+        }
+
+        private void ensureRemaining(int byteCount) {
+            if (buffer.remaining() < byteCount) {
+                final ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + byteCount));
+                buffer.flip();
+                newBuffer.order(ByteOrder.LITTLE_ENDIAN).put(buffer);
+                buffer = newBuffer;
+            }
+        }
+    }
+}
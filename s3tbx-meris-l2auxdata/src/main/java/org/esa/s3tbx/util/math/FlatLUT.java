@@ -0,0 +1,276 @@
+package org.esa.s3tbx.util.math;
+
+import java.lang.reflect.Array;
+
+/**
+ * A look-up table which stores its elements in a flat <code>double</code> array with precomputed strides.
+ * <p/>
+ * The interpolation gives the same results as {@link Interp#interpolate(Object, FractIndex[])} on the nested Java
+ * array of the LUT, but it neither follows nested array references nor checks the element type at every element.
+ * Ranks 1 to 6 are interpolated by methods specialised for the rank, which do not allocate any objects.
+ * <p/>
+ * Instances are immutable and can be shared between threads. The fractional indexes returned by {@link #getIndexes()}
+ * are reused by all calls from the same thread. {@link #interpolate(double[])} uses fractional indexes of its own, so
+ * that it does not overwrite the ones a caller has prepared.
+ * <p/>
+ * <p><i><b>IMPORTANT NOTE:</b>
+ * This class belongs to a preliminary API.
+ * It is not (yet) intended to be used by clients and may change in the future.</i></p>
+ *
+ * @see LUT#getFlatLUT()
+ */
+public final class FlatLUT {
+
+    private final double[] elements;
+    private final int[] sizes;
+    private final int[] strides;
+    private final double[][] tabs;
+    private final ThreadLocal<FractIndex[]> indexes;
+    private final ThreadLocal<FractIndex[]> coordinateIndexes;
+
+    /**
+     * Constructs a flat LUT from the elements and tabulated values of the given LUT.
+     *
+     * @param lut the LUT, must not be <code>null</code>
+     */
+    public FlatLUT(final LUT lut) {
+        this(lut.getArray(), getTabs(lut));
+    }
+
+    /**
+     * Constructs a flat LUT from the given array object, without tabulated values.
+     *
+     * @param javaArray an instance of a single- or multi-dimensional, regular Java array of type <code>float</code> or
+     *                  <code>double</code>.
+     */
+    public FlatLUT(final Object javaArray) {
+        this(new MDArray(javaArray), null);
+    }
+
+    private FlatLUT(final MDArray array, final double[][] tabs) {
+        final int rank = array.getRank();
+        sizes = array.getLayout().getDimSizes().clone();
+        strides = new int[rank];
+        int stride = 1;
+        for (int dim = rank - 1; dim >= 0; dim--) {
+            strides[dim] = stride;
+            stride *= sizes[dim];
+        }
+        elements = new double[stride];
+        copyDeepIntoFlat(array.getJavaArray(), 0, 0, sizes, elements);
+        this.tabs = tabs != null ? tabs : new double[rank][];
+        this.indexes = createIndexesPerThread(rank);
+        this.coordinateIndexes = createIndexesPerThread(rank);
+    }
+
+    public int getRank() {
+        return sizes.length;
+    }
+
+    public int getDimSize(final int dim) {
+        return sizes[dim];
+    }
+
+    /**
+     * Gets the distance between two successive elements of the given dimension in the flat element array.
+     *
+     * @param dim the index of the dimension, must be within <code>0</code> and rank - 1</code>
+     * @return the stride of the given dimension
+     */
+    public int getStride(final int dim) {
+        return strides[dim];
+    }
+
+    /**
+     * Gets the tabulated values for the given dimension.
+     *
+     * @param dim the index of the dimension, must be within <code>0</code> and rank - 1</code>
+     * @return the the tabulated values for the given dimension, can be <code>null</code>
+     */
+    public double[] getTab(final int dim) {
+        return tabs[dim];
+    }
+
+    /**
+     * Gets the fractional indexes of the calling thread. The same array is returned for every call from the same
+     * thread, so it must not be used beyond the interpolation it is prepared for.
+     *
+     * @return the fractional indexes, one for each dimension
+     */
+    public FractIndex[] getIndexes() {
+        return indexes.get();
+    }
+
+    /**
+     * Multi-linear interpolation at the given co-ordinates, which are located in the tabulated values of each
+     * dimension using {@link Interp#interpCoord(double, double[], FractIndex)}.
+     *
+     * @param coordinates the co-ordinates, one for each dimension
+     * @return the interpolated value
+     */
+    public double interpolate(final double[] coordinates) {
+        final FractIndex[] fractIndexes = coordinateIndexes.get();
+        for (int dim = 0; dim < fractIndexes.length; dim++) {
+            Interp.interpCoord(coordinates[dim], tabs[dim], fractIndexes[dim]);
+        }
+        return interpolate(fractIndexes);
+    }
+
+    /**
+     * Multi-linear interpolation in all dimensions of this LUT.
+     *
+     * @param indexes the fractional indexes for each dimension, the length of this array must be equal to the rank
+     * @return the interpolated value
+     */
+    public double interpolate(final FractIndex[] indexes) {
+        if (indexes.length != sizes.length) {
+            throw new IllegalArgumentException("indexes.length != rank, indexes.length=" + indexes.length);
+        }
+        return interpolate(0, indexes);
+    }
+
+    /**
+     * Multi-linear interpolation in the trailing dimensions of this LUT. The leading dimensions are selected by the
+     * given offset, which is the sum of the leading indexes multiplied by their {@link #getStride(int) strides}.
+     * E.g. for a LUT of rank 4, <code>interpolate(i * getStride(0) + j * getStride(1), indexes)</code> gives the same
+     * result as <code>Interp.interpolate(javaArray[i][j], indexes)</code>.
+     *
+     * @param offset  the offset of the interpolated sub-array in the flat element array
+     * @param indexes the fractional indexes for each of the trailing dimensions
+     * @return the interpolated value
+     */
+    public double interpolate(final int offset, final FractIndex[] indexes) {
+        final int dim = sizes.length - indexes.length;
+        if (dim < 0) {
+            throw new IllegalArgumentException("indexes.length > rank, indexes.length=" + indexes.length);
+        }
+        for (FractIndex index : indexes) {
+            final double fraction = index.fraction;
+            if (fraction < 0.0 || fraction >= 1.0) {
+                throw new IllegalArgumentException("fraction < 0.0 || fraction >= 1.0, fraction=" + fraction);
+            }
+        }
+        switch (indexes.length) {
+            case 1:
+                return interpolate1(offset, dim, indexes[0]);
+            case 2:
+                return interpolate2(offset, dim, indexes[0], indexes[1]);
+            case 3:
+                return interpolate3(offset, dim, indexes[0], indexes[1], indexes[2]);
+            case 4:
+                return interpolate4(offset, dim, indexes[0], indexes[1], indexes[2], indexes[3]);
+            case 5:
+                return interpolate5(offset, dim, indexes[0], indexes[1], indexes[2], indexes[3], indexes[4]);
+            case 6:
+                return interpolate6(offset, dim, indexes[0], indexes[1], indexes[2], indexes[3], indexes[4], indexes[5]);
+            default:
+                return interpolateN(offset, dim, indexes, 0);
+        }
+    }
+
+    // The specialised methods evaluate exactly the same expressions in the same order as Interp.interpolate(),
+    // the upper neighbour of the last index of a dimension is the element itself.
+
+    private double interpolate1(int offset, int dim, FractIndex i0) {
+        final int index = i0.index;
+        final int pos = offset + index * strides[dim];
+        final double y1 = elements[pos];
+        final double y2 = index < sizes[dim] - 1 ? elements[pos + strides[dim]] : y1;
+        return y1 + i0.fraction * (y2 - y1);
+    }
+
+    private double interpolate2(int offset, int dim, FractIndex i0, FractIndex i1) {
+        final int index = i0.index;
+        final int pos = offset + index * strides[dim];
+        final double y1 = interpolate1(pos, dim + 1, i1);
+        final double y2 = index < sizes[dim] - 1 ? interpolate1(pos + strides[dim], dim + 1, i1) : y1;
+        return y1 + i0.fraction * (y2 - y1);
+    }
+
+    private double interpolate3(int offset, int dim, FractIndex i0, FractIndex i1, FractIndex i2) {
+        final int index = i0.index;
+        final int pos = offset + index * strides[dim];
+        final double y1 = interpolate2(pos, dim + 1, i1, i2);
+        final double y2 = index < sizes[dim] - 1 ? interpolate2(pos + strides[dim], dim + 1, i1, i2) : y1;
+        return y1 + i0.fraction * (y2 - y1);
+    }
+
+    private double interpolate4(int offset, int dim, FractIndex i0, FractIndex i1, FractIndex i2, FractIndex i3) {
+        final int index = i0.index;
+        final int pos = offset + index * strides[dim];
+        final double y1 = interpolate3(pos, dim + 1, i1, i2, i3);
+        final double y2 = index < sizes[dim] - 1 ? interpolate3(pos + strides[dim], dim + 1, i1, i2, i3) : y1;
+        return y1 + i0.fraction * (y2 - y1);
+    }
+
+    private double interpolate5(int offset, int dim, FractIndex i0, FractIndex i1, FractIndex i2, FractIndex i3,
+                                FractIndex i4) {
+        final int index = i0.index;
+        final int pos = offset + index * strides[dim];
+        final double y1 = interpolate4(pos, dim + 1, i1, i2, i3, i4);
+        final double y2 = index < sizes[dim] - 1 ? interpolate4(pos + strides[dim], dim + 1, i1, i2, i3, i4) : y1;
+        return y1 + i0.fraction * (y2 - y1);
+    }
+
+    private double interpolate6(int offset, int dim, FractIndex i0, FractIndex i1, FractIndex i2, FractIndex i3,
+                                FractIndex i4, FractIndex i5) {
+        final int index = i0.index;
+        final int pos = offset + index * strides[dim];
+        final double y1 = interpolate5(pos, dim + 1, i1, i2, i3, i4, i5);
+        final double y2 = index < sizes[dim] - 1 ? interpolate5(pos + strides[dim], dim + 1, i1, i2, i3, i4, i5) : y1;
+        return y1 + i0.fraction * (y2 - y1);
+    }
+
+    private double interpolateN(int offset, int dim, FractIndex[] indexes, int i) {
+        final FractIndex fractIndex = indexes[i];
+        if (i == indexes.length - 1) {
+            return interpolate1(offset, dim, fractIndex);
+        }
+        final int index = fractIndex.index;
+        final int pos = offset + index * strides[dim];
+        final double y1 = interpolateN(pos, dim + 1, indexes, i + 1);
+        final double y2 = index < sizes[dim] - 1 ? interpolateN(pos + strides[dim], dim + 1, indexes, i + 1) : y1;
+        return y1 + fractIndex.fraction * (y2 - y1);
+    }
+
+    private static ThreadLocal<FractIndex[]> createIndexesPerThread(final int rank) {
+        return new ThreadLocal<FractIndex[]>() {
+            @Override
+            protected FractIndex[] initialValue() {
+                return FractIndex.createArray(rank);
+            }
+        };
+    }
+
+    private static double[][] getTabs(LUT lut) {
+        final double[][] tabs = new double[lut.getArray().getRank()][];
+        for (int dim = 0; dim < tabs.length; dim++) {
+            tabs[dim] = lut.getTab(dim);
+        }
+        return tabs;
+    }
+
+    private static int copyDeepIntoFlat(Object deepArray, int dim, int offset, int[] sizes, double[] flatArray) {
+        if (Array.getLength(deepArray) != sizes[dim]) {
+            throw new IllegalArgumentException("array is not regular");
+        }
+        if (deepArray instanceof float[]) {
+            final float[] array = (float[]) deepArray;
+            for (int i = 0; i < array.length; i++) {
+                flatArray[offset + i] = array[i];
+            }
+            return offset + array.length;
+        } else if (deepArray instanceof double[]) {
+            final double[] array = (double[]) deepArray;
+            System.arraycopy(array, 0, flatArray, offset, array.length);
+            return offset + array.length;
+        } else if (deepArray instanceof Object[] && dim < sizes.length - 1) {
+            for (Object subArray : (Object[]) deepArray) {
+                offset = copyDeepIntoFlat(subArray, dim + 1, offset, sizes, flatArray);
+            }
+            return offset;
+        } else {
+            throw new IllegalArgumentException("illegal array type, float[] or double[] expected");
+        }
+    }
+}
@@ -29,6 +29,10 @@ public class LUT {
      * Tabulated values for each dimension.
      */
     private final double[][] _tabs;
+    /**
+     * The flat copy of this LUT, created on demand.
+     */
+    private volatile FlatLUT _flatLUT;
 
     /**
      * Constructs a new LUT from the given array object.
@@ -123,5 +127,25 @@ public class LUT {
         }
         _tabs[dim] = tab;
     }
-}
 
+    /**
+     * Gets a flat copy of the elements and tabulated values of this LUT, which is interpolated faster than the
+     * multi-dimensional Java array. The copy is created by the first call, so the elements and the tabulated values
+     * must not be changed after this method has been called.
+     *
+     * @return the flat LUT, never <code>null</code>
+     */
+    public FlatLUT getFlatLUT() {
+        FlatLUT flatLUT = _flatLUT;
+        if (flatLUT == null) {
+            synchronized (this) {
+                flatLUT = _flatLUT;
+                if (flatLUT == null) {
+                    flatLUT = new FlatLUT(this);
+                    _flatLUT = flatLUT;
+                }
+            }
+        }
+        return flatLUT;
+    }
+}
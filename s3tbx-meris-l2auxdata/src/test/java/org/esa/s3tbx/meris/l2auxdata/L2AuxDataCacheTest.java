@@ -0,0 +1,172 @@
+package org.esa.s3tbx.meris.l2auxdata;
+
+import org.esa.s3tbx.util.math.LUT;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class L2AuxDataCacheTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("l2-aux-data-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final L2AuxData auxData = createAuxData();
+        final Path cacheFile = tempDir.resolve("cache").resolve("aux.bin");
+
+        L2AuxDataCache.write(cacheFile, auxData);
+        final L2AuxData cachedAuxData = new L2AuxData();
+        assertTrue(L2AuxDataCache.read(cacheFile, cachedAuxData));
+
+        assertEquals(auxData.sun_earth_distance_square, cachedAuxData.sun_earth_distance_square, 0.0);
+        assertEquals(auxData.press_confidence, cachedAuxData.press_confidence, 0.0);
+        assertEquals(auxData.band_bright_n, cachedAuxData.band_bright_n);
+        assertEquals(auxData.TETAS_LIM, cachedAuxData.TETAS_LIM, 0.0);
+        assertTrue(cachedAuxData.land_decision_table[3]);
+        assertFalse(cachedAuxData.land_decision_table[4]);
+        assertArrayEquals(auxData.Saturation_L, cachedAuxData.Saturation_L, 0.0);
+        assertArrayEquals(auxData.lap_b_thresh, cachedAuxData.lap_b_thresh);
+        assertArrayEquals(auxData.O2coef[1], cachedAuxData.O2coef[1], 0.0);
+        assertTrue(cachedAuxData.water_smile_params.enabled[2]);
+        assertArrayEquals(auxData.water_smile_params.derivative_band_id[2],
+                          cachedAuxData.water_smile_params.derivative_band_id[2]);
+        assertArrayEquals(auxData.central_wavelength_fr_data, cachedAuxData.central_wavelength_fr_data, 0.0f);
+        assertArrayEquals(auxData.rog_all_sza, cachedAuxData.rog_all_sza, 0.0f);
+
+        final float[][][] r7thresh = (float[][][]) cachedAuxData.r7thresh.getJavaArray();
+        assertArrayEquals(((float[][][]) auxData.r7thresh.getJavaArray())[1][2], r7thresh[1][2], 0.0f);
+        assertArrayEquals(auxData.r7thresh.getTab(2), cachedAuxData.r7thresh.getTab(2), 0.0);
+        final double[] rayalb = (double[]) cachedAuxData.Rayalb.getJavaArray();
+        assertArrayEquals((double[]) auxData.Rayalb.getJavaArray(), rayalb, 0.0);
+        assertNull(cachedAuxData.C.getTab(0));
+        assertArrayEquals(auxData.C.getTab(1), cachedAuxData.C.getTab(1), 0.0);
+    }
+
+    @Test
+    public void testCacheFileDependsOnDatabaseFiles() throws IOException {
+        final File databaseFile = tempDir.resolve("case1.60.04.prd").toFile();
+        Files.write(databaseFile.toPath(), new byte[10]);
+        final L2AuxDataCache cache = new L2AuxDataCache(tempDir);
+        final File[] auxDatabaseFiles = {databaseFile};
+        final Path cacheFile = cache.getCacheFile(auxDatabaseFiles);
+        assertEquals(tempDir, cacheFile.getParent());
+        assertEquals(cacheFile, cache.getCacheFile(auxDatabaseFiles));
+
+        Files.write(databaseFile.toPath(), new byte[11]);
+        assertFalse(cacheFile.equals(cache.getCacheFile(auxDatabaseFiles)));
+
+        assertFalse(cache.read(auxDatabaseFiles, new L2AuxData()));
+        cache.write(auxDatabaseFiles, createAuxData());
+        final L2AuxData cachedAuxData = new L2AuxData();
+        assertTrue(cache.read(auxDatabaseFiles, cachedAuxData));
+        assertEquals(1.5, cachedAuxData.maxPress, 0.0);
+    }
+
+    private static L2AuxData createAuxData() {
+        final L2AuxData auxData = new L2AuxData();
+        auxData.sun_earth_distance_square = 1.0167;
+        auxData.maxPress = 1.5;
+        auxData.press_scale_height = 8.0;
+        auxData.press_confidence = 0.25;
+        auxData.land_decision_table = new boolean[256];
+        auxData.land_decision_table[3] = true;
+        auxData.water_decision_table = new boolean[256];
+        auxData.band_slope_n_1 = 1;
+        auxData.band_slope_d_1 = 2;
+        auxData.band_slope_n_2 = 3;
+        auxData.band_slope_d_2 = 4;
+        auxData.band_bright_n = 5;
+        auxData.slope_1_low_thr = 0.1;
+        auxData.slope_1_high_thr = 0.2;
+        auxData.slope_2_low_thr = 0.3;
+        auxData.slope_2_high_thr = 0.4;
+        auxData.theoretical_wavelength = createDoubles(15, 400.0);
+        auxData.Saturation_L = createDoubles(15, 500.0);
+        auxData.land_smile_params = new L2AuxData.SmileParams();
+        auxData.water_smile_params = new L2AuxData.SmileParams();
+        auxData.water_smile_params.enabled[2] = true;
+        auxData.water_smile_params.derivative_band_id[2] = new int[]{1, 3};
+        auxData.spectral_shift_H2Owavelength = createDoubles(21, 0.0);
+        auxData.H2Ocoef = new double[][]{createDoubles(4, 1.0), createDoubles(4, 2.0)};
+        auxData.H2OcoefSpecShift = new double[][]{createDoubles(4, 3.0)};
+        auxData.O2coef = new double[][]{createDoubles(3, 4.0), createDoubles(3, 5.0)};
+        auxData.spectral_shift_wavelength = createDoubles(21, 760.0);
+        auxData.tauO3_norm = createDoubles(15, 0.01);
+        auxData.TETAS_LIM = 80.0;
+        auxData.r7thresh = createLUT(new float[3][4][5]);
+        auxData.r13thresh = createLUT(new float[3][4][5]);
+        auxData.alpha_thresh = createDoubles(2, 0.5);
+        auxData.lap_b_thresh = new int[]{5, 9};
+        auxData.lap_beta_l = 0.6;
+        auxData.lap_beta_w = 0.7;
+        auxData.Pstd = 1013.25;
+        auxData.tau_R = createDoubles(15, 0.2);
+        auxData.AB = createDoubles(2, 0.9);
+        auxData.Raytrans = createDoubles(3, 0.8);
+        auxData.Rhorc_442_land_LUT = createLUT(new float[2][3][4]);
+        auxData.Rhorc_442_ocean_LUT = createLUT(new float[2][3][4]);
+        auxData.Rayscatt_coeff_s = createLUT(new float[2][2][3][3]);
+        auxData.polcoeff = createLUT(new float[4][3]);
+        auxData.polcoeff.setTab(1, null);
+        auxData.C = createLUT(new float[2][3][4]);
+        auxData.C.setTab(0, null);
+        auxData.DPthresh_land = createLUT(new float[3][3]);
+        auxData.DPthresh_ocean = createLUT(new float[3][3]);
+        auxData.Rayalb = createLUT(new double[17]);
+        auxData.central_wavelength_rr_data = new float[]{1.0f, 2.0f};
+        auxData.detector_solar_irradiance_rr_data = new float[]{3.0f, 4.0f};
+        auxData.central_wavelength_fr_data = new float[]{5.0f, 6.0f, 7.0f};
+        auxData.detector_solar_irradiance_fr_data = new float[]{8.0f, 9.0f, 10.0f};
+        auxData.rog_all_sza = new float[]{0.0f, 10.0f, 20.0f};
+        auxData.rog_all = createLUT(new float[2][2][2][2][3]);
+        auxData.rog_all.setTab(4, null);
+        return auxData;
+    }
+
+    private static double[] createDoubles(int length, double offset) {
+        final double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = offset + i;
+        }
+        return values;
+    }
+
+    private static LUT createLUT(Object javaArray) {
+        final LUT lut = new LUT(javaArray);
+        final int[] sizes = lut.getArray().getLayout().getDimSizes();
+        int size = 1;
+        for (int dimSize : sizes) {
+            size *= dimSize;
+        }
+        lut.getArray().fillFromFlatArray(createDoubles(size, 0.5));
+        for (int dim = 0; dim < sizes.length; dim++) {
+            lut.setTab(dim, createDoubles(sizes[dim], 10.0 * dim));
+        }
+        return lut;
+    }
+}
@@ -0,0 +1,142 @@
+package org.esa.s3tbx.util.math;
+
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class FlatLUTTest {
+
+    @Test
+    public void testInterpolateEqualsInterp() {
+        final Random random = new Random(4711);
+        for (int rank = 1; rank <= 7; rank++) {
+            final int[] sizes = new int[rank];
+            for (int dim = 0; dim < rank; dim++) {
+                sizes[dim] = 1 + random.nextInt(4);
+            }
+            final Object floatArray = createArray(float.class, sizes, random);
+            final Object doubleArray = createArray(double.class, sizes, random);
+            final FlatLUT floatLUT = new FlatLUT(floatArray);
+            final FlatLUT doubleLUT = new FlatLUT(doubleArray);
+            assertEquals(rank, floatLUT.getRank());
+
+            for (int n = 0; n < 50; n++) {
+                final FractIndex[] indexes = createIndexes(sizes, random);
+                assertEquals(Interp.interpolate(floatArray, indexes), floatLUT.interpolate(indexes), 0.0);
+                assertEquals(Interp.interpolate(doubleArray, indexes), doubleLUT.interpolate(indexes), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testInterpolateSubArray() {
+        final Random random = new Random(4712);
+        final int[] sizes = {4, 3, 5, 6};
+        final float[][][][] array = (float[][][][]) createArray(float.class, sizes, random);
+        final FlatLUT lut = new FlatLUT(array);
+        assertEquals(90, lut.getStride(0));
+        assertEquals(30, lut.getStride(1));
+        assertEquals(6, lut.getStride(2));
+        assertEquals(1, lut.getStride(3));
+
+        for (int i = 0; i < sizes[0]; i++) {
+            for (int j = 0; j < sizes[1]; j++) {
+                final FractIndex[] indexes = createIndexes(new int[]{sizes[2], sizes[3]}, random);
+                final int offset = i * lut.getStride(0) + j * lut.getStride(1);
+                assertEquals(Interp.interpolate(array[i][j], indexes), lut.interpolate(offset, indexes), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testInterpolateAtCoordinates() {
+        final LUT lut = new LUT(new double[][]{{1.0, 2.0}, {3.0, 5.0}, {7.0, 11.0}});
+        lut.setTab(0, new double[]{10.0, 20.0, 30.0});
+        lut.setTab(1, new double[]{0.0, 1.0});
+        final FlatLUT flatLUT = lut.getFlatLUT();
+        assertSame(flatLUT, lut.getFlatLUT());
+
+        assertEquals(1.0, flatLUT.interpolate(new double[]{10.0, 0.0}), 1e-12);
+        assertEquals(4.0, flatLUT.interpolate(new double[]{20.0, 0.5}), 1e-12);
+        assertEquals(6.5, flatLUT.interpolate(new double[]{25.0, 0.5}), 1e-12);
+        // clamped to the tabulated range
+        assertEquals(11.0, flatLUT.interpolate(new double[]{40.0, 2.0}), 1e-12);
+    }
+
+    @Test
+    public void testIndexesAreReusedPerThread() throws InterruptedException {
+        final FlatLUT lut = new FlatLUT(new float[2][3][4]);
+        final FractIndex[] indexes = lut.getIndexes();
+        assertEquals(3, indexes.length);
+        assertSame(indexes, lut.getIndexes());
+
+        final FractIndex[][] otherIndexes = new FractIndex[1][];
+        final Thread thread = new Thread(() -> otherIndexes[0] = lut.getIndexes());
+        thread.start();
+        thread.join();
+        assertEquals(3, otherIndexes[0].length);
+        assertFalse(indexes == otherIndexes[0]);
+    }
+
+    @Test
+    public void testInterpolateAtCoordinatesKeepsPreparedIndexes() {
+        final LUT lut = new LUT(new double[][]{{1.0, 2.0}, {3.0, 5.0}, {7.0, 11.0}});
+        lut.setTab(0, new double[]{10.0, 20.0, 30.0});
+        lut.setTab(1, new double[]{0.0, 1.0});
+        final FlatLUT flatLUT = lut.getFlatLUT();
+
+        final FractIndex[] indexes = flatLUT.getIndexes();
+        indexes[0].index = 1;
+        indexes[0].fraction = 0.5;
+        indexes[1].index = 0;
+        indexes[1].fraction = 0.5;
+        assertEquals(1.0, flatLUT.interpolate(new double[]{10.0, 0.0}), 1e-12);
+        assertEquals(1, indexes[0].index);
+        assertEquals(0.5, indexes[0].fraction, 0.0);
+        assertEquals(6.5, flatLUT.interpolate(indexes), 1e-12);
+    }
+
+    @Test
+    public void testInterpolateRejectsIllegalIndexes() {
+        final FlatLUT lut = new FlatLUT(new double[3][2]);
+        final FractIndex[] indexes = FractIndex.createArray(2);
+        indexes[1].fraction = 1.0;
+        try {
+            lut.interpolate(indexes);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+        try {
+            lut.interpolate(FractIndex.createArray(1));
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+    }
+
+    private static Object createArray(Class<?> elementType, int[] sizes, Random random) {
+        final Object array = Array.newInstance(elementType, sizes);
+        final double[] values = new double[(int) MDArray.getElementCount(sizes)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian();
+        }
+        MDArray.copyFlatIntoDeep(values, array);
+        return array;
+    }
+
+    private static FractIndex[] createIndexes(int[] sizes, Random random) {
+        final FractIndex[] indexes = FractIndex.createArray(sizes.length);
+        for (int dim = 0; dim < sizes.length; dim++) {
+            indexes[dim].index = random.nextInt(sizes[dim]);
+            indexes[dim].fraction = random.nextInt(4) == 0 ? 0.0 : random.nextDouble();
+        }
+        return indexes;
+    }
+}
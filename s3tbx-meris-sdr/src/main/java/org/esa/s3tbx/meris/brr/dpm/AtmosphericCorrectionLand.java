@@ -29,7 +29,7 @@ public class AtmosphericCorrectionLand implements Constants {
         this.correctionSurface = correctionSurface;
     }
 
-    public void landAtmCor(DpmPixel[][] pixels, int ic0, int ic1, int il0, int il1) {
+    public void landAtmCor(DpmFrame frame, int ic0, int ic1, int il0, int il1) {
         double sun_zenith, view_zenith, delta_azimuth; /* average geometry */
         double mus, muv;        /* cosine of zenith angles */
         double sins, sinv;      /* sine of zenith angles */
@@ -37,7 +37,7 @@ public class AtmosphericCorrectionLand implements Constants {
 
         int il, ic, ib;        /* line, column, band loop indices */
         boolean correctPixel = false;          /* should pixels be corrected */
-        DpmPixel pixel;
+        int pixel;
         long flags;
 
         for (il = il0; il <= il1; il++) {
@@ -45,8 +45,8 @@ public class AtmosphericCorrectionLand implements Constants {
                 /* for each pixel set flag when we do the atm correction, i.e
                  * not invalid, land consolidated
                  */
-                pixel = pixels[il][ic];
-                flags = pixel.l2flags;
+                pixel = frame.getIndex(ic, il);
+                flags = frame.l2flags[pixel];
 
                 final boolean landCorrOk = BitSetter
                         .isFlagSet(flags, F_LANDCONS) ||
@@ -66,16 +66,16 @@ public class AtmosphericCorrectionLand implements Constants {
         }
 
         if (correctPixel) { /* there exist some pixels to correct */
-            final DpmPixel pixel0 = pixels[il0][ic1];
+            final int pixel0 = frame.getIndex(ic1, il0);
 
             /* average geometry, ozone for window DPM : just use corner pixel ! */
-            sun_zenith = pixel0.sun_zenith;
-            view_zenith = pixel0.view_zenith;
-            delta_azimuth = pixel0.delta_azimuth; /* v1.3 */
+            sun_zenith = frame.sun_zenith[pixel0];
+            view_zenith = frame.view_zenith[pixel0];
+            delta_azimuth = frame.delta_azimuth[pixel0]; /* v1.3 */
 
             /* useful geometry quantities */
-            mus = pixel0.mus;
-            muv = pixel0.muv;
+            mus = frame.mus[pixel0];
+            muv = frame.muv[pixel0];
             sins = Math.sin(RAD * sun_zenith);
             sinv = Math.sin(RAD * view_zenith);
 
@@ -83,7 +83,7 @@ public class AtmosphericCorrectionLand implements Constants {
              * 2. Rayleigh corrections (DPM section 7.3.3.3.2, step 2.6.15)
              */
 
-            press = pixel0.press_ecmwf; /* DPM #2.6.15.1-3 */
+            press = frame.press_ecmwf[pixel0]; /* DPM #2.6.15.1-3 */
 
             /* Rayleigh phase function Fourier decomposition */
             rayleighCorrection.phase_rayleigh(mus, muv, sins, sinv, lh.phaseR);
@@ -93,22 +93,22 @@ public class AtmosphericCorrectionLand implements Constants {
 
             /* Rayleigh reflectance*/
             rayleighCorrection.ref_rayleigh(delta_azimuth, sun_zenith, view_zenith, mus, muv,
-                                            pixel0.airMass, lh.phaseR, lh.tauR, pixel0.rhoR);
+                                            frame.airMass[pixel0], lh.phaseR, lh.tauR, lh.rhoR);
 
             /* Rayleigh transmittance */
-            rayleighCorrection.trans_rayleigh(mus, lh.tauR, pixel0.transRs);
-            rayleighCorrection.trans_rayleigh(muv, lh.tauR, pixel0.transRv);
+            rayleighCorrection.trans_rayleigh(mus, lh.tauR, lh.transRs);
+            rayleighCorrection.trans_rayleigh(muv, lh.tauR, lh.transRv);
 
             /* Rayleigh spherical albedo */
-            rayleighCorrection.sphalb_rayleigh(lh.tauR, pixel0.sphalbR);
+            rayleighCorrection.sphalb_rayleigh(lh.tauR, lh.sphalbR);
 
             /* Rayleigh correction for each pixel */
             for (il = il0; il <= il1; il++) {
                 for (ic = ic0; ic <= ic1; ic++) {
                     if (lh.do_corr[il - il0][ic - ic0]) {
 
-                        rayleighCorrection.corr_rayleigh(pixel0.rhoR, pixel0.sphalbR, pixel0.transRs, pixel0.transRv,
-                                                         pixels[il][ic].rho_ag, pixels[il][ic].rho_top); /*  (2.6.15.4) */
+                        rayleighCorrection.corr_rayleigh(lh.rhoR, lh.sphalbR, lh.transRs, lh.transRv,
+                                                         frame.rho_ag, frame.rho_top, frame.getIndex(ic, il)); /*  (2.6.15.4) */
                     }
                 }
             }
@@ -117,8 +117,9 @@ public class AtmosphericCorrectionLand implements Constants {
             for (il = il0; il <= il1; il++) {
                 for (ic = ic0; ic <= ic1; ic++) {
                     if (lh.do_corr[il - il0][ic - ic0]) {
+                        pixel = frame.getIndex(ic, il);
                         for (ib = 0; ib < L1_BAND_NUM; ib++) {
-                            if (pixels[il][ic].rho_top[ib] <= 0.) {
+                            if (frame.rho_top[ib][pixel] <= 0.) {
                                 switch (ib) {
                                     case bb412:
                                     case bb442:
@@ -134,8 +135,8 @@ public class AtmosphericCorrectionLand implements Constants {
                                     case bb865:
                                     case bb890:
                                         /* set annotation flag for reflectance product - v4.2 */
-                                        pixels[il][ic].ANNOT_F = Set_annot_flag(A_RWNEG + (ib <= bb760 ? ib : ib - 1),
-                                                                                pixels[il][ic].ANNOT_F);
+                                        frame.ANNOT_F[pixel] = Set_annot_flag(A_RWNEG + (ib <= bb760 ? ib : ib - 1),
+                                                                              frame.ANNOT_F[pixel]);
                                         break;
                                     default:
                                         break;
@@ -165,6 +166,22 @@ public class AtmosphericCorrectionLand implements Constants {
          * rayleigh optical thickness, tauR0 in DPM
          */
         double[] tauR = new double[L1_BAND_NUM];
+        /**
+         * Rayleigh reflectance rho_0_R of the corner pixel of the window
+         */
+        double[] rhoR = new double[L1_BAND_NUM];
+        /**
+         * Rayleigh upward transmittance of the corner pixel of the window
+         */
+        double[] transRv = new double[L1_BAND_NUM];
+        /**
+         * Rayleigh downward transmittance of the corner pixel of the window
+         */
+        double[] transRs = new double[L1_BAND_NUM];
+        /**
+         * Rayleigh spherical albedo s_R of the corner pixel of the window
+         */
+        double[] sphalbR = new double[L1_BAND_NUM];
 
         boolean[][] do_corr = new boolean[4][4];
     }
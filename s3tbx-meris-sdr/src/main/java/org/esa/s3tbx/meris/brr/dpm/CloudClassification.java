@@ -35,94 +35,113 @@ public class CloudClassification implements Constants {
         rayleighCorrection = rayCorr;
     }
 
-    public void classify_cloud(DpmPixel pixel) {
+    /**
+     * Classifies all valid pixels of the frame.
+     *
+     * @param frame the frame of pixels
+     */
+    public void classify_cloud(DpmFrame frame) {
+        final int size = frame.getSize();
+        for (int pixel = 0; pixel < size; pixel++) {
+            if (!BitSetter.isFlagSet(frame.l2flags[pixel], F_INVALID)) {
+                classify_cloud(frame, pixel);
+            }
+        }
+    }
+
+    private void classify_cloud(DpmFrame frame, int pixel) {
 
         //boolean pcd_poly = Comp_Pressure(pixel) != 0;
-        PixelId.Pressure press = pixelId.computePressure(pixel.rho_toa[bb753],
-                                                         pixel.rho_toa[bb760],
-                                                         pixel.airMass,
-                                                         pixel.detector);
+        PixelId.Pressure press = pixelId.computePressure(frame.rho_toa[bb753][pixel],
+                                                         frame.rho_toa[bb760][pixel],
+                                                         frame.airMass[pixel],
+                                                         frame.detector[pixel]);
         boolean pcd_poly = press.error;
 
         /* apply thresholds on pressure- step 2.1.2 */
-        double delta_press_thresh = pixelId.getPressureThreshold(pixel.sun_zenith, pixel.view_zenith,
-                                                                 BitSetter.isFlagSet(pixel.l2flags, F_LAND));
-        boolean[] pressureThreshFlags = pixelId.getPressureThreshFlags(pixel.press_ecmwf, press.value, -1, delta_press_thresh);
+        double delta_press_thresh = pixelId.getPressureThreshold(frame.sun_zenith[pixel], frame.view_zenith[pixel],
+                                                                 BitSetter.isFlagSet(frame.l2flags[pixel], F_LAND));
+        boolean[] pressureThreshFlags = pixelId.getPressureThreshFlags(frame.press_ecmwf[pixel], press.value, -1, delta_press_thresh);
 
         boolean low_P_nn = pressureThreshFlags[0];
         boolean low_P_poly = pressureThreshFlags[1];
         boolean delta_p = pressureThreshFlags[2];
 
         /* keep for display-debug - added for v2.1 */
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_LOW_NN_P, low_P_nn);
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_PCD_NN_P, true);    /* DPM #2.1.5-25 */
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_LOW_POL_P, low_P_poly);
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_PCD_POL_P, pcd_poly); /* DPM #2.1.12-12 */
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_CONFIDENCE_P, delta_p);
+        long l2flags = frame.l2flags[pixel];
+        l2flags = BitSetter.setFlag(l2flags, F_LOW_NN_P, low_P_nn);
+        l2flags = BitSetter.setFlag(l2flags, F_PCD_NN_P, true);    /* DPM #2.1.5-25 */
+        l2flags = BitSetter.setFlag(l2flags, F_LOW_POL_P, low_P_poly);
+        l2flags = BitSetter.setFlag(l2flags, F_PCD_POL_P, pcd_poly); /* DPM #2.1.12-12 */
+        l2flags = BitSetter.setFlag(l2flags, F_CONFIDENCE_P, delta_p);
 
         // Compute slopes- step 2.1.7
-        spec_slopes(pixel, lh.resultFlags);
+        spec_slopes(frame, pixel, lh.resultFlags);
         boolean bright_f = lh.resultFlags[0];
         boolean slope_1_f = lh.resultFlags[1];
         boolean slope_2_f = lh.resultFlags[2];
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_BRIGHT, bright_f);
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_SLOPE_1, slope_1_f);
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_SLOPE_2, slope_2_f);
+        l2flags = BitSetter.setFlag(l2flags, F_BRIGHT, bright_f);
+        l2flags = BitSetter.setFlag(l2flags, F_SLOPE_1, slope_1_f);
+        l2flags = BitSetter.setFlag(l2flags, F_SLOPE_2, slope_2_f);
 
         // table-driven classification- step 2.1.8
         // DPM #2.1.8-1
-        boolean land_f = BitSetter.isFlagSet(pixel.l2flags, F_LAND);
+        boolean land_f = BitSetter.isFlagSet(l2flags, F_LAND);
         boolean is_cloud = is_cloudy(land_f,
                                      bright_f,
                                      low_P_nn, low_P_poly, delta_p,
                                      slope_1_f, slope_2_f,
                                      true, pcd_poly);
 
-        pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_CLOUD, is_cloud);
+        frame.l2flags[pixel] = BitSetter.setFlag(l2flags, F_CLOUD, is_cloud);
     }
 
     /**
      * Computes the slope of Rayleigh-corrected reflectance.
      *
-     * @param pixel        the pixel structure
+     * @param frame        the frame of pixels
+     * @param pixel        the index of the pixel
      * @param result_flags the return values, <code>resultFlags[0]</code> contains low NN pressure flag (low_P_nn),
      *                     <code>resultFlags[1]</code> contains low polynomial pressure flag (low_P_poly),
      *                     <code>resultFlags[2]</code> contains pressure range flag (delta_p).
      */
-    private void spec_slopes(DpmPixel pixel, boolean[] result_flags) {
+    private void spec_slopes(DpmFrame frame, int pixel, boolean[] result_flags) {
 
         /* shorthand for access */
-        long flags = pixel.l2flags;
+        long flags = frame.l2flags[pixel];
+        double sun_zenith = frame.sun_zenith[pixel];
+        double view_zenith = frame.view_zenith[pixel];
 
-        double sins = Math.sin(RAD * pixel.sun_zenith);
-        double sinv = Math.sin(RAD * pixel.view_zenith);
+        double sins = Math.sin(RAD * sun_zenith);
+        double sinv = Math.sin(RAD * view_zenith);
 
         /* Rayleigh phase function Fourier decomposition */
-        rayleighCorrection.phase_rayleigh(pixel.mus, pixel.muv, sins, sinv, lh.phaseR);
+        rayleighCorrection.phase_rayleigh(frame.mus[pixel], frame.muv[pixel], sins, sinv, lh.phaseR);
 
-        double press = pixel.press_ecmwf; /* DPM #2.1.7-1 v1.1 */
+        double press = frame.press_ecmwf[pixel]; /* DPM #2.1.7-1 v1.1 */
 
         /* Rayleigh optical thickness */
         rayleighCorrection.tau_rayleigh(press, lh.tauR); /* DPM #2.1.7-2 */
 
         /* Rayleigh reflectance - DPM #2.1.7-3 - v1.3 */
-        rayleighCorrection.ref_rayleigh(pixel.delta_azimuth, pixel.sun_zenith, pixel.view_zenith,
-                                        pixel.mus, pixel.muv, pixel.airMass, lh.phaseR, lh.tauR, lh.rhoRay);
+        rayleighCorrection.ref_rayleigh(frame.delta_azimuth[pixel], sun_zenith, view_zenith,
+                                        frame.mus[pixel], frame.muv[pixel], frame.airMass[pixel],
+                                        lh.phaseR, lh.tauR, lh.rhoRay);
 
         /* DPM #2.1.7-4 */
         for (int band = bb412; band <= bb900; band++) {
-            lh.rhoAg[band] = pixel.rho_toa[band] - lh.rhoRay[band];
+            lh.rhoAg[band] = frame.rho_toa[band][pixel] - lh.rhoRay[band];
         }
 
         /* Interpolate threshold on rayleigh corrected reflectance - DPM #2.1.7-9 */
-        double rhorc_442_thr = pixelId.getRhoRC442thr(pixel.sun_zenith, pixel.view_zenith, pixel.delta_azimuth, BitSetter.isFlagSet(flags, F_LAND));
+        double rhorc_442_thr = pixelId.getRhoRC442thr(sun_zenith, view_zenith, frame.delta_azimuth[pixel], BitSetter.isFlagSet(flags, F_LAND));
 
-        boolean bright_f = pixelId.isBrightFlag(lh.rhoAg, rhorc_442_thr, pixel.TOAR[auxData.band_bright_n]);
+        boolean bright_f = pixelId.isBrightFlag(lh.rhoAg, rhorc_442_thr, frame.TOAR[auxData.band_bright_n][pixel]);
 
         /* Spectral slope processor.brr 1 */
-        boolean slope1_f = pixelId.isSpectraSlope1Flag(lh.rhoAg, pixel.TOAR[auxData.band_slope_n_1]);
+        boolean slope1_f = pixelId.isSpectraSlope1Flag(lh.rhoAg, frame.TOAR[auxData.band_slope_n_1][pixel]);
         /* Spectral slope processor.brr 2 */
-        boolean slope2_f = pixelId.isSpectraSlope2Flag(lh.rhoAg, pixel.TOAR[auxData.band_slope_n_2]);
+        boolean slope2_f = pixelId.isSpectraSlope2Flag(lh.rhoAg, frame.TOAR[auxData.band_slope_n_2][pixel]);
 
         result_flags[0] = bright_f;
         result_flags[1] = slope1_f;
@@ -0,0 +1,192 @@
+package org.esa.s3tbx.meris.brr.dpm;
+
+
+import org.esa.s3tbx.meris.l2auxdata.Constants;
+
+import java.util.Arrays;
+
+/**
+ * The <code>DpmFrame</code> class is a collection of all relevant MERIS Level 2 DPM pixel variables of a frame of
+ * pixels.
+ * <p/>
+ * Every pixel variable is stored in one primitive array over all pixels of the frame, the spectral variables in one
+ * array per band. The pixels are stored line by line, the pixel at column <code>i</code> and line <code>j</code>
+ * within the frame has the index <code>j * width + i</code>.
+ * <p/>
+ * For convinience reasons, this class models a C-language-like structure which has only public fields.
+ */
+public final class DpmFrame {
+
+    /**
+     * Number of columns of the frame
+     */
+    public final int width;
+    /**
+     * Number of lines of the frame
+     */
+    public final int height;
+    /**
+     * Column pixel coordinate within product
+     */
+    public final int[] x;
+    /**
+     * Line pixel coordinate within product
+     */
+    public final int[] y;
+    /**
+     * Camera detector index
+     */
+    public final int[] detector;
+    /**
+     * Viewing zenith angle
+     */
+    public final double[] view_zenith;
+    /**
+     * Sun zenith angle
+     */
+    public final double[] sun_zenith;
+    /**
+     * Delta_azimuth angle
+     */
+    public final double[] delta_azimuth;
+    /**
+     * Sun_azimuth angle
+     */
+    public final double[] sun_azimuth;
+    /**
+     * cosinus(thetas)
+     */
+    public final double[] mus;
+    /**
+     * cosinus(thetav)
+     */
+    public final double[] muv;
+    /**
+     * Air Mass (M in DPM)
+     */
+    public final double[] airMass;
+    /**
+     * Altitude
+     */
+    public final double[] altitude;
+    /**
+     * Zonal wind
+     */
+    public final double[] windu;
+    /**
+     * Meridional wind
+     */
+    public final double[] windv;
+    /**
+     * ECMWF pressure
+     */
+    public final double[] press_ecmwf;
+    /**
+     * Ozone
+     */
+    public final double[] ozone_ecmwf;
+    /**
+     * Variable for storing L1B flags
+     */
+    public final int[] l1flags;
+    /**
+     * Variable for storing L2 flags
+     */
+    public final long[] l2flags;
+    /**
+     * Set of flags showing for each band 0...15 if band is saturated
+     */
+    public final int[] SATURATED_F;
+    /**
+     * output flags of Water Atm Corr
+     */
+    public final int[] ANNOT_F;
+    /**
+     * Top of atmosphere radiance on # bands, indexed by band and pixel
+     */
+    public final double[][] TOAR;
+    /**
+     * Gas corrected aerosol reflectances, indexed by band and pixel
+     */
+    public final double[][] rho_ag;
+    /**
+     * TOA reflectance, indexed by band and pixel
+     */
+    public final double[][] rho_toa;
+    /**
+     * Rayleigh corrected reflectances (Top Of Particles), indexed by band and pixel
+     */
+    public final double[][] rho_top;
+
+    public DpmFrame(int width, int height) {
+        this.width = width;
+        this.height = height;
+        final int size = width * height;
+        x = new int[size];
+        y = new int[size];
+        detector = new int[size];
+        view_zenith = new double[size];
+        sun_zenith = new double[size];
+        delta_azimuth = new double[size];
+        sun_azimuth = new double[size];
+        mus = new double[size];
+        muv = new double[size];
+        airMass = new double[size];
+        altitude = new double[size];
+        windu = new double[size];
+        windv = new double[size];
+        press_ecmwf = new double[size];
+        ozone_ecmwf = new double[size];
+        l1flags = new int[size];
+        l2flags = new long[size];
+        SATURATED_F = new int[size];
+        ANNOT_F = new int[size];
+        TOAR = new double[Constants.L1_BAND_NUM][size];
+        rho_ag = new double[Constants.L1_BAND_NUM][size];
+        rho_toa = new double[Constants.L1_BAND_NUM][size];
+        rho_top = new double[Constants.L1_BAND_NUM][size];
+    }
+
+    /**
+     * @return the number of pixels of the frame
+     */
+    public int getSize() {
+        return width * height;
+    }
+
+    /**
+     * @return the index of the pixel at the given column and line within the frame
+     */
+    public int getIndex(int i, int j) {
+        return j * width + i;
+    }
+
+    public void reset() {
+        Arrays.fill(x, 0);
+        Arrays.fill(y, 0);
+        Arrays.fill(detector, 0);
+        Arrays.fill(view_zenith, 0.0);
+        Arrays.fill(sun_zenith, 0.0);
+        Arrays.fill(delta_azimuth, 0.0);
+        Arrays.fill(sun_azimuth, 0.0);
+        Arrays.fill(mus, 0.0);
+        Arrays.fill(muv, 0.0);
+        Arrays.fill(airMass, 0.0);
+        Arrays.fill(altitude, 0.0);
+        Arrays.fill(windu, 0.0);
+        Arrays.fill(windv, 0.0);
+        Arrays.fill(press_ecmwf, 0.0);
+        Arrays.fill(ozone_ecmwf, 0.0);
+        Arrays.fill(l1flags, 0);
+        Arrays.fill(l2flags, 0L);
+        Arrays.fill(SATURATED_F, 0);
+        Arrays.fill(ANNOT_F, 0);
+
+        for (int n = 0; n < Constants.L1_BAND_NUM; n++) {
+            Arrays.fill(TOAR[n], 0.0);
+            Arrays.fill(rho_ag[n], 0.0);
+            Arrays.fill(rho_toa[n], 0.0);
+            Arrays.fill(rho_top[n], 0.0);
+        }
+    }
+}
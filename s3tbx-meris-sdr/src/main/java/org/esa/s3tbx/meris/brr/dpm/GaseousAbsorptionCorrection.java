@@ -35,14 +35,15 @@ public class GaseousAbsorptionCorrection implements Constants {
      * @param T_o3      ozone transmission for 15 bands
      * @param eta       ratio TOAR(760)/TOAR(753)
      * @param x2        ratio TOAR(900)/TOAR(885)
-     * @param rho       reflectance (15 bands)
+     * @param rho       reflectance (15 bands), indexed by band and pixel
+     * @param pixel     pixel index
      * @param detector  pixel detector id
-     * @param rho_ag    gas corrected reflectance (15 bands), output
+     * @param rho_ag    gas corrected reflectance (15 bands), indexed by band and pixel, output
      * @param PCD_POL_F todo
      * @return success code (1: out or range output)
      */
-    public int gas_correction(double[] T_o3, double eta, double x2, double[] rho, int detector,
-                              double[] rho_ag, boolean PCD_POL_F) {
+    public int gas_correction(double[] T_o3, double eta, double x2, double[][] rho, int pixel, int detector,
+                              double[][] rho_ag, boolean PCD_POL_F) {
         int status = 0;
         double T_o2;  /* o2 transmission */
         double T_h2o; /* h2o transmission */
@@ -86,10 +87,10 @@ public class GaseousAbsorptionCorrection implements Constants {
 
             tg = T_o3[bandId] * T_h2o * T_o2; /* DPM #2.6.12.4-2 */
             if (tg > 1.e-6 && tg <= 1.) {
-                rho_ag[bandId] = rho[bandId] / tg;              /* DPM #2.6.12.4-3 */
+                rho_ag[bandId][pixel] = rho[bandId][pixel] / tg;              /* DPM #2.6.12.4-3 */
             } else {
                 /* exception handling */
-                rho_ag[bandId] = rho[bandId];
+                rho_ag[bandId][pixel] = rho[bandId][pixel];
                 status = 1;
             }
         }  /* end loop on bands */
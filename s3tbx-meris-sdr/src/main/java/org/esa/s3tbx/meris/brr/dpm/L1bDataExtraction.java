@@ -11,6 +11,8 @@ import org.esa.s3tbx.meris.l2auxdata.L2AuxData;
 import org.esa.snap.core.gpf.Tile;
 import org.esa.snap.core.util.BitSetter;
 
+import java.util.Arrays;
+
 /**
  * The MERIS Level 2 module for L1b data extraction.
  */
@@ -26,125 +28,141 @@ public class L1bDataExtraction implements Constants {
     }
 
     /**
-     * Initializes the given pixel with data readRecord from the L1B input product. Combines the geometry/meteo.
-     * preprocessing (step 2.1.0) and pixel extraction (step 2.1.4) of the DPM. All level 2 geophysical fields are set
-     * to <code>{@link #BAD_VALUE}</code>.
+     * Initializes the pixels of the given frame with data readRecord from the L1B input product. Combines the
+     * geometry/meteo. preprocessing (step 2.1.0) and pixel extraction (step 2.1.4) of the DPM. All level 2 geophysical
+     * fields are set to <code>{@link #BAD_VALUE}</code>.
      * <p/>
      * <b>DPM ref.:</b> Step 2.1.0, 2.1.4, 2.1.11 <br> <b>MEGS ref.</b>: <code>extdatl1.c</code>, function
      * <code>l1_extract_pixbloc</code> <br>
      *
-     * @param pixel         the current pixel
-     * @param x             the current pixel's X coordinate
-     * @param y             the current pixel's Y coordinate
+     * @param frame         the frame of pixels
+     * @param x0            the X coordinate of the first pixel of the frame
+     * @param y0            the Y coordinate of the first pixel of the frame
      * @param tpdata        interpolated data buffer from tie points of L1B input product
      * @param toars         top-of-atmosphere radiances buffer for 15 bands from L1B input product
      * @param detectorIndex detector index buffer from L1B input product
      * @param l1bFlags      L1B flags buffer from L1B input product
      */
-    public void l1_extract_pixbloc(final DpmPixel pixel,
-                                   final int x,
-                                   final int y,
+    public void l1_extract_pixbloc(final DpmFrame frame,
+                                   final int x0,
+                                   final int y0,
                                    final Tile[] tpdata,
                                    final Tile[] toars,
                                    final Tile detectorIndex,
                                    final Tile l1bFlags) {
+        final int size = frame.getSize();
 
         /////////////////////////////////////////////////////////////////////
         // Initialize still unknown pixel values
 
-        pixel.ozone_ecmwf = BAD_VALUE;
-        pixel.ANNOT_F = 0;
+        Arrays.fill(frame.ANNOT_F, 0);
         for (int band = 0; band < L1_BAND_NUM; band++) {
-            pixel.rho_ag[band] = BAD_VALUE;
-            pixel.rho_toa[band] = BAD_VALUE;
-            pixel.rho_top[band] = BAD_VALUE;
+            Arrays.fill(frame.rho_ag[band], BAD_VALUE);
+            Arrays.fill(frame.rho_toa[band], BAD_VALUE);
+            Arrays.fill(frame.rho_top[band], BAD_VALUE);
         }
 
         /////////////////////////////////////////////////////////////////////
         // Set well known pixel values
 
-        pixel.x = x;
-        pixel.y = y;
+        for (int j = 0, p = 0; j < frame.height; j++) {
+            for (int i = 0; i < frame.width; i++, p++) {
+                frame.x[p] = x0 + i;
+                frame.y[p] = y0 + j;
+            }
+        }
 
-        pixel.SATURATED_F = 0;
+        Arrays.fill(frame.SATURATED_F, 0);
         for (int band = 0; band < 15; band++) {
-            pixel.TOAR[band] = toars[band].getSampleDouble(x, y);
-            if (pixel.TOAR[band] > auxData.Saturation_L[band]) {
-                pixel.SATURATED_F = BitSetter.setFlag(pixel.SATURATED_F, band);
+            final double[] toar = frame.TOAR[band];
+            final double saturation = auxData.Saturation_L[band];
+            System.arraycopy(toars[band].getSamplesDouble(), 0, toar, 0, size);
+            for (int p = 0; p < size; p++) {
+                if (toar[p] > saturation) {
+                    frame.SATURATED_F[p] = BitSetter.setFlag(frame.SATURATED_F[p], band);
+                }
             }
         }
-        pixel.detector = detectorIndex.getSampleInt(x, y);
 
-        pixel.l1flags = l1bFlags.getSampleInt(x, y);
-        pixel.l2flags = 0L;
-        if (BitSetter.isFlagSet(pixel.l1flags, L1_F_COSMETIC)) {
-            pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_COSMETIC);
-        }
-        if (BitSetter.isFlagSet(pixel.l1flags, L1_F_DUPLICATED)) {
-            pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_DUPLICATED);
-        }
-        if (BitSetter.isFlagSet(pixel.l1flags, L1_F_LAND)) {
-            pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_LAND);
-        }
-        if (BitSetter.isFlagSet(pixel.l1flags, L1_F_BRIGHT)) {
-            pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_BRIGHT);
-        }
-        if (BitSetter.isFlagSet(pixel.l1flags, L1_F_COAST)) {
-            pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_COASTLINE);
-        }
-        if (BitSetter.isFlagSet(pixel.l1flags, L1_F_INVALID)) {
-            pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_INVALID);
-        }
-        if (BitSetter.isFlagSet(pixel.l1flags, L1_F_SUSPECT)) {
-            pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_SUSPECT);
-        }
-        if (pixel.detector < 0 || pixel.detector >= auxData.detector_count) {
-            pixel.detector = -1; // OK
-            // Make pixel invalid
-            if (!BitSetter.isFlagSet(pixel.l1flags, L1_F_INVALID)) {
-                pixel.l1flags = BitSetter.setFlag(pixel.l1flags, F_INVALID);
-                pixel.l2flags = BitSetter.setFlag(pixel.l2flags, F_INVALID);
+        final int[] detectors = detectorIndex.getSamplesInt();
+        final int[] l1flags = l1bFlags.getSamplesInt();
+        for (int p = 0; p < size; p++) {
+            int detector = detectors[p];
+            int pixelL1flags = l1flags[p];
+            long l2flags = 0L;
+            if (BitSetter.isFlagSet(pixelL1flags, L1_F_COSMETIC)) {
+                l2flags = BitSetter.setFlag(l2flags, F_COSMETIC);
             }
+            if (BitSetter.isFlagSet(pixelL1flags, L1_F_DUPLICATED)) {
+                l2flags = BitSetter.setFlag(l2flags, F_DUPLICATED);
+            }
+            if (BitSetter.isFlagSet(pixelL1flags, L1_F_LAND)) {
+                l2flags = BitSetter.setFlag(l2flags, F_LAND);
+            }
+            if (BitSetter.isFlagSet(pixelL1flags, L1_F_BRIGHT)) {
+                l2flags = BitSetter.setFlag(l2flags, F_BRIGHT);
+            }
+            if (BitSetter.isFlagSet(pixelL1flags, L1_F_COAST)) {
+                l2flags = BitSetter.setFlag(l2flags, F_COASTLINE);
+            }
+            if (BitSetter.isFlagSet(pixelL1flags, L1_F_INVALID)) {
+                l2flags = BitSetter.setFlag(l2flags, F_INVALID);
+            }
+            if (BitSetter.isFlagSet(pixelL1flags, L1_F_SUSPECT)) {
+                l2flags = BitSetter.setFlag(l2flags, F_SUSPECT);
+            }
+            if (detector < 0 || detector >= auxData.detector_count) {
+                detector = -1; // OK
+                // Make pixel invalid
+                if (!BitSetter.isFlagSet(pixelL1flags, L1_F_INVALID)) {
+                    pixelL1flags = BitSetter.setFlag(pixelL1flags, F_INVALID);
+                    l2flags = BitSetter.setFlag(l2flags, F_INVALID);
+                }
+            }
+            frame.detector[p] = detector;
+            frame.l1flags[p] = pixelL1flags;
+            frame.l2flags[p] = l2flags;
         }
 
         // DPM #2.1.0-3
-        pixel.sun_zenith = tpdata[SUN_ZENITH_TPG_INDEX].getSampleDouble(x, y);
+        System.arraycopy(tpdata[SUN_ZENITH_TPG_INDEX].getSamplesDouble(), 0, frame.sun_zenith, 0, size);
         // DPM #2.1.0-4
-        pixel.view_zenith = tpdata[VIEW_ZENITH_TPG_INDEX].getSampleDouble(x, y);
+        System.arraycopy(tpdata[VIEW_ZENITH_TPG_INDEX].getSamplesDouble(), 0, frame.view_zenith, 0, size);
         // DPM #2.1.0-5
-        double view_azimuth = tpdata[VIEW_AZIMUTH_TPG_INDEX].getSampleDouble(x, y);
+        final double[] view_azimuth = tpdata[VIEW_AZIMUTH_TPG_INDEX].getSamplesDouble();
         // DPM #2.1.0-6
-        pixel.sun_azimuth = tpdata[SUN_AZIMUTH_TPG_INDEX].getSampleDouble(x, y);
-        // mz 2007-11-22 at the moment lat and lon are not used for any computation  
-        // DPM #2.1.0-7
-        // pixel.lat = tpdata[LATITUDE_TPG_INDEX].getSampleDouble(x, y);
-        // DPM #2.1.0-8
-        // pixel.lon = tpdata[LONGITUDE_TPG_INDEX].getSampleDouble(x, y);
+        System.arraycopy(tpdata[SUN_AZIMUTH_TPG_INDEX].getSamplesDouble(), 0, frame.sun_azimuth, 0, size);
+        // mz 2007-11-22 at the moment lat and lon are not used for any computation
         // DPM #2.1.0-9
-        pixel.altitude = tpdata[DEM_ALT_TPG_INDEX].getSampleDouble(x, y);
+        System.arraycopy(tpdata[DEM_ALT_TPG_INDEX].getSamplesDouble(), 0, frame.altitude, 0, size);
         // DPM #2.1.0-10
-        pixel.press_ecmwf = tpdata[ATM_PRESS_TPG_INDEX].getSampleDouble(x, y);
+        System.arraycopy(tpdata[ATM_PRESS_TPG_INDEX].getSamplesDouble(), 0, frame.press_ecmwf, 0, size);
         // DPM #2.1.0-11
-        pixel.windu = tpdata[ZONAL_WIND_TPG_INDEX].getSampleDouble(x, y);
+        System.arraycopy(tpdata[ZONAL_WIND_TPG_INDEX].getSamplesDouble(), 0, frame.windu, 0, size);
         // DPM #2.1.0-12
-        pixel.windv = tpdata[MERID_WIND_TPG_INDEX].getSampleDouble(x, y);
+        System.arraycopy(tpdata[MERID_WIND_TPG_INDEX].getSamplesDouble(), 0, frame.windv, 0, size);
         // DPM #2.1.0-13
-        pixel.ozone_ecmwf = tpdata[OZONE_TPG_INDEX].getSampleDouble(x, y);
-        // DPM #2.1.0-14
-        pixel.delta_azimuth = DEG * Math.acos(Math.cos(RAD * (view_azimuth - pixel.sun_azimuth)));
-        // DPM #2.1.0-15
-        if (BitSetter.isFlagSet(pixel.l2flags, F_LAND)) {
-            // ECMWF pressure is only corrected for positive altitudes and only for land pixels */
-            double f = Math.exp(-Math.max(0.0, pixel.altitude) / auxData.press_scale_height);
-            pixel.press_ecmwf *= f;
+        System.arraycopy(tpdata[OZONE_TPG_INDEX].getSamplesDouble(), 0, frame.ozone_ecmwf, 0, size);
+
+        for (int p = 0; p < size; p++) {
+            // DPM #2.1.0-14
+            frame.delta_azimuth[p] = DEG * Math.acos(Math.cos(RAD * (view_azimuth[p] - frame.sun_azimuth[p])));
+            // DPM #2.1.0-15
+            if (BitSetter.isFlagSet(frame.l2flags[p], F_LAND)) {
+                // ECMWF pressure is only corrected for positive altitudes and only for land pixels */
+                double f = Math.exp(-Math.max(0.0, frame.altitude[p]) / auxData.press_scale_height);
+                frame.press_ecmwf[p] *= f;
+            }
         }
         //////////////////////////////////////////////////////////
         // Helpers
 
-        pixel.muv = Math.cos(RAD * pixel.view_zenith);
-        pixel.mus = Math.cos(RAD * pixel.sun_zenith);
+        for (int p = 0; p < size; p++) {
+            frame.muv[p] = Math.cos(RAD * frame.view_zenith[p]);
+            frame.mus[p] = Math.cos(RAD * frame.sun_zenith[p]);
 
-        // DPM #2.1.12-1, Air Mass Computation
-        pixel.airMass = 1.0 / pixel.mus + 1.0 / pixel.muv;
+            // DPM #2.1.12-1, Air Mass Computation
+            frame.airMass[p] = 1.0 / frame.mus[p] + 1.0 / frame.muv[p];
+        }
     }
 }
@@ -8,6 +8,7 @@ package org.esa.s3tbx.meris.brr.dpm;
 
 import org.esa.s3tbx.meris.l2auxdata.Constants;
 import org.esa.s3tbx.meris.l2auxdata.L2AuxData;
+import org.esa.s3tbx.util.math.FlatLUT;
 import org.esa.s3tbx.util.math.FractIndex;
 import org.esa.s3tbx.util.math.Interp;
 
@@ -55,12 +56,13 @@ public class RayleighCorrection implements Constants {
         Interp.interpCoord(sun_zenith, auxdata.Rayscatt_coeff_s.getTab(2), tsi); /* fm 15/5/97 */
         Interp.interpCoord(view_zenith, auxdata.Rayscatt_coeff_s.getTab(3), tvi);
 
-        float[][][][] Rayscatt_coeff_s = (float[][][][]) auxdata.Rayscatt_coeff_s.getJavaArray();
+        final FlatLUT Rayscatt_coeff_s = auxdata.Rayscatt_coeff_s.getFlatLUT();
         /* pre-computation of multiple scatt coefficients, wavelength independent */
         for (int is = 0; is < RAYSCATT_NUM_SER; is++) {
             /* DPM #2.1.17-4 to 2.1.17-7 */
             for (int ik = 0; ik < RAYSCATT_NUM_ORD; ik++) {
-                lh.abcd[is][ik] = Interp.interpolate(Rayscatt_coeff_s[ik][is], lh.ref_rayleigh_i);
+                final int offset = ik * Rayscatt_coeff_s.getStride(0) + is * Rayscatt_coeff_s.getStride(1);
+                lh.abcd[is][ik] = Rayscatt_coeff_s.interpolate(offset, lh.ref_rayleigh_i);
             }
         }
 
@@ -238,7 +240,7 @@ public class RayleighCorrection implements Constants {
                 case bb13:
                 case bb14:
                     Interp.interpCoord(tauRayl[bandId], auxdata.Rayalb.getTab(0), lh.ray_index[0]);
-                    sphalbRayl[bandId] = Interp.interpolate(auxdata.Rayalb.getJavaArray(), lh.ray_index); /* DPM #2.6.15.3-1 */
+                    sphalbRayl[bandId] = auxdata.Rayalb.getFlatLUT().interpolate(lh.ray_index); /* DPM #2.6.15.3-1 */
 
                     break;
                 default:
@@ -256,15 +258,16 @@ public class RayleighCorrection implements Constants {
  *   sphalbRayl    Rayleigh spherical albedo
  *   transRs       Rayleigh transmittance (down)
  *   transRv       Rayleigh transmittance (up)
- *   rho           reflectance (uncorrected)
+ *   rho           reflectance (uncorrected), indexed by band and pixel
+ *   pixel         pixel index
  * outputs:
- *   rho_ag        reflectance (corrected)
+ *   rho_ag        reflectance (corrected), indexed by band and pixel
  * Reference: DPM L2, section 7.3.3.3.2
  * called by: landAtmCor
 \*-----------------------------------------------------------------------------*/
 
     void corr_rayleigh(double[] refRayl, double[] sphalbRayl, double[] transRs, double[] transRv,
-                       double[] rho, double[] rho_ag) {
+                       double[][] rho, double[][] rho_ag, int pixel) {
 
         for (int bandId = 0; bandId < L1_BAND_NUM; bandId++) {
             switch (bandId) {
@@ -282,11 +285,11 @@ public class RayleighCorrection implements Constants {
                 case bb12:
                 case bb13:
                 case bb14:
-                    double dum = (rho[bandId] - refRayl[bandId]) / (transRs[bandId] * transRv[bandId]);      /* DPM 2.6.15.4-5 */
-                    rho_ag[bandId] = dum / (1. + sphalbRayl[bandId] * dum); /* DPM 2.6.15.4-6 */
+                    double dum = (rho[bandId][pixel] - refRayl[bandId]) / (transRs[bandId] * transRv[bandId]);      /* DPM 2.6.15.4-5 */
+                    rho_ag[bandId][pixel] = dum / (1. + sphalbRayl[bandId] * dum); /* DPM 2.6.15.4-6 */
                     break;
                 default: /* no correction */
-                    rho_ag[bandId] = rho[bandId];
+                    rho_ag[bandId][pixel] = rho[bandId][pixel];
                     break;
             }
         }
@@ -3,7 +3,7 @@ package org.esa.s3tbx.meris.brr.operator;
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s3tbx.meris.brr.dpm.AtmosphericCorrectionLand;
 import org.esa.s3tbx.meris.brr.dpm.CloudClassification;
-import org.esa.s3tbx.meris.brr.dpm.DpmPixel;
+import org.esa.s3tbx.meris.brr.dpm.DpmFrame;
 import org.esa.s3tbx.meris.brr.dpm.GaseousAbsorptionCorrection;
 import org.esa.s3tbx.meris.brr.dpm.L1bDataExtraction;
 import org.esa.s3tbx.meris.brr.dpm.PixelIdentification;
@@ -47,16 +47,10 @@ public class BrrOp extends BrrBasisOp {
     private RasterDataNode detectorIndex;
     private RasterDataNode l1bFlags;
 
-    private final ThreadLocal<DpmPixel[]> frame = new ThreadLocal<DpmPixel[]>() {
+    private final ThreadLocal<DpmFrame> frame = new ThreadLocal<DpmFrame>() {
         @Override
-        protected DpmPixel[] initialValue() {
-            return new DpmPixel[0];
-        }
-    };
-    private final ThreadLocal<DpmPixel[][]> block = new ThreadLocal<DpmPixel[][]>() {
-        @Override
-        protected DpmPixel[][] initialValue() {
-            return new DpmPixel[0][0];
+        protected DpmFrame initialValue() {
+            return new DpmFrame(0, 0);
         }
     };
 
@@ -153,11 +147,7 @@ public class BrrOp extends BrrBasisOp {
         pixelid.setCorrectionSurface(correctionSurface);
         landac.setCorrectionSurface(correctionSurface);
 
-        final FrameAndBlock frameAndBlock = getFrameAndBlock(rectangle);
-        final DpmPixel[] frameLocal = frameAndBlock.frame;
-        final DpmPixel[][] blockLocal = frameAndBlock.block;
-
-        final int frameSize = rectangle.height * rectangle.width;
+        final DpmFrame frameLocal = getFrame(rectangle);
 
         Tile[] l1bTiePoints = new Tile[tpGrids.length];
         for (int i = 0; i < tpGrids.length; i++) {
@@ -170,28 +160,22 @@ public class BrrOp extends BrrBasisOp {
         Tile l1bDetectorIndex = getSourceTile(detectorIndex, rectangle);
         Tile l1bFlagRaster = getSourceTile(l1bFlags, rectangle);
 
-        for (int pixelIndex = 0; pixelIndex < frameSize; pixelIndex++) {
-            DpmPixel pixel = frameLocal[pixelIndex];
-            extdatl1.l1_extract_pixbloc(pixel,
-                                        rectangle.x + pixel.i,
-                                        rectangle.y + pixel.j,
-                                        l1bTiePoints,
-                                        l1bRadiances,
-                                        l1bDetectorIndex,
-                                        l1bFlagRaster);
-
-            if (!BitSetter.isFlagSet(pixel.l2flags, Constants.F_INVALID)) {
-                pixelid.rad2reflect(pixel);
-                classcloud.classify_cloud(pixel);
-            }
-        }
+        extdatl1.l1_extract_pixbloc(frameLocal,
+                                    rectangle.x,
+                                    rectangle.y,
+                                    l1bTiePoints,
+                                    l1bRadiances,
+                                    l1bDetectorIndex,
+                                    l1bFlagRaster);
+        pixelid.rad2reflect(frameLocal);
+        classcloud.classify_cloud(frameLocal);
 
         for (int iPL1 = 0; iPL1 < rectangle.height; iPL1 += Constants.SUBWIN_HEIGHT) {
             for (int iPC1 = 0; iPC1 < rectangle.width; iPC1 += Constants.SUBWIN_WIDTH) {
                 final int iPC2 = Math.min(rectangle.width, iPC1 + Constants.SUBWIN_WIDTH) - 1;
                 final int iPL2 = Math.min(rectangle.height, iPL1 + Constants.SUBWIN_HEIGHT) - 1;
-                pixelid.pixel_classification(blockLocal, iPC1, iPC2, iPL1, iPL2);
-                landac.landAtmCor(blockLocal, iPC1, iPC2, iPL1, iPL2);
+                pixelid.pixel_classification(frameLocal, iPC1, iPC2, iPL1, iPL2);
+                landac.landAtmCor(frameLocal, iPC1, iPC2, iPL1, iPL2);
             }
         }
 
@@ -199,9 +183,10 @@ public class BrrOp extends BrrBasisOp {
             if (isValidRhoSpectralIndex(bandIndex)) {
                 ProductData data = targetTiles.get(brrReflecBands[bandIndex]).getRawSamples();
                 float[] dData = (float[]) data.getElems();
+                final double[] rhoTop = frameLocal.rho_top[bandIndex];
                 for (int iP = 0; iP < rectangle.width * rectangle.height; iP++) {
-                    dData[iP] = (float) frameLocal[iP].rho_top[bandIndex];
-                    if (BitSetter.isFlagSet((int) frameLocal[iP].l2flags, Constants.F_INVALID)) {
+                    dData[iP] = (float) rhoTop[iP];
+                    if (BitSetter.isFlagSet((int) frameLocal.l2flags[iP], Constants.F_INVALID)) {
                         dData[iP] = NODATA_VALUE;
                     }
                 }
@@ -212,8 +197,9 @@ public class BrrOp extends BrrBasisOp {
             for (int bandIndex = 0; bandIndex < toaReflecBands.length; bandIndex++) {
                 ProductData data = targetTiles.get(toaReflecBands[bandIndex]).getRawSamples();
                 float[] ddata = (float[]) data.getElems();
+                final double[] rhoToa = frameLocal.rho_toa[bandIndex];
                 for (int iP = 0; iP < rectangle.width * rectangle.height; iP++) {
-                    ddata[iP] = (float) frameLocal[iP].rho_toa[bandIndex];
+                    ddata[iP] = (float) rhoToa[iP];
                 }
                 targetTiles.get(toaReflecBands[bandIndex]).setRawSamples(data);
             }
@@ -271,38 +257,16 @@ public class BrrOp extends BrrBasisOp {
         return i >= Constants.bb1 && i < Constants.bb15 && i != Constants.bb11;
     }
 
-    private FrameAndBlock getFrameAndBlock(Rectangle rectangle) {
-        final FrameAndBlock frameAndBlock = new FrameAndBlock();
-        final int frameSize = rectangle.width * rectangle.height;
-
-        DpmPixel[] frameLocal = frame.get();
-        DpmPixel[][] blockLocal = block.get();
-        if (frameLocal.length != frameSize) {
+    private DpmFrame getFrame(Rectangle rectangle) {
+        DpmFrame frameLocal = frame.get();
+        if (frameLocal.width != rectangle.width || frameLocal.height != rectangle.height) {
             // reallocate
-            frameLocal = new DpmPixel[frameSize];
-            blockLocal = new DpmPixel[rectangle.height][rectangle.width];
-            for (int pixelIndex = 0; pixelIndex < frameSize; pixelIndex++) {
-                final DpmPixel pixel = new DpmPixel(pixelIndex % rectangle.width, pixelIndex / rectangle.width);
-                frameLocal[pixelIndex] = blockLocal[pixel.j][pixel.i] = pixel;
-                frame.set(frameLocal);
-                block.set(blockLocal);
-            }
+            frameLocal = new DpmFrame(rectangle.width, rectangle.height);
+            frame.set(frameLocal);
         } else {
-            for (int pixelIndex = 0; pixelIndex < frameSize; pixelIndex++) {
-                frameLocal[pixelIndex].reset(pixelIndex % rectangle.width, pixelIndex / rectangle.width);
-            }
+            frameLocal.reset();
         }
-
-        frameAndBlock.frame = frameLocal;
-        frameAndBlock.block = blockLocal;
-
-        return frameAndBlock;
-    }
-
-    private class FrameAndBlock {
-        DpmPixel[] frame;
-        DpmPixel[][] block;
-
+        return frameLocal;
     }
 
     public static class Spi extends OperatorSpi
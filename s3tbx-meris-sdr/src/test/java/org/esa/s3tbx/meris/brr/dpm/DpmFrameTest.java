@@ -0,0 +1,86 @@
+package org.esa.s3tbx.meris.brr.dpm;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class DpmFrameTest {
+
+    @Test
+    public void testGetIndex() {
+        final DpmFrame dpmFrame = new DpmFrame(3, 2);
+
+        assertEquals(6, dpmFrame.getSize());
+        assertEquals(0, dpmFrame.getIndex(0, 0));
+        assertEquals(2, dpmFrame.getIndex(2, 0));
+        assertEquals(3, dpmFrame.getIndex(0, 1));
+        assertEquals(5, dpmFrame.getIndex(2, 1));
+        assertEquals(6, dpmFrame.x.length);
+        assertEquals(6, dpmFrame.rho_top[0].length);
+    }
+
+    @Test
+    public void testReset() {
+        final DpmFrame dpmFrame = new DpmFrame(3, 2);
+
+        Arrays.fill(dpmFrame.x, 3);
+        Arrays.fill(dpmFrame.y, 4);
+        Arrays.fill(dpmFrame.detector, 7);
+        Arrays.fill(dpmFrame.view_zenith, 8.0);
+        Arrays.fill(dpmFrame.sun_zenith, 9.0);
+        Arrays.fill(dpmFrame.delta_azimuth, 10.0);
+        Arrays.fill(dpmFrame.sun_azimuth, 11.0);
+        Arrays.fill(dpmFrame.mus, 12.0);
+        Arrays.fill(dpmFrame.muv, 13.0);
+        Arrays.fill(dpmFrame.airMass, 1.0);
+        Arrays.fill(dpmFrame.altitude, 2.0);
+        Arrays.fill(dpmFrame.windu, 14.0);
+        Arrays.fill(dpmFrame.windv, 15.0);
+        Arrays.fill(dpmFrame.press_ecmwf, 16.0);
+        Arrays.fill(dpmFrame.ozone_ecmwf, 17.0);
+        Arrays.fill(dpmFrame.l1flags, 18);
+        Arrays.fill(dpmFrame.l2flags, 19);
+        Arrays.fill(dpmFrame.SATURATED_F, 20);
+        Arrays.fill(dpmFrame.ANNOT_F, 21);
+        for (int i = 0; i < dpmFrame.TOAR.length; i++) {
+            Arrays.fill(dpmFrame.TOAR[i], i + 1);
+            Arrays.fill(dpmFrame.rho_ag[i], i + 1);
+            Arrays.fill(dpmFrame.rho_toa[i], i + 1);
+            Arrays.fill(dpmFrame.rho_top[i], i + 1);
+        }
+
+        dpmFrame.reset();
+
+        assertEquals(3, dpmFrame.width);
+        assertEquals(2, dpmFrame.height);
+        for (int p = 0; p < dpmFrame.getSize(); p++) {
+            assertEquals(0, dpmFrame.x[p]);
+            assertEquals(0, dpmFrame.y[p]);
+            assertEquals(0, dpmFrame.detector[p]);
+            assertEquals(0.0, dpmFrame.view_zenith[p], 1e-8);
+            assertEquals(0.0, dpmFrame.sun_zenith[p], 1e-8);
+            assertEquals(0.0, dpmFrame.delta_azimuth[p], 1e-8);
+            assertEquals(0.0, dpmFrame.sun_azimuth[p], 1e-8);
+            assertEquals(0.0, dpmFrame.mus[p], 1e-8);
+            assertEquals(0.0, dpmFrame.muv[p], 1e-8);
+            assertEquals(0.0, dpmFrame.airMass[p], 1e-8);
+            assertEquals(0.0, dpmFrame.altitude[p], 1e-8);
+            assertEquals(0.0, dpmFrame.windu[p], 1e-8);
+            assertEquals(0.0, dpmFrame.windv[p], 1e-8);
+            assertEquals(0.0, dpmFrame.press_ecmwf[p], 1e-8);
+            assertEquals(0.0, dpmFrame.ozone_ecmwf[p], 1e-8);
+            assertEquals(0, dpmFrame.l1flags[p]);
+            assertEquals(0, dpmFrame.l2flags[p]);
+            assertEquals(0, dpmFrame.SATURATED_F[p]);
+            assertEquals(0, dpmFrame.ANNOT_F[p]);
+            for (int i = 0; i < dpmFrame.TOAR.length; i++) {
+                assertEquals(0.0, dpmFrame.TOAR[i][p], 1e-8);
+                assertEquals(0.0, dpmFrame.rho_ag[i][p], 1e-8);
+                assertEquals(0.0, dpmFrame.rho_toa[i][p], 1e-8);
+                assertEquals(0.0, dpmFrame.rho_top[i][p], 1e-8);
+            }
+        }
+    }
+}
@@ -38,19 +38,15 @@ import org.esa.snap.core.util.ResourceInstaller;
 import org.esa.snap.core.util.SystemUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 import java.awt.Rectangle;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -61,16 +57,13 @@ public class RayleighAux {
 
     private static final String GETASSE_30 = "GETASSE30";
     private static final String COEFF_MATRIX_TXT = "coeffMatrix.txt";
-    private static final String TAU_RAY = "tau_ray";
-    private static final String THETA = "theta";
-    private static final String RAY_COEFF_MATRIX = "ray_coeff_matrix";
-    private static final String RAY_ALBEDO_LUT = "ray_albedo_lut";
     private static ElevationModel elevationModel;
     private static double[] thetas;
     private static double[][][] rayCoeffMatrixA;
     private static double[][][] rayCoeffMatrixB;
     private static double[][][] rayCoeffMatrixC;
     private static double[][][] rayCoeffMatrixD;
+    private static double[][][] rayCoeffGrids;
     private double[] sunZenithAngles;
     private double[] viewZenithAngles;
     private double[] sunAzimuthAngles;
@@ -83,8 +76,8 @@ public class RayleighAux {
     private float waveLength;
     private double[] longitudes;
     private double[] altitudes;
-    private Map<Integer, double[]> fourierPoly;
-    private Map<Integer, List<double[]>> interpolateMap;
+    private double[][] fourierPoly;
+    private double[][] interpolation;
     private double[] viewAzimuthAnglesRad;
     private double[] sunZenithAnglesRad;
     private double[] sunAzimuthAnglesRad;
@@ -109,21 +102,50 @@ public class RayleighAux {
         ElevationModelDescriptor getasse30 = ElevationModelRegistry.getInstance().getDescriptor(GETASSE_30);
         elevationModel = getasse30.createDem(Resampling.NEAREST_NEIGHBOUR);
         Path coeffMatrix = installAuxdata().resolve(COEFF_MATRIX_TXT);
-        JSONParser jsonObject = new JSONParser();
-        JSONObject parse = (JSONObject) jsonObject.parse(new FileReader(coeffMatrix.toString()));
+        RayleighCoefficients coefficients = RayleighCoefficients.load(coeffMatrix);
 
-        tau_ray = parseJSON1DimArray(parse, TAU_RAY);
-        thetas = parseJSON1DimArray(parse, THETA);
+        tau_ray = coefficients.tauRay;
+        thetas = coefficients.thetas;
 
-        ArrayList<double[][][]> ray_coeff_matrix = parseJSON3DimArray(parse, RAY_COEFF_MATRIX);
-        rayCoeffMatrixA = ray_coeff_matrix.get(0);
-        rayCoeffMatrixB = ray_coeff_matrix.get(1);
-        rayCoeffMatrixC = ray_coeff_matrix.get(2);
-        rayCoeffMatrixD = ray_coeff_matrix.get(3);
+        rayCoeffMatrixA = coefficients.rayCoeffMatrix[0];
+        rayCoeffMatrixB = coefficients.rayCoeffMatrix[1];
+        rayCoeffMatrixC = coefficients.rayCoeffMatrix[2];
+        rayCoeffMatrixD = coefficients.rayCoeffMatrix[3];
+        rayCoeffGrids = getRayCoeffGrids(rayCoeffMatrixA, rayCoeffMatrixB, rayCoeffMatrixC, rayCoeffMatrixD);
 
         double[] lineSpace = getLineSpace(0, 1, 17);
-        double[] rayAlbedoLuts = parseJSON1DimArray(parse, RAY_ALBEDO_LUT);
-        linearInterpolate = new LinearInterpolator().interpolate(lineSpace, rayAlbedoLuts);
+        linearInterpolate = new LinearInterpolator().interpolate(lineSpace, coefficients.rayAlbedoLut);
+    }
+
+    /**
+     * Creates an auxiliary for a single band of the same pixels. The band auxiliary shares all geometry dependent
+     * data with this auxiliary, including the data which has already been computed lazily, so that it needs to be
+     * computed only once for all bands. The wavelength, the solar fluxes and the radiances are not shared.
+     */
+    public RayleighAux createBandAuxiliary() {
+        RayleighAux bandAuxiliary = new RayleighAux();
+        bandAuxiliary.sunZenithAngles = sunZenithAngles;
+        bandAuxiliary.viewZenithAngles = viewZenithAngles;
+        bandAuxiliary.sunAzimuthAngles = sunAzimuthAngles;
+        bandAuxiliary.viewAzimuthAngles = viewAzimuthAngles;
+        bandAuxiliary.seaLevels = seaLevels;
+        bandAuxiliary.totalOzones = totalOzones;
+        bandAuxiliary.latitudes = latitudes;
+        bandAuxiliary.longitudes = longitudes;
+        bandAuxiliary.altitudes = altitudes;
+        bandAuxiliary.fourierPoly = fourierPoly;
+        bandAuxiliary.interpolation = interpolation;
+        bandAuxiliary.viewAzimuthAnglesRad = viewAzimuthAnglesRad;
+        bandAuxiliary.sunZenithAnglesRad = sunZenithAnglesRad;
+        bandAuxiliary.sunAzimuthAnglesRad = sunAzimuthAnglesRad;
+        bandAuxiliary.viewZenithAnglesRad = viewZenithAnglesRad;
+        bandAuxiliary.aziDiff = aziDiff;
+        bandAuxiliary.cosSZARads = cosSZARads;
+        bandAuxiliary.sinOZARads = sinOZARads;
+        bandAuxiliary.sinSZARads = sinSZARads;
+        bandAuxiliary.cosOZARads = cosOZARads;
+        bandAuxiliary.airMass = airMass;
+        return bandAuxiliary;
     }
 
     public void setSolarFluxs(double[] solarFluxs) {
@@ -162,48 +184,40 @@ public class RayleighAux {
         this.altitudes = alt;
     }
 
-    public Map<Integer, List<double[]>> getInterpolation() {
-        if (Objects.isNull(interpolateMap)) {
-            interpolateMap = getSpikeInterpolation();
+    /**
+     * Returns the multiple scattering coefficients A, B, C and D of the Fourier terms, interpolated at the sun and
+     * view zenith angles of all pixels. The coefficient planes are ordered by Fourier term and coefficient, so the
+     * plane of coefficient {@code c} (0 to 3 for A to D) of Fourier term {@code m} is at index {@code 4 * m + c}.
+     * The planes are {@code NaN} for pixels without valid angles.
+     */
+    public double[][] getInterpolation() {
+        if (Objects.isNull(interpolation)) {
+            interpolation = getSpikeInterpolation();
         }
-        return interpolateMap;
+        return interpolation;
     }
 
     //for test only
-    void setInterpolation(HashMap<Integer, List<double[]>> integerHashMap) {
-        this.interpolateMap = integerHashMap;
+    void setInterpolation(double[][] interpolation) {
+        this.interpolation = interpolation;
     }
 
-    private Map<Integer, List<double[]>> getSpikeInterpolation() {
+    private double[][] getSpikeInterpolation() {
         double[] sunZenithAngles = getSunZenithAngles();
         double[] viewZenithAngles = getViewZenithAngles();
-        Map<Integer, List<double[]>> interpolate = new HashMap<>();
 
         if (Objects.nonNull(sunZenithAngles) && Objects.nonNull(viewZenithAngles)) {
-            for (int index = 0; index < sunZenithAngles.length; index++) {
-                double vzaVal = viewZenithAngles[index];
-                double szaVal = sunZenithAngles[index];
-                if (Double.isNaN(szaVal) || Double.isNaN(vzaVal)) {
-                    continue;
-                }
-                List<double[]> valueList = new ArrayList<>();
-                for (int i = 0; i < rayCoeffMatrixA.length; i++) {
-                    double[] values = new double[4];
-                    values[0] = SpikeInterpolation.interpolate2D(rayCoeffMatrixA[i], thetas, thetas, szaVal, vzaVal);
-                    values[1] = SpikeInterpolation.interpolate2D(rayCoeffMatrixB[i], thetas, thetas, szaVal, vzaVal);
-                    values[2] = SpikeInterpolation.interpolate2D(rayCoeffMatrixC[i], thetas, thetas, szaVal, vzaVal);
-                    values[3] = SpikeInterpolation.interpolate2D(rayCoeffMatrixD[i], thetas, thetas, szaVal, vzaVal);
-                    valueList.add(values);
-                }
-                interpolate.put(index, valueList);
-            }
+            return SpikeInterpolation.interpolate2D(rayCoeffGrids, thetas, thetas, sunZenithAngles, viewZenithAngles);
         }
-        return interpolate;
+        return new double[][]{new double[0]};
     }
 
-    Map<Integer, double[]> getFourier() {
+    /**
+     * Returns the 3 Fourier terms of the Rayleigh phase function, one plane of all pixels per term.
+     */
+    double[][] getFourier() {
         if (Objects.isNull(fourierPoly)) {
-            return fourierPoly = getFourierMap();
+            return fourierPoly = getFourierPlanes();
         }
         return fourierPoly;
     }
@@ -509,9 +523,8 @@ public class RayleighAux {
         return values;
     }
 
-    private Map<Integer, double[]> getFourierMap() {
+    private double[][] getFourierPlanes() {
         // Fourier components of multiple scattering
-        Map<Integer, double[]> fourierPoly = new HashMap<>();
         double[] sunZenithAnglesRad = getSunZenithAnglesRad();
         double[] viewZenithAnglesRad = getViewZenithAnglesRad();
 
@@ -525,6 +538,7 @@ public class RayleighAux {
         double[] sinSZA2s = getSquarePower(sinSZARads);
 
         if (Objects.nonNull(sunZenithAnglesRad) && Objects.nonNull(viewZenithAnglesRad)) {
+            double[][] fourierPoly = new double[3][sunZenithAnglesRad.length];
             for (int index = 0; index < sunZenithAnglesRad.length; index++) {
                 double cosSZARad = cosSZARads[index];
                 double cosOZARad = cosOZARads[index];
@@ -535,13 +549,10 @@ public class RayleighAux {
                 double sinSZA2 = sinSZA2s[index];
                 double sinOZA2 = sinOZA2s[index];
 
-                double[] fourierSeries = new double[3];
                 //Rayleigh Phase function, 3 Fourier terms
-                fourierSeries[0] = (3.0 * 0.9587256 / 4.0 * (1 + Math.pow(cosSZARad, 2) * Math.pow(cosOZARad, 2) + (sinSZA2 * sinOZA2) / 2.0) + (1.0 - 0.9587256));
-                fourierSeries[1] = (-3.0 * 0.9587256 / 4.0 * cosSZARad * cosOZARad * sinSZARad * sinOZARad);
-                fourierSeries[2] = (3.0 * 0.9587256 / 16.0 * sinSZA2 * sinOZA2);
-
-                fourierPoly.put(index, fourierSeries);
+                fourierPoly[0][index] = (3.0 * 0.9587256 / 4.0 * (1 + Math.pow(cosSZARad, 2) * Math.pow(cosOZARad, 2) + (sinSZA2 * sinOZA2) / 2.0) + (1.0 - 0.9587256));
+                fourierPoly[1][index] = (-3.0 * 0.9587256 / 4.0 * cosSZARad * cosOZARad * sinSZARad * sinOZARad);
+                fourierPoly[2][index] = (3.0 * 0.9587256 / 16.0 * sinSZA2 * sinOZA2);
             }
             return fourierPoly;
 
@@ -549,6 +560,18 @@ public class RayleighAux {
         throw new NullPointerException("The Fourier polynomial is empty.");
     }
 
+    static double[][][] getRayCoeffGrids(double[][][] rayCoeffA, double[][][] rayCoeffB,
+                                         double[][][] rayCoeffC, double[][][] rayCoeffD) {
+        double[][][] grids = new double[4 * rayCoeffA.length][][];
+        for (int i = 0; i < rayCoeffA.length; i++) {
+            grids[4 * i] = rayCoeffA[i];
+            grids[4 * i + 1] = rayCoeffB[i];
+            grids[4 * i + 2] = rayCoeffC[i];
+            grids[4 * i + 3] = rayCoeffD[i];
+        }
+        return grids;
+    }
+
     static Path installAuxdata() throws IOException {
         OperatorSpiRegistry operatorSpiRegistry = GPF.getDefaultInstance().getOperatorSpiRegistry();
         OperatorSpi spi = operatorSpiRegistry.getOperatorSpi("RayleighCorrection");
@@ -0,0 +1,171 @@
+package org.esa.s3tbx.olci.radiometry.rayleigh;
+
+import org.esa.s3tbx.util.io.CacheFileFormat;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The coefficients of the Rayleigh correction, which are provided as JSON file in the auxiliary data.
+ * <p>
+ * Parsing the JSON file takes a large part of the initialisation of the operator, therefore the file is converted
+ * once into a compact binary file next to it, named like the JSON file with the extension {@code .bin}. Later the
+ * coefficients are read from the memory mapped binary file directly into primitive arrays. The binary file is
+ * converted again whenever the JSON file is newer.
+ */
+class RayleighCoefficients {
+
+    private static final String TAU_RAY = "tau_ray";
+    private static final String THETA = "theta";
+    private static final String RAY_COEFF_MATRIX = "ray_coeff_matrix";
+    private static final String RAY_ALBEDO_LUT = "ray_albedo_lut";
+
+    private static final Logger LOGGER = Logger.getLogger(RayleighCoefficients.class.getName());
+    private static final CacheFileFormat FORMAT = new CacheFileFormat("RAYCOE", 1);
+
+    final double[] tauRay;
+    final double[] thetas;
+    final double[] rayAlbedoLut;
+    /**
+     * The coefficient matrices A, B, C and D, each indexed by Fourier term, sun and view zenith angle.
+     */
+    final double[][][][] rayCoeffMatrix;
+
+    RayleighCoefficients(double[] tauRay, double[] thetas, double[] rayAlbedoLut, double[][][][] rayCoeffMatrix) {
+        this.tauRay = tauRay;
+        this.thetas = thetas;
+        this.rayAlbedoLut = rayAlbedoLut;
+        this.rayCoeffMatrix = rayCoeffMatrix;
+    }
+
+    /**
+     * Loads the coefficients of the given JSON file, from its binary file if it is up to date.
+     */
+    static RayleighCoefficients load(Path jsonFile) throws IOException, ParseException {
+        final Path binaryFile = getBinaryFile(jsonFile);
+        if (Files.isRegularFile(binaryFile) &&
+            Files.getLastModifiedTime(binaryFile).compareTo(Files.getLastModifiedTime(jsonFile)) >= 0) {
+            try {
+                final RayleighCoefficients coefficients = read(binaryFile);
+                if (coefficients != null) {
+                    return coefficients;
+                }
+                LOGGER.warning("Ignoring invalid Rayleigh coefficients file " + binaryFile);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to read Rayleigh coefficients file " + binaryFile, e);
+            }
+        }
+        final RayleighCoefficients coefficients = parseJson(jsonFile);
+        try {
+            write(binaryFile, coefficients);
+        } catch (IOException e) {
+            // the coefficients are parsed from the JSON file again next time
+            LOGGER.log(Level.WARNING, "Failed to write Rayleigh coefficients file " + binaryFile, e);
+        }
+        return coefficients;
+    }
+
+    static Path getBinaryFile(Path jsonFile) {
+        final String fileName = jsonFile.getFileName().toString();
+        final int extensionIndex = fileName.lastIndexOf('.');
+        final String baseName = extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName;
+        return jsonFile.resolveSibling(baseName + ".bin");
+    }
+
+    static RayleighCoefficients parseJson(Path jsonFile) throws IOException, ParseException {
+        final JSONObject parse;
+        try (Reader reader = Files.newBufferedReader(jsonFile, StandardCharsets.UTF_8)) {
+            parse = (JSONObject) new JSONParser().parse(reader);
+        }
+        final ArrayList<double[][][]> rayCoeffMatrix = RayleighAux.parseJSON3DimArray(parse, RAY_COEFF_MATRIX);
+        return new RayleighCoefficients(RayleighAux.parseJSON1DimArray(parse, TAU_RAY),
+                                        RayleighAux.parseJSON1DimArray(parse, THETA),
+                                        RayleighAux.parseJSON1DimArray(parse, RAY_ALBEDO_LUT),
+                                        rayCoeffMatrix.toArray(new double[rayCoeffMatrix.size()][][][]));
+    }
+
+    static RayleighCoefficients read(Path binaryFile) throws IOException {
+        final ByteBuffer buffer = FORMAT.map(binaryFile);
+        if (buffer == null) {
+            return null;
+        }
+        try {
+            final double[] tauRay = readArray(buffer);
+            final double[] thetas = readArray(buffer);
+            final double[] rayAlbedoLut = readArray(buffer);
+            final double[][][][] rayCoeffMatrix = new double[buffer.getInt()][buffer.getInt()][buffer.getInt()][buffer.getInt()];
+            for (double[][][] matrix : rayCoeffMatrix) {
+                for (double[][] plane : matrix) {
+                    for (double[] row : plane) {
+                        buffer.asDoubleBuffer().get(row);
+                        buffer.position(buffer.position() + row.length * Double.BYTES);
+                    }
+                }
+            }
+            if (buffer.hasRemaining()) {
+                return null;
+            }
+            return new RayleighCoefficients(tauRay, thetas, rayAlbedoLut, rayCoeffMatrix);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    static void write(Path binaryFile, RayleighCoefficients coefficients) throws IOException {
+        final double[][][][] rayCoeffMatrix = coefficients.rayCoeffMatrix;
+        int size = 3 * Integer.BYTES + 4 * Integer.BYTES;
+        size += (coefficients.tauRay.length + coefficients.thetas.length + coefficients.rayAlbedoLut.length) * Double.BYTES;
+        for (double[][][] matrix : rayCoeffMatrix) {
+            for (double[][] plane : matrix) {
+                for (double[] row : plane) {
+                    size += row.length * Double.BYTES;
+                }
+            }
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        writeArray(buffer, coefficients.tauRay);
+        writeArray(buffer, coefficients.thetas);
+        writeArray(buffer, coefficients.rayAlbedoLut);
+        buffer.putInt(rayCoeffMatrix.length);
+        buffer.putInt(rayCoeffMatrix[0].length);
+        buffer.putInt(rayCoeffMatrix[0][0].length);
+        buffer.putInt(rayCoeffMatrix[0][0][0].length);
+        for (double[][][] matrix : rayCoeffMatrix) {
+            for (double[][] plane : matrix) {
+                for (double[] row : plane) {
+                    for (double value : row) {
+                        buffer.putDouble(value);
+                    }
+                }
+            }
+        }
+        buffer.flip();
+        FORMAT.write(binaryFile, buffer);
+    }
+
+    private static double[] readArray(ByteBuffer buffer) {
+        final double[] values = new double[buffer.getInt()];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+        return values;
+    }
+
+    private static void writeArray(ByteBuffer buffer, double[] values) {
+        buffer.putInt(values.length);
+        for (double value : values) {
+            buffer.putDouble(value);
+        }
+    }
+}
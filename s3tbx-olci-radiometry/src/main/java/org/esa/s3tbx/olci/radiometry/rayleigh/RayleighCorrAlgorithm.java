@@ -8,7 +8,6 @@ import org.esa.snap.core.datamodel.Product;
 import org.esa.snap.core.util.math.RsMathUtils;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
 
@@ -168,11 +167,12 @@ public class RayleighCorrAlgorithm {
         final double[] sARay = rayleighAux.getInterpolateRayleighThickness(rayleighOpticalThickness);
         final double[] tau_ray = rayleighAux.getTaur();
 
-        final Map<Integer, double[]> fourier = rayleighAux.getFourier();
-        final Map<Integer, List<double[]>> interpolation = rayleighAux.getInterpolation();
+        final double[][] fourier = rayleighAux.getFourier();
+        final double[][] interpolation = rayleighAux.getInterpolation();
         final int length = cosOZARads.length;
 
         final double[] rho_BRR = new double[length];
+        final double[] rho_Rm = new double[fourier.length];
 
         for (int index = 0; index < length; index++) {
 
@@ -196,16 +196,14 @@ public class RayleighCorrAlgorithm {
             double cosOZARad = cosOZARads[index];
             double cosSZARad = cosSZARads[index];
 
-            List<double[]> interpolateValues = interpolation.get(index);
-            if (interpolateValues == null || interpolateValues.size() == 0) {
+            if (!isInterpolated(interpolation, index)) {
                 // this might happen if we are out of range of RayleighAux data (e.g. SZA > 80deg)
                 // --> set to NaN (CB, 20171026)
                 rho_BRR[index] = RayleighConstants.INVALID_VALUE;
                 continue;
             }
-            double[] fourierSeries = fourier.get(index);
 
-            double[] rho_Rm = getFourierSeries(taurVal, massAir, cosOZARad, cosSZARad, interpolateValues, fourierSeries);
+            getFourierSeries(taurVal, massAir, cosOZARad, cosSZARad, interpolation, fourier, index, rho_Rm);
 
             double rho_R = rho_Rm[0] + 2.0 * rho_Rm[1] * Math.cos(aziDiff) + 2.0 * rho_Rm[2] * Math.cos(2.0 * aziDiff);
 
@@ -238,11 +236,12 @@ public class RayleighCorrAlgorithm {
         final double[] cosSZARads = rayleighAux.getCosSZARads();
         final double[] cosOZARads = rayleighAux.getCosOZARads();
 
-        final Map<Integer, double[]> fourier = rayleighAux.getFourier();
-        final Map<Integer, List<double[]>> interpolation = rayleighAux.getInterpolation();
+        final double[][] fourier = rayleighAux.getFourier();
+        final double[][] interpolation = rayleighAux.getInterpolation();
         final int length = cosOZARads.length;
 
         final double[] rho_R = new double[length];
+        final double[] rho_Rm = new double[fourier.length];
 
         for (int index = 0; index < length; index++) {
 
@@ -266,35 +265,42 @@ public class RayleighCorrAlgorithm {
             double cosOZARad = cosOZARads[index];
             double cosSZARad = cosSZARads[index];
 
-            List<double[]> interpolateValues = interpolation.get(index);
-            if (interpolateValues == null || interpolateValues.size() == 0) {
+            if (!isInterpolated(interpolation, index)) {
                 // this might happen if we are out of range of RayleighAux data (e.g. SZA > 80deg)
                 // --> set to NaN (CB, 20171026)
                 rho_R[index] = RayleighConstants.INVALID_VALUE;
                 continue;
             }
-            double[] fourierSeries = fourier.get(index);
-            double[] rho_Rm = getFourierSeries(taurVal, massAir, cosOZARad, cosSZARad, interpolateValues, fourierSeries);
+            getFourierSeries(taurVal, massAir, cosOZARad, cosSZARad, interpolation, fourier, index, rho_Rm);
             rho_R[index] = rho_Rm[0] + 2.0 * rho_Rm[1] * Math.cos(aziDiff) + 2.0 * rho_Rm[2] * Math.cos(2.0 * aziDiff);
         }
         return rho_R;
     }
 
-    double[] getFourierSeries(double rayleighOpticalThickness, double massAir, double cosOZARad,
-                              double cosSZARad, List<double[]> interpolateValues, double[] fourierSeriesCof) {
-        double[] rhoRm = new double[fourierSeriesCof.length];
-        for (int i = 0; i < fourierSeriesCof.length; i++) {
-            double[] interpolatedValueABCD = interpolateValues.get(i);
-            double a = interpolatedValueABCD[0];
-            double b = interpolatedValueABCD[1];
-            double c = interpolatedValueABCD[2];
-            double d = interpolatedValueABCD[3];
-
-            double rayPrimaryScatters = (fourierSeriesCof[i] / (4.0 * (cosSZARad + cosOZARad))) * (1.0 - Math.exp(-massAir * rayleighOpticalThickness));
+    /**
+     * Computes the Fourier terms of the Rayleigh reflectance of a pixel.
+     *
+     * @param interpolation the planes of the multiple scattering coefficients, see {@link RayleighAux#getInterpolation()}
+     * @param fourier       the planes of the Fourier terms of the phase function, see {@link RayleighAux#getFourier()}
+     * @param index         the index of the pixel
+     * @param rhoRm         receives the Fourier terms of the Rayleigh reflectance
+     */
+    void getFourierSeries(double rayleighOpticalThickness, double massAir, double cosOZARad, double cosSZARad,
+                          double[][] interpolation, double[][] fourier, int index, double[] rhoRm) {
+        for (int i = 0; i < fourier.length; i++) {
+            double a = interpolation[4 * i][index];
+            double b = interpolation[4 * i + 1][index];
+            double c = interpolation[4 * i + 2][index];
+            double d = interpolation[4 * i + 3][index];
+
+            double rayPrimaryScatters = (fourier[i][index] / (4.0 * (cosSZARad + cosOZARad))) * (1.0 - Math.exp(-massAir * rayleighOpticalThickness));
             double rayMultiCorr = a + b * rayleighOpticalThickness + c * Math.pow(rayleighOpticalThickness, 2) + d * Math.pow(rayleighOpticalThickness, 3);
             rhoRm[i] = rayMultiCorr * rayPrimaryScatters;
         }
-        return rhoRm;
+    }
+
+    private static boolean isInterpolated(double[][] interpolation, int index) {
+        return index < interpolation[0].length && !Double.isNaN(interpolation[0][index]);
     }
 
 
@@ -219,6 +219,17 @@ public class RayleighCorrectionOp extends Operator {
     public void computeTileStack(Map<Band, Tile> targetTiles, Rectangle targetRectangle, ProgressMonitor pm) throws OperatorException {
         checkForCancellation();
 
+        final String l1bFlagsName = sensor.getL1bFlagsName();
+        final Tile qualityFlagsTile;
+        if (l1bFlagsName != null) {
+            qualityFlagsTile = getSourceTile(productToProcess.getBand(l1bFlagsName), targetRectangle);
+        } else {
+            qualityFlagsTile = null;
+        }
+        // the geometry dependent data is the same for all bands, it is computed once and shared by the bands
+        final RayleighAux geometryAux = createAuxiliary(productToProcess, sensor, targetRectangle);
+        computeGeometryData(geometryAux);
+
         Set<Map.Entry<Band, Tile>> entries = targetTiles.entrySet();
         entries.forEach(targetTileStream -> {
             Tile targetTile = targetTileStream.getValue();
@@ -227,15 +238,11 @@ public class RayleighCorrectionOp extends Operator {
             String targetBandName = targetBand.getName();
             double[] targetData = null;
 
-            Tile qualityFlagsTile = null;
-            final String l1bFlagsName = sensor.getL1bFlagsName();
-            if (l1bFlagsName != null) {
-                qualityFlagsTile = getSourceTile(productToProcess.getBand(l1bFlagsName), targetRectangle);
-            }
-            RayleighAux rayleighAux = createAuxiliary(productToProcess, sensor, targetRectangle);
+            RayleighAux rayleighAux = geometryAux.createBandAuxiliary();
 
             if (targetBandName.equals(AIRMASS) && addAirMass) {
-                targetData = rayleighAux.getAirMass();
+                // the air mass is shared by all bands, invalid pixels must not be set in place
+                targetData = rayleighAux.getAirMass().clone();
                 setTargetSamples(qualityFlagsTile, targetTile, targetData);
             }
 
@@ -289,6 +296,20 @@ public class RayleighCorrectionOp extends Operator {
         });
     }
 
+    private void computeGeometryData(RayleighAux rayleighAux) {
+        if (addAirMass || computeRBrr) {
+            rayleighAux.getAirMass();
+        }
+        if (computeTaur || computeRBrr) {
+            rayleighAux.getAltitudes();
+        }
+        if (computeRBrr) {
+            rayleighAux.getAziDifferent();
+            rayleighAux.getFourier();
+            rayleighAux.getInterpolation();
+        }
+    }
+
     private boolean isWavelength709(double waveLength) {
         return Math.ceil(waveLength) == WV_709_FOR_GASEOUS_ABSORPTION_CALCULATION;
     }
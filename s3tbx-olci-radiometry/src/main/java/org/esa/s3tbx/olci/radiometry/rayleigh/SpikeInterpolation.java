@@ -26,49 +26,69 @@ import com.google.common.primitives.Doubles;
 class SpikeInterpolation {
     static double interpolate2D(double[][] doubles2D, double[] xCoordinate, double[] yCoordinate,
                                 double x, double y) {
+        return interpolate2D(new double[][][]{doubles2D}, xCoordinate, yCoordinate,
+                             new double[]{x}, new double[]{y})[0][0];
+    }
 
-//        https://en.wikipedia.org/wiki/Bilinear_interpolation
-        double x1;
-        double x2;
-        double y1;
-        double y2;
-        if (x < xCoordinate[0]) {
-            x1 = xCoordinate[0];
-            x2 = xCoordinate[1];
-        } else if (x > xCoordinate[xCoordinate.length - 1]) {
-            x1 = xCoordinate[xCoordinate.length - 2];
-            x2 = xCoordinate[xCoordinate.length - 1];
-        } else {
-            x1 = getLowerBound(xCoordinate, x);
-            x2 = getUpperValue(xCoordinate, x);
+    /**
+     * Interpolates several grids bilinearly at many positions, see https://en.wikipedia.org/wiki/Bilinear_interpolation.
+     * Positions outside the coordinates are extrapolated from the outermost grid cell.
+     * The grid cell of a position is determined only once for all grids.
+     *
+     * @param grids       the 2D grids, all defined on the same coordinates
+     * @param xCoordinate the x coordinates of the grids
+     * @param yCoordinate the y coordinates of the grids
+     * @param x           the x values of the positions
+     * @param y           the y values of the positions
+     * @return for each grid a plane of the interpolated values of all positions, {@code NaN} for positions where x or
+     * y is {@code NaN}
+     */
+    static double[][] interpolate2D(double[][][] grids, double[] xCoordinate, double[] yCoordinate,
+                                    double[] x, double[] y) {
+        final double[][] planes = new double[grids.length][x.length];
+        for (int index = 0; index < x.length; index++) {
+            final double xVal = x[index];
+            final double yVal = y[index];
+            if (Double.isNaN(xVal) || Double.isNaN(yVal)) {
+                for (double[] plane : planes) {
+                    plane[index] = Double.NaN;
+                }
+                continue;
+            }
+            final int ix1 = arrayIndex(xCoordinate, getLowerCellBound(xCoordinate, xVal));
+            final int ix2 = arrayIndex(xCoordinate, getUpperCellBound(xCoordinate, xVal));
+            final int iy1 = arrayIndex(yCoordinate, getLowerCellBound(yCoordinate, yVal));
+            final int iy2 = arrayIndex(yCoordinate, getUpperCellBound(yCoordinate, yVal));
+            final double x1 = xCoordinate[ix1];
+            final double x2 = xCoordinate[ix2];
+            final double y1 = yCoordinate[iy1];
+            final double y2 = yCoordinate[iy2];
+            for (int g = 0; g < grids.length; g++) {
+                final double[][] grid = grids[g];
+                final double q11 = interBetween(grid[ix1][iy1], grid[ix2][iy1], x2, x1, xVal);
+                final double q12 = interBetween(grid[ix1][iy2], grid[ix2][iy2], x2, x1, xVal);
+                planes[g][index] = interBetween(q11, q12, y2, y1, yVal);
+            }
         }
+        return planes;
+    }
 
-        if (y < yCoordinate[0]) {
-            y1 = yCoordinate[0];
-            y2 = yCoordinate[1];
-        } else if (y > yCoordinate[yCoordinate.length - 1]) {
-            y1 = yCoordinate[yCoordinate.length - 2];
-            y2 = yCoordinate[yCoordinate.length - 1];
-        } else {
-            y1 = getLowerBound(yCoordinate, y);
-            y2 = getUpperValue(yCoordinate, y);
+    private static double getLowerCellBound(double[] coordinates, double val) {
+        if (val < coordinates[0]) {
+            return coordinates[0];
+        } else if (val > coordinates[coordinates.length - 1]) {
+            return coordinates[coordinates.length - 2];
         }
+        return getLowerBound(coordinates, val);
+    }
 
-        int ix1 = arrayIndex(xCoordinate, x1);
-        int ix2 = arrayIndex(xCoordinate, x2);
-
-        int iy1 = arrayIndex(yCoordinate, y1);
-        int iy2 = arrayIndex(yCoordinate, y2);
-
-        double f11 = doubles2D[ix1][iy1];
-        double f12 = doubles2D[ix1][iy2];
-        double f21 = doubles2D[ix2][iy1];
-        double f22 = doubles2D[ix2][iy2];
-
-        double q11 = interBetween(f11, f21, x2, x1, x);
-        double q12 = interBetween(f12, f22, x2, x1, x);
-
-        return interBetween(q11, q12, y2, y1, y);
+    private static double getUpperCellBound(double[] coordinates, double val) {
+        if (val < coordinates[0]) {
+            return coordinates[1];
+        } else if (val > coordinates[coordinates.length - 1]) {
+            return coordinates[coordinates.length - 1];
+        }
+        return getUpperValue(coordinates, val);
     }
 
     static double interBetween(double lowerY, double upperY, double upperX, double lowerX, double position) {
@@ -79,7 +99,7 @@ class SpikeInterpolation {
     }
 
     static int arrayIndex(double[] values, double val) {
-        return Doubles.asList(values).indexOf(val);
+        return Doubles.indexOf(values, val);
     }
 
     static double getUpperValue(double[] doubles, double val) {
@@ -26,6 +26,8 @@ import java.nio.file.Path;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -80,6 +82,22 @@ public class RayleighAuxTest {
         assertArrayEquals(new double[]{0.0, 0.0, 0.0}, rayleighAux.getAziDifferent(), 1e-8);
     }
 
+    @Test
+    public void testCreateBandAuxiliary() throws Exception {
+        final double[] airMass = rayleighAux.getAirMass();
+        rayleighAux.setWavelength(560f);
+        rayleighAux.setSolarFluxs(angleTwo);
+
+        final RayleighAux bandAuxiliary = rayleighAux.createBandAuxiliary();
+
+        assertSame(airMass, bandAuxiliary.getAirMass());
+        assertSame(rayleighAux.getCosSZARads(), bandAuxiliary.getCosSZARads());
+        assertSame(rayleighAux.getAltitudes(), bandAuxiliary.getAltitudes());
+        assertArrayEquals(angleOne, bandAuxiliary.getSeaLevels(), 1e-8);
+        assertEquals(0.0, bandAuxiliary.getWaveLength(), 1e-8);
+        assertNull(bandAuxiliary.getSolarFluxs());
+    }
+
     @Test
     public void testCreateLineSpaceOfArrayElements() throws Exception {
         double[] lineSpace = RayleighAux.getLineSpace(0, 10, 5);
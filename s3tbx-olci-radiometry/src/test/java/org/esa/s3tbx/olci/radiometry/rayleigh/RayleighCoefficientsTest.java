@@ -0,0 +1,95 @@
+package org.esa.s3tbx.olci.radiometry.rayleigh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RayleighCoefficientsTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("rayleigh-coefficients");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final double[][][][] rayCoeffMatrix = new double[4][3][2][2];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 3; j++) {
+                rayCoeffMatrix[i][j] = new double[][]{{i, j}, {i * j, Double.NaN}};
+            }
+        }
+        final Path binaryFile = tempDir.resolve("coeffMatrix.bin");
+
+        RayleighCoefficients.write(binaryFile, new RayleighCoefficients(new double[]{0.1, 0.2}, new double[]{2.5, 5.0, 7.5},
+                                                                        new double[]{0.9}, rayCoeffMatrix));
+        final RayleighCoefficients coefficients = RayleighCoefficients.read(binaryFile);
+
+        assertArrayEquals(new double[]{0.1, 0.2}, coefficients.tauRay, 0.0);
+        assertArrayEquals(new double[]{2.5, 5.0, 7.5}, coefficients.thetas, 0.0);
+        assertArrayEquals(new double[]{0.9}, coefficients.rayAlbedoLut, 0.0);
+        assertEquals(4, coefficients.rayCoeffMatrix.length);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 3; j++) {
+                for (int k = 0; k < 2; k++) {
+                    assertArrayEquals(rayCoeffMatrix[i][j][k], coefficients.rayCoeffMatrix[i][j][k], 0.0);
+                }
+            }
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testLoadConvertsJsonOnce() throws Exception {
+        final Path jsonFile = tempDir.resolve("coeffMatrix.txt");
+        try (InputStream inputStream = getClass().getResourceAsStream("/auxdata/rayleigh/coeffMatrix.txt")) {
+            Files.copy(inputStream, jsonFile);
+        }
+        final RayleighCoefficients parsed = RayleighCoefficients.parseJson(jsonFile);
+
+        final RayleighCoefficients converted = RayleighCoefficients.load(jsonFile);
+        final Path binaryFile = RayleighCoefficients.getBinaryFile(jsonFile);
+        assertTrue(Files.isRegularFile(binaryFile));
+        final FileTime conversionTime = Files.getLastModifiedTime(binaryFile);
+        final RayleighCoefficients loaded = RayleighCoefficients.load(jsonFile);
+        assertEquals(conversionTime, Files.getLastModifiedTime(binaryFile));
+
+        for (RayleighCoefficients coefficients : new RayleighCoefficients[]{converted, loaded}) {
+            assertArrayEquals(parsed.tauRay, coefficients.tauRay, 0.0);
+            assertArrayEquals(parsed.thetas, coefficients.thetas, 0.0);
+            assertArrayEquals(parsed.rayAlbedoLut, coefficients.rayAlbedoLut, 0.0);
+            assertEquals(4, coefficients.rayCoeffMatrix.length);
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < parsed.rayCoeffMatrix[i].length; j++) {
+                    for (int k = 0; k < parsed.rayCoeffMatrix[i][j].length; k++) {
+                        assertArrayEquals(parsed.rayCoeffMatrix[i][j][k], coefficients.rayCoeffMatrix[i][j][k], 0.0);
+                    }
+                }
+            }
+        }
+    }
+}
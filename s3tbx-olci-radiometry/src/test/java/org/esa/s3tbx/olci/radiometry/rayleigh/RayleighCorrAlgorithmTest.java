@@ -10,9 +10,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
 import java.util.stream.DoubleStream;
 
 import static org.junit.Assert.assertArrayEquals;
@@ -171,25 +169,27 @@ public class RayleighCorrAlgorithmTest {
 
     @Test
     public void testGetRho() {
-        ArrayList<double[]> interpolateValues = getInterpolationValues();
+        double[][] interpolateValues = getInterpolationValues(1, 0);
 
         double rayleighOpticalThickness = 1.0;
         double massAir = 1.0;
         double cosOZARad = 1.5;
         double cosSZARad = 1.5;
-        double[] fourierSeriesCof = {1.2, 2.2, 3.0};
-        double[] fourierSeriesExpected = algo.getFourierSeries(rayleighOpticalThickness, massAir, cosOZARad, cosSZARad, interpolateValues, fourierSeriesCof);
+        double[][] fourierSeriesCof = {{1.2}, {2.2}, {3.0}};
+        double[] fourierSeriesExpected = new double[3];
+        algo.getFourierSeries(rayleighOpticalThickness, massAir, cosOZARad, cosSZARad, interpolateValues, fourierSeriesCof, 0, fourierSeriesExpected);
 
         assertEquals(3, fourierSeriesExpected.length);
         assertEquals(0.6321, fourierSeriesExpected[0], 1e-4);
 
     }
 
-    private ArrayList<double[]> getInterpolationValues() {
-        ArrayList<double[]> interpolateValues = new ArrayList<>();
-        interpolateValues.add(new double[]{1.0, 2.0, 3.0, 4.0});
-        interpolateValues.add(new double[]{5.0, 6.0, 7.0, 8.0});
-        interpolateValues.add(new double[]{9.0, 10.0, 11.0, 12.0});
+    private double[][] getInterpolationValues(int numPixels, int pixelIndex) {
+        double[][] interpolateValues = new double[12][numPixels];
+        for (int i = 0; i < interpolateValues.length; i++) {
+            Arrays.fill(interpolateValues[i], Double.NaN);
+            interpolateValues[i][pixelIndex] = i + 1.0;
+        }
         return interpolateValues;
     }
 
@@ -208,10 +208,7 @@ public class RayleighCorrAlgorithmTest {
         rayleighAux.setLatitudes(mockSourceTile);
         rayleighAux.setLongitude(mockSourceTile);
         rayleighAux.setAltitudes(mockSourceTile);
-        List<double[]> interpolationValues = getInterpolationValues();
-        HashMap<Integer, List<double[]>> listHashMap = new HashMap<>();
-        listHashMap.put(1, interpolationValues);
-        rayleighAux.setInterpolation(listHashMap);
+        rayleighAux.setInterpolation(getInterpolationValues(4, 1));
         RayleighAux.linearInterpolate = new LinearInterpolator().interpolate(new double[]{0, 2.0}, new double[]{0, 2.0});
         RayleighAux.tau_ray = new double[]{1.0, 1.0, 1.0};
         return rayleighAux;
@@ -21,6 +21,7 @@ package org.esa.s3tbx.olci.radiometry.rayleigh;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -85,4 +86,35 @@ public class SpikeInterpolationTest {
         double v = SpikeInterpolation.interBetween(lowerBound, upperBound, 20, 21, 20.2);
         assertEquals(146.1, v, 1e-2);
     }
+
+    @Test
+    public void testInterpolate2DPlanes() {
+        final double[] coordinates = {0, 10, 20, 30};
+        final double[][][] grids = new double[2][4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                grids[0][i][j] = i * 4 + j;
+                grids[1][i][j] = (i - 1.5) * (j + 0.5);
+            }
+        }
+        final double[] x = {0, 5, 12.5, 30, -3, 35, Double.NaN};
+        final double[] y = {0, 25, 7.5, 10, 40, -1, 5};
+
+        final double[][] planes = SpikeInterpolation.interpolate2D(grids, coordinates, coordinates, x, y);
+
+        // both grids are bilinear in the coordinates, so that the interpolation is exact
+        final double[][] expected = {
+                {0.0, 4.5, 5.75, 13.0, 2.8, 13.9},
+                {-0.75, -3.0, -0.3125, 2.25, -8.1, 0.8}
+        };
+        assertEquals(2, planes.length);
+        for (int g = 0; g < grids.length; g++) {
+            assertEquals(x.length, planes[g].length);
+            for (int i = 0; i < x.length - 1; i++) {
+                assertEquals(expected[g][i], planes[g][i], 1e-12);
+                assertEquals(expected[g][i], SpikeInterpolation.interpolate2D(grids[g], coordinates, coordinates, x[i], y[i]), 1e-12);
+            }
+            assertTrue(Double.isNaN(planes[g][x.length - 1]));
+        }
+    }
 }
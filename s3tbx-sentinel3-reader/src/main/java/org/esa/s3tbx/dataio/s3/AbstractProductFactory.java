@@ -20,6 +20,7 @@ import com.bc.ceres.glevel.support.DefaultMultiLevelSource;
 import org.esa.s3tbx.dataio.s3.util.ColorProvider;
 import org.esa.snap.core.dataio.ProductIO;
 import org.esa.snap.core.dataio.ProductReader;
+import org.esa.snap.core.dataio.ProductSubsetDef;
 import org.esa.snap.core.dataio.geocoding.forward.PixelForward;
 import org.esa.snap.core.dataio.geocoding.forward.PixelInterpolatingForward;
 import org.esa.snap.core.dataio.geocoding.inverse.PixelQuadTreeInverse;
@@ -56,12 +57,17 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
@@ -71,6 +77,15 @@ import static org.esa.snap.core.dataio.geocoding.InverseCoding.KEY_SUFFIX_INTERP
 
 public abstract class AbstractProductFactory implements ProductFactory {
 
+    /**
+     * The number of threads the constituent files of a product are opened with.
+     */
+    public final static String S3TBX_READER_OPENING_THREADS = "s3tbx.reader.openingThreads";
+    /**
+     * If set, files whose bands are not requested by the subset a product is read with are not opened at all.
+     */
+    public final static String S3TBX_READER_LAZY_OPENING = "s3tbx.reader.lazyOpening";
+
     private final static Color[] uncertainty_colors = new Color[]{
             new Color(127, 0, 255),
             new Color(0, 0, 255),
@@ -104,10 +119,10 @@ public abstract class AbstractProductFactory implements ProductFactory {
         manifest = createManifest(getInputFile());
 
         final List<String> fileNames = getFileNames(manifest);
-        readProducts(fileNames);
+        final String productType = manifest.getProductType();
+        readProducts(fileNames, productType);
 
         final String productName = getProductName();
-        final String productType = manifest.getProductType();
         final Product masterProduct = findMasterProduct();
         final int w = getSceneRasterWidth(masterProduct);
         final int h = masterProduct.getSceneRasterHeight();
@@ -386,7 +401,16 @@ public abstract class AbstractProductFactory implements ProductFactory {
 
     }
 
-    protected Product readProduct(String fileName, Manifest manifest) throws IOException {
+    /**
+     * Reads one of the files of the product. The files of a product are read concurrently, see
+     * {@link #S3TBX_READER_OPENING_THREADS}. The manifest must therefore not be used in here, because its
+     * lookups are not thread-safe.
+     *
+     * @param fileName    the name of a file listed in the manifest
+     * @param productType the product type given in the manifest
+     * @return the product, or {@code null} if the file does not exist
+     */
+    protected Product readProduct(String fileName, String productType) throws IOException {
         final File file = new File(getInputFileParentDirectory(), fileName);
         if (!file.exists()) {
             return null;
@@ -423,7 +447,8 @@ public abstract class AbstractProductFactory implements ProductFactory {
         return manifest.getProductName();
     }
 
-    protected void addSeparatingDimensions(String[] suffixesForSeparatingDimensions) {
+    // called by readProduct, which runs concurrently for the files of a product
+    protected synchronized void addSeparatingDimensions(String[] suffixesForSeparatingDimensions) {
         for (String suffixForSeparatingDimension : suffixesForSeparatingDimensions) {
             if (!separatingDimensions.contains(suffixForSeparatingDimension)) {
                 separatingDimensions.add(suffixForSeparatingDimension);
@@ -433,6 +458,19 @@ public abstract class AbstractProductFactory implements ProductFactory {
 
     protected abstract List<String> getFileNames(Manifest manifest);
 
+    /**
+     * Tells whether a file has to be opened when the product is read with a subset. Only asked in lazy mode, see
+     * {@link #S3TBX_READER_LAZY_OPENING}, when the subset names the requested nodes. The default implementation
+     * returns {@code true}, factories override it for files which only provide bands that are not requested.
+     *
+     * @param fileName  the name of a file listed in the manifest
+     * @param subsetDef the subset the product is read with
+     * @return {@code true} if the file has to be opened
+     */
+    protected boolean isFileRequested(String fileName, ProductSubsetDef subsetDef) {
+        return true;
+    }
+
     protected void setTimeCoding(Product targetProduct, String timeDataFileName, String timeVariableName) throws IOException {
         final File file = new File(getInputFileParentDirectory(), timeDataFileName);
         if (!file.exists()) {
@@ -501,28 +539,92 @@ public abstract class AbstractProductFactory implements ProductFactory {
         }
     }
 
-    private void readProducts(List<String> fileNames) throws IOException {
+    private void readProducts(List<String> fileNames, String productType) throws IOException {
+        final ProductSubsetDef subsetDef = productReader.getSubsetDef();
+        final boolean lazy = isLazyOpening() && subsetDef != null && subsetDef.getNodeNames() != null;
+        final List<String> fileNamesToRead = new ArrayList<>();
         for (final String fileName : fileNames) {
             if ("".equals(fileName)) {  // skip directory
                 continue;
             }
-            Product product = null;
-            try {
-                product = readProduct(fileName, manifest);
-            } catch (IOException ioe) {
-                logger.log(Level.WARNING, ioe.getMessage());
+            // the first file is always read, it is the master product by default
+            if (lazy && !fileNamesToRead.isEmpty() && !isFileRequested(fileName, subsetDef)) {
+                logger.log(Level.FINE, MessageFormat.format("Skipping ''{0}'', none of its bands is requested.", fileName));
+                continue;
             }
-            if (product != null) {
-                openProductList.add(product);
-            } else {
-                logger.log(Level.WARNING, MessageFormat.format("Could not find ''{0}''.", fileName));
+            fileNamesToRead.add(fileName);
+        }
+
+        final int numThreads = Math.min(getNumOpeningThreads(), fileNamesToRead.size());
+        if (numThreads <= 1) {
+            for (final String fileName : fileNamesToRead) {
+                Product product = null;
+                try {
+                    product = readProduct(fileName, productType);
+                } catch (IOException ioe) {
+                    logger.log(Level.WARNING, ioe.getMessage());
+                }
+                addOpenProduct(fileName, product);
             }
+        } else {
+            readProductsConcurrently(fileNamesToRead, productType, numThreads);
         }
         if (openProductList.isEmpty()) {
             throw new IOException("Could not find or read any valid products.");
         }
     }
 
+    // the products are added in the order of the file names, no matter which one has been opened first
+    private void readProductsConcurrently(List<String> fileNames, String productType, int numThreads) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<Product>> futures = new ArrayList<>();
+            for (final String fileName : fileNames) {
+                futures.add(executor.submit(() -> readProduct(fileName, productType)));
+            }
+            RuntimeException failure = null;
+            for (int i = 0; i < fileNames.size(); i++) {
+                Product product = null;
+                try {
+                    product = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        logger.log(Level.WARNING, cause.getMessage());
+                    } else if (failure == null) {
+                        failure = cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while opening " + fileNames.get(i));
+                }
+                addOpenProduct(fileNames.get(i), product);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void addOpenProduct(String fileName, Product product) {
+        if (product != null) {
+            openProductList.add(product);
+        } else {
+            logger.log(Level.WARNING, MessageFormat.format("Could not find ''{0}''.", fileName));
+        }
+    }
+
+    private static int getNumOpeningThreads() {
+        final int defaultValue = Math.min(8, Runtime.getRuntime().availableProcessors());
+        return Config.instance("s3tbx").load().preferences().getInt(S3TBX_READER_OPENING_THREADS, defaultValue);
+    }
+
+    private static boolean isLazyOpening() {
+        return Config.instance("s3tbx").load().preferences().getBoolean(S3TBX_READER_LAZY_OPENING, false);
+    }
+
     private Manifest createManifest(File file) throws IOException {
         final Document xmlDocument;
         try (InputStream inputStream = new FileInputStream(file)) {
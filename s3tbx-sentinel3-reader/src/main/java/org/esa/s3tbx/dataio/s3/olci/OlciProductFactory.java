@@ -4,8 +4,10 @@ import org.esa.s3tbx.dataio.s3.AbstractProductFactory;
 import org.esa.s3tbx.dataio.s3.Manifest;
 import org.esa.s3tbx.dataio.s3.Sentinel3ProductReader;
 import org.esa.s3tbx.dataio.s3.SentinelTimeCoding;
+import org.esa.s3tbx.dataio.s3.util.GeoDataCache;
 import org.esa.s3tbx.dataio.s3.util.S3NetcdfReader;
 import org.esa.s3tbx.dataio.s3.util.S3NetcdfReaderFactory;
+import org.esa.snap.core.dataio.ProductSubsetDef;
 import org.esa.snap.core.dataio.geocoding.ComponentFactory;
 import org.esa.snap.core.dataio.geocoding.ComponentGeoCoding;
 import org.esa.snap.core.dataio.geocoding.ForwardCoding;
@@ -14,7 +16,6 @@ import org.esa.snap.core.dataio.geocoding.GeoRaster;
 import org.esa.snap.core.dataio.geocoding.InverseCoding;
 import org.esa.snap.core.dataio.geocoding.forward.TiePointBilinearForward;
 import org.esa.snap.core.dataio.geocoding.inverse.TiePointInverse;
-import org.esa.snap.core.dataio.geocoding.util.RasterUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.MetadataElement;
 import org.esa.snap.core.datamodel.Product;
@@ -41,6 +42,8 @@ public abstract class OlciProductFactory extends AbstractProductFactory {
     final static String SYSPROP_OLCI_TIE_POINT_CODING_FORWARD = "s3tbx.reader.olci.tiePointGeoCoding.forward";
     private final static String SYSPROP_OLCI_PIXEL_CODING_INVERSE = "s3tbx.reader.olci.pixelGeoCoding.inverse";
     private final static String[] excludedIDs = new String[]{"removedPixelsData"};
+    // files which only provide the bands of one spectral channel, e.g. Oa01_radiance.nc
+    private final static Pattern CHANNEL_FILE_PATTERN = Pattern.compile("(Oa[0-2][0-9]_[a-z]+)\\.nc");
     private final Map<String, Float> nameToWavelengthMap;
     private final Map<String, Float> nameToBandwidthMap;
     private final Map<String, Integer> nameToIndexMap;
@@ -103,6 +106,21 @@ public abstract class OlciProductFactory extends AbstractProductFactory {
         return manifest.getFileNames(excludedIDs);
     }
 
+    @Override
+    protected boolean isFileRequested(String fileName, ProductSubsetDef subsetDef) {
+        final Matcher matcher = CHANNEL_FILE_PATTERN.matcher(fileName);
+        if (!matcher.matches()) {
+            return true;
+        }
+        final String bandNamePrefix = matcher.group(1);
+        for (final String nodeName : subsetDef.getNodeNames()) {
+            if (nodeName.startsWith(bandNamePrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected void processProductSpecificMetadata(MetadataElement metadataElement) {
         final MetadataElement olciInformationElement = metadataElement.getElement("olciProductInformation");
@@ -164,8 +182,9 @@ public abstract class OlciProductFactory extends AbstractProductFactory {
             return;
         }
 
-        final double[] longitudes = RasterUtils.loadGeoData(lonBand);
-        final double[] latitudes = RasterUtils.loadGeoData(latBand);
+        final double[][] geoData = GeoDataCache.forProduct(targetProduct).loadGeoData(lonBand, latBand);
+        final double[] longitudes = geoData[0];
+        final double[] latitudes = geoData[1];
 
         final double resolutionInKilometers = getResolutionInKm(targetProduct.getProductType());
         final GeoRaster geoRaster = new GeoRaster(longitudes, latitudes, lonVariableName, latVariableName,
@@ -275,7 +294,7 @@ public abstract class OlciProductFactory extends AbstractProductFactory {
     protected abstract String getValidExpression();
 
     @Override
-    protected Product readProduct(String fileName, Manifest manifest) throws IOException {
+    protected Product readProduct(String fileName, String productType) throws IOException {
         final File file = new File(getInputFileParentDirectory(), fileName);
         if (!file.exists()) {
             return null;
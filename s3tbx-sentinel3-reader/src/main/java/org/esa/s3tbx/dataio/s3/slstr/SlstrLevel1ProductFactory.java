@@ -19,13 +19,13 @@ import com.bc.ceres.glevel.support.DefaultMultiLevelModel;
 import com.bc.ceres.glevel.support.DefaultMultiLevelSource;
 import org.esa.s3tbx.dataio.s3.Manifest;
 import org.esa.s3tbx.dataio.s3.Sentinel3ProductReader;
+import org.esa.s3tbx.dataio.s3.util.GeoDataCache;
 import org.esa.snap.core.dataio.geocoding.ComponentFactory;
 import org.esa.snap.core.dataio.geocoding.ComponentGeoCoding;
 import org.esa.snap.core.dataio.geocoding.ForwardCoding;
 import org.esa.snap.core.dataio.geocoding.GeoChecks;
 import org.esa.snap.core.dataio.geocoding.GeoRaster;
 import org.esa.snap.core.dataio.geocoding.InverseCoding;
-import org.esa.snap.core.dataio.geocoding.util.RasterUtils;
 import org.esa.snap.core.datamodel.Band;
 import org.esa.snap.core.datamodel.GeoCoding;
 import org.esa.snap.core.datamodel.Mask;
@@ -85,6 +85,8 @@ public class SlstrLevel1ProductFactory extends SlstrProductFactory {
     private final Map<String, Integer> nameToIndexMap;
     private final Map<String, GeoCoding> geoCodingMap;
     private final List<NetcdfFile> netcdfFileList;
+    // shared by the geo-codings of all grids of the product
+    private GeoDataCache geoDataCache;
 
 
     public SlstrLevel1ProductFactory(Sentinel3ProductReader productReader) {
@@ -636,8 +638,12 @@ public class SlstrLevel1ProductFactory extends SlstrProductFactory {
                 return null;
             }
 
-            final double[] longitudes = RasterUtils.loadGeoData(lonBand);
-            final double[] latitudes = RasterUtils.loadGeoData(latBand);
+            if (geoDataCache == null) {
+                geoDataCache = GeoDataCache.forProduct(product);
+            }
+            final double[][] geoData = geoDataCache.loadGeoData(lonBand, latBand);
+            final double[] longitudes = geoData[0];
+            final double[] latitudes = geoData[1];
 
             final double resolutionInKm = getResolutionInKm(nameEnd);
 
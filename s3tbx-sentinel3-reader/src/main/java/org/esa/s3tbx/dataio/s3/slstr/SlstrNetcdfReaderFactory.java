@@ -1,6 +1,5 @@
 package org.esa.s3tbx.dataio.s3.slstr;
 
-import org.esa.s3tbx.dataio.s3.Manifest;
 import org.esa.s3tbx.dataio.s3.util.MetTxReader;
 import org.esa.s3tbx.dataio.s3.util.S3NetcdfReader;
 
@@ -12,8 +11,7 @@ import java.io.IOException;
  */
 public class SlstrNetcdfReaderFactory {
 
-    static S3NetcdfReader createSlstrNetcdfReader(File file, Manifest manifest) throws IOException {
-        String productType = manifest.getProductType();
+    static S3NetcdfReader createSlstrNetcdfReader(File file, String productType) throws IOException {
         final String fileName = file.getName();
         if(fileName.equals("FRP_in.nc")) {
             return new SlstrFRPReader();
@@ -16,7 +16,6 @@ package org.esa.s3tbx.dataio.s3.slstr;/*
 
 import com.bc.ceres.glevel.MultiLevelImage;
 import org.esa.s3tbx.dataio.s3.AbstractProductFactory;
-import org.esa.s3tbx.dataio.s3.Manifest;
 import org.esa.s3tbx.dataio.s3.Sentinel3ProductReader;
 import org.esa.s3tbx.dataio.s3.util.S3NetcdfReader;
 import org.esa.snap.core.dataio.geocoding.ComponentFactory;
@@ -249,12 +248,12 @@ public abstract class SlstrProductFactory extends AbstractProductFactory {
     }
 
     @Override
-    protected Product readProduct(String fileName, Manifest manifest) throws IOException {
+    protected Product readProduct(String fileName, String productType) throws IOException {
         final File file = new File(getInputFileParentDirectory(), fileName);
         if (!file.exists()) {
             return null;
         }
-        final S3NetcdfReader slstrNetcdfReader = SlstrNetcdfReaderFactory.createSlstrNetcdfReader(file, manifest);
+        final S3NetcdfReader slstrNetcdfReader = SlstrNetcdfReaderFactory.createSlstrNetcdfReader(file, productType);
         addSeparatingDimensions(slstrNetcdfReader.getSuffixesForSeparatingDimensions());
         return slstrNetcdfReader.readProductNodes(file, null);
     }
@@ -0,0 +1,169 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.esa.s3tbx.util.io.CacheFileFormat;
+import org.esa.snap.core.dataio.geocoding.util.RasterUtils;
+import org.esa.snap.core.datamodel.Band;
+import org.esa.snap.core.datamodel.Product;
+import org.esa.snap.core.util.SystemUtils;
+import org.esa.snap.runtime.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+/**
+ * A persistent cache of the longitude and latitude rasters the pixel geo-codings of Sentinel-3 products are
+ * made of. Decoding and scaling the full resolution geo-location variables is a large part of the time needed
+ * to open a product, when the same scenes are processed again and again the rasters are read from a sidecar
+ * file instead. The rasters are still copied into arrays, because the geo-codings need them, and the inverse
+ * index of a geo-coding is still built when the product is opened.
+ * <p>
+ * The sidecar files are keyed by a checksum of the manifest of the product, which lists the checksums of all
+ * data files, and by the names of the longitude and latitude bands, so that every grid of a product gets its
+ * own file. An instance belongs to a single product, so that the manifest is only hashed once for all of its
+ * grids. The cache is disabled by default.
+ */
+public class GeoDataCache {
+
+    /**
+     * Enables the cache.
+     */
+    public final static String GEO_DATA_CACHE_ENABLED = "s3tbx.reader.geoDataCache";
+    /**
+     * The directory of the sidecar files, by default {@code s3tbx/geo-data} in the SNAP cache directory.
+     */
+    public final static String GEO_DATA_CACHE_DIR = "s3tbx.reader.geoDataCache.dir";
+
+    private static final Logger LOGGER = Logger.getLogger(GeoDataCache.class.getName());
+    private static final CacheFileFormat FORMAT = new CacheFileFormat("S3GEOD", 1);
+
+    // null if the cache is disabled
+    private final Path cacheDir;
+    private final File productFile;
+    private String checksum;
+
+    GeoDataCache(Path cacheDir, File productFile) {
+        this.cacheDir = cacheDir;
+        this.productFile = productFile;
+    }
+
+    /**
+     * Creates the cache of the given product. It is disabled if it is not enabled in the preferences or if the
+     * product has not been read from a file.
+     */
+    public static GeoDataCache forProduct(Product product) {
+        final Preferences preferences = Config.instance("s3tbx").load().preferences();
+        final File productFile = product.getFileLocation();
+        if (!preferences.getBoolean(GEO_DATA_CACHE_ENABLED, false) || productFile == null || !productFile.isFile()) {
+            return new GeoDataCache(null, null);
+        }
+        final String defaultDir = new File(SystemUtils.getCacheDir(), "s3tbx/geo-data").getPath();
+        return new GeoDataCache(new File(preferences.get(GEO_DATA_CACHE_DIR, defaultDir)).toPath(), productFile);
+    }
+
+    /**
+     * Loads the longitudes and latitudes of the given bands, from the cache if it is enabled.
+     *
+     * @return the longitudes at index 0, the latitudes at index 1
+     */
+    public double[][] loadGeoData(Band lonBand, Band latBand) throws IOException {
+        if (cacheDir == null) {
+            return new double[][]{RasterUtils.loadGeoData(lonBand), RasterUtils.loadGeoData(latBand)};
+        }
+        final int width = lonBand.getRasterWidth();
+        final int height = lonBand.getRasterHeight();
+        final Path cacheFile = cacheDir.resolve(getChecksum() + "_" + lonBand.getName() + "_" +
+                                                latBand.getName() + ".geo");
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                final double[][] geoData = read(cacheFile, width, height);
+                if (geoData != null) {
+                    return geoData;
+                }
+                LOGGER.warning("Ignoring invalid geo data cache file " + cacheFile);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to read geo data cache file " + cacheFile, e);
+            }
+        }
+        final double[][] geoData = {RasterUtils.loadGeoData(lonBand), RasterUtils.loadGeoData(latBand)};
+        try {
+            write(cacheFile, width, height, geoData);
+        } catch (IOException e) {
+            // the product can be opened anyway, it is only slower next time
+            LOGGER.log(Level.WARNING, "Failed to write geo data cache file " + cacheFile, e);
+        }
+        return geoData;
+    }
+
+    String getChecksum() throws IOException {
+        if (checksum == null) {
+            checksum = createChecksum(productFile);
+        }
+        return checksum;
+    }
+
+    static double[][] read(Path cacheFile, int width, int height) throws IOException {
+        final int size = width * height;
+        final ByteBuffer buffer = FORMAT.map(cacheFile);
+        if (buffer == null || buffer.remaining() != 2 * Integer.BYTES + 2L * size * Double.BYTES ||
+            buffer.getInt() != width || buffer.getInt() != height) {
+            return null;
+        }
+        final DoubleBuffer values = buffer.asDoubleBuffer();
+        final double[] longitudes = new double[size];
+        final double[] latitudes = new double[size];
+        values.get(longitudes);
+        values.get(latitudes);
+        return new double[][]{longitudes, latitudes};
+    }
+
+    static void write(Path cacheFile, int width, int height, double[][] geoData) throws IOException {
+        FORMAT.write(cacheFile, channel -> {
+            final ByteBuffer values = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            values.putInt(width).putInt(height);
+            for (double[] data : geoData) {
+                for (double value : data) {
+                    if (values.remaining() < Double.BYTES) {
+                        values.flip();
+                        CacheFileFormat.writeFully(channel, values);
+                        values.clear();
+                    }
+                    values.putDouble(value);
+                }
+            }
+            values.flip();
+            CacheFileFormat.writeFully(channel, values);
+        });
+    }
+
+    static String createChecksum(File productFile) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(productFile.toPath()), digest)) {
+            final byte[] buffer = new byte[8192];
+            while (inputStream.read(buffer) != -1) {
+                // the digest is updated while reading
+            }
+        }
+        final StringBuilder checksum = new StringBuilder();
+        for (byte b : digest.digest()) {
+            checksum.append(String.format("%02x", b));
+        }
+        return checksum.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import ucar.ma2.Array;
+import ucar.ma2.Section;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Splits the sections of a 64-bit variable into the least and the most significant 32 bits, which are provided
+ * by the {@code _lsb} and the {@code _msb} band of the variable. A section is read and split once for both
+ * bands: the half which has not been requested yet is kept until the image of the other band asks for it.
+ * <p>
+ * Only a few sections are kept, so the half of a band which is never requested is dropped soon.
+ */
+public class LongVariableSplitter {
+
+    private static final int MAX_PENDING_SECTIONS = 32;
+
+    private final LinkedHashMap<Section, Entry> pendingSections;
+
+    public LongVariableSplitter() {
+        pendingSections = new LinkedHashMap<>();
+    }
+
+    /**
+     * Returns the least or the most significant 32 bits of the elements of the given section.
+     *
+     * @param section the section
+     * @param msb     {@code true} for the most significant, {@code false} for the least significant bits
+     * @param reader  reads the 64-bit values of the section, called only if the section has not been read for the
+     *                other half yet
+     * @return the requested half of all elements of the section
+     */
+    public int[] read(Section section, boolean msb, Callable<Array> reader) throws IOException {
+        final Entry entry;
+        final FutureTask<int[][]> task;
+        boolean reading = false;
+        synchronized (pendingSections) {
+            final Entry pendingEntry = pendingSections.get(section);
+            if (pendingEntry != null && !pendingEntry.isTaken(msb)) {
+                entry = pendingEntry;
+            } else {
+                entry = new Entry(new FutureTask<>(() -> split(reader.call())));
+                pendingSections.put(section, entry);
+                reading = true;
+                evict();
+            }
+            entry.take(msb);
+            if (entry.isTaken(!msb)) {
+                pendingSections.remove(section, entry);
+            }
+            task = entry.task;
+        }
+        if (reading) {
+            task.run();
+        }
+        try {
+            return task.get()[msb ? 1 : 0];
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading section " + section, e);
+        } catch (ExecutionException e) {
+            synchronized (pendingSections) {
+                pendingSections.remove(section, entry);
+            }
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to read section " + section, cause);
+        }
+    }
+
+    /**
+     * Splits 64-bit values into their least significant (index 0) and most significant (index 1) 32 bits.
+     */
+    static int[][] split(Array array) {
+        final int size = (int) array.getSize();
+        final int[] lsb = new int[size];
+        final int[] msb = new int[size];
+        final Object storage = array.get1DJavaArray(array.getDataType());
+        if (storage instanceof long[]) {
+            final long[] values = (long[]) storage;
+            for (int i = 0; i < size; i++) {
+                final long value = values[i];
+                lsb[i] = (int) value;
+                msb[i] = (int) (value >>> 32);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                final long value = array.getLong(i);
+                lsb[i] = (int) value;
+                msb[i] = (int) (value >>> 32);
+            }
+        }
+        return new int[][]{lsb, msb};
+    }
+
+    /**
+     * Returns the least or the most significant 32 bits of 64-bit values.
+     */
+    static int[] getHalf(Array array, boolean msb) {
+        final int size = (int) array.getSize();
+        final int[] half = new int[size];
+        final int shift = msb ? 32 : 0;
+        final Object storage = array.get1DJavaArray(array.getDataType());
+        if (storage instanceof long[]) {
+            final long[] values = (long[]) storage;
+            for (int i = 0; i < size; i++) {
+                half[i] = (int) (values[i] >>> shift);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                half[i] = (int) (array.getLong(i) >>> shift);
+            }
+        }
+        return half;
+    }
+
+    private void evict() {
+        final Iterator<Entry> iterator = pendingSections.values().iterator();
+        while (pendingSections.size() > MAX_PENDING_SECTIONS && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static class Entry {
+
+        final FutureTask<int[][]> task;
+        boolean lsbTaken;
+        boolean msbTaken;
+
+        Entry(FutureTask<int[][]> task) {
+            this.task = task;
+        }
+
+        boolean isTaken(boolean msb) {
+            return msb ? msbTaken : lsbTaken;
+        }
+
+        void take(boolean msb) {
+            if (msb) {
+                msbTaken = true;
+            } else {
+                lsbTaken = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.esa.snap.runtime.Config;
+import ucar.ma2.Array;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A cache of decoded chunks of NetCDF4 variables, which is shared by all bands and all resolution levels. The
+ * size of the cache is limited by the number of bytes of the cached arrays, the least recently used chunks are
+ * dropped first.
+ * <p>
+ * A chunk which is requested by several threads at the same time is decoded only once, the other threads wait
+ * for the result.
+ */
+public class NetcdfChunkCache {
+
+    /**
+     * The size of the chunk cache in MB. A value of 0 disables the cache.
+     */
+    public final static String NETCDF_CHUNK_CACHE_SIZE = "s3tbx.reader.netcdf.chunkCacheSize";
+
+    private static final int DEFAULT_SIZE_MB = 256;
+
+    private static NetcdfChunkCache defaultInstance;
+    private static boolean defaultInstanceConfigured;
+
+    private final long capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long size;
+
+    /**
+     * @param capacity the maximum number of bytes of all cached chunks
+     */
+    public NetcdfChunkCache(long capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    /**
+     * @return the cache configured by {@link #NETCDF_CHUNK_CACHE_SIZE}, or {@code null} if caching is disabled
+     */
+    public static synchronized NetcdfChunkCache getDefault() {
+        if (!defaultInstanceConfigured) {
+            final long sizeMB = Config.instance("s3tbx").load().preferences().getLong(NETCDF_CHUNK_CACHE_SIZE, DEFAULT_SIZE_MB);
+            if (sizeMB > 0) {
+                defaultInstance = new NetcdfChunkCache(sizeMB * 1024 * 1024);
+            }
+            defaultInstanceConfigured = true;
+        }
+        return defaultInstance;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of bytes of all cached chunks
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the chunk of the given key. A chunk which is not cached is decoded by the given loader and put into the
+     * cache. The returned array must not be modified.
+     */
+    public Array get(Key key, Callable<Array> loader) throws IOException {
+        final FutureTask<Array> task;
+        boolean loading = false;
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                task = entry.task;
+            } else {
+                task = new FutureTask<>(loader);
+                entries.put(key, new Entry(task));
+                loading = true;
+            }
+        }
+        if (loading) {
+            task.run();
+        }
+        final Array chunk;
+        try {
+            chunk = task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for chunk " + key, e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                final Entry entry = entries.get(key);
+                if (entry != null && entry.task == task) {
+                    entries.remove(key);
+                }
+            }
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to read chunk " + key, cause);
+        }
+        if (loading) {
+            synchronized (this) {
+                final Entry entry = entries.get(key);
+                if (entry != null && entry.task == task) {
+                    entry.sizeBytes = chunk.getSizeBytes();
+                    size += entry.sizeBytes;
+                    evict();
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Drops all chunks of the file at the given location, e.g. because the file has been closed.
+     */
+    public synchronized void clear(String location) {
+        final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getKey().location.equals(location)) {
+                size -= entry.getValue().sizeBytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evict() {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (size > capacity && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            // chunks which are still being decoded are not accounted yet
+            if (entry.task.isDone()) {
+                size -= entry.sizeBytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+
+        final FutureTask<Array> task;
+        long sizeBytes;
+
+        Entry(FutureTask<Array> task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * Identifies a chunk by the location of its file, the full name of its variable and its origin.
+     */
+    public static final class Key {
+
+        private final String location;
+        private final String variableName;
+        private final int[] origin;
+        private final int hashCode;
+
+        public Key(String location, String variableName, int[] origin) {
+            this.location = location;
+            this.variableName = variableName;
+            this.origin = origin.clone();
+            this.hashCode = 31 * (31 * location.hashCode() + variableName.hashCode()) + Arrays.hashCode(origin);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return hashCode == other.hashCode && location.equals(other.location) &&
+                   variableName.equals(other.variableName) && Arrays.equals(origin, other.origin);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return location + ":" + variableName + Arrays.toString(origin);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.ma2.Section;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A small pool of independently opened, read-only handles of one NetCDF file. A {@link NetcdfFile} must not be
+ * read by several threads at the same time, so tiles read through a single handle are decoded one after the other.
+ * Reading through the pool lets up to {@code maxHandles} threads decompress chunks of the same file in parallel.
+ * <p>
+ * Handles are opened lazily, only when all opened handles are in use, and stay open until the pool is closed.
+ */
+public class NetcdfFilePool implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(NetcdfFilePool.class.getName());
+
+    private final String location;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<NetcdfFile> idleHandles;
+    private final List<NetcdfFile> openedHandles;
+    private volatile boolean closed;
+
+    /**
+     * @param location   the location of the NetCDF file
+     * @param maxHandles the maximum number of handles opened in parallel
+     */
+    public NetcdfFilePool(String location, int maxHandles) {
+        if (maxHandles < 1) {
+            throw new IllegalArgumentException("maxHandles must be at least 1");
+        }
+        this.location = location;
+        this.permits = new Semaphore(maxHandles);
+        this.idleHandles = new ConcurrentLinkedDeque<>();
+        this.openedHandles = new ArrayList<>();
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Reads a section of a variable through one of the handles of the pool. The variable is looked up by its
+     * full name, so it can be the variable of any other handle of the same file.
+     *
+     * @param variable the variable
+     * @param section  the section to read
+     * @return the data of the section
+     */
+    public Array read(Variable variable, Section section) throws IOException, InvalidRangeException {
+        permits.acquireUninterruptibly();
+        NetcdfFile handle = null;
+        try {
+            handle = borrowHandle();
+            final Variable handleVariable = handle.findVariable(variable.getFullNameEscaped());
+            if (handleVariable == null) {
+                throw new IOException(String.format("Variable '%s' not found in '%s'", variable.getFullName(), location));
+            }
+            return handleVariable.read(section);
+        } finally {
+            if (handle != null) {
+                // the most recently used handle is reused first, its caches are warm
+                idleHandles.push(handle);
+            }
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (openedHandles) {
+            for (NetcdfFile handle : openedHandles) {
+                try {
+                    handle.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to close " + location, e);
+                }
+            }
+            openedHandles.clear();
+            idleHandles.clear();
+        }
+    }
+
+    int getOpenedHandleCount() {
+        synchronized (openedHandles) {
+            return openedHandles.size();
+        }
+    }
+
+    private NetcdfFile borrowHandle() throws IOException {
+        if (closed) {
+            throw new IOException(String.format("Pool of '%s' has been closed", location));
+        }
+        final NetcdfFile idleHandle = idleHandles.poll();
+        if (idleHandle != null) {
+            return idleHandle;
+        }
+        // a permit is held, so there are less than maxHandles handles in use
+        final NetcdfFile handle = NetcdfFileOpener.open(location);
+        if (handle == null) {
+            throw new IOException(String.format("Not able to open '%s' for reading", location));
+        }
+        synchronized (openedHandles) {
+            if (closed) {
+                handle.close();
+                throw new IOException(String.format("Pool of '%s' has been closed", location));
+            }
+            openedHandles.add(handle);
+        }
+        return handle;
+    }
+}
@@ -18,6 +18,9 @@ import java.awt.image.RenderedImage;
  */
 public class S3MultiLevelOpImage extends AbstractNetcdfMultiLevelImage {
 
+    // tiles are made of several chunks if the chunks are smaller than this
+    private static final int MIN_TILE_SIZE = 256;
+
     private final Variable variable;
     private final int[] dimensionIndexes;
     private final String[] dimensionNames;
@@ -26,20 +29,46 @@ public class S3MultiLevelOpImage extends AbstractNetcdfMultiLevelImage {
     private String nameOfDisplayedDimension;
     private int xIndex;
     private int yIndex;
+    private NetcdfFilePool readHandles;
+    private LongVariableSplitter splitter;
 
     public S3MultiLevelOpImage(RasterDataNode rasterDataNode, Variable variable,
                                String[] dimensionNames, int[] dimensionIndexes,
                                int xIndex, int yIndex) {
+        this(rasterDataNode, variable, dimensionNames, dimensionIndexes, xIndex, yIndex, null);
+    }
+
+    /**
+     * @param readHandles the handles used to read the tiles of the variable concurrently, may be {@code null}
+     */
+    public S3MultiLevelOpImage(RasterDataNode rasterDataNode, Variable variable,
+                               String[] dimensionNames, int[] dimensionIndexes,
+                               int xIndex, int yIndex, NetcdfFilePool readHandles) {
+        this(rasterDataNode, variable, dimensionNames, dimensionIndexes, xIndex, yIndex, readHandles, null);
+    }
+
+    /**
+     * @param readHandles the handles used to read the tiles of the variable concurrently, may be {@code null}
+     * @param splitter    the splitter shared by the {@code _lsb} and {@code _msb} bands of a 64-bit variable,
+     *                    may be {@code null}
+     */
+    public S3MultiLevelOpImage(RasterDataNode rasterDataNode, Variable variable,
+                               String[] dimensionNames, int[] dimensionIndexes,
+                               int xIndex, int yIndex, NetcdfFilePool readHandles, LongVariableSplitter splitter) {
         super(rasterDataNode);
         this.variable = variable;
         this.dimensionNames = dimensionNames;
         this.dimensionIndexes = dimensionIndexes;
         this.xIndex = xIndex;
         this.yIndex = yIndex;
+        this.readHandles = readHandles;
+        this.splitter = splitter;
         Attribute attribChunkSizes = variable.findAttribute(CDM.CHUNK_SIZES);
         if (attribChunkSizes != null) {
-            int tileHeight = attribChunkSizes.getNumericValue(yIndex).intValue();
-            int tileWidth = attribChunkSizes.getNumericValue(xIndex).intValue();
+            int tileHeight = getChunkAlignedTileSize(attribChunkSizes.getNumericValue(yIndex).intValue(),
+                                                     rasterDataNode.getRasterHeight());
+            int tileWidth = getChunkAlignedTileSize(attribChunkSizes.getNumericValue(xIndex).intValue(),
+                                                    rasterDataNode.getRasterWidth());
             int dataBufferType = ImageManager.getDataBufferType(rasterDataNode.getDataType());
             setImageLayout(ImageManager.createSingleBandedImageLayout(dataBufferType, rasterDataNode.getRasterWidth(),
                                                                       rasterDataNode.getRasterHeight(), tileWidth, tileHeight));
@@ -59,6 +88,21 @@ public class S3MultiLevelOpImage extends AbstractNetcdfMultiLevelImage {
         this.nameOfDisplayedDimension = nameOfDisplayedDimension;
     }
 
+    /**
+     * Returns a tile size which is a multiple of the chunk size, so that no chunk is shared by two tiles, on every
+     * resolution level. Small chunks are combined to tiles of at least {@link #MIN_TILE_SIZE} pixels.
+     */
+    static int getChunkAlignedTileSize(int chunkSize, int imageSize) {
+        if (chunkSize <= 0 || chunkSize >= imageSize) {
+            return imageSize;
+        }
+        int tileSize = chunkSize;
+        while (tileSize < MIN_TILE_SIZE && tileSize + chunkSize <= imageSize) {
+            tileSize += chunkSize;
+        }
+        return tileSize;
+    }
+
     @Override
     protected RenderedImage createImage(int level) {
         RasterDataNode rasterDataNode = getRasterDataNode();
@@ -76,21 +120,22 @@ public class S3MultiLevelOpImage extends AbstractNetcdfMultiLevelImage {
         if(rasterDataNode.getName().endsWith("_msb")) {
             return S3VariableOpImage.createS3VariableOpImage(variable, dataBufferType, sceneRasterWidth,
                                                              sceneRasterHeight, imageTileSize, resolutionLevel,
-                                                             dimensionNames, dimensionIndexes, xIndex, yIndex, true);
+                                                             dimensionNames, dimensionIndexes, xIndex, yIndex, true, readHandles, splitter);
         } else if(rasterDataNode.getName().endsWith("_lsb")) {
             return S3VariableOpImage.createS3VariableOpImage(variable, dataBufferType, sceneRasterWidth,
                                                              sceneRasterHeight, imageTileSize, resolutionLevel,
-                                                             dimensionNames, dimensionIndexes, xIndex, yIndex, false);
+                                                             dimensionNames, dimensionIndexes, xIndex, yIndex, false, readHandles, splitter);
         }
         //todo remove references to specific band names
         if ((variable.getFullName().contains("row_corresp") || (variable.getFullName().contains("col_corresp"))) &&
                 rasterDataNode.getDataType() == ProductData.TYPE_UINT32) {
             return new S3VariableOpImage(variable, DataBuffer.TYPE_FLOAT, sceneRasterWidth, sceneRasterHeight, imageTileSize,
                                          resolutionLevel, dimensionNames, dimensionIndexes, xIndex, yIndex,
-                                         S3VariableOpImage.ArrayConverter.UINTCONVERTER);
+                                         S3VariableOpImage.ArrayConverter.UINTCONVERTER, readHandles);
         } else {
             return new S3VariableOpImage(variable, dataBufferType, sceneRasterWidth, sceneRasterHeight, imageTileSize,
-                                         resolutionLevel, dimensionNames, dimensionIndexes, xIndex, yIndex);
+                                         resolutionLevel, dimensionNames, dimensionIndexes, xIndex, yIndex,
+                                         S3VariableOpImage.ArrayConverter.IDENTITY, readHandles);
         }
     }
 
@@ -16,6 +16,7 @@ import org.esa.snap.core.util.io.FileUtils;
 import org.esa.snap.dataio.netcdf.util.Constants;
 import org.esa.snap.dataio.netcdf.util.DataTypeUtils;
 import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
+import org.esa.snap.runtime.Config;
 import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.nc2.Attribute;
@@ -28,7 +29,9 @@ import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -42,7 +45,17 @@ public class S3NetcdfReader extends AbstractProductReader {
     private static final String flag_masks = "flag_masks";
     private static final String flag_meanings = "flag_meanings";
     private static final String fillValue = "_FillValue";
+
+    /**
+     * The number of handles a file is opened with to read its tiles concurrently. A value less than 2 reads all
+     * tiles of a file one after the other through a single handle, which is the default. Each additional handle
+     * keeps the file open once more, so the number of open files grows with the number of files of a product.
+     */
+    public final static String NETCDF_READ_HANDLES = "s3tbx.reader.netcdf.readHandles";
+
     private NetcdfFile netcdfFile;
+    private NetcdfFilePool readHandles;
+    private final Map<String, LongVariableSplitter> splitters = new HashMap<>();
 
     public S3NetcdfReader() {
         super(null);
@@ -60,6 +73,10 @@ public class S3NetcdfReader extends AbstractProductReader {
         if (netcdfFile == null) {
             throw new IOException(String.format("Not able to read file '%s'. Might be corrupted.", inputFile));
         }
+        final int numReadHandles = getNumReadHandles();
+        if (numReadHandles > 1) {
+            readHandles = new NetcdfFilePool(inputFile.getAbsolutePath(), numReadHandles);
+        }
 
         final String productType = readProductType();
         int productWidth = getWidth();
@@ -85,7 +102,15 @@ public class S3NetcdfReader extends AbstractProductReader {
 
     @Override
     public void close() throws IOException {
+        if (readHandles != null) {
+            readHandles.close();
+            readHandles = null;
+        }
         if (netcdfFile != null) {
+            final NetcdfChunkCache chunkCache = NetcdfChunkCache.getDefault();
+            if (chunkCache != null && netcdfFile.getLocation() != null) {
+                chunkCache.clear(netcdfFile.getLocation());
+            }
             netcdfFile.close();
             netcdfFile = null;
         }
@@ -172,7 +197,14 @@ public class S3NetcdfReader extends AbstractProductReader {
         for (int i = 0; i < dimensionIndexList.size(); i++) {
             dimensionIndexes[i] = dimensionIndexList.get(i);
         }
-        return new S3MultiLevelOpImage(band, variable, dimensionNames, dimensionIndexes, xIndex, yIndex);
+        LongVariableSplitter splitter = null;
+        if (bandName.endsWith("_lsb") || bandName.endsWith("_msb")) {
+            // the _lsb and the _msb band of a variable read each tile once
+            final String splitterKey = bandName.substring(0, bandName.length() - "_lsb".length());
+            splitter = splitters.computeIfAbsent(splitterKey, key -> new LongVariableSplitter());
+        }
+        return new S3MultiLevelOpImage(band, variable, dimensionNames, dimensionIndexes, xIndex, yIndex, readHandles,
+                                       splitter);
     }
 
     protected int getDimensionIndexFromBandName(String bandName) {
@@ -738,4 +770,15 @@ public class S3NetcdfReader extends AbstractProductReader {
         return netcdfFile;
     }
 
+    /**
+     * @return the handles used to read tiles concurrently, or {@code null} if tiles are read through {@link #getNetcdfFile()}
+     */
+    protected NetcdfFilePool getReadHandles() {
+        return readHandles;
+    }
+
+    static int getNumReadHandles() {
+        return Config.instance("s3tbx").load().preferences().getInt(NETCDF_READ_HANDLES, 1);
+    }
+
 }
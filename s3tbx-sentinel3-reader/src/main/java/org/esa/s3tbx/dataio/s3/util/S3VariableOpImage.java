@@ -4,13 +4,20 @@ import org.esa.snap.core.image.ResolutionLevel;
 import org.esa.snap.core.image.SingleBandedOpImage;
 import ucar.ma2.Array;
 import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.ma2.MAMath;
+import ucar.ma2.Range;
 import ucar.ma2.Section;
+import ucar.nc2.Attribute;
 import ucar.nc2.Variable;
+import ucar.nc2.constants.CDM;
 
 import javax.media.jai.PlanarImage;
 import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * @author Tonio Fincke
@@ -18,7 +25,13 @@ import java.awt.image.WritableRaster;
 public class S3VariableOpImage extends SingleBandedOpImage {
 
     private final Variable variable;
+    private final NetcdfFilePool readHandles;
+    private final NetcdfChunkCache chunkCache;
+    private final int chunkWidth;
+    private final int chunkHeight;
     private ArrayConverter converter;
+    private LongVariableSplitter splitter;
+    private boolean msb;
     private int xIndex;
     private int yIndex;
     private int[] additionalDimensionIndexes;
@@ -34,33 +47,65 @@ public class S3VariableOpImage extends SingleBandedOpImage {
              ArrayConverter.IDENTITY);
     }
 
+    /**
+     * Creates the image of the least or the most significant 32 bits of a 64-bit variable. If a splitter is given,
+     * which is shared with the image of the other half, each section is read once for both images.
+     */
     static S3VariableOpImage createS3VariableOpImage(Variable variable, int dataBufferType, int sourceWidth, int sourceHeight,
                                                      Dimension tileSize, ResolutionLevel level,
                                                      String[] additionalDimensionNames, int[] additionalDimensionIndexes,
                                                      int xIndex, int yIndex,
-                                                     boolean msb) {
+                                                     boolean msb, NetcdfFilePool readHandles,
+                                                     LongVariableSplitter splitter) {
+        final S3VariableOpImage image;
         if (msb) {
-            return new S3VariableOpImage(variable, dataBufferType, sourceWidth, sourceHeight, tileSize, level,
-                                         additionalDimensionNames, additionalDimensionIndexes, xIndex, yIndex,
-                                         ArrayConverter.MSB);
+            image = new S3VariableOpImage(variable, dataBufferType, sourceWidth, sourceHeight, tileSize, level,
+                                          additionalDimensionNames, additionalDimensionIndexes, xIndex, yIndex,
+                                          ArrayConverter.MSB, readHandles);
         } else {
-            return new S3VariableOpImage(variable, dataBufferType, sourceWidth, sourceHeight, tileSize, level,
-                                         additionalDimensionNames, additionalDimensionIndexes, xIndex, yIndex,
-                                         ArrayConverter.LSB);
+            image = new S3VariableOpImage(variable, dataBufferType, sourceWidth, sourceHeight, tileSize, level,
+                                          additionalDimensionNames, additionalDimensionIndexes, xIndex, yIndex,
+                                          ArrayConverter.LSB, readHandles);
         }
+        image.splitter = splitter;
+        image.msb = msb;
+        return image;
     }
 
     public S3VariableOpImage(Variable variable, int dataBufferType, int sourceWidth, int sourceHeight,
                              Dimension tileSize, ResolutionLevel level,
                              String[] additionalDimensionNames, int[] additionalDimensionIndexes,
                              int xIndex, int yIndex, ArrayConverter converter) {
+        this(variable, dataBufferType, sourceWidth, sourceHeight, tileSize, level,
+             additionalDimensionNames, additionalDimensionIndexes, xIndex, yIndex, converter, null);
+    }
+
+    /**
+     * @param readHandles the handles of the file of the variable, which are used to read tiles concurrently,
+     *                    or {@code null} if all tiles shall be read one after the other through the file of
+     *                    the variable
+     */
+    public S3VariableOpImage(Variable variable, int dataBufferType, int sourceWidth, int sourceHeight,
+                             Dimension tileSize, ResolutionLevel level,
+                             String[] additionalDimensionNames, int[] additionalDimensionIndexes,
+                             int xIndex, int yIndex, ArrayConverter converter, NetcdfFilePool readHandles) {
         super(dataBufferType, sourceWidth, sourceHeight, tileSize, null, level);
         this.variable = variable;
+        this.readHandles = readHandles;
         this.additionalDimensionNames = additionalDimensionNames;
         this.additionalDimensionIndexes = additionalDimensionIndexes;
         this.xIndex = xIndex;
         this.yIndex = yIndex;
         this.converter = converter;
+        Attribute attribChunkSizes = variable.findAttribute(CDM.CHUNK_SIZES);
+        if (attribChunkSizes != null && attribChunkSizes.getLength() == variable.getRank()) {
+            chunkWidth = attribChunkSizes.getNumericValue(xIndex).intValue();
+            chunkHeight = attribChunkSizes.getNumericValue(yIndex).intValue();
+        } else {
+            chunkWidth = 0;
+            chunkHeight = 0;
+        }
+        chunkCache = isChunkCacheApplicable(NetcdfChunkCache.getDefault()) ? NetcdfChunkCache.getDefault() : null;
     }
 
     @Override
@@ -95,17 +140,126 @@ public class S3VariableOpImage extends SingleBandedOpImage {
 
         Array array;
         try {
-            synchronized (variable.getParentGroup().getNetcdfFile()) {
-                final Section section = new Section(origin, shape, stride);
-                array = variable.read(section);
+            final Section section = new Section(origin, shape, stride);
+            if (splitter != null) {
+                final int[] half = splitter.read(section, msb, () -> read(section));
+                array = Array.factory(DataType.INT, section.getShape(), half);
+            } else {
+                array = converter.convert(read(section));
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        array = converter.convert(array);
         tile.setDataElements(rectangle.x, rectangle.y, rectangle.width, rectangle.height, transformStorage(array));
     }
 
+    private boolean isChunkCacheApplicable(NetcdfChunkCache cache) {
+        if (cache == null || chunkWidth <= 0 || chunkHeight <= 0 ||
+            variable.getParentGroup().getNetcdfFile().getLocation() == null) {
+            return false;
+        }
+        // a chunk must leave room for the chunks of the neighbouring tiles and of the other bands
+        final long chunkSizeBytes = (long) chunkWidth * chunkHeight * variable.getElementSize();
+        return chunkSizeBytes <= cache.getCapacity() / 16;
+    }
+
+    private Array read(Section section) throws IOException, InvalidRangeException {
+        if (chunkCache != null) {
+            return readChunked(section);
+        }
+        return readSection(section);
+    }
+
+    private Array readSection(Section section) throws IOException, InvalidRangeException {
+        if (readHandles != null) {
+            return readHandles.read(variable, section);
+        }
+        synchronized (variable.getParentGroup().getNetcdfFile()) {
+            return variable.read(section);
+        }
+    }
+
+    /**
+     * Reads the section from the decoded chunks which it intersects, so that a chunk which is shared by several
+     * tiles or resolution levels is only decompressed once as long as it stays in the chunk cache.
+     */
+    private Array readChunked(Section section) throws IOException, InvalidRangeException {
+        final int rank = variable.getRank();
+        final int[] variableShape = variable.getShape();
+        final Array array = Array.factory(variable.getDataType(), section.getShape());
+        final String location = variable.getParentGroup().getNetcdfFile().getLocation();
+        final String variableName = variable.getFullName();
+        final Range xRange = section.getRange(xIndex);
+        final Range yRange = section.getRange(yIndex);
+
+        final int[] chunkOrigin = new int[rank];
+        final int[] chunkShape = new int[rank];
+        for (int i = 0; i < rank; i++) {
+            chunkOrigin[i] = section.getRange(i).first();
+            chunkShape[i] = 1;
+        }
+        final int[] sourceOrigin = new int[rank];
+        final int[] sourceShape = new int[rank];
+        final int[] sourceStride = new int[rank];
+        final int[] targetOrigin = new int[rank];
+        final int[] targetShape = new int[rank];
+        final int[] targetStride = new int[rank];
+        Arrays.fill(sourceShape, 1);
+        Arrays.fill(sourceStride, 1);
+        Arrays.fill(targetShape, 1);
+        Arrays.fill(targetStride, 1);
+
+        for (int chunkY = yRange.first() / chunkHeight * chunkHeight; chunkY <= yRange.last(); chunkY += chunkHeight) {
+            final int chunkEndY = Math.min(chunkY + chunkHeight, variableShape[yIndex]);
+            final int firstY = getFirstIndexInChunk(yRange, chunkY);
+            final int endY = getEndIndexInChunk(yRange, chunkEndY);
+            if (firstY >= endY) {
+                continue;
+            }
+            for (int chunkX = xRange.first() / chunkWidth * chunkWidth; chunkX <= xRange.last(); chunkX += chunkWidth) {
+                final int chunkEndX = Math.min(chunkX + chunkWidth, variableShape[xIndex]);
+                final int firstX = getFirstIndexInChunk(xRange, chunkX);
+                final int endX = getEndIndexInChunk(xRange, chunkEndX);
+                if (firstX >= endX) {
+                    continue;
+                }
+                chunkOrigin[xIndex] = chunkX;
+                chunkOrigin[yIndex] = chunkY;
+                chunkShape[xIndex] = chunkEndX - chunkX;
+                chunkShape[yIndex] = chunkEndY - chunkY;
+                final Section chunkSection = new Section(chunkOrigin, chunkShape);
+                final Array chunk = chunkCache.get(new NetcdfChunkCache.Key(location, variableName, chunkOrigin),
+                                                   () -> readSection(chunkSection));
+
+                sourceOrigin[xIndex] = xRange.first() + firstX * xRange.stride() - chunkX;
+                sourceOrigin[yIndex] = yRange.first() + firstY * yRange.stride() - chunkY;
+                sourceShape[xIndex] = (endX - firstX - 1) * xRange.stride() + 1;
+                sourceShape[yIndex] = (endY - firstY - 1) * yRange.stride() + 1;
+                sourceStride[xIndex] = xRange.stride();
+                sourceStride[yIndex] = yRange.stride();
+                targetOrigin[xIndex] = firstX;
+                targetOrigin[yIndex] = firstY;
+                targetShape[xIndex] = endX - firstX;
+                targetShape[yIndex] = endY - firstY;
+                MAMath.copy(array.section(targetOrigin, targetShape, targetStride),
+                            chunk.section(sourceOrigin, sourceShape, sourceStride));
+            }
+        }
+        return array;
+    }
+
+    // the index of the first element of the range which is not before the chunk starting at chunkStart
+    private static int getFirstIndexInChunk(Range range, int chunkStart) {
+        final int offset = chunkStart - range.first();
+        return offset <= 0 ? 0 : (offset + range.stride() - 1) / range.stride();
+    }
+
+    // the index after the last element of the range which is before the chunk end
+    private static int getEndIndexInChunk(Range range, int chunkEnd) {
+        final int offset = chunkEnd - range.first();
+        return Math.min(range.length(), (offset + range.stride() - 1) / range.stride());
+    }
+
     /**
      * Returns the origin of the x dimension of the variable, which
      * provides the image data.
@@ -157,33 +311,34 @@ public class S3VariableOpImage extends SingleBandedOpImage {
         public ArrayConverter LSB = new ArrayConverter() {
             @Override
             public Array convert(Array array) {
-                final Array convertedArray = Array.factory(DataType.INT, array.getShape());
-                for (int i = 0; i < convertedArray.getSize(); i++) {
-                    convertedArray.setInt(i, (int) (array.getLong(i) & 0x00000000FFFFFFFFL));
-                }
-                return convertedArray;
+                return Array.factory(DataType.INT, array.getShape(), LongVariableSplitter.getHalf(array, false));
             }
         };
 
         public ArrayConverter MSB = new ArrayConverter() {
             @Override
             public Array convert(Array array) {
-                final Array convertedArray = Array.factory(DataType.INT, array.getShape());
-                for (int i = 0; i < convertedArray.getSize(); i++) {
-                    convertedArray.setInt(i, (int) (array.getLong(i) >>> 32));
-                }
-                return convertedArray;
+                return Array.factory(DataType.INT, array.getShape(), LongVariableSplitter.getHalf(array, true));
             }
         };
 
         public ArrayConverter UINTCONVERTER = new ArrayConverter() {
             @Override
             public Array convert(Array array) {
-                final Array convertedArray = Array.factory(DataType.FLOAT, array.getShape());
-                for (int i = 0; i < convertedArray.getSize(); i++) {
-                    convertedArray.setFloat(i, array.getFloat(i));
+                final int size = (int) array.getSize();
+                final float[] converted = new float[size];
+                final Object storage = array.get1DJavaArray(array.getDataType());
+                if (storage instanceof int[] && array.getDataType().isUnsigned()) {
+                    final int[] values = (int[]) storage;
+                    for (int i = 0; i < size; i++) {
+                        converted[i] = (float) (values[i] & 0xFFFFFFFFL);
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        converted[i] = array.getFloat(i);
+                    }
                 }
-                return convertedArray;
+                return Array.factory(DataType.FLOAT, array.getShape(), converted);
             }
         };
 
@@ -1,5 +1,6 @@
 package org.esa.s3tbx.dataio.s3.olci;
 
+import org.esa.snap.core.dataio.ProductSubsetDef;
 import org.junit.Test;
 
 import java.util.regex.Matcher;
@@ -96,4 +97,20 @@ public class OlciProductFactoryTest {
             }
         }
     }
+
+    @Test
+    public void testIsFileRequested() {
+        final OlciLevel1ProductFactory factory = new OlciLevel1ProductFactory(null);
+        final ProductSubsetDef subsetDef = new ProductSubsetDef();
+        subsetDef.setNodeNames(new String[]{"Oa08_radiance", "Oa17_radiance_err", "quality_flags"});
+
+        assertTrue(factory.isFileRequested("Oa08_radiance.nc", subsetDef));
+        assertTrue(factory.isFileRequested("Oa17_radiance.nc", subsetDef));
+        assertFalse(factory.isFileRequested("Oa01_radiance.nc", subsetDef));
+        assertFalse(factory.isFileRequested("Oa21_radiance.nc", subsetDef));
+        // files which do not belong to a single channel are always opened
+        assertTrue(factory.isFileRequested("geo_coordinates.nc", subsetDef));
+        assertTrue(factory.isFileRequested("tie_geometries.nc", subsetDef));
+        assertTrue(factory.isFileRequested("instrument_data.nc", subsetDef));
+    }
 }
@@ -0,0 +1,86 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class GeoDataCacheTest {
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("geo-data-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final double[] longitudes = {10.5, 10.6, 10.7, 10.8, 10.9, Double.NaN};
+        final double[] latitudes = {-45.1, -45.2, -45.3, -45.4, -45.5, -45.6};
+        final Path cacheFile = tempDir.resolve("grids").resolve("an.geo");
+
+        GeoDataCache.write(cacheFile, 3, 2, new double[][]{longitudes, latitudes});
+        final double[][] geoData = GeoDataCache.read(cacheFile, 3, 2);
+
+        assertArrayEquals(longitudes, geoData[0], 0.0);
+        assertArrayEquals(latitudes, geoData[1], 0.0);
+        try (Stream<Path> files = Files.list(cacheFile.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testReadRejectsOtherDimensions() throws IOException {
+        final Path cacheFile = tempDir.resolve("an.geo");
+        GeoDataCache.write(cacheFile, 3, 2, new double[][]{new double[6], new double[6]});
+
+        assertNull(GeoDataCache.read(cacheFile, 2, 3));
+        assertNull(GeoDataCache.read(cacheFile, 3, 3));
+    }
+
+    @Test
+    public void testChecksumDependsOnContent() throws IOException {
+        final Path manifest = tempDir.resolve("xfdumanifest.xml");
+        Files.write(manifest, "<manifest checksum=\"1\"/>".getBytes(StandardCharsets.UTF_8));
+        final String checksum = GeoDataCache.createChecksum(manifest.toFile());
+        assertEquals(64, checksum.length());
+        assertEquals(checksum, GeoDataCache.createChecksum(manifest.toFile()));
+
+        Files.write(manifest, "<manifest checksum=\"2\"/>".getBytes(StandardCharsets.UTF_8));
+        assertFalse(checksum.equals(GeoDataCache.createChecksum(manifest.toFile())));
+    }
+
+    @Test
+    public void testChecksumIsComputedOncePerProduct() throws IOException {
+        final Path manifest = tempDir.resolve("xfdumanifest.xml");
+        Files.write(manifest, "<manifest checksum=\"1\"/>".getBytes(StandardCharsets.UTF_8));
+        final GeoDataCache cache = new GeoDataCache(tempDir.resolve("cache"), manifest.toFile());
+        final String checksum = cache.getChecksum();
+        assertEquals(GeoDataCache.createChecksum(manifest.toFile()), checksum);
+
+        // the manifest is not hashed again for the next grid of the same product
+        Files.write(manifest, "<manifest checksum=\"2\"/>".getBytes(StandardCharsets.UTF_8));
+        assertSame(checksum, cache.getChecksum());
+    }
+}
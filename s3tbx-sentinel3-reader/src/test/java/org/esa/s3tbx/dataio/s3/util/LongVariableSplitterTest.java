@@ -0,0 +1,83 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.Section;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class LongVariableSplitterTest {
+
+    private static final long[] VALUES = {0L, 1L, 0xFFFFFFFFL, 0x1_0000_0000L, 0x8000_0001_7FFF_FFFFL, -1L};
+
+    @Test
+    public void testSplit() {
+        final int[][] halves = LongVariableSplitter.split(createArray());
+
+        assertArrayEquals(new int[]{0, 1, -1, 0, 0x7FFFFFFF, -1}, halves[0]);
+        assertArrayEquals(new int[]{0, 0, 0, 1, 0x80000001, -1}, halves[1]);
+    }
+
+    @Test
+    public void testGetHalf() {
+        assertArrayEquals(LongVariableSplitter.split(createArray())[0], LongVariableSplitter.getHalf(createArray(), false));
+        assertArrayEquals(LongVariableSplitter.split(createArray())[1], LongVariableSplitter.getHalf(createArray(), true));
+    }
+
+    @Test
+    public void testSectionIsReadOnceForBothHalves() throws Exception {
+        final LongVariableSplitter splitter = new LongVariableSplitter();
+        final AtomicInteger reads = new AtomicInteger();
+        final Section section = new Section(new int[]{0, 0}, new int[]{2, 3});
+
+        final int[] msb = splitter.read(section, true, () -> read(reads));
+        final int[] lsb = splitter.read(section, false, () -> read(reads));
+
+        assertEquals(1, reads.get());
+        assertArrayEquals(LongVariableSplitter.split(createArray())[0], lsb);
+        assertArrayEquals(LongVariableSplitter.split(createArray())[1], msb);
+    }
+
+    @Test
+    public void testSectionIsReadAgainWhenHalfIsRequestedAgain() throws Exception {
+        final LongVariableSplitter splitter = new LongVariableSplitter();
+        final AtomicInteger reads = new AtomicInteger();
+        final Section section = new Section(new int[]{0, 0}, new int[]{2, 3});
+
+        splitter.read(section, false, () -> read(reads));
+        splitter.read(section, false, () -> read(reads));
+        assertEquals(2, reads.get());
+        splitter.read(section, true, () -> read(reads));
+        assertEquals(2, reads.get());
+        splitter.read(section, true, () -> read(reads));
+        assertEquals(3, reads.get());
+    }
+
+    @Test
+    public void testPendingHalvesAreDropped() throws Exception {
+        final LongVariableSplitter splitter = new LongVariableSplitter();
+        final AtomicInteger reads = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            splitter.read(new Section(new int[]{i, 0}, new int[]{2, 3}), false, () -> read(reads));
+        }
+        assertEquals(100, reads.get());
+
+        splitter.read(new Section(new int[]{99, 0}, new int[]{2, 3}), true, () -> read(reads));
+        assertEquals(100, reads.get());
+        splitter.read(new Section(new int[]{0, 0}, new int[]{2, 3}), true, () -> read(reads));
+        assertEquals(101, reads.get());
+    }
+
+    private static Array read(AtomicInteger reads) {
+        reads.incrementAndGet();
+        return createArray();
+    }
+
+    private static Array createArray() {
+        return Array.factory(DataType.LONG, new int[]{2, 3}, VALUES.clone());
+    }
+}
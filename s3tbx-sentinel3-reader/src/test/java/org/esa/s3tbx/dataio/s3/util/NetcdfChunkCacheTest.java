@@ -0,0 +1,141 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class NetcdfChunkCacheTest {
+
+    // a float chunk of 10 x 10 pixels
+    private static final int CHUNK_BYTES = 400;
+
+    @Test
+    public void testChunkIsLoadedOnce() throws Exception {
+        final NetcdfChunkCache cache = new NetcdfChunkCache(10 * CHUNK_BYTES);
+        final AtomicInteger loads = new AtomicInteger();
+
+        final Array first = cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        final Array second = cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(CHUNK_BYTES, cache.getSize());
+    }
+
+    @Test
+    public void testKeysDistinguishFilesVariablesAndOrigins() throws Exception {
+        final NetcdfChunkCache cache = new NetcdfChunkCache(10 * CHUNK_BYTES);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        cache.get(key("b.nc", "radiance", 0, 0), () -> createChunk(loads));
+        cache.get(key("a.nc", "quality", 0, 0), () -> createChunk(loads));
+        cache.get(key("a.nc", "radiance", 0, 10), () -> createChunk(loads));
+
+        assertEquals(4, loads.get());
+        assertEquals(4 * CHUNK_BYTES, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedChunkIsEvicted() throws Exception {
+        final NetcdfChunkCache cache = new NetcdfChunkCache(2 * CHUNK_BYTES);
+        final AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        cache.get(key("a.nc", "radiance", 0, 10), () -> createChunk(loads));
+        // touch the first chunk, so that the second one is the least recently used
+        cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        cache.get(key("a.nc", "radiance", 0, 20), () -> createChunk(loads));
+        assertEquals(3, loads.get());
+        assertEquals(2 * CHUNK_BYTES, cache.getSize());
+
+        cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        assertEquals(3, loads.get());
+        cache.get(key("a.nc", "radiance", 0, 10), () -> createChunk(loads));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testClearLocation() throws Exception {
+        final NetcdfChunkCache cache = new NetcdfChunkCache(10 * CHUNK_BYTES);
+        final AtomicInteger loads = new AtomicInteger();
+        cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        cache.get(key("b.nc", "radiance", 0, 0), () -> createChunk(loads));
+
+        cache.clear("a.nc");
+
+        assertEquals(CHUNK_BYTES, cache.getSize());
+        cache.get(key("b.nc", "radiance", 0, 0), () -> createChunk(loads));
+        assertEquals(2, loads.get());
+        cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() throws Exception {
+        final NetcdfChunkCache cache = new NetcdfChunkCache(10 * CHUNK_BYTES);
+        try {
+            cache.get(key("a.nc", "radiance", 0, 0), () -> {
+                throw new IOException("corrupt chunk");
+            });
+            fail("IOException expected");
+        } catch (IOException expected) {
+            assertEquals("corrupt chunk", expected.getMessage());
+        }
+        final AtomicInteger loads = new AtomicInteger();
+        cache.get(key("a.nc", "radiance", 0, 0), () -> createChunk(loads));
+        assertEquals(1, loads.get());
+        assertEquals(CHUNK_BYTES, cache.getSize());
+    }
+
+    @Test
+    public void testConcurrentRequestsDecodeOnce() throws Exception {
+        final NetcdfChunkCache cache = new NetcdfChunkCache(10 * CHUNK_BYTES);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Array>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(key("a.nc", "radiance", 0, 0), () -> {
+                        Thread.sleep(50);
+                        return createChunk(loads);
+                    });
+                }));
+            }
+            start.countDown();
+            final Array first = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Array> future : futures) {
+                assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    private static NetcdfChunkCache.Key key(String location, String variableName, int y, int x) {
+        return new NetcdfChunkCache.Key(location, variableName, new int[]{y, x});
+    }
+
+    private static Array createChunk(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return Array.factory(DataType.FLOAT, new int[]{10, 10});
+    }
+}
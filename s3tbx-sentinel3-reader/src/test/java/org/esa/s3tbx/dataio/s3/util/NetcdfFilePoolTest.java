@@ -0,0 +1,118 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.Section;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NetcdfFilePoolTest {
+
+    private String location;
+    private NetcdfFile netcdfFile;
+    private NetcdfFilePool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        location = new URI(getClass().getResource("../FRP_in.nc").toString()).getPath();
+        netcdfFile = NetcdfFileOpener.open(location);
+        assertNotNull(netcdfFile);
+        pool = new NetcdfFilePool(location, 3);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pool.close();
+        netcdfFile.close();
+    }
+
+    @Test
+    public void testConcurrentReadsEqualSequentialReads() throws Exception {
+        final Variable variable = findVariable();
+        final int height = variable.getShape(0);
+        final int bandHeight = Math.max(1, height / 16);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Array>> futures = new ArrayList<>();
+            for (int y = 0; y < height; y += bandHeight) {
+                final Section section = createRowBand(variable, y, bandHeight);
+                futures.add(executor.submit((Callable<Array>) () -> pool.read(variable, section)));
+            }
+            int y = 0;
+            for (Future<Array> future : futures) {
+                final Section section = createRowBand(variable, y, bandHeight);
+                final Array expected = variable.read(section);
+                final Array actual = future.get();
+                assertEquals(expected.getSize(), actual.getSize());
+                for (int i = 0; i < expected.getSize(); i++) {
+                    assertEquals(expected.getDouble(i), actual.getDouble(i), 0.0);
+                }
+                y += bandHeight;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(pool.getOpenedHandleCount() >= 1);
+        assertTrue(pool.getOpenedHandleCount() <= 3);
+    }
+
+    @Test
+    public void testHandlesAreReused() throws Exception {
+        final Variable variable = findVariable();
+        final Section section = createRowBand(variable, 0, 1);
+        for (int i = 0; i < 5; i++) {
+            pool.read(variable, section);
+        }
+        assertEquals(1, pool.getOpenedHandleCount());
+    }
+
+    @Test
+    public void testReadAfterClose() throws Exception {
+        final Variable variable = findVariable();
+        pool.close();
+        try {
+            pool.read(variable, createRowBand(variable, 0, 1));
+            fail("IOException expected");
+        } catch (IOException expected) {
+            assertEquals(0, pool.getOpenedHandleCount());
+        }
+    }
+
+    private Variable findVariable() {
+        Variable largest = null;
+        for (Variable variable : netcdfFile.getVariables()) {
+            if (variable.getRank() > 0 && variable.getDataType().isNumeric() &&
+                (largest == null || variable.getShape(0) > largest.getShape(0))) {
+                largest = variable;
+            }
+        }
+        assertNotNull("No numeric variable in " + location, largest);
+        return largest;
+    }
+
+    private static Section createRowBand(Variable variable, int y, int bandHeight) throws Exception {
+        final int[] origin = new int[variable.getRank()];
+        final int[] shape = variable.getShape();
+        origin[0] = y;
+        shape[0] = Math.min(bandHeight, shape[0] - y);
+        return new Section(origin, shape);
+    }
+}
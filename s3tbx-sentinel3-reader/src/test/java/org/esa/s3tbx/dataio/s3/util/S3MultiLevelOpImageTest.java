@@ -0,0 +1,23 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class S3MultiLevelOpImageTest {
+
+    @Test
+    public void testGetChunkAlignedTileSize() {
+        assertEquals(4865, S3MultiLevelOpImage.getChunkAlignedTileSize(4865, 4865));
+        assertEquals(256, S3MultiLevelOpImage.getChunkAlignedTileSize(64, 4091));
+        assertEquals(300, S3MultiLevelOpImage.getChunkAlignedTileSize(300, 4091));
+        assertEquals(260, S3MultiLevelOpImage.getChunkAlignedTileSize(20, 4091));
+    }
+
+    @Test
+    public void testGetChunkAlignedTileSizeOfSmallImages() {
+        assertEquals(100, S3MultiLevelOpImage.getChunkAlignedTileSize(512, 100));
+        assertEquals(90, S3MultiLevelOpImage.getChunkAlignedTileSize(30, 100));
+        assertEquals(100, S3MultiLevelOpImage.getChunkAlignedTileSize(0, 100));
+    }
+}
@@ -0,0 +1,114 @@
+package org.esa.s3tbx.dataio.s3.util;
+
+import com.bc.ceres.glevel.support.DefaultMultiLevelModel;
+import org.esa.snap.core.image.ResolutionLevel;
+import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.Section;
+import ucar.nc2.Attribute;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+import ucar.nc2.constants.CDM;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class S3VariableOpImageTest {
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 30;
+    private static final int CHUNK_WIDTH = 10;
+    private static final int CHUNK_HEIGHT = 8;
+
+    private File file;
+    private NetcdfFile netcdfFile;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("chunked", ".nc").toFile();
+        // a netCDF-3 file is not chunked, but the chunk sizes are only taken from the attribute
+        final NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, file.getPath());
+        try {
+            writer.addDimension(null, "rows", HEIGHT);
+            writer.addDimension(null, "columns", WIDTH);
+            final Variable variable = writer.addVariable(null, "radiance", DataType.FLOAT, "rows columns");
+            variable.addAttribute(new Attribute(CDM.CHUNK_SIZES, Array.factory(DataType.INT, new int[]{2},
+                                                                               new int[]{CHUNK_HEIGHT, CHUNK_WIDTH})));
+            writer.create();
+            final float[] data = new float[HEIGHT * WIDTH];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (i / WIDTH) * 100 + i % WIDTH;
+            }
+            writer.write(variable, Array.factory(DataType.FLOAT, new int[]{HEIGHT, WIDTH}, data));
+        } finally {
+            writer.close();
+        }
+        netcdfFile = NetcdfFileOpener.open(file.getPath());
+        assertNotNull(netcdfFile);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        NetcdfChunkCache.getDefault().clear(netcdfFile.getLocation());
+        netcdfFile.close();
+        Files.delete(file.toPath());
+    }
+
+    @Test
+    public void testReadChunkedAtLevelZero() throws Exception {
+        // crosses the chunk boundaries at x = 10, 20 and y = 8
+        assertReadChunked(createImage(0), 0, new Rectangle(7, 5, 16, 6));
+    }
+
+    @Test
+    public void testReadChunkedAtHigherLevel() throws Exception {
+        // at level 1 the section starts at x = 6, y = 4 and takes every second pixel up to x = 22, y = 18
+        assertReadChunked(createImage(1), 1, new Rectangle(3, 2, 9, 8));
+        // the whole images, including the partial chunks at the right and the lower border
+        final S3VariableOpImage level1 = createImage(1);
+        assertReadChunked(level1, 1, level1.getBounds());
+        final S3VariableOpImage level2 = createImage(2);
+        assertReadChunked(level2, 2, level2.getBounds());
+    }
+
+    private S3VariableOpImage createImage(int level) {
+        final Variable variable = netcdfFile.findVariable("radiance");
+        assertNotNull(variable.findAttribute(CDM.CHUNK_SIZES));
+        final DefaultMultiLevelModel model = new DefaultMultiLevelModel(3, new AffineTransform(), WIDTH, HEIGHT);
+        return new S3VariableOpImage(variable, DataBuffer.TYPE_FLOAT, WIDTH, HEIGHT, new Dimension(WIDTH, HEIGHT),
+                                     ResolutionLevel.create(model, level), new String[0], new int[0], 1, 0);
+    }
+
+    private void assertReadChunked(S3VariableOpImage image, int level, Rectangle rectangle) throws Exception {
+        final Raster raster = image.getData(rectangle);
+        assertTrue(NetcdfChunkCache.getDefault().getSize() > 0);
+
+        final Variable variable = netcdfFile.findVariable("radiance");
+        final int scale = 1 << level;
+        final Section section = new Section(new int[]{rectangle.y * scale, rectangle.x * scale},
+                                            new int[]{(rectangle.height - 1) * scale + 1, (rectangle.width - 1) * scale + 1},
+                                            new int[]{scale, scale});
+        final Array expected = variable.read(section);
+        int i = 0;
+        for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++) {
+            for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++) {
+                assertEquals("x=" + x + ", y=" + y, expected.getFloat(i++), raster.getSampleFloat(x, y, 0), 0.0f);
+            }
+        }
+        assertEquals(expected.getSize(), i);
+    }
+}
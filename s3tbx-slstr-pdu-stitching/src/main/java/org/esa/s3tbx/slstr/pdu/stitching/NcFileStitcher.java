@@ -5,6 +5,7 @@ import org.esa.snap.dataio.netcdf.util.NetcdfFileOpener;
 import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.ma2.IndexIterator;
+import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Attribute;
 import ucar.nc2.Dimension;
 import ucar.nc2.NetcdfFile;
@@ -16,9 +17,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author Tonio Fincke
@@ -28,8 +27,20 @@ class NcFileStitcher {
     private static final String PRODUCT_NAME = "product_name";
     private static final String CREATION_TIME = "creation_time";
 
+    /**
+     * The maximum size of the row blocks in which the stitched variables are written, 16 MB.
+     */
+    static final long MAX_BLOCK_BYTES = 16 * 1024 * 1024;
+
     static File stitchNcFiles(String fileName, File targetDirectory, Date creationDate,
                               File[] ncFiles, ImageSize targetImageSize, ImageSize[] imageSizes) throws IOException, PDUStitchingException {
+        return stitchNcFiles(fileName, targetDirectory, creationDate, ncFiles, targetImageSize, imageSizes,
+                             MAX_BLOCK_BYTES);
+    }
+
+    static File stitchNcFiles(String fileName, File targetDirectory, Date creationDate, File[] ncFiles,
+                              ImageSize targetImageSize, ImageSize[] imageSizes, long maxBlockBytes)
+            throws IOException, PDUStitchingException {
         NetcdfFile[] inputFiles = new NetcdfFile[ncFiles.length];
         List<Attribute>[] globalAttributes = new ArrayList[ncFiles.length];
         List<Dimension>[] dimensions = new List[ncFiles.length];
@@ -44,11 +55,17 @@ class NcFileStitcher {
         final SlstrNFileWritable netcdfWriteable = new SlstrNFileWritable(file.getAbsolutePath());
         setGlobalAttributes(netcdfWriteable, globalAttributes, targetDirectory.getName(), creationDate);
         setDimensions(netcdfWriteable, dimensions, targetImageSize, variables);
-        final Map<String, Array> variableToArrayMap =
-                defineVariables(netcdfWriteable, variables, targetImageSize, imageSizes);
+        final List<Variable> stitchedVariables = defineVariables(netcdfWriteable, variables);
         netcdfWriteable.create();
-        for (String variableName : variableToArrayMap.keySet()) {
-            netcdfWriteable.findVariable(variableName).writeFullyInSections(variableToArrayMap.get(variableName));
+        for (Variable variable : stitchedVariables) {
+            final SlstrN4Variable nVariable = netcdfWriteable.findVariable(variable.getFullName());
+            final int indexOfRowDimension = getIndexOfRowDimension(variable.getDimensions());
+            if (indexOfRowDimension < 0) {
+                nVariable.writeFullyInSections(getValidArrayFromVariable(variable));
+            } else {
+                writeStitchedVariable(nVariable, variable, targetImageSize, imageSizes, indexOfRowDimension,
+                                      variables, maxBlockBytes);
+            }
         }
         netcdfWriteable.close();
         for (NetcdfFile inputFile : inputFiles) {
@@ -57,10 +74,9 @@ class NcFileStitcher {
         return file;
     }
 
-    private static Map<String, Array> defineVariables(SlstrNFileWritable netcdfWriteable, List<Variable>[] variableLists,
-                                                      ImageSize targetImageSize, ImageSize[] imageSizes)
+    private static List<Variable> defineVariables(SlstrNFileWritable netcdfWriteable, List<Variable>[] variableLists)
             throws PDUStitchingException, IOException {
-        Map<String, Array> variableToArray = new HashMap<>();
+        List<Variable> stitchedVariables = new ArrayList<>();
         List<String> namesOfAddedVariables = new ArrayList<>();
         for (int i = 0; i < variableLists.length; i++) {
             List<Variable> variables = variableLists[i];
@@ -72,23 +88,11 @@ class NcFileStitcher {
                     final SlstrN4Variable nVariable = addVariableToWritable(netcdfWriteable, variable);
                     addVariableAttributes(nVariable, variable, i, variableLists);
                     namesOfAddedVariables.add(variableName);
-                    Attribute fillValueAttribute = getAttributeFromList("_FillValue", variable.getAttributes());
-                    Number fillValue = null;
-                    if (fillValueAttribute != null) {
-                        fillValue = fillValueAttribute.getNumericValue();
-                    }
-                    final int indexOfRowDimension = getIndexOfRowDimension(variable.getDimensions());
-                    if (indexOfRowDimension < 0) {
-                        variableToArray.put(variableName, getValidArrayFromVariable(variable));
-                    } else {
-                        Array nVariableArray = createStitchedArray(variable, targetImageSize, imageSizes,
-                                indexOfRowDimension, variableLists, fillValue);
-                        variableToArray.put(variableName, nVariableArray);
-                    }
+                    stitchedVariables.add(variable);
                 }
             }
         }
-        return variableToArray;
+        return stitchedVariables;
     }
 
     private static Array getValidArrayFromVariable(Variable variable) throws IOException {
@@ -124,48 +128,102 @@ class NcFileStitcher {
         }
     }
 
-    private static Array createStitchedArray(Variable variable, ImageSize targetImageSize, ImageSize[] imageSizes,
-                                             int indexOfRowDimension, List<Variable>[] variableLists, Number fillValue)
-            throws IOException {
+    /**
+     * Copies the variable from all input files into the target file, block of rows by block of rows, so that
+     * only one block of the stitched variable is held in memory at a time. The blocks are aligned with the chunks
+     * of the target variable.
+     */
+    private static void writeStitchedVariable(SlstrN4Variable nVariable, Variable variable, ImageSize targetImageSize,
+                                              ImageSize[] imageSizes, int indexOfRowDimension,
+                                              List<Variable>[] variableLists, long maxBlockBytes) throws IOException {
         final String variableName = variable.getFullName();
-        final int[] sectionSizes = new int[variableLists.length];
-        final int[][] sourceOffsets = new int[variableLists.length][];
         final Variable[] fileVariables = new Variable[variableLists.length];
         for (int i = 0; i < variableLists.length; i++) {
-            final Variable fileVariable = getVariableFromList(variableName, variableLists[i]);
-            if (fileVariable != null) {
-                fileVariables[i] = fileVariable;
-                sectionSizes[i] = determineSectionSize(indexOfRowDimension, fileVariable);
-                sourceOffsets[i] = determineSourceOffsets(sectionSizes[i], fileVariable);
-            }
+            fileVariables[i] = getVariableFromList(variableName, variableLists[i]);
         }
-        int[] rowOffsets = new int[imageSizes.length];
-        int[] numberOfRows = new int[imageSizes.length];
-        for (int j = 0; j < imageSizes.length; j++) {
-            rowOffsets[j] = (imageSizes[j].getStartOffset() - targetImageSize.getStartOffset());
-            numberOfRows[j] = imageSizes[j].getRows();
+        final Number fillValue = getFillValue(variable);
+        final int[] targetShape = variable.getShape();
+        targetShape[indexOfRowDimension] = targetImageSize.getRows();
+        final int numberOfRows = targetShape[indexOfRowDimension];
+        if (numberOfRows == 0) {
+            return;
         }
-        final int[][] destinationOffsets = determineDestinationOffsets(rowOffsets, numberOfRows, sectionSizes, sourceOffsets);
-        int[] nVariableShape = new int[variable.getDimensions().size()];
-        for (int j = 0; j < nVariableShape.length; j++) {
-            if (variable.getDimensions().get(j).getFullName().equals("rows")) {
-                nVariableShape[j] = targetImageSize.getRows();
-            } else {
-                nVariableShape[j] = variable.getDimensions().get(j).getLength();
+        long bytesPerRow = variable.getDataType().getSize();
+        for (int i = 0; i < targetShape.length; i++) {
+            if (i != indexOfRowDimension) {
+                bytesPerRow *= targetShape[i];
             }
         }
-        final Array nVariableArray = getPreFilledArray(variable.getDataType(), nVariableShape, fillValue);
-        for (int j = 0; j < variableLists.length; j++) {
-            final Variable fileVariable = fileVariables[j];
-            if (fileVariable != null) {
-                final Array fileArray = fileVariable.read();
-                for (int l = 0; l < sourceOffsets[j].length; l++) {
-                    Array.arraycopy(fileArray, sourceOffsets[j][l], nVariableArray,
-                                    destinationOffsets[j][l], sectionSizes[j]);
+        final int rowsPerBlock = getRowsPerBlock(nVariable.getChunkLengths()[indexOfRowDimension], bytesPerRow,
+                                                 maxBlockBytes, numberOfRows);
+        for (int blockRow = 0; blockRow < numberOfRows; blockRow += rowsPerBlock) {
+            final int[] blockShape = targetShape.clone();
+            blockShape[indexOfRowDimension] = Math.min(rowsPerBlock, numberOfRows - blockRow);
+            final Array block = getPreFilledArray(variable.getDataType(), blockShape, fillValue);
+            for (int j = 0; j < fileVariables.length; j++) {
+                final Variable fileVariable = fileVariables[j];
+                if (fileVariable == null) {
+                    continue;
+                }
+                final int fileRowOffset = imageSizes[j].getStartOffset() - targetImageSize.getStartOffset();
+                final int firstRow = Math.max(blockRow, fileRowOffset);
+                final int endRow = Math.min(blockRow + blockShape[indexOfRowDimension],
+                                            fileRowOffset + fileVariable.getDimension(indexOfRowDimension).getLength());
+                if (firstRow < endRow) {
+                    final int[] origin = new int[blockShape.length];
+                    final int[] shape = fileVariable.getShape();
+                    origin[indexOfRowDimension] = firstRow - fileRowOffset;
+                    shape[indexOfRowDimension] = endRow - firstRow;
+                    final Array fileArray;
+                    try {
+                        fileArray = fileVariable.read(origin, shape);
+                    } catch (InvalidRangeException e) {
+                        throw new IOException(e);
+                    }
+                    copyRows(fileArray, block, indexOfRowDimension, firstRow - blockRow);
                 }
             }
+            final int[] blockOrigin = new int[blockShape.length];
+            blockOrigin[indexOfRowDimension] = blockRow;
+            nVariable.writeInSections(blockOrigin, block);
         }
-        return nVariableArray;
+    }
+
+    static int getRowsPerBlock(int chunkRows, long bytesPerRow, long maxBlockBytes, int numberOfRows) {
+        final int step = Math.max(1, chunkRows);
+        final long fittingRows = maxBlockBytes / Math.max(1, bytesPerRow);
+        final long rowsPerBlock = Math.max(step, fittingRows / step * step);
+        return (int) Math.min(rowsPerBlock, numberOfRows);
+    }
+
+    /**
+     * Copies all rows of the source into the target, starting at the given row of the target. Source and target
+     * must have the same shape apart from the row dimension.
+     */
+    static void copyRows(Array source, Array target, int indexOfRowDimension, int targetRow) {
+        final int[] sourceShape = source.getShape();
+        int outerSize = 1;
+        for (int i = 0; i < indexOfRowDimension; i++) {
+            outerSize *= sourceShape[i];
+        }
+        int rowSize = 1;
+        for (int i = indexOfRowDimension + 1; i < sourceShape.length; i++) {
+            rowSize *= sourceShape[i];
+        }
+        final int sourceSectionSize = sourceShape[indexOfRowDimension] * rowSize;
+        final int targetSectionSize = target.getShape()[indexOfRowDimension] * rowSize;
+        for (int i = 0; i < outerSize; i++) {
+            Array.arraycopy(source, i * sourceSectionSize, target, i * targetSectionSize + targetRow * rowSize,
+                            sourceSectionSize);
+        }
+    }
+
+    private static Number getFillValue(Variable variable) {
+        Attribute fillValueAttribute = getAttributeFromList("_FillValue", variable.getAttributes());
+        if (fillValueAttribute != null) {
+            return fillValueAttribute.getNumericValue();
+        }
+        return null;
     }
 
     private static Array getPreFilledArray(DataType dataType, int[] shape, Number fillValue) {
@@ -290,44 +348,6 @@ class NcFileStitcher {
         return null;
     }
 
-    static int[][] determineDestinationOffsets(int[] rowOffsets, int[] numberOfRows,
-                                               int[] sectionSizes, int[][] sourceOffsets) {
-        int[][] destinationOffsets = new int[sectionSizes.length][];
-        int allSectionsSize = 0;
-        for (int sectionSize : sectionSizes) {
-            allSectionsSize += sectionSize;
-        }
-        for (int i = 0; i < sectionSizes.length; i++) {
-            final int fileOffset = rowOffsets[i] * (sectionSizes[i] / numberOfRows[i]);
-            destinationOffsets[i] = new int[sourceOffsets[i].length];
-            for (int j = 0; j < sourceOffsets[i].length; j++) {
-                destinationOffsets[i][j] = fileOffset + j * allSectionsSize;
-            }
-        }
-        return destinationOffsets;
-    }
-
-    static int[] determineSourceOffsets(int sectionSize, Variable variable) {
-        int totalSize = 1;
-        for (int i = 0; i < variable.getDimensions().size(); i++) {
-            totalSize *= variable.getDimension(i).getLength();
-        }
-        final int numberOfSections = totalSize / sectionSize;
-        int[] sourceOffsets = new int[numberOfSections];
-        for (int i = 0; i < numberOfSections; i++) {
-            sourceOffsets[i] = i * sectionSize;
-        }
-        return sourceOffsets;
-    }
-
-    static int determineSectionSize(int indexOfRowDimension, Variable variable) {
-        int size = 1;
-        for (int i = indexOfRowDimension; i < variable.getDimensions().size(); i++) {
-            size *= variable.getDimension(i).getLength();
-        }
-        return size;
-    }
-
     static void setDimensions(SlstrNFileWritable nFileWriteable, List<Dimension>[] dimensionLists,
                               ImageSize targetImageSize, List<Variable>[] variableLists)
             throws PDUStitchingException, IOException {
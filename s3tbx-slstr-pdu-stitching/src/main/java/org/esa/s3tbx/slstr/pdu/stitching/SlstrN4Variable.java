@@ -133,8 +133,10 @@ public class SlstrN4Variable {
         try {
             int[] indexes = new int[values.getShape().length];
             while (indexes != null) {
-                netcdfFileWriter.setFill(true);
-                netcdfFileWriter.write(variable, indexes, values.sectionNoReduce(indexes, chunkLengths, null));
+                synchronized (SlstrNFileWritable.NATIVE_LOCK) {
+                    netcdfFileWriter.setFill(true);
+                    netcdfFileWriter.write(variable, indexes, values.sectionNoReduce(indexes, chunkLengths, null));
+                }
                 indexes = getNextIndexes(indexes, values.getShape());
             }
         } catch (IOException | InvalidRangeException e) {
@@ -142,6 +144,48 @@ public class SlstrN4Variable {
         }
     }
 
+    /**
+     * Writes the values to the part of the variable starting at the given origin, chunk by chunk. Sections at the
+     * border of the values are cropped to the values.
+     */
+    public void writeInSections(int[] origin, Array values) throws IOException {
+        final int[] shape = values.getShape();
+        for (int length : shape) {
+            if (length == 0) {
+                return;
+            }
+        }
+        final int[] indexes = new int[shape.length];
+        final int[] sectionShape = new int[shape.length];
+        final int[] targetOrigin = new int[shape.length];
+        try {
+            do {
+                for (int i = 0; i < shape.length; i++) {
+                    sectionShape[i] = Math.min(Math.max(1, chunkLengths[i]), shape[i] - indexes[i]);
+                    targetOrigin[i] = origin[i] + indexes[i];
+                }
+                final Array section = values.sectionNoReduce(indexes, sectionShape, null);
+                synchronized (SlstrNFileWritable.NATIVE_LOCK) {
+                    netcdfFileWriter.setFill(true);
+                    netcdfFileWriter.write(variable, targetOrigin, section);
+                }
+            } while (nextSection(indexes, shape));
+        } catch (IOException | InvalidRangeException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    private boolean nextSection(int[] indexes, int[] shape) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            indexes[i] += Math.max(1, chunkLengths[i]);
+            if (indexes[i] < shape[i]) {
+                return true;
+            }
+            indexes[i] = 0;
+        }
+        return false;
+    }
+
     private int[] getNextIndexes(int[] indexes, int[] totalSizes) {
         for (int i = indexes.length - 1; i >= 0; i--) {
             indexes[i] += chunkLengths[i];
@@ -14,6 +14,12 @@ import java.util.Map;
 
 public class SlstrNFileWritable {
 
+    /**
+     * Guards all calls into the native NetCDF library, which is not thread-safe, so that several files can be
+     * stitched concurrently.
+     */
+    static final Object NATIVE_LOCK = new Object();
+
     private String dimensions = "";
     protected Map<String, Dimension> dimensionsMap = new HashMap<>();
 
@@ -21,7 +27,10 @@ public class SlstrNFileWritable {
     protected Map<String, SlstrN4Variable> variables = new HashMap<>();
 
     SlstrNFileWritable(String filename) throws IOException {
-        netcdfFileWriter = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, filename, new NetCDF4Chunking());
+        synchronized (NATIVE_LOCK) {
+            netcdfFileWriter = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, filename,
+                                                          new NetCDF4Chunking());
+        }
     }
 
     void addDimension(String name, int length) throws IOException {
@@ -92,12 +101,16 @@ public class SlstrNFileWritable {
     }
 
     public void create() throws IOException {
-        netcdfFileWriter.create();
+        synchronized (NATIVE_LOCK) {
+            netcdfFileWriter.create();
+        }
     }
 
     void close() throws IOException {
         try {
-            netcdfFileWriter.close();
+            synchronized (NATIVE_LOCK) {
+                netcdfFileWriter.close();
+            }
         } catch (Exception e) {
             throw new IOException(e);
         }
@@ -5,6 +5,7 @@ import com.bc.ceres.binding.converters.DateFormatConverter;
 import com.bc.ceres.core.Assert;
 import com.bc.ceres.core.ProgressMonitor;
 import org.esa.s3tbx.slstr.pdu.stitching.manifest.ManifestMerger;
+import org.esa.snap.runtime.Config;
 import org.esa.snap.runtime.EngineConfig;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
@@ -17,7 +18,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -28,8 +33,13 @@ import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
 import java.util.regex.Pattern;
 
 /**
@@ -37,6 +47,16 @@ import java.util.regex.Pattern;
  */
 public class SlstrPduStitcher {
 
+    /**
+     * The number of nc files which are stitched concurrently, by default the number of processors, but at most 4.
+     */
+    public static final String STITCHING_THREADS = "s3tbx.pdu.stitching.threads";
+    /**
+     * If set to {@code true}, the nc files of a single product are hard linked into the target directory instead
+     * of being copied, if the file system allows it. A linked file shares its content with the original file.
+     */
+    public static final String LINK_FILES = "s3tbx.pdu.stitching.linkFiles";
+
     private static final DateFormatConverter SLSTR_DATE_FORMAT_CONVERTER =
             new DateFormatConverter(new SimpleDateFormat("yyyyMMdd'T'HHmmss"));
     private static final ImageSize NULL_IMAGE_SIZE = new ImageSize("null", 0, 0, 0, 0);
@@ -64,11 +84,14 @@ public class SlstrPduStitcher {
             }
             Files.copy(originalParentDirectory.getParentFile().toPath(), stitchedParentDirectory.toPath());
             final File[] files = originalParentDirectory.listFiles();
+            final boolean linkFiles = Config.instance("s3tbx").load().preferences().getBoolean(LINK_FILES, false);
             long productSize = 0;
             if (files != null) {
                 for (File originalFile : files) {
                     final File newFile = new File(stitchedParentDirectory, originalFile.getName());
-                    Files.copy(originalFile.toPath(), newFile.toPath());
+                    // the manifest is rewritten below and must therefore never share its content with the original
+                    transferFile(originalFile.toPath(), newFile.toPath(),
+                                 linkFiles && originalFile.getName().endsWith(".nc"));
                     productSize += newFile.length();
                 }
             }
@@ -113,12 +136,12 @@ public class SlstrPduStitcher {
         long productSize = 0;
         File manifestFile;
         pm.beginTask("Stitching SLSTR L1B Product Dissemination Units", ncFileNames.size() + 1);
+        final ExecutorService executorService = Executors.newFixedThreadPool(getNumberOfStitchingThreads());
         try {
-            for (int i = 0; i < ncFileNames.size(); i++) {
-                final String ncFileName = ncFileNames.get(i);
+            final List<Future<Long>> stitchedFileSizes = new ArrayList<>();
+            for (final String ncFileName : ncFileNames) {
                 String[] splitFileName = ncFileName.split("/");
                 final String displayFileName = splitFileName[splitFileName.length - 1];
-                pm.setSubTaskName(MessageFormat.format("Stitching ''{0}''", displayFileName));
                 List<File> ncFiles = new ArrayList<>();
                 List<ImageSize> imageSizeList = new ArrayList<>();
                 String id = ncFileName.substring(ncFileName.length() - 5, ncFileName.length() - 3);
@@ -142,14 +165,24 @@ public class SlstrPduStitcher {
                         imageSizeList.add(imageSizes[j]);
                     }
                 }
-                if (ncFiles.size() > 0) {
-                    final File[] ncFilesArray = ncFiles.toArray(new File[ncFiles.size()]);
-                    final ImageSize[] imageSizeArray = imageSizeList.toArray(new ImageSize[imageSizeList.size()]);
+                final File[] ncFilesArray = ncFiles.toArray(new File[ncFiles.size()]);
+                final ImageSize[] imageSizeArray = imageSizeList.toArray(new ImageSize[imageSizeList.size()]);
+                final ImageSize stitchedImageSize = targetImageSize;
+                // the nc files of a product are independent of each other, so they are stitched concurrently
+                stitchedFileSizes.add(executorService.submit(() -> {
+                    if (ncFilesArray.length == 0) {
+                        return 0L;
+                    }
                     logger.log(Level.INFO, "Stitch " + displayFileName);
                     NcFileStitcher.stitchNcFiles(ncFileName, stitchedProductFileParentDirectory, now,
-                            ncFilesArray, targetImageSize, imageSizeArray);
-                    productSize += new File(stitchedProductFileParentDirectory, ncFileName).length();
-                }
+                                                 ncFilesArray, stitchedImageSize, imageSizeArray);
+                    return new File(stitchedProductFileParentDirectory, ncFileName).length();
+                }));
+            }
+            for (int i = 0; i < stitchedFileSizes.size(); i++) {
+                String[] splitFileName = ncFileNames.get(i).split("/");
+                pm.setSubTaskName(MessageFormat.format("Stitching ''{0}''", splitFileName[splitFileName.length - 1]));
+                productSize += getStitchedFileSize(stitchedFileSizes.get(i));
                 if (pm.isCanceled()) {
                     return null;
                 }
@@ -160,11 +193,62 @@ public class SlstrPduStitcher {
             manifestFile = createManifestFile(slstrProductFiles, stitchedProductFileParentDirectory, now, productSize);
             pm.worked(1);
         } finally {
+            executorService.shutdownNow();
             pm.done();
         }
         return manifestFile;
     }
 
+    /**
+     * Hard links the target to the source if requested and supported by the file system, copies the source
+     * otherwise. Copies are transferred by the file system channels, which allows the operating system to copy
+     * the content without passing it through the Java heap.
+     */
+    static void transferFile(Path source, Path target, boolean link) throws IOException {
+        if (link) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                // e.g. the target is on another file store, the file is copied then
+            }
+        }
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.CREATE_NEW,
+                                                          StandardOpenOption.WRITE)) {
+            final long size = sourceChannel.size();
+            long position = 0;
+            while (position < size) {
+                position += sourceChannel.transferTo(position, size - position, targetChannel);
+            }
+        }
+    }
+
+    private static int getNumberOfStitchingThreads() {
+        final int defaultNumberOfThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        final Preferences preferences = Config.instance("s3tbx").load().preferences();
+        return Math.max(1, preferences.getInt(STITCHING_THREADS, defaultNumberOfThreads));
+    }
+
+    private static long getStitchedFileSize(Future<Long> stitchedFileSize) throws IOException, PDUStitchingException {
+        try {
+            return stitchedFileSize.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while stitching", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof PDUStitchingException) {
+                throw (PDUStitchingException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     private static File createManifestFile(File[] manifestFiles, File stitchedParentDirectory, Date now, long productSize)
             throws ParserConfigurationException, PDUStitchingException, IOException, TransformerException {
         return new ManifestMerger().createMergedManifest(manifestFiles, now, stitchedParentDirectory, productSize);
@@ -507,109 +507,53 @@ public class NcFileStitcherTest {
     }
 
     @Test
-    public void testDetermineDestinationOffsets_f1_BT_in() {
-        int[][] expected_f1_BT_in_DestinationOffsets = {{0}, {3000000}, {6000000}};
-
-        int[] rowOffsets = new int[]{0, 2000, 4000};
-        int[] numberOfRows = new int[]{2000, 2000, 2000};
-        int[] sectionSizes_f1_BT_in = new int[]{3000000, 3000000, 3000000};
-        int[][] sourceOffsets = new int[][]{{0}, {0}, {0}};
-
-        final int[][] actual_f1_BT_in_DestinationOffsets =
-                NcFileStitcher.determineDestinationOffsets(rowOffsets, numberOfRows, sectionSizes_f1_BT_in, sourceOffsets);
-
-        for (int i = 0; i < expected_f1_BT_in_DestinationOffsets.length; i++) {
-            assertArrayEquals(expected_f1_BT_in_DestinationOffsets[i], actual_f1_BT_in_DestinationOffsets[i]);
-        }
+    public void testGetRowsPerBlock() {
+        assertEquals(6000, NcFileStitcher.getRowsPerBlock(600, 1800, NcFileStitcher.MAX_BLOCK_BYTES, 6000));
+        assertEquals(1200, NcFileStitcher.getRowsPerBlock(600, 1800, 2200000, 6000));
+        assertEquals(600, NcFileStitcher.getRowsPerBlock(600, 100000, 1024 * 1024, 6000));
+        assertEquals(10, NcFileStitcher.getRowsPerBlock(0, 100, 1000, 50));
     }
 
     @Test
-    public void testDetermineDestinationOffsets_met_tx() {
-        int[][] expected_met_tx_DestinationOffsets = {{0, 780000, 1560000, 2340000, 3120000},
-                {260000, 1040000, 1820000, 2600000, 3380000}, {520000, 1300000, 2080000, 2860000, 3640000}};
-        int[] sectionSizes_met_tx = new int[]{260000, 260000, 260000};
-        int[] rowOffsets = new int[]{0, 2000, 4000};
-        int[] numberOfRows = new int[]{2000, 2000, 2000};
-        int[][] sourceOffsets = new int[][]{{0, 260000, 520000, 780000, 1040000}, {0, 260000, 520000, 780000, 1040000},
-                {0, 260000, 520000, 780000, 1040000}};
-
-        final int[][] actual_met_tx_DestinationOffsets =
-                NcFileStitcher.determineDestinationOffsets(rowOffsets, numberOfRows, sectionSizes_met_tx, sourceOffsets);
-
-        for (int i = 0; i < expected_met_tx_DestinationOffsets.length; i++) {
-            assertArrayEquals(expected_met_tx_DestinationOffsets[i], actual_met_tx_DestinationOffsets[i]);
-        }
-    }
+    public void testCopyRows() {
+        final Array source = Array.factory(DataType.INT, new int[]{2, 2, 3}, new int[]{1, 2, 3, 4, 5, 6,
+                7, 8, 9, 10, 11, 12});
+        final Array target = Array.factory(DataType.INT, new int[]{2, 4, 3});
 
-    @Test
-    public void testDetermineDestinationOffsets_S1_quality_an() {
-        int[][] expectedDestinationOffsets =
-                {{0, 3396, 6792, 10188, 13584, 16980, 20376, 23772},
-                        {1601, 4997, 8393, 11789, 15185, 18581, 21977, 25373},
-                        {3201, 6597, 9993, 13389, 16785, 20181, 23577, 26973}};
-        int[] sectionSizes = new int[]{1601, 1600, 195};
-        int[] rowOffsets = new int[]{0, 1601, 3201};
-        int[] numberOfRows = new int[]{1601, 1600, 195};
-        int[][] sourceOffsets = new int[][]{{0, 1601, 3202, 4803, 6404, 8005, 9606, 11207},
-                {0, 1600, 3200, 4800, 6400, 8000, 9600, 11200}, {0, 195, 390, 585, 780, 975, 1170, 1365}};
-
-        final int[][] actualDestinationOffsets =
-                NcFileStitcher.determineDestinationOffsets(rowOffsets, numberOfRows, sectionSizes, sourceOffsets);
-
-        for (int i = 0; i < expectedDestinationOffsets.length; i++) {
-            assertArrayEquals(expectedDestinationOffsets[i], actualDestinationOffsets[i]);
-        }
-    }
+        NcFileStitcher.copyRows(source, target, 1, 1);
 
-    @Test
-    public void testDetermineDestinationOffsets_differentSectionSizes() {
-        int[][] expectedDestinationOffsets = {{0}, {2000000}, {6500000}};
-        int[] rowOffsets = new int[]{0, 2000, 6500};
-        int[] numberOfRows = new int[]{2000, 4500, 1500};
-        int[] sectionSizes = new int[]{2000000, 4500000, 1500000};
-        int[][] sourceOffsets = new int[][]{{0}, {0}, {0}};
-
-        final int[][] actual_f1_BT_in_DestinationOffsets =
-                NcFileStitcher.determineDestinationOffsets(rowOffsets, numberOfRows, sectionSizes, sourceOffsets);
-
-        for (int i = 0; i < expectedDestinationOffsets.length; i++) {
-            assertArrayEquals(expectedDestinationOffsets[i], actual_f1_BT_in_DestinationOffsets[i]);
-        }
+        assertArrayEquals(new int[]{0, 0, 0, 1, 2, 3, 4, 5, 6, 0, 0, 0, 0, 0, 0, 7, 8, 9, 10, 11, 12, 0, 0, 0},
+                          (int[]) target.getStorage());
     }
 
     @Test
-    public void testDetermineSourceOffsets() throws IOException, URISyntaxException {
-        final File f1_BT_io_file = getSecondNcFile("F1_BT_io.nc");
-        final NetcdfFile f1_BT_io_netcdfFile = NetcdfFileOpener.open(f1_BT_io_file);
-        assertNotNull(f1_BT_io_netcdfFile);
-        final Variable f1_BT_io_variable = f1_BT_io_netcdfFile.getVariables().get(0);
-
-        assertArrayEquals(new int[]{0}, NcFileStitcher.determineSourceOffsets(1800000, f1_BT_io_variable));
-
-        final File met_tx_file = getFirstNcFile("met_tx.nc");
-        final NetcdfFile met_tx_netcdfFile = NetcdfFileOpener.open(met_tx_file);
-        assertNotNull(met_tx_netcdfFile);
-        final Variable u_wind_tx_variable = met_tx_netcdfFile.getVariables().get(11);
-
-        assertArrayEquals(new int[]{0, 260000, 520000, 780000, 1040000},
-                          NcFileStitcher.determineSourceOffsets(260000, u_wind_tx_variable));
-    }
-
-    @Test
-    public void testDetermineSectionSize() throws IOException, URISyntaxException {
-        final File f1_BT_io_file = getSecondNcFile("F1_BT_io.nc");
-        final NetcdfFile f1_BT_io_netcdfFile = NetcdfFileOpener.open(f1_BT_io_file);
-        assertNotNull(f1_BT_io_netcdfFile);
-        final Variable f1_BT_io_variable = f1_BT_io_netcdfFile.getVariables().get(0);
-
-        assertEquals(1800000, NcFileStitcher.determineSectionSize(0, f1_BT_io_variable));
+    public void testStitchF1_BT_io_InSmallBlocks() throws Exception {
+        final String ncFileName = "F1_BT_io.nc";
+        final ImageSize targetImageSize = new ImageSize("io", 21687, 450, 6000, 900);
+        final ImageSize[] imageSizes = new ImageSize[1];
+        imageSizes[0] = new ImageSize("io", 23687, 450, 2000, 900);
+        final Date now = Calendar.getInstance().getTime();
+        final File[] ncFiles = new File[]{getSecondNcFile(ncFileName)};
 
-        final File met_tx_file = getFirstNcFile("met_tx.nc");
-        final NetcdfFile met_tx_netcdfFile = NetcdfFileOpener.open(met_tx_file);
-        assertNotNull(met_tx_netcdfFile);
-        final Variable u_wind_tx_variable = met_tx_netcdfFile.getVariables().get(11);
+        final File stitchedFile = NcFileStitcher.stitchNcFiles(ncFileName, targetDirectory, now, ncFiles,
+                                                               targetImageSize, imageSizes, 1024);
 
-        assertEquals(260000, NcFileStitcher.determineSectionSize(2, u_wind_tx_variable));
+        netcdfFile = NetcdfFileOpener.open(stitchedFile);
+        assertNotNull(netcdfFile);
+        final Variable variable = netcdfFile.findVariable("F1_BT_io");
+        final NetcdfFile inputFile = NetcdfFileOpener.open(ncFiles[0]);
+        assertNotNull(inputFile);
+        try {
+            final Array fileArray = inputFile.findVariable("F1_BT_io").read();
+            final Array stitchedArrayPart = variable.read(new Section(new int[]{2000, 0}, new int[]{2000, 900}));
+            assertArrayEquals((short[]) fileArray.copyTo1DJavaArray(), (short[]) stitchedArrayPart.copyTo1DJavaArray());
+            final Array filledRows = variable.read(new Section(new int[]{0, 0}, new int[]{2000, 900}));
+            for (int i = 0; i < filledRows.getSize(); i++) {
+                assertEquals(-32768, filledRows.getShort(i));
+            }
+        } finally {
+            inputFile.close();
+        }
     }
 
     static File[] getNcFiles(String fileName) throws URISyntaxException {
@@ -23,7 +23,9 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
@@ -77,6 +79,25 @@ public class SlstrPduStitcherTest {
         }
     }
 
+    @Test
+    public void testTransferFile() throws IOException {
+        final File source = new File(targetDirectory, "source.nc");
+        final byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.write(source.toPath(), content);
+
+        final File copy = new File(targetDirectory, "copy.nc");
+        SlstrPduStitcher.transferFile(source.toPath(), copy.toPath(), false);
+        assertArrayEquals(content, Files.readAllBytes(copy.toPath()));
+        assertFalse(Files.isSameFile(source.toPath(), copy.toPath()));
+
+        final File link = new File(targetDirectory, "link.nc");
+        SlstrPduStitcher.transferFile(source.toPath(), link.toPath(), true);
+        assertArrayEquals(content, Files.readAllBytes(link.toPath()));
+    }
+
     @Test
     public void testDecomposeSlstrName() throws URISyntaxException, PDUStitchingException {
         final SlstrPduStitcher.SlstrNameDecomposition firstSlstrNameDecomposition =